@@ -0,0 +1,95 @@
+package com.bofa.agentic.cache;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.document.MetadataMode;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptions;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.embedding.EmbeddingResponseMetadata;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * EmbeddingModel that answers from {@link EmbeddingCache} and sends only
+ * the texts it has not seen to the delegate
+ *
+ * A request whose texts are all cached makes no model call; otherwise one
+ * call carries the misses (each distinct text once) and its vectors are
+ * cached. Single documents are routed through {@link #call} as well.
+ */
+class CachingEmbeddingModel implements EmbeddingModel {
+
+	private final EmbeddingModel delegate;
+	private final ObjectProvider<EmbeddingCache> cache;
+
+	CachingEmbeddingModel(EmbeddingModel delegate, ObjectProvider<EmbeddingCache> cache) {
+		this.delegate = delegate;
+		this.cache = cache;
+	}
+
+	@Override
+	public EmbeddingResponse call(EmbeddingRequest request) {
+		EmbeddingCache embeddings = cache.getObject();
+		if (!embeddings.isEnabled()) {
+			return delegate.call(request);
+		}
+		EmbeddingOptions options = request.getOptions();
+		String model = embeddings.model(options != null ? options.getModel() : null);
+		int dimensions = embeddings.dimensions(options != null ? options.getDimensions() : null);
+
+		List<String> texts = request.getInstructions();
+		float[][] vectors = new float[texts.size()][];
+		Map<String, List<Integer>> missing = new LinkedHashMap<>();
+		for (int i = 0; i < texts.size(); i++) {
+			vectors[i] = embeddings.get(model, dimensions, texts.get(i));
+			if (vectors[i] == null) {
+				missing.computeIfAbsent(texts.get(i), text -> new ArrayList<>()).add(i);
+			}
+		}
+
+		EmbeddingResponseMetadata metadata = new EmbeddingResponseMetadata();
+		if (!missing.isEmpty()) {
+			List<String> misses = new ArrayList<>(missing.keySet());
+			EmbeddingResponse response = delegate.call(new EmbeddingRequest(misses, options));
+			List<float[]> embedded = new ArrayList<>(misses.size());
+			for (Embedding embedding : response.getResults()) {
+				embedded.add(embedding.getOutput());
+			}
+			if (embedded.size() != misses.size()) {
+				throw new IllegalStateException("Embedding model returned " + embedded.size()
+						+ " embeddings for " + misses.size() + " texts");
+			}
+			embeddings.putAll(model, dimensions, misses, embedded);
+			for (int i = 0; i < misses.size(); i++) {
+				for (int position : missing.get(misses.get(i))) {
+					vectors[position] = embedded.get(i);
+				}
+			}
+			if (response.getMetadata() != null) {
+				metadata = response.getMetadata();
+			}
+		}
+
+		List<Embedding> results = new ArrayList<>(vectors.length);
+		for (int i = 0; i < vectors.length; i++) {
+			results.add(new Embedding(vectors[i], i));
+		}
+		return new EmbeddingResponse(results, metadata);
+	}
+
+	@Override
+	public float[] embed(Document document) {
+		return embed(document.getFormattedContent(MetadataMode.EMBED));
+	}
+
+	@Override
+	public int dimensions() {
+		return delegate.dimensions();
+	}
+}
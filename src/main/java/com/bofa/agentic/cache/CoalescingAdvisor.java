@@ -0,0 +1,151 @@
+package com.bofa.agentic.cache;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.core.Ordered;
+
+import com.bofa.agentic.model.Deadline;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Joins a ChatClient's calls to identical ones already in flight
+ * (see {@link LlmCallCoalescer})
+ *
+ * The first caller leads: its call goes to the model. Streams are shared
+ * with replay, so a follower gets every token from the first, and the
+ * model call is only cancelled once every subscriber has cancelled; one
+ * caller's deadline or guard veto does not cut the others off. A blocking
+ * follower waits no longer than its own deadline allows.
+ */
+public class CoalescingAdvisor implements CallAdvisor, StreamAdvisor {
+
+	/**
+	 * Advisor context key for the caller's {@link Deadline}
+	 */
+	public static final String DEADLINE = "agentic.deadline";
+
+	private final String client;
+	private final LlmCallCoalescer coalescer;
+
+	CoalescingAdvisor(String client, LlmCallCoalescer coalescer) {
+		this.client = client;
+		this.coalescer = coalescer;
+	}
+
+	@Override
+	public ChatClientResponse adviseCall(ChatClientRequest request, CallAdvisorChain chain) {
+
+		String key = coalescer.keyOf(client, request.prompt());
+		if (key == null) {
+			return chain.nextCall(request);
+		}
+
+		CompletableFuture<ChatClientResponse> call = new CompletableFuture<>();
+		CompletableFuture<ChatClientResponse> inFlight = coalescer.join("call:" + key, call);
+		if (inFlight != call) {
+			coalescer.record(client, "follower");
+			return follow(inFlight, request, chain);
+		}
+
+		coalescer.record(client, "leader");
+		try {
+			ChatClientResponse response = chain.nextCall(request);
+			call.complete(response);
+			return response;
+		} catch (Throwable e) {
+			// Errors too, or the followers would wait on the call forever
+			call.completeExceptionally(e);
+			throw e;
+		} finally {
+			coalescer.done("call:" + key, call);
+		}
+	}
+
+	@Override
+	public Flux<ChatClientResponse> adviseStream(ChatClientRequest request, StreamAdvisorChain chain) {
+
+		return Flux.defer(() -> {
+			String key = coalescer.keyOf(client, request.prompt());
+			if (key == null) {
+				return chain.nextStream(request);
+			}
+
+			String streamKey = "stream:" + key;
+			AtomicReference<Flux<ChatClientResponse>> self = new AtomicReference<>();
+			// Leave the in-flight map before subscribers see the end of the
+			// stream, so a caller that has finished never finds it still there
+			Flux<ChatClientResponse> stream = Flux.defer(() -> chain.nextStream(request))
+					.doOnTerminate(() -> coalescer.done(streamKey, self.get()))
+					.doOnCancel(() -> coalescer.done(streamKey, self.get()))
+					.replay()
+					.refCount();
+			self.set(stream);
+
+			Flux<ChatClientResponse> inFlight = coalescer.join(streamKey, stream);
+			if (inFlight != stream) {
+				coalescer.record(client, "follower");
+				return inFlight.map(response -> withContext(response, request));
+			}
+			coalescer.record(client, "leader");
+			return stream;
+		});
+	}
+
+	private ChatClientResponse follow(CompletableFuture<ChatClientResponse> inFlight, ChatClientRequest request,
+			CallAdvisorChain chain) {
+
+		Deadline deadline = request.context().get(DEADLINE) instanceof Deadline given ? given : Deadline.none();
+		Duration wait = deadline.isBounded() && deadline.remaining().compareTo(coalescer.maxWait()) < 0
+				? deadline.remaining()
+				: coalescer.maxWait();
+		try {
+			return withContext(inFlight.get(wait.toMillis(), TimeUnit.MILLISECONDS), request);
+		} catch (TimeoutException e) {
+			if (deadline.isExpired()) {
+				throw deadline.exceeded("coalesced " + client + " call");
+			}
+			// The leader is stuck, but this caller still has time for its own call
+			coalescer.record(client, "fallback");
+			return chain.nextCall(request);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted waiting for a coalesced " + client + " call", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof Error error) {
+				throw error;
+			}
+			throw e.getCause() instanceof RuntimeException cause ? cause : new CompletionException(e.getCause());
+		}
+	}
+
+	// Followers see their own advisor context, not the leader's
+	private static ChatClientResponse withContext(ChatClientResponse response, ChatClientRequest request) {
+		return new ChatClientResponse(response.chatResponse(), request.context());
+	}
+
+	@Override
+	public String getName() {
+		return "CoalescingAdvisor";
+	}
+
+	// Inside PromptCacheAdvisor (hits never wait) and outside LlmMetricsAdvisor
+	// (followers are not counted as model calls)
+	@Override
+	public int getOrder() {
+		return Ordered.LOWEST_PRECEDENCE - 150;
+	}
+
+}
@@ -0,0 +1,385 @@
+package com.bofa.agentic.cache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Content-addressed store of embeddings, persisted in a memory-mapped file
+ * so a restart does not re-embed the corpus
+ *
+ * Keyed by a SHA-256 of the embedding model, the requested dimensions and
+ * the text, so a hit is the vector the model would return again. Consulted
+ * for every EmbeddingModel call (EmbeddingService, RAG search and indexing)
+ * through {@link CachingEmbeddingModel}.
+ *
+ * Only embeddings computed inside {@link #persisting} (the indexing
+ * pipeline) go to the file; the rest, i.e. queries, are kept in an LRU of
+ * agentic.embedding.cache.query-entries in memory, so user text neither
+ * fills the file nor waits on it. The file is forced to disk by
+ * {@link #flush}, once per sync, and on close.
+ *
+ * File layout: {@code [int magic][int version]} then records of
+ * {@code [int dimensions][int crc32][32-byte key][float * dimensions]},
+ * append-only; a zero dimensions field marks the end. The index of key to
+ * offset is rebuilt by scanning the file on startup, stopping at the first
+ * torn record. The mapping starts at agentic.embedding.cache.capacity-mb
+ * and doubles when full, up to max-size-mb; past that new vectors are not
+ * cached. Entries never expire: an embedding of unchanged text stays valid.
+ * One process per file.
+ *
+ * Metrics: agentic.embedding.cache (outcome=hit|miss),
+ * agentic.embedding.cache.size and agentic.embedding.cache.bytes.
+ */
+@Component
+public class EmbeddingCache {
+
+	private static final Logger log = LoggerFactory.getLogger(EmbeddingCache.class);
+
+	private static final int MAGIC = 0x454D4243; // "EMBC"
+	private static final int VERSION = 1;
+	private static final int FILE_HEADER_BYTES = 8;
+	private static final int KEY_BYTES = 32;
+	private static final int RECORD_HEADER_BYTES = 8 + KEY_BYTES;
+	private static final long MB = 1024 * 1024;
+
+	private final boolean enabled;
+	private final String model;
+	private final int dimensions;
+	private final Path path;
+	private final long maxBytes;
+	private final Counter hits;
+	private final Counter misses;
+
+	// Set on threads writing the index, whose embeddings are persisted
+	private static final ThreadLocal<Boolean> PERSISTING = ThreadLocal.withInitial(() -> false);
+
+	// Key to vector, for embeddings not persisted; guarded by itself
+	private final Map<String, float[]> queries;
+
+	// Key (hex SHA-256) to record offset; written after the record is complete
+	private final Map<String, Integer> index = new ConcurrentHashMap<>();
+	private FileChannel channel;
+	private volatile MappedByteBuffer buffer;
+	private volatile int end;
+	private boolean full;
+	private boolean closed;
+
+	/**
+	 * @param model      Identity of the configured embedding model; part of every key
+	 * @param dimensions Configured output dimensions, 0 for the model's own
+	 */
+	public EmbeddingCache(MeterRegistry meterRegistry,
+			@Value("${agentic.embedding.cache.enabled:true}") boolean enabled,
+			@Value("${agentic.embedding.cache.model:${spring.ai.openai.embedding.options.model:}}") String model,
+			@Value("${spring.ai.openai.embedding.options.dimensions:0}") int dimensions,
+			@Value("${agentic.embedding.cache.path:./data/embeddings.bin}") String path,
+			@Value("${agentic.embedding.cache.capacity-mb:16}") int capacityMb,
+			@Value("${agentic.embedding.cache.max-size-mb:1024}") int maxSizeMb,
+			@Value("${agentic.embedding.cache.query-entries:1000}") int queryEntries) throws IOException {
+		if (capacityMb < 1 || maxSizeMb < capacityMb || maxSizeMb > 2047) {
+			throw new IllegalStateException("agentic.embedding.cache needs 1 <= capacity-mb <= max-size-mb <= 2047");
+		}
+		this.queries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+				return size() > queryEntries;
+			}
+		};
+		this.enabled = enabled;
+		this.model = model;
+		this.dimensions = Math.max(0, dimensions);
+		this.path = Path.of(path);
+		this.maxBytes = maxSizeMb * MB;
+		this.hits = Counter.builder("agentic.embedding.cache")
+				.description("Embedding lookups served from or missing the cache")
+				.tag("outcome", "hit")
+				.register(meterRegistry);
+		this.misses = Counter.builder("agentic.embedding.cache")
+				.description("Embedding lookups served from or missing the cache")
+				.tag("outcome", "miss")
+				.register(meterRegistry);
+		if (!enabled) {
+			return;
+		}
+
+		Path parent = this.path.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		long existing = Files.exists(this.path) ? Files.size(this.path) : 0;
+		open(Math.min(maxBytes, Math.max(capacityMb * MB, existing)));
+		recover();
+
+		Gauge.builder("agentic.embedding.cache.size", index, Map::size)
+				.description("Embeddings held in the cache file")
+				.register(meterRegistry);
+		Gauge.builder("agentic.embedding.cache.bytes", this, cache -> cache.end)
+				.description("Bytes of the cache file in use")
+				.baseUnit("bytes")
+				.register(meterRegistry);
+		log.info("Embedding cache {}: {} embeddings ({} bytes) for model '{}'", this.path, index.size(), end, model);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Model identity for a call, request options overriding the configuration
+	 */
+	String model(String requested) {
+		return requested != null && !requested.isBlank() ? requested : model;
+	}
+
+	int dimensions(Integer requested) {
+		return requested != null ? requested : dimensions;
+	}
+
+	/**
+	 * Cached embedding of {@code text}, or null
+	 */
+	public float[] get(String model, int dimensions, String text) {
+		if (!enabled) {
+			misses.increment();
+			return null;
+		}
+		String key = key(model, dimensions, text);
+		Integer offset = index.get(key);
+		if (offset == null) {
+			float[] query;
+			synchronized (queries) {
+				query = queries.get(key);
+			}
+			if (query == null) {
+				misses.increment();
+				return null;
+			}
+			hits.increment();
+			return query.clone();
+		}
+		MappedByteBuffer mapped = buffer;
+		float[] vector = new float[mapped.getInt(offset)];
+		mapped.slice(offset + RECORD_HEADER_BYTES, vector.length * Float.BYTES).asFloatBuffer().get(vector);
+		hits.increment();
+		return vector;
+	}
+
+	/**
+	 * Store embeddings of {@code texts} (same order): in the file when called
+	 * inside {@link #persisting}, else in memory
+	 */
+	public void putAll(String model, int dimensions, List<String> texts, List<float[]> vectors) {
+		if (!enabled) {
+			return;
+		}
+		if (!PERSISTING.get()) {
+			synchronized (queries) {
+				for (int i = 0; i < texts.size(); i++) {
+					queries.put(key(model, dimensions, texts.get(i)), vectors.get(i).clone());
+				}
+			}
+			return;
+		}
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+			for (int i = 0; i < texts.size(); i++) {
+				String key = key(model, dimensions, texts.get(i));
+				if (!index.containsKey(key)) {
+					append(key, vectors.get(i));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Run {@code write} with the embeddings it computes on this thread
+	 * persisted to the file; for indexing, whose texts recur across restarts
+	 */
+	public static void persisting(Runnable write) {
+		boolean outer = PERSISTING.get();
+		PERSISTING.set(true);
+		try {
+			write.run();
+		} finally {
+			PERSISTING.set(outer);
+		}
+	}
+
+	/**
+	 * Force the embeddings persisted so far to disk
+	 */
+	public synchronized void flush() {
+		if (enabled && !closed) {
+			buffer.force();
+		}
+	}
+
+	public long hits() {
+		return (long) hits.count();
+	}
+
+	public long misses() {
+		return (long) misses.count();
+	}
+
+	static String key(String model, int dimensions, String text) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			update(digest, model);
+			update(digest, Integer.toString(dimensions));
+			update(digest, text);
+			return HexFormat.of().formatHex(digest.digest());
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 unavailable", e);
+		}
+	}
+
+	private static void update(MessageDigest digest, String value) {
+		byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+		// Length-prefixed so field boundaries are unambiguous
+		digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) ':');
+		digest.update(bytes);
+	}
+
+	// ------------------------------------------------------------------
+	// File
+	// ------------------------------------------------------------------
+
+	private boolean append(String key, float[] vector) {
+		int length = RECORD_HEADER_BYTES + vector.length * Float.BYTES;
+		// Room for the record and the end marker after it
+		if (!ensureCapacity((long) end + length + Integer.BYTES)) {
+			return false;
+		}
+		MappedByteBuffer mapped = buffer;
+		int offset = end;
+		mapped.put(offset + 8, HexFormat.of().parseHex(key));
+		mapped.slice(offset + RECORD_HEADER_BYTES, vector.length * Float.BYTES).asFloatBuffer().put(vector);
+		mapped.putInt(offset + length, 0);
+		mapped.putInt(offset + 4, checksum(mapped, offset, length));
+		// Dimensions last: until then the record reads as the end of the file
+		mapped.putInt(offset, vector.length);
+		end = offset + length;
+		index.put(key, offset);
+		return true;
+	}
+
+	private boolean ensureCapacity(long needed) {
+		if (needed <= buffer.capacity()) {
+			return true;
+		}
+		if (needed > maxBytes) {
+			if (!full) {
+				full = true;
+				log.warn("Embedding cache {} reached max-size-mb ({} embeddings); new embeddings are not cached",
+						path, index.size());
+			}
+			return false;
+		}
+		long size = buffer.capacity();
+		while (size < needed) {
+			size *= 2;
+		}
+		try {
+			// The old mapping stays valid for readers still holding it
+			buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(size, maxBytes));
+			return true;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to grow embedding cache " + path, e);
+		}
+	}
+
+	private void open(long size) throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+		this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+	}
+
+	/**
+	 * Rebuild the index from the file, truncating at the first torn record
+	 */
+	private void recover() {
+		MappedByteBuffer mapped = buffer;
+		if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION) {
+			if (mapped.getInt(0) != 0) {
+				log.warn("Unrecognised embedding cache {}; starting empty", path);
+			}
+			mapped.putInt(0, MAGIC);
+			mapped.putInt(4, VERSION);
+			mapped.putInt(FILE_HEADER_BYTES, 0);
+			mapped.force();
+			end = FILE_HEADER_BYTES;
+			return;
+		}
+
+		int offset = FILE_HEADER_BYTES;
+		while (offset + RECORD_HEADER_BYTES <= mapped.capacity()) {
+			int count = mapped.getInt(offset);
+			long length = RECORD_HEADER_BYTES + (long) count * Float.BYTES;
+			if (count <= 0 || offset + length > mapped.capacity()) {
+				break;
+			}
+			if (mapped.getInt(offset + 4) != checksum(mapped, offset, (int) length)) {
+				log.warn("Torn embedding cache record at offset {} in {}; truncating", offset, path);
+				break;
+			}
+			byte[] key = new byte[KEY_BYTES];
+			mapped.get(offset + 8, key);
+			index.put(HexFormat.of().formatHex(key), offset);
+			offset += (int) length;
+		}
+		if (offset + Integer.BYTES <= mapped.capacity()) {
+			mapped.putInt(offset, 0);
+		}
+		end = offset;
+	}
+
+	// Over the key and the vector
+	private static int checksum(ByteBuffer mapped, int offset, int length) {
+		CRC32 crc = new CRC32();
+		crc.update(mapped.slice(offset + 8, length - 8));
+		return (int) crc.getValue();
+	}
+
+	@PreDestroy
+	public synchronized void close() {
+		if (!enabled || closed) {
+			return;
+		}
+		closed = true;
+		try {
+			buffer.force();
+			channel.close();
+		} catch (IOException e) {
+			log.warn("Failed to close embedding cache {}", path, e);
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package com.bofa.agentic.cache;
+
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Puts {@link EmbeddingCache} in front of the EmbeddingModel bean, so the
+ * vector store's indexing and search calls are served from it as well
+ */
+@Configuration
+public class EmbeddingCacheConfig {
+
+	// Static, and the cache resolved lazily: post-processors are created before other beans.
+	// Declared as the concrete type so Spring sees it is Ordered when sorting post-processors
+	@Bean
+	public static CachingPostProcessor cachingEmbeddingModel(ObjectProvider<EmbeddingCache> cache) {
+		return new CachingPostProcessor(cache);
+	}
+
+	// Runs after the limiter's post-processor, so the cache wraps the limited
+	// model and a hit takes no limiter slot or tokens
+	static final class CachingPostProcessor implements BeanPostProcessor, Ordered {
+
+		private final ObjectProvider<EmbeddingCache> cache;
+
+		private CachingPostProcessor(ObjectProvider<EmbeddingCache> cache) {
+			this.cache = cache;
+		}
+
+		@Override
+		public Object postProcessAfterInitialization(Object bean, String beanName) {
+			if (bean instanceof EmbeddingModel model && !(bean instanceof CachingEmbeddingModel)) {
+				return new CachingEmbeddingModel(model, cache);
+			}
+			return bean;
+		}
+
+		@Override
+		public int getOrder() {
+			return Ordered.LOWEST_PRECEDENCE;
+		}
+	}
+}
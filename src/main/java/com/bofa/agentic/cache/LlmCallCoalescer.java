@@ -0,0 +1,96 @@
+package com.bofa.agentic.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Single-flight for LLM calls, shared by the ChatClients that add its
+ * {@link #advisor(String)}
+ *
+ * While a prompt is in flight, an identical prompt (same {@link PromptDigest})
+ * joins it instead of calling the model again; a streamed completion is
+ * replayed from its first token to callers that join late. This is for
+ * bursts of the same question (an alert firing, everyone asking about it);
+ * unlike {@link PromptCache} it also applies at non-zero temperature, since
+ * the callers asked at the same moment.
+ *
+ * A caller waits for the in-flight call until its deadline (advisor context
+ * {@link CoalescingAdvisor#DEADLINE}), at most agentic.llm.coalescing.max-wait-ms;
+ * with time left after that, it makes its own call.
+ *
+ * Metrics: agentic.llm.coalescing (client, role=leader|follower|fallback)
+ * and agentic.llm.in-flight.
+ */
+@Component
+public class LlmCallCoalescer {
+
+	private final ChatOptions modelDefaults;
+	private final MeterRegistry meterRegistry;
+	private final boolean enabled;
+	private final Duration maxWait;
+	private final Map<String, Object> inFlight = new ConcurrentHashMap<>();
+
+	public LlmCallCoalescer(ChatModel chatModel, MeterRegistry meterRegistry,
+			@Value("${agentic.llm.coalescing.enabled:true}") boolean enabled,
+			@Value("${agentic.llm.coalescing.max-wait-ms:30000}") long maxWaitMs) {
+		this.modelDefaults = chatModel.getDefaultOptions();
+		this.meterRegistry = meterRegistry;
+		this.enabled = enabled;
+		this.maxWait = Duration.ofMillis(maxWaitMs);
+		meterRegistry.gaugeMapSize("agentic.llm.in-flight", List.of(), inFlight);
+	}
+
+	/**
+	 * Advisor that coalesces one ChatClient's calls
+	 *
+	 * @param client Tag identifying the caller, e.g. "planner" or "composer"
+	 */
+	public CoalescingAdvisor advisor(String client) {
+		return new CoalescingAdvisor(client, this);
+	}
+
+	/**
+	 * Key of a prompt for joining in-flight calls, or null to never coalesce
+	 */
+	String keyOf(String client, Prompt prompt) {
+		return enabled ? client + ":" + PromptDigest.of(prompt, modelDefaults) : null;
+	}
+
+	/**
+	 * The in-flight call for {@code key}, or {@code call} after registering
+	 * it as the in-flight one
+	 */
+	@SuppressWarnings("unchecked")
+	<T> T join(String key, T call) {
+		Object existing = inFlight.putIfAbsent(key, call);
+		return existing != null ? (T) existing : call;
+	}
+
+	Duration maxWait() {
+		return maxWait;
+	}
+
+	void done(String key, Object call) {
+		inFlight.remove(key, call);
+	}
+
+	void record(String client, String role) {
+		Counter.builder("agentic.llm.coalescing")
+				.description("LLM calls by whether they led or joined an identical in-flight call")
+				.tag("client", client)
+				.tag("role", role)
+				.register(meterRegistry)
+				.increment();
+	}
+}
@@ -0,0 +1,200 @@
+package com.bofa.agentic.cache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Exact-match cache of LLM completions, shared by the ChatClients that add
+ * its {@link #advisor(String)}
+ *
+ * Keyed by a SHA-256 of the model, the sampling options and every rendered
+ * message, so a hit is a completion the model would have been asked for
+ * again verbatim. Only deterministic calls are cached: temperature at most
+ * agentic.llm.cache.max-temperature (0 by default).
+ *
+ * Least recently used entries are evicted beyond agentic.llm.cache.max-entries
+ * and entries expire after agentic.llm.cache.ttl-minutes. If
+ * agentic.llm.cache.file is set, live entries are saved there on shutdown
+ * and loaded on startup.
+ *
+ * Metrics: agentic.llm.cache (client, outcome=hit|miss|bypass) and
+ * agentic.llm.cache.size.
+ */
+@Component
+public class PromptCache {
+
+	private static final Logger log = LoggerFactory.getLogger(PromptCache.class);
+
+	record Entry(String text, long createdAtMillis) {
+	}
+
+	private final ChatOptions modelDefaults;
+	private final ObjectMapper objectMapper;
+	private final MeterRegistry meterRegistry;
+	private final boolean enabled;
+	private final double maxTemperature;
+	private final long ttlMillis;
+	private final Path file;
+	private final Map<String, Entry> entries;
+
+	public PromptCache(ChatModel chatModel, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+			@Value("${agentic.llm.cache.enabled:true}") boolean enabled,
+			@Value("${agentic.llm.cache.max-temperature:0.0}") double maxTemperature,
+			@Value("${agentic.llm.cache.max-entries:5000}") int maxEntries,
+			@Value("${agentic.llm.cache.ttl-minutes:60}") long ttlMinutes,
+			@Value("${agentic.llm.cache.file:}") String file) {
+		this.modelDefaults = chatModel.getDefaultOptions();
+		this.objectMapper = objectMapper;
+		this.meterRegistry = meterRegistry;
+		this.enabled = enabled;
+		this.maxTemperature = maxTemperature;
+		this.ttlMillis = Duration.ofMinutes(ttlMinutes).toMillis();
+		this.file = file.isBlank() ? null : Path.of(file);
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	// After construction, so neither the gauge nor loading sees a partly built cache
+	@PostConstruct
+	public void start() {
+		meterRegistry.gauge("agentic.llm.cache.size", this, PromptCache::size);
+		load();
+	}
+
+	/**
+	 * Advisor that serves and fills this cache for one ChatClient
+	 *
+	 * @param client Tag identifying the caller, e.g. "planner" or "composer"
+	 */
+	public PromptCacheAdvisor advisor(String client) {
+		return new PromptCacheAdvisor(client, this);
+	}
+
+	/**
+	 * Cache key of a prompt, or null if it must not be cached
+	 */
+	String keyOf(Prompt prompt) {
+		if (!enabled) {
+			return null;
+		}
+		ChatOptions options = prompt.getOptions();
+		Double temperature = PromptDigest.option(options, modelDefaults, ChatOptions::getTemperature);
+		if (temperature == null || temperature > maxTemperature) {
+			return null;
+		}
+
+		return PromptDigest.of(prompt, modelDefaults);
+	}
+
+	synchronized String get(String key) {
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			return null;
+		}
+		if (isExpired(entry, System.currentTimeMillis())) {
+			entries.remove(key);
+			return null;
+		}
+		return entry.text();
+	}
+
+	synchronized void put(String key, String text) {
+		entries.put(key, new Entry(text, System.currentTimeMillis()));
+	}
+
+	synchronized int size() {
+		return entries.size();
+	}
+
+	void record(String client, String outcome) {
+		Counter.builder("agentic.llm.cache")
+				.description("LLM prompt cache lookups")
+				.tag("client", client)
+				.tag("outcome", outcome)
+				.register(meterRegistry)
+				.increment();
+	}
+
+	/**
+	 * Save live entries for the next start, least recently used first so
+	 * loading them back preserves the eviction order
+	 */
+	@PreDestroy
+	public void save() {
+		if (file == null) {
+			return;
+		}
+		Map<String, Entry> live;
+		long now = System.currentTimeMillis();
+		synchronized (this) {
+			live = new LinkedHashMap<>();
+			entries.forEach((key, entry) -> {
+				if (!isExpired(entry, now)) {
+					live.put(key, entry);
+				}
+			});
+		}
+		try {
+			Path parent = file.toAbsolutePath().getParent();
+			Files.createDirectories(parent);
+			Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+			objectMapper.writeValue(tmp.toFile(), live);
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			log.info("Saved {} prompt cache entries to {}", live.size(), file);
+		} catch (IOException e) {
+			log.warn("Failed to save prompt cache to {}: {}", file, e.getMessage());
+		}
+	}
+
+	private void load() {
+		if (file == null || !Files.exists(file)) {
+			return;
+		}
+		try {
+			Map<String, Entry> saved = objectMapper.readValue(file.toFile(),
+					new TypeReference<LinkedHashMap<String, Entry>>() {});
+			long now = System.currentTimeMillis();
+			int loaded = 0;
+			synchronized (this) {
+				for (Map.Entry<String, Entry> entry : saved.entrySet()) {
+					if (!isExpired(entry.getValue(), now)) {
+						entries.put(entry.getKey(), entry.getValue());
+						loaded++;
+					}
+				}
+			}
+			log.info("Loaded {} prompt cache entries from {} ({} expired)", loaded, file, saved.size() - loaded);
+		} catch (IOException e) {
+			log.warn("Ignoring unreadable prompt cache file {}: {}", file, e.getMessage());
+		}
+	}
+
+	private boolean isExpired(Entry entry, long nowMillis) {
+		return nowMillis - entry.createdAtMillis() > ttlMillis;
+	}
+}
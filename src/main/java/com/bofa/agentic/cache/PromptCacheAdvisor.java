@@ -0,0 +1,116 @@
+package com.bofa.agentic.cache;
+
+import java.util.List;
+
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.core.Ordered;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Serves a ChatClient's deterministic calls from {@link PromptCache}
+ *
+ * A hit returns the cached completion as a single response (one chunk when
+ * streaming) without calling the model. A miss is stored once the model's
+ * answer is complete; streams that are cancelled (deadline, guard veto) or
+ * fail are not stored.
+ */
+public class PromptCacheAdvisor implements CallAdvisor, StreamAdvisor {
+
+	private final String client;
+	private final PromptCache cache;
+
+	PromptCacheAdvisor(String client, PromptCache cache) {
+		this.client = client;
+		this.cache = cache;
+	}
+
+	@Override
+	public ChatClientResponse adviseCall(ChatClientRequest request, CallAdvisorChain chain) {
+
+		String key = cache.keyOf(request.prompt());
+		if (key == null) {
+			cache.record(client, "bypass");
+			return chain.nextCall(request);
+		}
+		String cached = cache.get(key);
+		if (cached != null) {
+			cache.record(client, "hit");
+			return cachedResponse(request, cached);
+		}
+
+		cache.record(client, "miss");
+		ChatClientResponse response = chain.nextCall(request);
+		String text = textOf(response);
+		if (text != null && !text.isEmpty()) {
+			cache.put(key, text);
+		}
+		return response;
+	}
+
+	@Override
+	public Flux<ChatClientResponse> adviseStream(ChatClientRequest request, StreamAdvisorChain chain) {
+
+		return Flux.defer(() -> {
+			String key = cache.keyOf(request.prompt());
+			if (key == null) {
+				cache.record(client, "bypass");
+				return chain.nextStream(request);
+			}
+			String cached = cache.get(key);
+			if (cached != null) {
+				cache.record(client, "hit");
+				return Flux.just(cachedResponse(request, cached));
+			}
+
+			cache.record(client, "miss");
+			StringBuilder text = new StringBuilder();
+			return chain.nextStream(request)
+					.doOnNext(response -> {
+						String chunk = textOf(response);
+						if (chunk != null) {
+							text.append(chunk);
+						}
+					})
+					.doOnComplete(() -> {
+						if (!text.isEmpty()) {
+							cache.put(key, text.toString());
+						}
+					});
+		});
+	}
+
+	private static ChatClientResponse cachedResponse(ChatClientRequest request, String text) {
+		ChatResponse chatResponse = new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+		return new ChatClientResponse(chatResponse, request.context());
+	}
+
+	private static String textOf(ChatClientResponse response) {
+		ChatResponse chatResponse = response != null ? response.chatResponse() : null;
+		if (chatResponse == null || chatResponse.getResult() == null
+				|| chatResponse.getResult().getOutput() == null) {
+			return null;
+		}
+		return chatResponse.getResult().getOutput().getText();
+	}
+
+	@Override
+	public String getName() {
+		return "PromptCacheAdvisor";
+	}
+
+	// Outside LlmMetricsAdvisor, so hits are not counted as model calls
+	@Override
+	public int getOrder() {
+		return Ordered.LOWEST_PRECEDENCE - 200;
+	}
+
+}
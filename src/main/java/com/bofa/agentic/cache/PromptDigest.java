@@ -0,0 +1,63 @@
+package com.bofa.agentic.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.function.Function;
+
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+/**
+ * SHA-256 identity of a prompt: the model, the sampling options and every
+ * rendered message, so two prompts with the same digest would be sent to
+ * the model verbatim
+ */
+final class PromptDigest {
+
+	private PromptDigest() {
+		// Prevent instantiation
+	}
+
+	/**
+	 * @param modelDefaults The model's default options, which request options override
+	 */
+	static String of(Prompt prompt, ChatOptions modelDefaults) {
+		ChatOptions options = prompt.getOptions();
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			update(digest, option(options, modelDefaults, ChatOptions::getModel));
+			update(digest, option(options, modelDefaults, ChatOptions::getTemperature));
+			update(digest, option(options, modelDefaults, ChatOptions::getTopP));
+			update(digest, option(options, modelDefaults, ChatOptions::getTopK));
+			update(digest, option(options, modelDefaults, ChatOptions::getMaxTokens));
+			update(digest, option(options, modelDefaults, ChatOptions::getFrequencyPenalty));
+			update(digest, option(options, modelDefaults, ChatOptions::getPresencePenalty));
+			update(digest, option(options, modelDefaults, ChatOptions::getStopSequences));
+			for (Message message : prompt.getInstructions()) {
+				update(digest, message.getMessageType());
+				update(digest, message.getText());
+			}
+			return HexFormat.of().formatHex(digest.digest());
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 unavailable", e);
+		}
+	}
+
+	// Request options override the model's defaults, as in the model call
+	static <T> T option(ChatOptions options, ChatOptions modelDefaults, Function<ChatOptions, T> getter) {
+		T value = options != null ? getter.apply(options) : null;
+		return value != null || modelDefaults == null ? value : getter.apply(modelDefaults);
+	}
+
+	private static void update(MessageDigest digest, Object value) {
+		byte[] bytes = Objects.toString(value, "\u0000null").getBytes(StandardCharsets.UTF_8);
+		// Length-prefixed so field boundaries are unambiguous
+		digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) ':');
+		digest.update(bytes);
+	}
+}
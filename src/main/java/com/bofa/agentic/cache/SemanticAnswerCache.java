@@ -0,0 +1,227 @@
+package com.bofa.agentic.cache;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.MatchResult;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.bofa.agentic.orchestrator.PlanClassifier;
+import com.bofa.agentic.rag.EmbeddingService;
+import com.bofa.agentic.util.VectorMath;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Guard-passed answers keyed by the meaning of the question
+ *
+ * A question whose embedding is within agentic.answer-cache.similarity-threshold
+ * (cosine) of one the same user asked before gets that answer without
+ * running the graph. Both questions must also name the same ticket keys
+ * ({@link PlanClassifier#ISSUE_KEY}): "INC-1234" and "INC-1235" embed almost
+ * alike. Requests without a userId are neither served nor stored. Entries
+ * live for agentic.answer-cache.ttl-minutes and are all dropped when the
+ * knowledge base is re-indexed ({@link #invalidateAll()}).
+ *
+ * Bounded to agentic.answer-cache.max-entries, oldest evicted first, so
+ * memory is about max-entries x dimensions x 4 bytes (6 MB for 1,000
+ * 1536-dimension embeddings). Lookup is a linear scan, which at that size
+ * costs far less than the embedding call in front of it.
+ *
+ * Metrics: agentic.answer-cache.lookups (outcome=hit|miss|error),
+ * agentic.answer-cache.lookup (latency) and agentic.answer-cache.saved
+ * (graph time the hit's original answer took, i.e. latency saved).
+ */
+@Component
+public class SemanticAnswerCache {
+
+	private static final Logger log = LoggerFactory.getLogger(SemanticAnswerCache.class);
+
+	/**
+	 * Result of {@link #lookup}: the cached answer, or what {@link #put}
+	 * needs to store the answer once it has been computed
+	 */
+	public record Lookup(String answer, float[] embedding, long generation, String userId, Set<String> issueKeys) {
+
+		static final Lookup NONE = new Lookup(null, null, -1, null, Set.of());
+
+		public boolean isHit() {
+			return answer != null;
+		}
+	}
+
+	private record Entry(String userId, Set<String> issueKeys, String answer, long createdAtNanos,
+			long computeMillis, long generation) {
+	}
+
+	private final EmbeddingService embeddingService;
+	private final MeterRegistry meterRegistry;
+	private final boolean enabled;
+	private final double similarityThreshold;
+	private final long ttlNanos;
+	private final Timer lookupTimer;
+	private final Timer savedTimer;
+
+	// Ring buffer: slot (head + i) % capacity holds the i-th oldest entry
+	private final float[][] vectors;
+	private final Entry[] entries;
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final AtomicLong generation = new AtomicLong();
+	private int head;
+	private int size;
+
+	public SemanticAnswerCache(EmbeddingService embeddingService, MeterRegistry meterRegistry,
+			@Value("${agentic.answer-cache.enabled:true}") boolean enabled,
+			@Value("${agentic.answer-cache.similarity-threshold:0.95}") double similarityThreshold,
+			@Value("${agentic.answer-cache.ttl-minutes:10}") long ttlMinutes,
+			@Value("${agentic.answer-cache.max-entries:1000}") int maxEntries) {
+		this.embeddingService = embeddingService;
+		this.meterRegistry = meterRegistry;
+		this.enabled = enabled;
+		this.similarityThreshold = similarityThreshold;
+		this.ttlNanos = Duration.ofMinutes(ttlMinutes).toNanos();
+		this.vectors = new float[Math.max(1, maxEntries)][];
+		this.entries = new Entry[Math.max(1, maxEntries)];
+		this.lookupTimer = Timer.builder("agentic.answer-cache.lookup")
+				.description("Semantic answer cache lookup latency, embedding included")
+				.register(meterRegistry);
+		this.savedTimer = Timer.builder("agentic.answer-cache.saved")
+				.description("Graph execution time avoided by cache hits")
+				.register(meterRegistry);
+		meterRegistry.gauge("agentic.answer-cache.size", this, cache -> cache.size);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Nearest live answer to {@code userId}'s earlier questions, if similar
+	 * enough. Blocks on the embedding call; a failed call, or a request
+	 * without a user, is a miss that cannot be stored.
+	 */
+	public Lookup lookup(String userId, String query) {
+		if (userId == null || userId.isBlank()) {
+			return Lookup.NONE;
+		}
+		long start = System.nanoTime();
+		Set<String> issueKeys = issueKeys(query);
+		long currentGeneration = generation.get();
+		float[] embedding;
+		try {
+			embedding = VectorMath.normalize(embeddingService.embed(query));
+		} catch (RuntimeException e) {
+			log.warn("Answer cache lookup failed: {}", e.getMessage());
+			count("error");
+			return Lookup.NONE;
+		}
+
+		Entry best = null;
+		double bestScore = similarityThreshold;
+		long now = System.nanoTime();
+		lock.readLock().lock();
+		try {
+			for (int i = 0; i < size; i++) {
+				int slot = (head + i) % entries.length;
+				Entry entry = entries[slot];
+				if (entry.generation() != currentGeneration || now - entry.createdAtNanos() > ttlNanos
+						|| !entry.userId().equals(userId) || !entry.issueKeys().equals(issueKeys)) {
+					continue;
+				}
+				double score = VectorMath.dot(embedding, vectors[slot]);
+				if (score >= bestScore) {
+					bestScore = score;
+					best = entry;
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		lookupTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+		if (best == null) {
+			count("miss");
+			return new Lookup(null, embedding, currentGeneration, userId, issueKeys);
+		}
+		count("hit");
+		savedTimer.record(best.computeMillis(), TimeUnit.MILLISECONDS);
+		log.debug("Answer cache hit (similarity {})", String.format("%.3f", bestScore));
+		return new Lookup(best.answer(), embedding, currentGeneration, userId, issueKeys);
+	}
+
+	/**
+	 * Store a guard-passed answer for the lookup's user; ignored if the index
+	 * changed since the lookup, since the answer may rest on evidence that is
+	 * gone. Callers must not store answers built from tool results, which are
+	 * live data rather than knowledge-base content.
+	 *
+	 * @param computeMillis How long the graph took to produce it
+	 */
+	public void put(Lookup lookup, String answer, long computeMillis) {
+		if (lookup.embedding() == null || answer == null || answer.isBlank()
+				|| lookup.generation() != generation.get()) {
+			return;
+		}
+		Entry entry = new Entry(Objects.requireNonNull(lookup.userId()), lookup.issueKeys(), answer,
+				System.nanoTime(), computeMillis, lookup.generation());
+		lock.writeLock().lock();
+		try {
+			int slot;
+			if (size < entries.length) {
+				slot = (head + size) % entries.length;
+				size++;
+			} else {
+				// Full: overwrite the oldest
+				slot = head;
+				head = (head + 1) % entries.length;
+			}
+			entries[slot] = entry;
+			vectors[slot] = lookup.embedding();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Drop every answer, e.g. after the knowledge base changed
+	 */
+	public void invalidateAll() {
+		generation.incrementAndGet();
+		lock.writeLock().lock();
+		try {
+			Arrays.fill(entries, null);
+			Arrays.fill(vectors, null);
+			head = 0;
+			size = 0;
+		} finally {
+			lock.writeLock().unlock();
+		}
+		log.info("Answer cache invalidated");
+	}
+
+	private static Set<String> issueKeys(String query) {
+		return PlanClassifier.ISSUE_KEY.matcher(query).results()
+				.map(MatchResult::group)
+				.collect(Collectors.toUnmodifiableSet());
+	}
+
+	private void count(String outcome) {
+		Counter.builder("agentic.answer-cache.lookups")
+				.description("Semantic answer cache lookups")
+				.tag("outcome", outcome)
+				.register(meterRegistry)
+				.increment();
+	}
+}
@@ -0,0 +1,23 @@
+package com.bofa.agentic.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.bofa.agentic.observability.JsonFileSpanExporter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+// Span export: OTLP when management.otlp.tracing.endpoint is set (Spring Boot
+// auto-configuration), plus a local JSON file that needs no collector
+@Configuration
+public class TracingConfig {
+
+	@Bean
+	@ConditionalOnProperty(name = "agentic.tracing.file.enabled", havingValue = "true")
+	public SpanExporter jsonFileSpanExporter(ObjectMapper objectMapper) {
+		return new JsonFileSpanExporter(objectMapper);
+	}
+
+}
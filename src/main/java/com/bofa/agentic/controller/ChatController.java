@@ -1,50 +1,172 @@
 package com.bofa.agentic.controller;
 
+import java.security.Principal;
+import java.time.Duration;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 
+import com.bofa.agentic.exception.AgentException;
 import com.bofa.agentic.guardrails.InputGuardrail;
 import com.bofa.agentic.model.ChatRequest;
+import com.bofa.agentic.model.Deadline;
 import com.bofa.agentic.orchestrator.AgentOrchestrator;
+import com.bofa.agentic.ratelimit.FairShareAdmission;
+import com.bofa.agentic.streaming.StreamEvent;
 
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 @RestController
 @RequestMapping("/api/chat")
 public class ChatController {
+	private static final Logger log = LoggerFactory.getLogger(ChatController.class);
+	
+	private static final String DEADLINE_HEADER = "X-Request-Deadline";
+	
 	private final AgentOrchestrator orchestrator;
 	private final InputGuardrail inputGuardrail;
+	private final FairShareAdmission admission;
+	private final Scheduler graphNodeScheduler;
+	private final Duration defaultBudget;
+	private final Duration maxBudget;
 
-	public ChatController(AgentOrchestrator orchestrator, InputGuardrail inputGuardrail) {
+	public ChatController(AgentOrchestrator orchestrator, InputGuardrail inputGuardrail,
+			FairShareAdmission admission, Scheduler graphNodeScheduler,
+			@Value("${agentic.deadline.default-ms:8000}") long defaultBudgetMs,
+			@Value("${agentic.deadline.max-ms:30000}") long maxBudgetMs) {
 		this.orchestrator = orchestrator;
 		this.inputGuardrail = inputGuardrail;
+		this.admission = admission;
+		this.graphNodeScheduler = graphNodeScheduler;
+		this.defaultBudget = Duration.ofMillis(defaultBudgetMs);
+		this.maxBudget = Duration.ofMillis(maxBudgetMs);
 	}
 	
+	/**
+	 * Streams the answer as SSE events ({@link StreamEvent}): "token" events
+	 * to append, "retract" to discard what was shown so far (the guard
+	 * rejected it; a revision may follow) and "error". Each event's data is
+	 * {"text": ...}, JSON so leading whitespace in tokens survives.
+	 * 
+	 * The request first waits for its turn in {@link FairShareAdmission}
+	 * (keyed on the caller, see {@link #userOf}; advisory while the security
+	 * chain authenticates no one); a refusal fails the call
+	 * before the stream starts, so it is an HTTP 429/503 with Retry-After
+	 * rather than an error event.
+	 */
 	@PostMapping(
 		consumes = MediaType.APPLICATION_JSON_VALUE,
 		produces = MediaType.TEXT_EVENT_STREAM_VALUE
 	)
-	public Flux<String> chat(@RequestBody ChatRequest request) {
-		// Wrap everything in Flux.defer to handle all errors reactively
-		return Flux.defer(() -> {
-			// Validate input (throws AgentException if invalid)
-			inputGuardrail.validateInput(request.message());
-			
-			// Process request through orchestrator
-			return orchestrator.process(request);
-		})
-		.onErrorResume(ex -> {
-			// Handle ALL errors gracefully in the stream
-			// This catches both input and output validation failures
-			String errorMessage = buildErrorMessage(ex);
-			return Flux.just(errorMessage);
-		});
+	public Flux<ServerSentEvent<Map<String, String>>> chat(@RequestBody ChatRequest body, Principal principal,
+			@RequestHeader(value = DEADLINE_HEADER, required = false) String deadlineHeader) {
+		// Start the clock before any work, moderation included
+		Deadline deadline = deadlineFrom(deadlineHeader);
+		ChatRequest request = new ChatRequest(body.sessionId(), body.message(), userOf(principal, body.userId()));
+		
+		return admission.admit(request.userId()).flatMapMany(ticket ->
+			// Validate input (throws AgentException if invalid); the moderation call
+			// blocks, so keep it off the event loop like the graph's blocking nodes
+			Mono.fromRunnable(() -> inputGuardrail.validateInput(request.message()))
+				.subscribeOn(graphNodeScheduler)
+				// Process request through orchestrator
+				.thenMany(Flux.defer(() -> orchestrator.process(request, deadline)))
+			.onErrorResume(ex -> {
+				// Handle ALL errors gracefully in the stream
+				// This catches both input and output validation failures
+				String errorMessage = buildErrorMessage(ex);
+				return Flux.just(StreamEvent.error(errorMessage));
+			})
+			.doFinally(signal -> ticket.release()))
+		.map(ChatController::toServerSentEvent);
+	}
+	
+	/**
+	 * Resume the caller's last failed request in the session from its
+	 * checkpoint; admitted like {@link #chat}, since it runs the rest of
+	 * the graph
+	 * 
+	 * A checkpoint holds the earlier request's evidence and tool results, so
+	 * only an authenticated caller may resume, and only their own sessions;
+	 * without a principal this fails with UNAUTHENTICATED (HTTP 401).
+	 */
+	@PostMapping(
+		path = "/sessions/{sessionId}/resume",
+		produces = MediaType.TEXT_EVENT_STREAM_VALUE
+	)
+	public Flux<ServerSentEvent<Map<String, String>>> resume(@PathVariable String sessionId, Principal principal,
+			@RequestHeader(value = DEADLINE_HEADER, required = false) String deadlineHeader) {
+		if (principal == null) {
+			return Flux.error(new AgentException("UNAUTHENTICATED",
+					"Resuming a session requires an authenticated user", false));
+		}
+		Deadline deadline = deadlineFrom(deadlineHeader);
+		String caller = principal.getName();
+		
+		return admission.admit(caller).flatMapMany(ticket ->
+			orchestrator.resume(caller, sessionId, deadline)
+			.onErrorResume(ex -> Flux.just(StreamEvent.error(buildErrorMessage(ex))))
+			.doFinally(signal -> ticket.release()))
+		.map(ChatController::toServerSentEvent);
+	}
+	
+	/**
+	 * The caller: the authenticated principal when the security chain
+	 * authenticated the request, else the userId the client declared in the
+	 * chat request. A declared id is not verified (SecurityConfig permits
+	 * every request), so it only picks the admission weight and quotas and
+	 * must not be trusted for access to anything.
+	 */
+	private static String userOf(Principal principal, String declared) {
+		return principal != null ? principal.getName() : declared;
+	}
+	
+	private static ServerSentEvent<Map<String, String>> toServerSentEvent(StreamEvent event) {
+		return ServerSentEvent.builder(Map.of("text", event.text()))
+			.event(event.type())
+			.build();
+	}
+	
+	/**
+	 * Client-supplied deadline (ISO-8601 instant, epoch millis or an ISO-8601
+	 * duration from now), capped at the maximum budget; the default budget
+	 * applies if absent, invalid or already passed
+	 */
+	private Deadline deadlineFrom(String header) {
+		if (header == null || header.isBlank()) {
+			return Deadline.after(defaultBudget);
+		}
+		try {
+			return Deadline.parse(header).cap(maxBudget);
+		} catch (IllegalArgumentException e) {
+			log.warn("Ignoring invalid {} header '{}'", DEADLINE_HEADER, header);
+			return Deadline.after(defaultBudget);
+		}
 	}
 	
 	/**
 	 * Build user-friendly error message for streaming response
 	 */
 	private String buildErrorMessage(Throwable ex) {
+		if (ex instanceof com.bofa.agentic.exception.AgentException agentEx
+				&& "CHECKPOINT_NOT_FOUND".equals(agentEx.getErrorCode())) {
+			return String.format("❌ Nothing to resume: %s", agentEx.getMessage());
+		}
+		if (ex instanceof com.bofa.agentic.exception.AgentException agentEx
+				&& "DEADLINE_EXCEEDED".equals(agentEx.getErrorCode())) {
+			return String.format("⏱️ Timed out: %s. Please try again.", agentEx.getMessage());
+		}
+		if (ex instanceof com.bofa.agentic.exception.AgentException agentEx
+				&& "LLM_OVERLOADED".equals(agentEx.getErrorCode())) {
+			return String.format("⏳ Busy: %s. Please try again shortly.", agentEx.getMessage());
+		}
 		if (ex instanceof com.bofa.agentic.exception.AgentException agentEx) {
 			return String.format("❌ Safety Check Failed: %s", agentEx.getMessage());
 		}
@@ -2,6 +2,7 @@ package com.bofa.agentic.exception;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -32,6 +33,10 @@ public class GlobalExceptionHandler {
      * - INPUT_SAFETY_VIOLATION: User input violates content policy
      * - SAFETY_GUARDRAIL_BLOCKED: AI response violates safety rules
      * - GROUNDING_GUARDRAIL_BLOCKED: AI response not grounded in evidence
+     * - USER_QUOTA_EXCEEDED, ADMISSION_TIMEOUT: refused by admission control
+     * - UNAUTHENTICATED: the endpoint needs an authenticated user
+     * 
+     * A "retryAfterMs" metadata entry is also sent as a Retry-After header
      */
     @ExceptionHandler(AgentException.class)
     public Mono<ResponseEntity<Map<String, Object>>> handleAgentException(
@@ -55,7 +60,13 @@ public class GlobalExceptionHandler {
             errorResponse.put("metadata", ex.getMetadata());
         }
         
-        return Mono.just(ResponseEntity.status(status).body(errorResponse));
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+        if (ex.getMetadata() != null && ex.getMetadata().get("retryAfterMs") instanceof Number retryAfterMs) {
+            // Whole seconds, rounded up
+            response.header(HttpHeaders.RETRY_AFTER,
+                    String.valueOf(Math.max(1, (retryAfterMs.longValue() + 999) / 1000)));
+        }
+        return Mono.just(response.body(errorResponse));
     }
     
     /**
@@ -88,6 +99,12 @@ public class GlobalExceptionHandler {
             case "GROUNDING_GUARDRAIL_BLOCKED" -> HttpStatus.UNPROCESSABLE_ENTITY;
             case "MODERATION_ERROR" -> HttpStatus.SERVICE_UNAVAILABLE;
             case "TOOL_EXECUTION_FAILED" -> HttpStatus.BAD_GATEWAY;
+            case "CHECKPOINT_NOT_FOUND" -> HttpStatus.NOT_FOUND;
+            case "DEADLINE_EXCEEDED" -> HttpStatus.GATEWAY_TIMEOUT;
+            case "LLM_OVERLOADED" -> HttpStatus.SERVICE_UNAVAILABLE;
+            case "USER_QUOTA_EXCEEDED" -> HttpStatus.TOO_MANY_REQUESTS;
+            case "ADMISSION_TIMEOUT" -> HttpStatus.SERVICE_UNAVAILABLE;
+            case "UNAUTHENTICATED" -> HttpStatus.UNAUTHORIZED;
             default -> HttpStatus.INTERNAL_SERVER_ERROR;
         };
     }
@@ -1,8 +1,17 @@
 package com.bofa.agentic.executor;
 
+import com.bofa.agentic.model.Deadline;
+
 public interface AgentTool {
 	String name();
 
-    ExecutionResult execute(String input);
+    /**
+     * Execute the tool; remote calls must finish before {@code deadline}
+     */
+    ExecutionResult execute(String input, Deadline deadline);
+
+    default ExecutionResult execute(String input) {
+        return execute(input, Deadline.none());
+    }
 
 }
@@ -3,10 +3,13 @@ package com.bofa.agentic.executor;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
 
+import com.bofa.agentic.model.Deadline;
+
 @Service
 public class ParallelExecutor {
 	
@@ -21,28 +24,119 @@ public class ParallelExecutor {
      */
     public List<ExecutionResult> execute(List<CompletableFuture<ExecutionResult>> futures) {
 
+        return executeAsync(futures).join();
+    }
+
+    /**
+     * Combine tool futures without blocking the caller
+     */
+    public CompletableFuture<List<ExecutionResult>> executeAsync(
+            List<CompletableFuture<ExecutionResult>> futures) {
+
         CompletableFuture<Void> combined =
                 CompletableFuture.allOf(
                         futures.toArray(new CompletableFuture[0])
                 );
 
-        combined.join();
-
-        return futures.stream()
+        return combined.thenApply(ignored -> futures.stream()
                 .map(CompletableFuture::join)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     /**
-     * Wrap a tool call into async future
+     * Wrap a tool call into async future, completed as timed out if the
+     * invocation's deadline passes first. Cancelling the future with
+     * {@code cancel(true)} interrupts the call, which stops the client
+     * request it is blocked in.
      */
     public CompletableFuture<ExecutionResult> supplyAsync(
             ToolExecutor.ToolInvocation invocation) {
 
-        return CompletableFuture.supplyAsync(
-                invocation::invoke,
-                agentTaskExecutor
-        );
+        InterruptibleCall call = new InterruptibleCall(invocation);
+        agentTaskExecutor.execute(call);
+
+        return within(call, invocation, invocation.getDeadline());
+    }
+
+    /**
+     * Complete an invocation's future as timed out if {@code deadline}
+     * passes first, e.g. a call started before the deadline was known;
+     * the call itself is cancelled then, not left running
+     */
+    public CompletableFuture<ExecutionResult> within(CompletableFuture<ExecutionResult> future,
+            ToolExecutor.ToolInvocation invocation, Deadline deadline) {
+
+        if (!deadline.isBounded()) {
+            return future;
+        }
+
+        CompletableFuture.delayedExecutor(deadline.remaining().toMillis(), TimeUnit.MILLISECONDS)
+                .execute(() -> future.cancel(true));
+
+        // invoke() never throws, so the only failure here is the cancellation
+        CompletableFuture<ExecutionResult> result = future.exceptionally(cancelled -> invocation.timedOut());
+        // Cancelling what the caller holds stops the call too
+        result.whenComplete((value, error) -> {
+            if (error != null) {
+                future.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Tool call whose {@code cancel(true)} interrupts the thread running it;
+     * a plain CompletableFuture only stops waiting for the result
+     */
+    private static final class InterruptibleCall extends CompletableFuture<ExecutionResult> implements Runnable {
+
+        private final ToolExecutor.ToolInvocation invocation;
+
+        // Guarded by this, so an interrupt never reaches a thread that has moved on
+        private Thread runner;
+
+        InterruptibleCall(ToolExecutor.ToolInvocation invocation) {
+            this.invocation = invocation;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (isDone()) {
+                    // Cancelled before it started
+                    return;
+                }
+                runner = Thread.currentThread();
+            }
+            try {
+                complete(invocation.invoke());
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                    // Clear an interrupt that arrived as the call returned
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled && mayInterruptIfRunning) {
+                synchronized (this) {
+                    if (runner != null) {
+                        runner.interrupt();
+                    }
+                }
+            }
+            return cancelled;
+        }
+
+        // Dependent stages are plain futures: cancelling them must not interrupt this call
+        @Override
+        public <U> CompletableFuture<U> newIncompleteFuture() {
+            return new CompletableFuture<>();
+        }
     }
 
 }
@@ -3,22 +3,60 @@ package com.bofa.agentic.executor;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import com.bofa.agentic.model.Deadline;
 import com.bofa.agentic.model.ToolCall;
 import com.bofa.agentic.orchestrator.ExecutionPlan;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Runs the tool calls of a plan on the agent task executor
+ *
+ * Calls can also be dispatched early, while the planner is still writing
+ * the plan ({@link #dispatch}); the tools node then adopts the running call
+ * instead of starting it again. Early calls run within the deadline of the
+ * request ({@link #open}); unadopted ones are cancelled, interrupting the
+ * client call, by {@link #release} when the request ends. Metric:
+ * agentic.tool.early-dispatch (outcome=adopted|wasted).
+ */
 @Service
 public class ToolExecutor {
 
+	private static final Logger log = LoggerFactory.getLogger(ToolExecutor.class);
+
+	private record Dispatched(ToolInvocation invocation, CompletableFuture<ExecutionResult> future) {
+	}
+
+	/**
+	 * An open request: its deadline and the calls dispatched for it so far
+	 */
+	private record Pending(Deadline deadline, Map<ToolCall, Dispatched> calls) {
+	}
+
 	private final List<AgentTool> tools;
 	private final ParallelExecutor parallelExecutor;
+	private final MeterRegistry meterRegistry;
+	private final ObservationRegistry observationRegistry;
 
-	public ToolExecutor(List<AgentTool> tools, ParallelExecutor parallelExecutor) {
+	public ToolExecutor(List<AgentTool> tools, ParallelExecutor parallelExecutor, MeterRegistry meterRegistry,
+			ObservationRegistry observationRegistry) {
 		this.tools = tools;
 		this.parallelExecutor = parallelExecutor;
+		this.meterRegistry = meterRegistry;
+		this.observationRegistry = observationRegistry;
 	}
 
 	/**
@@ -26,6 +64,11 @@ public class ToolExecutor {
 	 */
 	private Map<String, AgentTool> toolRegistry;
 
+	/**
+	 * Open requests by id, until their calls are adopted or released
+	 */
+	private final Map<String, Pending> dispatched = new ConcurrentHashMap<>();
+
 	@jakarta.annotation.PostConstruct
 	public void init() {
 
@@ -37,18 +80,112 @@ public class ToolExecutor {
 	 */
 	public String execute(ExecutionPlan plan) {
 
+		return executeAsync(plan, Deadline.none()).join();
+	}
+
+	/**
+	 * Execute tools from plan without blocking the caller; tools run on the
+	 * agent task executor and the merged result completes the future.
+	 * A tool still running at the deadline is reported as timed out.
+	 */
+	public CompletableFuture<String> executeAsync(ExecutionPlan plan, Deadline deadline) {
+
+		return executeAsync(null, plan, deadline);
+	}
+
+	/**
+	 * As {@link #executeAsync(ExecutionPlan, Deadline)}, adopting calls
+	 * already dispatched for {@code requestId} rather than repeating them
+	 */
+	public CompletableFuture<String> executeAsync(String requestId, ExecutionPlan plan, Deadline deadline) {
+
 		if (plan.toolCalls() == null || plan.toolCalls().isEmpty()) {
-			return "";
+			return CompletableFuture.completedFuture("");
+		}
+
+		Pending pending = requestId != null ? dispatched.remove(requestId) : null;
+		Map<ToolCall, Dispatched> running = pending != null ? pending.calls() : null;
+
+		List<CompletableFuture<ExecutionResult>> futures = plan.toolCalls().stream()
+				.map(call -> {
+					Dispatched early = running != null ? running.remove(call) : null;
+					if (early == null) {
+						return invokeAsync(call, deadline);
+					}
+					earlyDispatch("adopted").increment();
+					return parallelExecutor.within(early.future(), early.invocation(), deadline);
+				})
+				.toList();
+
+		discard(running);
+		return parallelExecutor.executeAsync(futures).thenApply(this::mergeResults);
+	}
+
+	public boolean isRegistered(String toolName) {
+
+		return toolRegistry.containsKey(toolName);
+	}
+
+	/**
+	 * Accept early dispatches for a request until {@link #release}
+	 *
+	 * @param deadline The request's own deadline, which bounds its early calls
+	 */
+	public void open(String requestId, Deadline deadline) {
+
+		dispatched.put(requestId, new Pending(deadline, new ConcurrentHashMap<>()));
+	}
+
+	/**
+	 * Start a call before its plan is complete; its result is picked up by
+	 * {@link #executeAsync(String, ExecutionPlan, Deadline)} for the same
+	 * request. Bounded by the request's deadline rather than the planner's
+	 * share of it: the tools node applies its own when it adopts the call.
+	 * Ignored unless the request is open.
+	 */
+	public void dispatch(String requestId, ToolCall call) {
+
+		AgentTool tool = toolRegistry.get(call.toolName());
+		Pending pending = requestId != null ? dispatched.get(requestId) : null;
+		if (pending == null || tool == null) {
+			return;
 		}
+		pending.calls().computeIfAbsent(call, c -> {
+			ToolInvocation invocation = new ToolInvocation(tool, c.input(), pending.deadline(),
+					meterRegistry, observationRegistry);
+			log.debug("Dispatched {} early for request {}", c.toolName(), requestId);
+			return new Dispatched(invocation, parallelExecutor.supplyAsync(invocation));
+		});
+	}
+
+	/**
+	 * Stop calls dispatched for a finished request that no plan adopted
+	 */
+	public void release(String requestId) {
+
+		Pending pending = dispatched.remove(requestId);
+		discard(pending != null ? pending.calls() : null);
+	}
 
-		List<CompletableFuture<ExecutionResult>> futures = plan.toolCalls().stream().map(this::invokeAsync).toList();
+	private void discard(Map<ToolCall, Dispatched> unadopted) {
 
-		List<ExecutionResult> results = parallelExecutor.execute(futures);
+		if (unadopted == null || unadopted.isEmpty()) {
+			return;
+		}
+		// Interrupts the call, so it gives up its client connection now
+		unadopted.values().forEach(early -> early.future().cancel(true));
+		earlyDispatch("wasted").increment(unadopted.size());
+	}
 
-		return mergeResults(results);
+	private Counter earlyDispatch(String outcome) {
+
+		return Counter.builder("agentic.tool.early-dispatch")
+				.description("Tool calls started while the plan was still being generated")
+				.tag("outcome", outcome)
+				.register(meterRegistry);
 	}
 
-	private CompletableFuture<ExecutionResult> invokeAsync(ToolCall call) {
+	private CompletableFuture<ExecutionResult> invokeAsync(ToolCall call, Deadline deadline) {
 
 		AgentTool tool = toolRegistry.get(call.toolName());
 
@@ -58,7 +195,7 @@ public class ToolExecutor {
 			);
 		}
 
-		return parallelExecutor.supplyAsync(new ToolInvocation(tool, call.input()));
+		return parallelExecutor.supplyAsync(new ToolInvocation(tool, call.input(), deadline, meterRegistry, observationRegistry));
 	}
 
 	private String mergeResults(List<ExecutionResult> results) {
@@ -68,27 +205,81 @@ public class ToolExecutor {
 	}
 
 	/**
-	 * Wrapper class for invocation timing
+	 * Wrapper class for invocation timing; each outcome is recorded on the
+	 * agentic.tool.invocation timer (tags tool, outcome=success|failure|error|timeout)
+	 * and traced as a child of the observation current when the invocation
+	 * was created (the tools node's)
 	 */
 	public static class ToolInvocation {
 
 		private final AgentTool tool;
 		private final String input;
+		private final Deadline deadline;
+		private final MeterRegistry meterRegistry;
+		private final Observation observation;
+		private final long createdAt = System.currentTimeMillis();
 
 		public ToolInvocation(AgentTool tool, String input) {
+			this(tool, input, Deadline.none());
+		}
+
+		public ToolInvocation(AgentTool tool, String input, Deadline deadline) {
+			this(tool, input, deadline, Metrics.globalRegistry, ObservationRegistry.NOOP);
+		}
+
+		public ToolInvocation(AgentTool tool, String input, Deadline deadline, MeterRegistry meterRegistry,
+				ObservationRegistry observationRegistry) {
 			this.tool = tool;
 			this.input = input;
+			this.deadline = deadline;
+			this.meterRegistry = meterRegistry;
+			this.observation = Observation.createNotStarted("agentic.trace.tool", observationRegistry)
+					.contextualName("tool " + tool.name())
+					.lowCardinalityKeyValue("agentic.tool", tool.name());
+		}
+
+		private long record(String outcome, long latencyMillis) {
+			observation.lowCardinalityKeyValue("outcome", outcome);
+			Timer.builder("agentic.tool.invocation")
+					.description("Tool call latency")
+					.tag("tool", tool.name())
+					.tag("outcome", outcome)
+					.publishPercentileHistogram()
+					.register(meterRegistry)
+					.record(latencyMillis, TimeUnit.MILLISECONDS);
+			return latencyMillis;
+		}
+
+		public Deadline getDeadline() {
+			return deadline;
+		}
+
+		/**
+		 * Result reported when the deadline passes before the tool returns
+		 */
+		public ExecutionResult timedOut() {
+
+			return new ExecutionResult(
+					tool.name(),
+					"Timed out: request deadline exceeded",
+					false,
+					true,
+					record("timeout", System.currentTimeMillis() - createdAt)
+			);
 		}
 
 		public ExecutionResult invoke() {
 
 			long start = System.currentTimeMillis();
 
+			observation.start();
 			try {
 
-				ExecutionResult result = tool.execute(input);
+				// Current on this thread while the tool runs, so its client spans nest under it
+				ExecutionResult result = observation.scoped(() -> tool.execute(input, deadline));
 
-				long latency = System.currentTimeMillis() - start;
+				long latency = record(result.isSuccess() ? "success" : "failure",
+						System.currentTimeMillis() - start);
 
 				return new ExecutionResult(
 						result.getToolName(),
@@ -100,13 +291,16 @@ public class ToolExecutor {
 
 			} catch (Exception e) {
 
+				observation.error(e);
 				return new ExecutionResult(
 						tool.name(),
 						e.getMessage(),
 						false,
 						true,
-						System.currentTimeMillis() - start
+						record("error", System.currentTimeMillis() - start)
 				);
+			} finally {
+				observation.stop();
 			}
 		}
 	}
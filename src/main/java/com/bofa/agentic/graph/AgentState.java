@@ -1,209 +1,386 @@
 package com.bofa.agentic.graph;
 
 import com.bofa.agentic.model.ChatRequest;
+import com.bofa.agentic.model.Deadline;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * State object that flows through the agent graph
- * 
+ *
  * This is the "state" in the state machine - it accumulates
  * information as it flows through nodes (Planner → RAG → Tools → Composer → Guard)
- * 
+ *
+ * Every field is final and collections are persistent, so a transition
+ * shares everything it does not change with the previous state instead of
+ * copying it. Nodes that change several fields should use
+ * {@link #transition()} to produce exactly one new state per step:
+ *
+ * <pre>
+ * return state.transition()
+ *         .ragEvidence(evidence)
+ *         .metadata("ragExecuted", true)
+ *         .build();
+ * </pre>
+ *
  * Inspired by LangGraph's state management pattern
  */
 public class AgentState {
-    
+
+    /**
+     * Self-correction attempts allowed per request
+     */
+    public static final int MAX_RETRIES = 2;
+
     private final ChatRequest request;
-    private String currentNode;
-    private String nextNode;
-    
+    private final String requestId;
+    private final Deadline deadline;
+    private final String currentNode;
+    private final String nextNode;
+
     // Planning stage
-    private boolean useRag;
-    private boolean useTools;
-    private List<String> toolNames;
-    
+    private final boolean useRag;
+    private final boolean useTools;
+    private final List<String> toolNames;
+
     // Data collection stage
-    private String ragEvidence;
-    private String toolResults;
-    
+    private final String ragEvidence;
+    private final String toolResults;
+
     // Response generation stage
-    private String response;
-    
+    private final String response;
+
     // Guardrail stage
-    private boolean guardrailPassed;
-    private String guardrailReason;
-    
+    private final boolean guardrailPassed;
+    private final String guardrailReason;
+
     // Reflection/retry logic
-    private int retryCount;
-    private List<String> executedNodes;
-    
+    private final int retryCount;
+    private final PersistentList<String> executedNodes;
+
     // Metadata for observability
-    private Map<String, Object> metadata;
-    private long startTime;
-    
+    private final PersistentMap<String, Object> metadata;
+    private final long startTime;
+
     public AgentState(ChatRequest request) {
+        this(request, Deadline.none());
+    }
+
+    public AgentState(ChatRequest request, Deadline deadline) {
         this.request = request;
+        this.requestId = UUID.randomUUID().toString();
+        this.deadline = deadline;
         this.currentNode = "START";
         this.nextNode = "planner";
-        this.toolNames = new ArrayList<>();
-        this.executedNodes = new ArrayList<>();
-        this.metadata = new HashMap<>();
+        this.useRag = false;
+        this.useTools = false;
+        this.toolNames = List.of();
+        this.ragEvidence = null;
+        this.toolResults = null;
+        this.response = null;
+        this.guardrailPassed = false;
+        this.guardrailReason = null;
         this.retryCount = 0;
+        this.executedNodes = PersistentList.empty();
+        this.metadata = PersistentMap.empty();
         this.startTime = System.currentTimeMillis();
     }
-    
-    // Copy constructor for immutable state transitions
+
+    // Copy constructor: O(1), all collections are shared
     public AgentState(AgentState other) {
-        this.request = other.request;
-        this.currentNode = other.currentNode;
-        this.nextNode = other.nextNode;
-        this.useRag = other.useRag;
-        this.useTools = other.useTools;
-        this.toolNames = new ArrayList<>(other.toolNames);
-        this.ragEvidence = other.ragEvidence;
-        this.toolResults = other.toolResults;
-        this.response = other.response;
-        this.guardrailPassed = other.guardrailPassed;
-        this.guardrailReason = other.guardrailReason;
-        this.retryCount = other.retryCount;
-        this.executedNodes = new ArrayList<>(other.executedNodes);
-        this.metadata = new HashMap<>(other.metadata);
-        this.startTime = other.startTime;
-    }
-    
+        this(other.transition());
+    }
+
+    private AgentState(Transition t) {
+        this.request = t.request;
+        this.requestId = t.requestId;
+        this.deadline = t.deadline;
+        this.currentNode = t.currentNode;
+        this.nextNode = t.nextNode;
+        this.useRag = t.useRag;
+        this.useTools = t.useTools;
+        this.toolNames = t.toolNames;
+        this.ragEvidence = t.ragEvidence;
+        this.toolResults = t.toolResults;
+        this.response = t.response;
+        this.guardrailPassed = t.guardrailPassed;
+        this.guardrailReason = t.guardrailReason;
+        this.retryCount = t.retryCount;
+        this.executedNodes = t.executedNodes;
+        this.metadata = t.metadata;
+        this.startTime = t.startTime;
+    }
+
+    // Canonical constructor for restoring a checkpointed state
+    AgentState(ChatRequest request, String requestId, Deadline deadline, String currentNode, String nextNode,
+            boolean useRag, boolean useTools, List<String> toolNames,
+            String ragEvidence, String toolResults, String response,
+            boolean guardrailPassed, String guardrailReason, int retryCount,
+            PersistentList<String> executedNodes, PersistentMap<String, Object> metadata, long startTime) {
+        this.request = request;
+        this.requestId = requestId;
+        this.deadline = deadline;
+        this.currentNode = currentNode;
+        this.nextNode = nextNode;
+        this.useRag = useRag;
+        this.useTools = useTools;
+        this.toolNames = List.copyOf(toolNames);
+        this.ragEvidence = ragEvidence;
+        this.toolResults = toolResults;
+        this.response = response;
+        this.guardrailPassed = guardrailPassed;
+        this.guardrailReason = guardrailReason;
+        this.retryCount = retryCount;
+        this.executedNodes = executedNodes;
+        this.metadata = metadata;
+        this.startTime = startTime;
+    }
+
+    /**
+     * Start a batched transition: set any number of fields, then
+     * {@link Transition#build()} allocates a single new state
+     */
+    public Transition transition() {
+        return new Transition(this);
+    }
+
     // State transition methods
+    public AgentState withDeadline(Deadline deadline) {
+        return transition().deadline(deadline).build();
+    }
+
     public AgentState moveTo(String nodeName) {
-        AgentState newState = new AgentState(this);
-        newState.currentNode = this.nextNode;
-        newState.nextNode = nodeName;
-        newState.executedNodes.add(this.nextNode);
-        return newState;
+        return transition().moveTo(nodeName).build();
     }
-    
+
     public AgentState withRagDecision(boolean useRag) {
-        AgentState newState = new AgentState(this);
-        newState.useRag = useRag;
-        return newState;
+        return transition().ragDecision(useRag).build();
     }
-    
+
     public AgentState withToolsDecision(boolean useTools, List<String> toolNames) {
-        AgentState newState = new AgentState(this);
-        newState.useTools = useTools;
-        newState.toolNames = toolNames != null ? new ArrayList<>(toolNames) : new ArrayList<>();
-        return newState;
+        return transition().toolsDecision(useTools, toolNames).build();
     }
-    
+
     public AgentState withRagEvidence(String evidence) {
-        AgentState newState = new AgentState(this);
-        newState.ragEvidence = evidence;
-        return newState;
+        return transition().ragEvidence(evidence).build();
     }
-    
+
     public AgentState withToolResults(String results) {
-        AgentState newState = new AgentState(this);
-        newState.toolResults = results;
-        return newState;
+        return transition().toolResults(results).build();
     }
-    
+
     public AgentState withResponse(String response) {
-        AgentState newState = new AgentState(this);
-        newState.response = response;
-        return newState;
+        return transition().response(response).build();
     }
-    
+
     public AgentState withGuardrailResult(boolean passed, String reason) {
-        AgentState newState = new AgentState(this);
-        newState.guardrailPassed = passed;
-        newState.guardrailReason = reason;
-        return newState;
+        return transition().guardrailResult(passed, reason).build();
     }
-    
+
     public AgentState incrementRetry() {
-        AgentState newState = new AgentState(this);
-        newState.retryCount = this.retryCount + 1;
-        return newState;
+        return transition().incrementRetry().build();
     }
-    
+
     public AgentState addMetadata(String key, Object value) {
-        AgentState newState = new AgentState(this);
-        newState.metadata.put(key, value);
-        return newState;
+        return transition().metadata(key, value).build();
     }
-    
+
     // Getters
     public ChatRequest getRequest() {
         return request;
     }
-    
+
+    /**
+     * Unique id of this execution, stable across checkpoint/resume
+     */
+    public String getRequestId() {
+        return requestId;
+    }
+
+    /**
+     * Time budget for the rest of this execution; while a node runs, the
+     * executor narrows it to that node's share
+     */
+    public Deadline getDeadline() {
+        return deadline;
+    }
+
     public String getCurrentNode() {
         return currentNode;
     }
-    
+
     public String getNextNode() {
         return nextNode;
     }
-    
+
     public boolean isUseRag() {
         return useRag;
     }
-    
+
     public boolean isUseTools() {
         return useTools;
     }
-    
+
     public List<String> getToolNames() {
         return toolNames;
     }
-    
+
     public String getRagEvidence() {
         return ragEvidence != null ? ragEvidence : "";
     }
-    
+
     public String getToolResults() {
         return toolResults != null ? toolResults : "";
     }
-    
+
     public String getResponse() {
         return response;
     }
-    
+
     public boolean isGuardrailPassed() {
         return guardrailPassed;
     }
-    
+
     public String getGuardrailReason() {
         return guardrailReason;
     }
-    
+
     public int getRetryCount() {
         return retryCount;
     }
-    
+
+    /**
+     * Read-only view of the nodes executed so far
+     */
     public List<String> getExecutedNodes() {
         return executedNodes;
     }
-    
+
+    /**
+     * Read-only view of the metadata; use {@link #addMetadata} to change it
+     */
     public Map<String, Object> getMetadata() {
         return metadata;
     }
-    
+
     public long getStartTime() {
         return startTime;
     }
-    
+
     public long getElapsedTime() {
         return System.currentTimeMillis() - startTime;
     }
-    
+
     public boolean isTerminal() {
         return "END".equals(nextNode) || "ERROR".equals(nextNode);
     }
-    
+
     public boolean canRetry() {
-        return retryCount < 2; // Max 2 retries
+        return retryCount < MAX_RETRIES;
+    }
+
+    /**
+     * Mutable scratch copy of a state used to batch several field updates
+     * into one allocation. Not thread-safe; use it within a single node step.
+     */
+    public static final class Transition {
+
+        private final ChatRequest request;
+        private final String requestId;
+        private Deadline deadline;
+        private String currentNode;
+        private String nextNode;
+        private boolean useRag;
+        private boolean useTools;
+        private List<String> toolNames;
+        private String ragEvidence;
+        private String toolResults;
+        private String response;
+        private boolean guardrailPassed;
+        private String guardrailReason;
+        private int retryCount;
+        private PersistentList<String> executedNodes;
+        private PersistentMap<String, Object> metadata;
+        private final long startTime;
+
+        private Transition(AgentState from) {
+            this.request = from.request;
+            this.requestId = from.requestId;
+            this.deadline = from.deadline;
+            this.currentNode = from.currentNode;
+            this.nextNode = from.nextNode;
+            this.useRag = from.useRag;
+            this.useTools = from.useTools;
+            this.toolNames = from.toolNames;
+            this.ragEvidence = from.ragEvidence;
+            this.toolResults = from.toolResults;
+            this.response = from.response;
+            this.guardrailPassed = from.guardrailPassed;
+            this.guardrailReason = from.guardrailReason;
+            this.retryCount = from.retryCount;
+            this.executedNodes = from.executedNodes;
+            this.metadata = from.metadata;
+            this.startTime = from.startTime;
+        }
+
+        public Transition moveTo(String nodeName) {
+            this.executedNodes = executedNodes.plus(nextNode);
+            this.currentNode = nextNode;
+            this.nextNode = nodeName;
+            return this;
+        }
+
+        public Transition deadline(Deadline deadline) {
+            this.deadline = deadline;
+            return this;
+        }
+
+        public Transition ragDecision(boolean useRag) {
+            this.useRag = useRag;
+            return this;
+        }
+
+        public Transition toolsDecision(boolean useTools, List<String> toolNames) {
+            this.useTools = useTools;
+            this.toolNames = toolNames != null ? List.copyOf(toolNames) : List.of();
+            return this;
+        }
+
+        public Transition ragEvidence(String evidence) {
+            this.ragEvidence = evidence;
+            return this;
+        }
+
+        public Transition toolResults(String results) {
+            this.toolResults = results;
+            return this;
+        }
+
+        public Transition response(String response) {
+            this.response = response;
+            return this;
+        }
+
+        public Transition guardrailResult(boolean passed, String reason) {
+            this.guardrailPassed = passed;
+            this.guardrailReason = reason;
+            return this;
+        }
+
+        public Transition incrementRetry() {
+            this.retryCount++;
+            return this;
+        }
+
+        public Transition metadata(String key, Object value) {
+            this.metadata = metadata.plus(key, value);
+            return this;
+        }
+
+        public AgentState build() {
+            return new AgentState(this);
+        }
     }
 }
@@ -0,0 +1,314 @@
+package com.bofa.agentic.graph;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.bofa.agentic.model.ChatRequest;
+import com.bofa.agentic.model.Deadline;
+
+/**
+ * Compact binary form of {@link AgentState} for checkpoints
+ *
+ * Fields are written positionally behind a version byte. Metadata values
+ * keep their type for strings, booleans, numbers, enums, lists, string-keyed
+ * maps and records built from those (e.g. the planner's
+ * {@code ExecutionPlan}); any other value is stored as its
+ * {@code toString()}, except as a record component, where it could not be
+ * passed back to the constructor: encoding such a record fails instead.
+ */
+final class AgentStateCodec {
+
+    private static final byte VERSION = 2;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte BOOLEAN = 2;
+    private static final byte INT = 3;
+    private static final byte LONG = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte LIST = 6;
+    private static final byte MAP = 7;
+    private static final byte RECORD = 8;
+    private static final byte ENUM = 9;
+    private static final byte FLOAT = 10;
+
+    private AgentStateCodec() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if a metadata record has a component
+     *                                  that cannot be restored
+     */
+    static byte[] encode(AgentState state) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            writeString(out, state.getRequestId());
+            out.writeLong(state.getDeadline().getExpiresAtMillis());
+
+            ChatRequest request = state.getRequest();
+            writeString(out, request.sessionId());
+            writeString(out, request.message());
+            writeString(out, request.userId());
+
+            writeString(out, state.getCurrentNode());
+            writeString(out, state.getNextNode());
+            out.writeBoolean(state.isUseRag());
+            out.writeBoolean(state.isUseTools());
+            writeStrings(out, state.getToolNames());
+            writeString(out, state.getRagEvidence());
+            writeString(out, state.getToolResults());
+            writeString(out, state.getResponse());
+            out.writeBoolean(state.isGuardrailPassed());
+            writeString(out, state.getGuardrailReason());
+            out.writeInt(state.getRetryCount());
+            writeStrings(out, state.getExecutedNodes());
+
+            out.writeInt(state.getMetadata().size());
+            for (Map.Entry<String, Object> entry : state.getMetadata().entrySet()) {
+                writeString(out, entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+            out.writeLong(state.getStartTime());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static AgentState decode(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IllegalStateException("Unsupported checkpoint version: " + version);
+            }
+            String requestId = readString(in);
+            Deadline deadline = Deadline.atEpochMillis(in.readLong());
+            ChatRequest request = new ChatRequest(readString(in), readString(in), readString(in));
+
+            String currentNode = readString(in);
+            String nextNode = readString(in);
+            boolean useRag = in.readBoolean();
+            boolean useTools = in.readBoolean();
+            List<String> toolNames = readStrings(in);
+            String ragEvidence = readString(in);
+            String toolResults = readString(in);
+            String response = readString(in);
+            boolean guardrailPassed = in.readBoolean();
+            String guardrailReason = readString(in);
+            int retryCount = in.readInt();
+
+            PersistentList<String> executedNodes = PersistentList.empty();
+            for (String node : readStrings(in)) {
+                executedNodes = executedNodes.plus(node);
+            }
+
+            PersistentMap<String, Object> metadata = PersistentMap.empty();
+            int metadataSize = in.readInt();
+            for (int i = 0; i < metadataSize; i++) {
+                metadata = metadata.plus(readString(in), readValue(in));
+            }
+            long startTime = in.readLong();
+
+            return new AgentState(request, requestId, deadline, currentNode, nextNode,
+                    useRag, useTools, toolNames, ragEvidence, toolResults, response,
+                    guardrailPassed, guardrailReason, retryCount, executedNodes, metadata, startTime);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Length-prefixed UTF-8; unlike writeUTF this has no 64KB limit
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof Boolean b) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean(b);
+        } else if (value instanceof Integer i) {
+            out.writeByte(INT);
+            out.writeInt(i);
+        } else if (value instanceof Long l) {
+            out.writeByte(LONG);
+            out.writeLong(l);
+        } else if (value instanceof Double d) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(d);
+        } else if (value instanceof Float f) {
+            out.writeByte(FLOAT);
+            out.writeFloat(f);
+        } else if (value instanceof Enum<?> constant) {
+            out.writeByte(ENUM);
+            writeString(out, constant.getDeclaringClass().getName());
+            writeString(out, constant.name());
+        } else if (value instanceof List<?> list) {
+            out.writeByte(LIST);
+            out.writeInt(list.size());
+            for (Object element : list) {
+                writeValue(out, element);
+            }
+        } else if (value instanceof Map<?, ?> map) {
+            out.writeByte(MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeString(out, String.valueOf(entry.getKey()));
+                writeValue(out, entry.getValue());
+            }
+        } else if (value instanceof Record record) {
+            RecordComponent[] components = record.getClass().getRecordComponents();
+            out.writeByte(RECORD);
+            writeString(out, record.getClass().getName());
+            out.writeInt(components.length);
+            for (RecordComponent component : components) {
+                Object componentValue = invoke(component.getAccessor(), record);
+                if (!isRestorable(componentValue)) {
+                    throw new IllegalArgumentException("Cannot checkpoint " + record.getClass().getName() + "."
+                            + component.getName() + " of type " + componentValue.getClass().getName());
+                }
+                writeValue(out, componentValue);
+            }
+        } else {
+            out.writeByte(STRING);
+            writeString(out, value.toString());
+        }
+    }
+
+    // Values that decode to their own type rather than to their toString()
+    private static boolean isRestorable(Object value) {
+        return value == null || value instanceof String || value instanceof Boolean || value instanceof Integer
+                || value instanceof Long || value instanceof Double || value instanceof Float
+                || value instanceof Enum<?> || value instanceof List<?> || value instanceof Map<?, ?>
+                || value instanceof Record;
+    }
+
+    private static Object invoke(Method accessor, Object target) {
+        try {
+            return accessor.invoke(target);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot read record component " + accessor.getName(), e);
+        }
+    }
+
+    private static Object newRecord(String className, Object[] values) {
+        try {
+            Class<?> type = Class.forName(className, true, AgentStateCodec.class.getClassLoader());
+            Class<?>[] parameterTypes = Arrays.stream(type.getRecordComponents())
+                    .map(RecordComponent::getType)
+                    .toArray(Class<?>[]::new);
+            return type.getDeclaredConstructor(parameterTypes).newInstance(values);
+        } catch (ReflectiveOperationException | IllegalArgumentException e) {
+            throw new IllegalStateException("Cannot restore checkpointed record " + className, e);
+        }
+    }
+
+    private static Object enumConstant(String className, String name) {
+        try {
+            Class<?> type = Class.forName(className, true, AgentStateCodec.class.getClassLoader());
+            for (Object constant : type.getEnumConstants()) {
+                if (((Enum<?>) constant).name().equals(name)) {
+                    return constant;
+                }
+            }
+            throw new IllegalStateException("No constant " + name + " in checkpointed enum " + className);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Cannot restore checkpointed enum " + className, e);
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(in);
+            case BOOLEAN:
+                return in.readBoolean();
+            case INT:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case DOUBLE:
+                return in.readDouble();
+            case FLOAT:
+                return in.readFloat();
+            case ENUM:
+                return enumConstant(readString(in), readString(in));
+            case LIST: {
+                int size = in.readInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return Collections.unmodifiableList(list);
+            }
+            case MAP: {
+                int size = in.readInt();
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) {
+                    map.put(readString(in), readValue(in));
+                }
+                return map;
+            }
+            case RECORD: {
+                String className = readString(in);
+                Object[] values = new Object[in.readInt()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = readValue(in);
+                }
+                return newRecord(className, values);
+            }
+            default:
+                throw new IllegalStateException("Unknown metadata value tag: " + tag);
+        }
+    }
+}
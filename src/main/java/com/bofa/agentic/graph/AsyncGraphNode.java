@@ -0,0 +1,53 @@
+package com.bofa.agentic.graph;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Non-blocking variant of {@link GraphNode}
+ *
+ * The returned Mono must not park the subscribing thread: do I/O with
+ * non-blocking clients, or hand blocking work to a dedicated executor and
+ * bridge it back (e.g. {@code Mono.fromFuture}). {@link GraphExecutor}
+ * chains these directly, so a handful of event-loop threads can drive many
+ * concurrent graph executions.
+ *
+ * Existing synchronous nodes are adapted with {@link #fromBlocking}.
+ */
+@FunctionalInterface
+public interface AsyncGraphNode {
+
+    /**
+     * Execute this node's logic asynchronously
+     *
+     * @param state Current agent state
+     * @return Mono emitting the updated agent state
+     */
+    Mono<AgentState> executeAsync(AgentState state);
+
+    /**
+     * Optional: Get node name for logging/debugging
+     */
+    default String getName() {
+        return this.getClass().getSimpleName();
+    }
+
+    /**
+     * Run a blocking node on a bounded scheduler so it never executes on
+     * the caller's (possibly event-loop) thread
+     */
+    static AsyncGraphNode fromBlocking(GraphNode node, Scheduler scheduler) {
+        return new AsyncGraphNode() {
+            @Override
+            public Mono<AgentState> executeAsync(AgentState state) {
+                return Mono.fromCallable(() -> node.execute(state))
+                        .subscribeOn(scheduler);
+            }
+
+            @Override
+            public String getName() {
+                return node.getName();
+            }
+        };
+    }
+}
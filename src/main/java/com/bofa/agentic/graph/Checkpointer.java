@@ -0,0 +1,65 @@
+package com.bofa.agentic.graph;
+
+import java.util.Optional;
+
+/**
+ * Durable record of graph progress, written by {@link GraphExecutor} after
+ * every node so a failed execution can be resumed from the last completed
+ * node instead of replaying the planner, retrieval and tool calls.
+ *
+ * {@link #save} and {@link #complete} are called on the execution path and
+ * must not block: implementations hand the actual I/O to a background writer.
+ *
+ * Inspired by LangGraph's checkpointer
+ */
+public interface Checkpointer extends AutoCloseable {
+
+    /**
+     * Checkpointing disabled
+     */
+    Checkpointer NONE = new Checkpointer() {
+        @Override
+        public void save(AgentState state) {
+        }
+
+        @Override
+        public void complete(AgentState state) {
+        }
+
+        @Override
+        public Optional<AgentState> load(String requestId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<String> latestForSession(String userId, String sessionId) {
+            return Optional.empty();
+        }
+    };
+
+    /**
+     * Record a state whose {@link AgentState#getNextNode()} is the node to run next
+     */
+    void save(AgentState state);
+
+    /**
+     * Execution reached a terminal node; its checkpoint is no longer needed
+     */
+    void complete(AgentState state);
+
+    /**
+     * Latest checkpoint of an unfinished execution
+     */
+    Optional<AgentState> load(String requestId);
+
+    /**
+     * Request id of the most recent unfinished execution in one of the
+     * user's sessions ({@link com.bofa.agentic.model.ChatRequest#userId()},
+     * null for requests without one)
+     */
+    Optional<String> latestForSession(String userId, String sessionId);
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,495 @@
+package com.bofa.agentic.graph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Int-indexed dispatch table produced by {@link StateGraph.Builder#build()}
+ *
+ * Node and fan-out names are resolved once to dense indices, so
+ * {@link GraphExecutor} walks plain arrays instead of hashing names on
+ * every step. Compilation also rejects, at startup:
+ * - edges whose source or target does not exist
+ * - conditional edges that do not declare their possible targets
+ * - nodes that are unreachable from the entry point
+ * - cycles that do not pass through a node with a visit limit
+ *
+ * The visit limits also give a static bound on the number of steps a
+ * single execution can take. Per-node {@link NodeBudget}s are resolved
+ * here too.
+ */
+final class CompiledGraph {
+
+    static final int END = -1;
+    static final int ERROR = -2;
+
+    private final String[] names;
+    private final GraphNode[] syncNodes;
+    private final AsyncGraphNode[] asyncNodes;
+    private final int[][] fanOutBranches;
+    private final int[] fixedNext;
+    private final ConditionalEdge[] conditional;
+    private final String[][] targetNames;
+    private final int[][] targetIndices;
+    private final int[] visitLimits;
+    private final NodeBudget[] budgets;
+    private final int[][] speculative;
+    private final int entry;
+    private final int maxSteps;
+
+    private CompiledGraph(String[] names, GraphNode[] syncNodes, AsyncGraphNode[] asyncNodes,
+            int[][] fanOutBranches, int[] fixedNext, ConditionalEdge[] conditional,
+            String[][] targetNames, int[][] targetIndices, int[] visitLimits, NodeBudget[] budgets,
+            int[][] speculative, int entry) {
+        this.names = names;
+        this.syncNodes = syncNodes;
+        this.asyncNodes = asyncNodes;
+        this.fanOutBranches = fanOutBranches;
+        this.fixedNext = fixedNext;
+        this.conditional = conditional;
+        this.targetNames = targetNames;
+        this.targetIndices = targetIndices;
+        this.visitLimits = visitLimits;
+        this.budgets = budgets;
+        this.speculative = speculative;
+        this.entry = entry;
+
+        int limitSum = 0;
+        for (int limit : visitLimits) {
+            limitSum += limit;
+        }
+        // Between two visits of limited nodes the walk is acyclic (≤ n steps)
+        this.maxSteps = (limitSum + 1) * names.length;
+    }
+
+    // ------------------------------------------------------------------
+    // Dispatch
+    // ------------------------------------------------------------------
+
+    int entry() {
+        return entry;
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    int maxSteps() {
+        return maxSteps;
+    }
+
+    String name(int index) {
+        if (index == END) {
+            return "END";
+        }
+        if (index == ERROR) {
+            return "ERROR";
+        }
+        return names[index];
+    }
+
+    static boolean isTerminal(int index) {
+        return index < 0;
+    }
+
+    GraphNode syncNode(int index) {
+        return syncNodes[index];
+    }
+
+    AsyncGraphNode asyncNode(int index) {
+        return asyncNodes[index];
+    }
+
+    /**
+     * Branch indices if {@code index} is a fan-out group, otherwise null
+     */
+    int[] fanOutBranches(int index) {
+        return fanOutBranches[index];
+    }
+
+    /**
+     * Nodes to launch speculatively while {@code index} runs, or null
+     */
+    int[] speculative(int index) {
+        return speculative[index];
+    }
+
+    /**
+     * Whether {@code node} runs when routing to {@code next}, directly or as a fan-out branch
+     */
+    boolean reaches(int next, int node) {
+        if (next == node) {
+            return true;
+        }
+        return !isTerminal(next) && fanOutBranches[next] != null
+                && Arrays.stream(fanOutBranches[next]).anyMatch(b -> b == node);
+    }
+
+    NodeBudget budget(int index) {
+        return budgets[index];
+    }
+
+    /**
+     * Maximum executions of this node per run, or 0 if unlimited
+     */
+    int visitLimit(int index) {
+        return visitLimits[index];
+    }
+
+    /**
+     * Resolve the next node index after {@code from} has produced {@code state}
+     */
+    int route(int from, AgentState state) {
+        ConditionalEdge edge = conditional[from];
+        if (edge == null) {
+            return fixedNext[from];
+        }
+
+        String target = edge.route(state);
+        String[] declared = targetNames[from];
+        for (int i = 0; i < declared.length; i++) {
+            if (declared[i].equals(target)) {
+                return targetIndices[from][i];
+            }
+        }
+        throw new IllegalStateException("Conditional edge from '" + names[from]
+                + "' returned undeclared target: " + target);
+    }
+
+    /**
+     * Linear lookup by name; for one-off use (e.g. resuming), not per step
+     */
+    int indexOf(String name) {
+        if ("END".equals(name)) {
+            return END;
+        }
+        if ("ERROR".equals(name)) {
+            return ERROR;
+        }
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Node not found in graph: " + name);
+    }
+
+    /**
+     * Visits per node implied by an execution history, for resuming
+     * with the same visit-limit budget; unknown names are ignored
+     */
+    int[] visitCounts(List<String> executedNodes) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            index.put(names[i], i);
+        }
+        int[] visits = new int[names.length];
+        for (String node : executedNodes) {
+            Integer i = index.get(node);
+            if (i != null) {
+                visits[i]++;
+            }
+        }
+        return visits;
+    }
+
+    // ------------------------------------------------------------------
+    // Compilation
+    // ------------------------------------------------------------------
+
+    static CompiledGraph compile(
+            String entryPoint,
+            Map<String, GraphNode> nodes,
+            Map<String, AsyncGraphNode> asyncNodes,
+            Map<String, List<String>> fanOuts,
+            Map<String, String> fixedEdges,
+            Map<String, ConditionalEdge> conditionalEdges,
+            Map<String, List<String>> conditionalTargets,
+            Map<String, Integer> visitLimits,
+            Map<String, NodeBudget> budgetsByName,
+            Map<String, List<String>> speculations) {
+
+        // 1. Assign dense indices: nodes first, then fan-out groups
+        List<String> order = new ArrayList<>();
+        Map<String, Integer> index = new HashMap<>();
+        for (String name : nodes.keySet()) {
+            register(name, order, index);
+        }
+        for (String name : asyncNodes.keySet()) {
+            if (index.containsKey(name)) {
+                throw new IllegalStateException("Node registered as both sync and async: " + name);
+            }
+            register(name, order, index);
+        }
+        for (String name : fanOuts.keySet()) {
+            if (index.containsKey(name)) {
+                throw new IllegalStateException("Fan-out name clashes with node: " + name);
+            }
+            register(name, order, index);
+        }
+
+        int n = order.size();
+        String[] names = order.toArray(new String[0]);
+        GraphNode[] sync = new GraphNode[n];
+        AsyncGraphNode[] async = new AsyncGraphNode[n];
+        int[][] branches = new int[n][];
+        int[] fixedNext = new int[n];
+        ConditionalEdge[] conditional = new ConditionalEdge[n];
+        String[][] targetNames = new String[n][];
+        int[][] targetIndices = new int[n][];
+        int[] limits = new int[n];
+        NodeBudget[] budgets = new NodeBudget[n];
+
+        for (int i = 0; i < n; i++) {
+            budgets[i] = NodeBudget.DEFAULT;
+            sync[i] = nodes.get(names[i]);
+            async[i] = asyncNodes.get(names[i]);
+            fixedNext[i] = END; // Nodes without an outgoing edge terminate
+        }
+
+        // 2. Fan-out branches must be plain nodes
+        for (Map.Entry<String, List<String>> fanOut : fanOuts.entrySet()) {
+            List<String> branchNames = fanOut.getValue();
+            int[] resolved = new int[branchNames.size()];
+            for (int b = 0; b < resolved.length; b++) {
+                Integer target = index.get(branchNames.get(b));
+                if (target == null || fanOuts.containsKey(branchNames.get(b))) {
+                    throw new IllegalStateException(
+                            "Fan-out '" + fanOut.getKey() + "' references unknown node: " + branchNames.get(b));
+                }
+                resolved[b] = target;
+            }
+            branches[index.get(fanOut.getKey())] = resolved;
+        }
+
+        // 3. Resolve edges
+        for (Map.Entry<String, String> edge : fixedEdges.entrySet()) {
+            int from = source(edge.getKey(), index);
+            if (conditionalEdges.containsKey(edge.getKey())) {
+                throw new IllegalStateException(
+                        "Node '" + edge.getKey() + "' has both a fixed and a conditional edge");
+            }
+            fixedNext[from] = target(edge.getKey(), edge.getValue(), index);
+        }
+        for (Map.Entry<String, ConditionalEdge> edge : conditionalEdges.entrySet()) {
+            int from = source(edge.getKey(), index);
+            List<String> targets = conditionalTargets.getOrDefault(edge.getKey(), List.of());
+            if (targets.isEmpty()) {
+                throw new IllegalStateException(
+                        "Conditional edge from '" + edge.getKey() + "' must declare its possible targets");
+            }
+            conditional[from] = edge.getValue();
+            targetNames[from] = targets.toArray(new String[0]);
+            targetIndices[from] = new int[targets.size()];
+            for (int t = 0; t < targets.size(); t++) {
+                targetIndices[from][t] = target(edge.getKey(), targets.get(t), index);
+            }
+        }
+
+        // 4. Visit limits
+        for (Map.Entry<String, Integer> limit : visitLimits.entrySet()) {
+            Integer node = index.get(limit.getKey());
+            if (node == null) {
+                throw new IllegalStateException("Visit limit set on unknown node: " + limit.getKey());
+            }
+            if (limit.getValue() < 1) {
+                throw new IllegalStateException("Visit limit for '" + limit.getKey() + "' must be at least 1");
+            }
+            limits[node] = limit.getValue();
+        }
+
+        // 5. Deadline budgets
+        for (Map.Entry<String, NodeBudget> budget : budgetsByName.entrySet()) {
+            Integer node = index.get(budget.getKey());
+            if (node == null) {
+                throw new IllegalStateException("Budget set on unknown node: " + budget.getKey());
+            }
+            double share = budget.getValue().share();
+            if (!(share > 0 && share <= 1)) {
+                throw new IllegalStateException("Budget share for '" + budget.getKey() + "' must be in (0, 1]");
+            }
+            budgets[node] = budget.getValue();
+        }
+
+        Integer entry = index.get(entryPoint);
+        if (entry == null || branches[entry] != null) {
+            throw new IllegalStateException("Entry point node does not exist: " + entryPoint);
+        }
+
+        int[][] successors = successors(n, fixedNext, targetIndices);
+
+        // 6. Speculation: a plain node launched alongside a plain node, and
+        // only where routing could actually adopt it
+        int[][] speculative = new int[n][];
+        for (Map.Entry<String, List<String>> speculation : speculations.entrySet()) {
+            Integer host = index.get(speculation.getKey());
+            if (host == null || branches[host] != null) {
+                throw new IllegalStateException("Speculation declared on unknown node: " + speculation.getKey());
+            }
+            int[] resolved = new int[speculation.getValue().size()];
+            for (int s = 0; s < resolved.length; s++) {
+                String name = speculation.getValue().get(s);
+                Integer node = index.get(name);
+                if (node == null || branches[node] != null) {
+                    throw new IllegalStateException("Speculative node must be a plain node: " + name);
+                }
+                if (!adoptable(node, successors[host], branches)) {
+                    throw new IllegalStateException("Speculative node '" + name
+                            + "' is never routed to after '" + speculation.getKey() + "'");
+                }
+                resolved[s] = node;
+            }
+            speculative[host] = resolved;
+        }
+        checkReachable(names, entry, successors, branches);
+        checkCyclesBounded(names, successors, limits);
+
+        return new CompiledGraph(names, sync, async, branches, fixedNext, conditional,
+                targetNames, targetIndices, limits, budgets, speculative, entry);
+    }
+
+    private static boolean adoptable(int node, int[] successors, int[][] branches) {
+        for (int next : successors) {
+            if (next == node || (branches[next] != null && Arrays.stream(branches[next]).anyMatch(b -> b == node))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void register(String name, List<String> order, Map<String, Integer> index) {
+        if ("END".equals(name) || "ERROR".equals(name)) {
+            throw new IllegalStateException("Reserved name cannot be used for a node: " + name);
+        }
+        index.put(name, order.size());
+        order.add(name);
+    }
+
+    private static int source(String from, Map<String, Integer> index) {
+        Integer source = index.get(from);
+        if (source == null) {
+            throw new IllegalStateException("Edge declared from unknown node: " + from);
+        }
+        return source;
+    }
+
+    private static int target(String from, String to, Map<String, Integer> index) {
+        if ("END".equals(to)) {
+            return END;
+        }
+        if ("ERROR".equals(to)) {
+            return ERROR;
+        }
+        Integer target = index.get(to);
+        if (target == null) {
+            throw new IllegalStateException("Edge from '" + from + "' targets unknown node: " + to);
+        }
+        return target;
+    }
+
+    /**
+     * Routing successors of each node (terminal targets dropped)
+     */
+    private static int[][] successors(int n, int[] fixedNext, int[][] targetIndices) {
+        int[][] successors = new int[n][];
+        for (int i = 0; i < n; i++) {
+            int[] candidates = targetIndices[i] != null ? targetIndices[i] : new int[] { fixedNext[i] };
+            successors[i] = Arrays.stream(candidates).filter(t -> t >= 0).distinct().toArray();
+        }
+        return successors;
+    }
+
+    private static void checkReachable(String[] names, int entry, int[][] successors, int[][] branches) {
+        boolean[] seen = new boolean[names.length];
+        Deque<Integer> queue = new ArrayDeque<>();
+        queue.add(entry);
+        seen[entry] = true;
+        while (!queue.isEmpty()) {
+            int current = queue.poll();
+            List<Integer> next = new ArrayList<>();
+            for (int s : successors[current]) {
+                next.add(s);
+            }
+            if (branches[current] != null) {
+                for (int b : branches[current]) {
+                    next.add(b);
+                }
+            }
+            for (int s : next) {
+                if (!seen[s]) {
+                    seen[s] = true;
+                    queue.add(s);
+                }
+            }
+        }
+        for (int i = 0; i < names.length; i++) {
+            if (!seen[i]) {
+                throw new IllegalStateException("Node is unreachable from the entry point: " + names[i]);
+            }
+        }
+    }
+
+    /**
+     * Tarjan SCC: every cycle must contain a node with a visit limit,
+     * otherwise a bad routing decision could loop forever
+     */
+    private static void checkCyclesBounded(String[] names, int[][] successors, int[] limits) {
+        int n = names.length;
+        int[] order = new int[n];
+        int[] low = new int[n];
+        boolean[] onStack = new boolean[n];
+        Arrays.fill(order, -1);
+        Deque<Integer> stack = new ArrayDeque<>();
+        int[] counter = { 0 };
+
+        for (int v = 0; v < n; v++) {
+            if (order[v] < 0) {
+                strongConnect(v, names, successors, limits, order, low, onStack, stack, counter);
+            }
+        }
+    }
+
+    private static void strongConnect(int v, String[] names, int[][] successors, int[] limits,
+            int[] order, int[] low, boolean[] onStack, Deque<Integer> stack, int[] counter) {
+        order[v] = low[v] = counter[0]++;
+        stack.push(v);
+        onStack[v] = true;
+
+        boolean selfLoop = false;
+        for (int w : successors[v]) {
+            if (w == v) {
+                selfLoop = true;
+            }
+            if (order[w] < 0) {
+                strongConnect(w, names, successors, limits, order, low, onStack, stack, counter);
+                low[v] = Math.min(low[v], low[w]);
+            } else if (onStack[w]) {
+                low[v] = Math.min(low[v], order[w]);
+            }
+        }
+
+        if (low[v] != order[v]) {
+            return;
+        }
+
+        List<String> component = new ArrayList<>();
+        boolean bounded = false;
+        int w;
+        do {
+            w = stack.pop();
+            onStack[w] = false;
+            component.add(names[w]);
+            bounded |= limits[w] > 0;
+        } while (w != v);
+
+        if ((component.size() > 1 || selfLoop) && !bounded) {
+            throw new IllegalStateException("Unbounded cycle through " + component
+                    + ": set a visit limit on one of these nodes");
+        }
+    }
+}
@@ -1,10 +1,21 @@
 package com.bofa.agentic.graph;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import com.bofa.agentic.graph.nodes.*;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
 /**
  * Configures the LangGraph-inspired state machine
  * 
@@ -12,15 +23,21 @@ import com.bofa.agentic.graph.nodes.*;
  * 
  * START → planner → (conditional routing)
  *                ↓
- *            [rag] ← (if useRag=true)
+ *      ┌─── research (fan-out) ───┐ ← (if useRag && useTools)
+ *    [rag]                     [tools]   run concurrently, merged by reducers
+ *      └──────────┬───────────────┘
  *                ↓
- *          [tools] ← (if useTools=true)
+ *            [rag] | [tools] ← (if only one is needed)
  *                ↓
  *          composer → guard → (conditional routing)
- *                               ↓
- *                           [END] ← (if passed)
+ *                       ↑       ↓
+ *                       │   [END] ← (if passed, or out of retries)
+ *                       │       ↓
+ *                   reflection ← (if ungrounded but RAG evidence exists;
+ *                                 at most MAX_RETRIES times)
  * 
- * Future enhancement: Add reflection node for self-correction cycles
+ * rag is also started speculatively alongside planner (see
+ * agentic.graph.speculation.enabled).
  */
 @Configuration
 public class GraphConfiguration {
@@ -31,15 +48,43 @@ public class GraphConfiguration {
             RagNode ragNode,
             ToolsNode toolsNode,
             ComposerNode composerNode,
-            GuardNode guardNode) {
+            GuardNode guardNode,
+            ReflectionNode reflectionNode,
+            @Value("${agentic.deadline.share.planner:0.3}") double plannerShare,
+            @Value("${agentic.deadline.share.rag:0.5}") double ragShare,
+            @Value("${agentic.deadline.share.tools:0.5}") double toolsShare,
+            @Value("${agentic.deadline.share.composer:0.85}") double composerShare,
+            @Value("${agentic.deadline.tools-min-budget-ms:1000}") long toolsMinBudgetMs,
+            @Value("${agentic.graph.speculation.enabled:true}") boolean speculateRag) {
         
-        return StateGraph.builder()
+        StateGraph.Builder builder = StateGraph.builder()
                 // Add all nodes
                 .addNode("planner", plannerNode)
                 .addNode("rag", ragNode)
-                .addNode("tools", toolsNode)
+                .addAsyncNode("tools", toolsNode)
                 .addNode("composer", composerNode)
                 .addNode("guard", guardNode)
+                .addNode("reflection", reflectionNode)
+                
+                // RAG and tools are independent, so run them side by side
+                .addFanOut("research", "rag", "tools")
+                .addReducer(StateReducers.ragEvidence())
+                .addReducer(StateReducers.toolResults())
+                .addReducer(StateReducers.metadata())
+                
+                // Deadline shares: fraction of the time left when each node
+                // starts. The research fan-out has no share of its own, so rag
+                // and tools each take their share of the same remaining time,
+                // side by side; guard gets whatever composer leaves
+                .budget("planner", plannerShare)
+                .budget("rag", ragShare)
+                .budget("tools", toolsShare)
+                .budget("composer", composerShare)
+                .budget("reflection", composerShare)
+                
+                // Degradation: under a tight budget, skip tools and compose
+                // from RAG evidence only
+                .optional("tools", Duration.ofMillis(toolsMinBudgetMs))
                 
                 // Set entry point
                 .setEntryPoint("planner")
@@ -47,7 +92,7 @@ public class GraphConfiguration {
                 // Conditional routing after planner
                 .addConditionalEdge("planner", state -> {
                     if (state.isUseRag() && state.isUseTools()) {
-                        return "rag"; // Do RAG first, then tools
+                        return "research"; // RAG and tools in parallel
                     } else if (state.isUseRag()) {
                         return "rag"; // Only RAG
                     } else if (state.isUseTools()) {
@@ -55,13 +100,13 @@ public class GraphConfiguration {
                     } else {
                         return "composer"; // Direct to composer
                     }
-                })
+                }, "research", "rag", "tools", "composer")
                 
-                // After RAG: go to tools if needed, otherwise composer
-                .addConditionalEdge("rag", state -> 
-                        state.isUseTools() ? "tools" : "composer")
+                // Fan-in: merged research results go to composer
+                .addEdge("research", "composer")
                 
-                // After tools: always go to composer
+                // After RAG or tools alone: always go to composer
+                .addEdge("rag", "composer")
                 .addEdge("tools", "composer")
                 
                 // After composer: always go to guard
@@ -71,18 +116,67 @@ public class GraphConfiguration {
                 .addConditionalEdge("guard", state -> {
                     if (state.isGuardrailPassed()) {
                         return "END"; // Success
+                    } else if ("GROUNDING_GUARDRAIL_BLOCKED".equals(state.getMetadata().get("guardrailError"))
+                            && hasEvidence(state) && state.canRetry()) {
+                        return "reflection"; // Rewrite from the evidence we already have
                     } else {
-                        // Guardrail failed - could add reflection/retry here
-                        // For now, terminate with error
+                        // Unsafe, out of retries, or no evidence a revision
+                        // could be grounded in (tools-only and direct answers)
                         return "END";
                     }
-                })
+                }, "END", "reflection")
                 
-                .build();
+                // Revised answers are checked again
+                .addEdge("reflection", "guard")
+                .limitVisits("reflection", AgentState.MAX_RETRIES);
+        
+        // Retrieval only reads the user's message, so start it while the
+        // planner runs; it is cancelled if the planner routes around it
+        if (speculateRag) {
+            builder.speculate("planner", "rag");
+        }
+        
+        return builder.build();
+    }
+    
+    private static boolean hasEvidence(AgentState state) {
+        return state.getRagEvidence() != null && !state.getRagEvidence().isBlank();
+    }
+    
+    /**
+     * Bounded pool that blocking (synchronous) graph nodes are shifted onto,
+     * keeping LLM, Elasticsearch and moderation calls off the event loop
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler graphNodeScheduler(
+            @Value("${agentic.graph.node-scheduler.max-threads:64}") int maxThreads,
+            @Value("${agentic.graph.node-scheduler.max-queued-tasks:10000}") int maxQueuedTasks) {
+        return Schedulers.newBoundedElastic(maxThreads, maxQueuedTasks, "graph-node");
+    }
+    
+    /**
+     * Per-node checkpoints so failed executions can be resumed; disabled
+     * unless agentic.graph.checkpoint.enabled=true
+     */
+    @Bean
+    public Checkpointer graphCheckpointer(
+            @Value("${agentic.graph.checkpoint.enabled:false}") boolean enabled,
+            @Value("${agentic.graph.checkpoint.path:./data/checkpoints.log}") String path,
+            @Value("${agentic.graph.checkpoint.capacity-mb:64}") int capacityMb,
+            @Value("${agentic.graph.checkpoint.retention-minutes:60}") long retentionMinutes,
+            @Value("${agentic.graph.checkpoint.batch-size:256}") int batchSize,
+            @Value("${agentic.graph.checkpoint.queue-capacity:10000}") int queueCapacity) throws IOException {
+        if (!enabled) {
+            return Checkpointer.NONE;
+        }
+        return new MappedLogCheckpointer(Path.of(path), capacityMb * 1024 * 1024,
+                Duration.ofMinutes(retentionMinutes), batchSize, queueCapacity);
     }
     
     @Bean
-    public GraphExecutor graphExecutor(StateGraph agentStateGraph) {
-        return new GraphExecutor(agentStateGraph);
+    public GraphExecutor graphExecutor(StateGraph agentStateGraph, Scheduler graphNodeScheduler,
+            Checkpointer graphCheckpointer, MeterRegistry meterRegistry, ObservationRegistry observationRegistry) {
+        return new GraphExecutor(agentStateGraph, graphNodeScheduler, graphCheckpointer, meterRegistry,
+                observationRegistry);
     }
 }
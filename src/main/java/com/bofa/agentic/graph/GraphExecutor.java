@@ -1,96 +1,553 @@
 package com.bofa.agentic.graph;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.bofa.agentic.exception.AgentException;
+import com.bofa.agentic.model.Deadline;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.ContextView;
+
 /**
  * Executes the agent graph - walks through nodes following edges
- * 
+ *
  * Implements the LangGraph execution model:
  * 1. Start with initial state
  * 2. Execute current node → get updated state
  * 3. Route to next node based on conditional/fixed edges
  * 4. Repeat until terminal node (END or ERROR)
- * 
- * Supports cycles for reflection/retry patterns
+ *
+ * Dispatch runs on the graph's compiled int-indexed table; the step bound
+ * and per-node visit limits come from build-time cycle analysis.
+ *
+ * Execution is a reactive chain: {@link AsyncGraphNode}s are composed
+ * directly, and synchronous {@link GraphNode}s are shifted onto a bounded
+ * scheduler, so no step ever blocks the subscribing (event-loop) thread.
+ *
+ * Supports cycles for reflection/retry patterns, and fan-out groups whose
+ * branches run concurrently and are merged through the graph's reducers
+ * (wall-clock cost is the slowest branch, not the sum)
+ *
+ * Each node runs within its {@link NodeBudget} share of the request
+ * {@link Deadline}; optional nodes are skipped rather than failing the
+ * request when that share is too small or runs out.
+ *
+ * With a {@link Checkpointer}, the state after each node is recorded so a
+ * failed execution can be continued with {@link #resume} instead of
+ * replaying the planner, retrieval and tool calls.
+ *
+ * Speculative nodes ({@link StateGraph.Builder#speculate}) start alongside
+ * their host node and are adopted or cancelled once the host's routing is
+ * known. The agentic.graph.speculation timer records, per node, hits (time
+ * saved) and waste (work cancelled).
+ *
+ * Metrics: agentic.graph.node (timer per node and outcome),
+ * agentic.graph.node.failures (per node and error code) and
+ * agentic.graph.iterations (steps per completed execution).
+ *
+ * Tracing: each execution is an observation (a child of the HTTP
+ * request's, when there is one) with a child per node; a node's
+ * observation is current while it runs, so the LLM, vector store and tool
+ * spans it starts nest under it. The agentic.trace.* observations only
+ * produce spans; the metrics above are recorded separately.
  */
 public class GraphExecutor {
-    
+
     private static final Logger log = LoggerFactory.getLogger(GraphExecutor.class);
-    private static final int MAX_ITERATIONS = 20; // Prevent infinite loops
-    
+
     private final StateGraph graph;
-    
+    private final CompiledGraph table;
+    private final AsyncGraphNode[] handlers;
+    private final Scheduler blockingScheduler;
+    private final Checkpointer checkpointer;
+    private final MeterRegistry meterRegistry;
+    private final Timer[] nodeTimers;
+    private final Timer[] failedNodeTimers;
+    private final DistributionSummary iterationCounts;
+    private final ObservationRegistry observationRegistry;
+
     public GraphExecutor(StateGraph graph) {
+        this(graph, Schedulers.boundedElastic());
+    }
+
+    public GraphExecutor(StateGraph graph, Scheduler blockingScheduler) {
+        this(graph, blockingScheduler, Checkpointer.NONE);
+    }
+
+    public GraphExecutor(StateGraph graph, Scheduler blockingScheduler, Checkpointer checkpointer) {
+        this(graph, blockingScheduler, checkpointer, Metrics.globalRegistry);
+    }
+
+    public GraphExecutor(StateGraph graph, Scheduler blockingScheduler, Checkpointer checkpointer,
+            MeterRegistry meterRegistry) {
+        this(graph, blockingScheduler, checkpointer, meterRegistry, ObservationRegistry.NOOP);
+    }
+
+    /**
+     * @param blockingScheduler Bounded scheduler that synchronous nodes run on
+     * @param checkpointer      Receives the state after every completed node
+     * @param meterRegistry     Receives execution metrics
+     * @param observationRegistry Traces the execution and each node
+     */
+    public GraphExecutor(StateGraph graph, Scheduler blockingScheduler, Checkpointer checkpointer,
+            MeterRegistry meterRegistry, ObservationRegistry observationRegistry) {
         this.graph = graph;
+        this.table = graph.compiled();
+        this.checkpointer = checkpointer;
+        this.meterRegistry = meterRegistry;
+        this.observationRegistry = observationRegistry;
+        this.blockingScheduler = blockingScheduler;
+
+        // Async nodes by index; synchronous ones are run by invoke()
+        this.handlers = new AsyncGraphNode[table.size()];
+        for (int i = 0; i < handlers.length; i++) {
+            handlers[i] = table.asyncNode(i);
+        }
+
+        this.nodeTimers = new Timer[table.size()];
+        this.failedNodeTimers = new Timer[table.size()];
+        for (int i = 0; i < nodeTimers.length; i++) {
+            nodeTimers[i] = nodeTimer(table.name(i), "success");
+            failedNodeTimers[i] = nodeTimer(table.name(i), "failure");
+        }
+        this.iterationCounts = DistributionSummary.builder("agentic.graph.iterations")
+                .description("Nodes executed per completed graph execution")
+                .register(meterRegistry);
+    }
+
+    private Timer nodeTimer(String nodeName, String outcome) {
+        return Timer.builder("agentic.graph.node")
+                .description("Graph node execution time")
+                .tag("node", nodeName)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
-    
+
     /**
-     * Execute the graph starting from initial state
-     * 
+     * Execute the graph starting from initial state, blocking the caller
+     * until it completes. Prefer {@link #executeAsync} on request threads.
+     *
      * @param initialState Starting state (with user request)
      * @return Final state after graph execution
      * @throws Exception if any node fails
      */
     public AgentState execute(AgentState initialState) throws Exception {
-        AgentState currentState = initialState;
-        int iterations = 0;
-        
-        String currentNode = graph.getEntryPoint();
-        log.info("Starting graph execution from node: {}", currentNode);
-        
-        while (!isTerminal(currentNode) && iterations < MAX_ITERATIONS) {
-            iterations++;
-            
-            log.debug("Iteration {}: Executing node '{}'", iterations, currentNode);
-            
-            // Get and execute the node
-            GraphNode node = graph.getNode(currentNode);
-            if (node == null) {
-                throw new IllegalStateException("Node not found in graph: " + currentNode);
+        try {
+            return executeAsync(initialState).toFuture().get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Execute the graph starting from initial state without blocking
+     *
+     * @param initialState Starting state (with user request)
+     * @return Mono emitting the final state, or the first node failure
+     */
+    public Mono<AgentState> executeAsync(AgentState initialState) {
+        return traced(initialState, Mono.defer(() -> {
+            int entryPoint = table.entry();
+            log.info("Starting graph execution from node: {}", table.name(entryPoint));
+            return step(entryPoint, initialState, 0, new int[table.size()], List.of());
+        }));
+    }
+
+    /**
+     * Continue an execution that failed, from the node after its last
+     * checkpoint; nodes that already completed are not run again
+     *
+     * @param requestId Id of the interrupted execution
+     * @param deadline  Budget for the remaining steps (the original has likely passed)
+     * @return Mono emitting the final state, or empty if there is nothing to resume
+     */
+    public Mono<AgentState> resume(String requestId, Deadline deadline) {
+        return Mono.defer(() -> Mono.justOrEmpty(checkpointer.load(requestId)))
+                .map(state -> state.withDeadline(deadline))
+                .flatMap(state -> {
+                    int node = table.indexOf(state.getNextNode());
+                    log.info("Resuming request {} at node '{}' after {} completed steps",
+                            requestId, state.getNextNode(), state.getExecutedNodes().size());
+                    return traced(state, step(node, state, state.getExecutedNodes().size(),
+                            table.visitCounts(state.getExecutedNodes()), List.of()));
+                });
+    }
+
+    /**
+     * Run {@code execution} inside an observation of the whole graph execution
+     */
+    private Mono<AgentState> traced(AgentState state, Mono<AgentState> execution) {
+        return Mono.deferContextual(context -> {
+            Observation observation = childObservation(context, "agentic.trace.graph", "agent.graph")
+                    .highCardinalityKeyValue("agentic.request.id", state.getRequestId())
+                    .highCardinalityKeyValue("agentic.session.id", String.valueOf(state.getRequest().sessionId()))
+                    .start();
+            return execution
+                    .contextWrite(c -> c.put(ObservationThreadLocalAccessor.KEY, observation))
+                    .doOnError(observation::error)
+                    .doFinally(signal -> observation.stop());
+        });
+    }
+
+    /**
+     * Observation whose parent is the one in {@code context}: the graph's
+     * for nodes, the caller's (e.g. the HTTP request) for the graph itself
+     */
+    private Observation childObservation(ContextView context, String name, String spanName) {
+        return Observation.createNotStarted(name, observationRegistry)
+                .contextualName(spanName)
+                .parentObservation(context.getOrDefault(ObservationThreadLocalAccessor.KEY, null));
+    }
+
+    /**
+     * @param adoptable Speculative runs launched by the previous node that
+     *                  routing reached; this step uses their results
+     */
+    private Mono<AgentState> step(int currentNode, AgentState currentState, int iterations, int[] visits,
+            List<Speculation> adoptable) {
+        if (CompiledGraph.isTerminal(currentNode)) {
+            log.info("Graph execution {} completed in {} iterations, {}ms total",
+                    currentState.getRequestId(), iterations, currentState.getElapsedTime());
+            log.debug("Executed nodes: {}", currentState.getExecutedNodes());
+            iterationCounts.record(iterations);
+            return Mono.just(currentState);
+        }
+
+        String nodeName = table.name(currentNode);
+
+        // Statically bounded, so only a misbehaving edge can hit these
+        int limit = table.visitLimit(currentNode);
+        if (limit > 0 && ++visits[currentNode] > limit) {
+            log.error("Node '{}' exceeded its visit limit ({})", nodeName, limit);
+            return Mono.error(new IllegalStateException(
+                    "Node '" + nodeName + "' exceeded its visit limit of " + limit));
+        }
+        if (iterations >= table.maxSteps()) {
+            log.error("Graph execution exceeded max steps ({}).", table.maxSteps());
+            return Mono.error(new IllegalStateException("Graph execution exceeded maximum iterations"));
+        }
+
+        int iteration = iterations + 1;
+        log.debug("Iteration {}: Executing node '{}'", iteration, nodeName);
+
+        return Mono.deferContextual(context -> {
+            List<Speculation> launched = launchSpeculation(currentNode, currentState, context);
+            return runAndRoute(currentNode, currentState, iteration, visits, adoptable, launched);
+        });
+    }
+
+    private Mono<AgentState> runAndRoute(int currentNode, AgentState currentState, int iteration, int[] visits,
+            List<Speculation> adoptable, List<Speculation> launched) {
+        String nodeName = table.name(currentNode);
+        return runNode(currentNode, currentState, adoptable)
+                .doOnError(e -> {
+                    log.error("Node '{}' failed: {}", nodeName, e.getMessage(), e);
+                    settle(launched, CompiledGraph.ERROR);
+                })
+                // Client gone or request cancelled: speculative runs must not outlive it
+                .doOnCancel(() -> settle(launched, CompiledGraph.ERROR))
+                .flatMap(newState -> {
+                    // Determine next node
+                    int nextNode = table.route(currentNode, newState);
+                    String nextName = table.name(nextNode);
+                    List<Speculation> adopted = settle(launched, nextNode);
+
+                    log.info("Node '{}' → '{}' (elapsed: {}ms)",
+                            nodeName, nextName, newState.getElapsedTime());
+
+                    // Update state with transition (restoring the request-wide
+                    // deadline the node saw narrowed) and record progress
+                    AgentState movedState = newState.transition()
+                            .deadline(currentState.getDeadline())
+                            .moveTo(nextName)
+                            .build();
+                    if (CompiledGraph.isTerminal(nextNode)) {
+                        checkpointer.complete(movedState);
+                    } else {
+                        checkpointer.save(movedState);
+                    }
+                    return step(nextNode, movedState, iteration, visits, adopted);
+                });
+    }
+
+    /**
+     * Execute a single node (or fan-out group) in its own span, recording its
+     * latency and failures (a failed branch is counted once, not again for
+     * its group)
+     */
+    private Mono<AgentState> runNode(int node, AgentState state, List<Speculation> adoptable) {
+        return Mono.deferContextual(context -> {
+            long start = System.nanoTime();
+            Observation observation = childObservation(context, "agentic.trace.node", table.name(node))
+                    .lowCardinalityKeyValue("agentic.node", table.name(node))
+                    .start();
+            return executeNode(node, state, adoptable, observation)
+                    .contextWrite(c -> c.put(ObservationThreadLocalAccessor.KEY, observation))
+                    .doOnSuccess(result -> {
+                        nodeTimers[node].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        observation.stop();
+                    })
+                    .doOnError(e -> {
+                        failedNodeTimers[node].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        if (table.fanOutBranches(node) == null) {
+                            meterRegistry.counter("agentic.graph.node.failures",
+                                    "node", table.name(node), "error", errorCode(e)).increment();
+                        }
+                        observation.error(e).stop();
+                    })
+                    .doOnCancel(() -> observation.highCardinalityKeyValue("agentic.cancelled", "true").stop());
+        });
+    }
+
+    private static String errorCode(Throwable e) {
+        return e instanceof AgentException agentException
+                ? agentException.getErrorCode()
+                : e.getClass().getSimpleName();
+    }
+
+    /**
+     * Execute a single node (or fan-out group) as a Mono, within its share
+     * of the state's deadline; the node sees that share as its deadline
+     */
+    private Mono<AgentState> executeNode(int node, AgentState state, List<Speculation> adoptable,
+            Observation observation) {
+        for (Speculation speculation : adoptable) {
+            if (speculation.node == node) {
+                observation.highCardinalityKeyValue("agentic.speculated", "true");
+                return adopt(speculation, state);
             }
-            
-            try {
-                // Execute node and get updated state
-                AgentState newState = node.execute(currentState);
-                
-                // Determine next node
-                String nextNode = graph.getNextNode(currentNode, newState);
-                
-                log.info("Node '{}' → '{}' (elapsed: {}ms)", 
-                        currentNode, nextNode, newState.getElapsedTime());
-                
-                // Update state with transition
-                currentState = newState.moveTo(nextNode);
-                currentNode = nextNode;
-                
-            } catch (Exception e) {
-                log.error("Node '{}' failed: {}", currentNode, e.getMessage(), e);
-                
-                // Add error metadata and move to ERROR terminal
-                currentState = currentState
-                        .addMetadata("error", e.getMessage())
-                        .addMetadata("failedNode", currentNode)
-                        .moveTo("ERROR");
-                
-                throw e;
+        }
+
+        NodeBudget budget = table.budget(node);
+        String nodeName = table.name(node);
+        Deadline deadline = state.getDeadline().share(budget.share());
+
+        if (budget.isOptional() && deadline.isBounded()
+                && deadline.remaining().toMillis() < budget.minMillis()) {
+            log.warn("Skipping optional node '{}': {}ms budget, needs {}ms",
+                    nodeName, deadline.remaining().toMillis(), budget.minMillis());
+            observation.highCardinalityKeyValue("agentic.skipped", "true");
+            return Mono.just(state.addMetadata(nodeName + "Skipped", true));
+        }
+
+        AgentState input = deadline == state.getDeadline() ? state : state.withDeadline(deadline);
+        int[] branches = table.fanOutBranches(node);
+        if (branches != null) {
+            // Each branch is bounded by its own share of the group's deadline
+            return executeFanOut(node, branches, input, adoptable);
+        }
+
+        Mono<AgentState> run = deadline.bound(invoke(node, input, observation), "node '" + nodeName + "'");
+
+        if (budget.isOptional()) {
+            // Degrade: carry on as if the node had not been routed to
+            run = run.onErrorResume(GraphExecutor::isDeadlineExceeded, e -> {
+                log.warn("Optional node '{}' overran its budget; continuing without it", nodeName);
+                observation.highCardinalityKeyValue("agentic.skipped", "true");
+                return Mono.just(state.addMetadata(nodeName + "Skipped", true));
+            });
+        }
+        return run;
+    }
+
+    /**
+     * Run a node's handler with its observation current on the thread doing
+     * the work, so the LLM, vector store and tool spans it starts nest under it
+     */
+    private Mono<AgentState> invoke(int node, AgentState input, Observation observation) {
+        GraphNode blocking = table.syncNode(node);
+        if (blocking != null) {
+            // Off the caller's (possibly event-loop) thread, as in AsyncGraphNode.fromBlocking
+            AtomicBoolean cancelled = new AtomicBoolean();
+            return Mono.fromCallable(() -> {
+                try (Observation.Scope scope = observation.openScope()) {
+                    return blocking.execute(input);
+                } catch (Exception e) {
+                    if (cancelled.get()) {
+                        // Interrupted because nothing waits for it any more (deadline,
+                        // disconnect); not an error worth reporting as dropped
+                        log.debug("Node '{}' stopped after cancellation: {}", table.name(node), e.toString());
+                        return null;
+                    }
+                    throw e;
+                }
+            }).doOnCancel(() -> cancelled.set(true)).subscribeOn(blockingScheduler);
+        }
+
+        // Async nodes start their work while being subscribed to
+        AsyncGraphNode handler = handlers[node];
+        return Mono.create(sink -> {
+            try (Observation.Scope scope = observation.openScope()) {
+                sink.onCancel(handler.executeAsync(input)
+                        .contextWrite(sink.contextView())
+                        .subscribe(sink::success, sink::error, sink::success));
             }
+        });
+    }
+
+    private static boolean isDeadlineExceeded(Throwable e) {
+        return e instanceof AgentException agentException
+                && "DEADLINE_EXCEEDED".equals(agentException.getErrorCode());
+    }
+
+    /**
+     * Run every branch of a fan-out concurrently from the same forked state,
+     * then fold the branch results into one state in declaration order
+     */
+    private Mono<AgentState> executeFanOut(int fanOut, int[] branches, AgentState fork,
+            List<Speculation> adoptable) {
+        String fanOutName = table.name(fanOut);
+        List<String> branchNames = graph.getFanOutBranches(fanOutName);
+        long start = System.currentTimeMillis();
+
+        log.debug("Fan-out '{}' starting branches {}", fanOutName, branchNames);
+
+        return Flux.range(0, branches.length)
+                .flatMapSequential(i -> runNode(branches[i], fork, adoptable))
+                .collectList()
+                .map(results -> {
+                    AgentState merged = fork;
+                    for (AgentState branchResult : results) {
+                        for (StateReducer reducer : graph.getReducers()) {
+                            merged = reducer.reduce(fork, merged, branchResult);
+                        }
+                    }
+
+                    log.info("Fan-out '{}' merged branches {} in {}ms",
+                            fanOutName, branchNames, System.currentTimeMillis() - start);
+
+                    return merged.addMetadata("parallelBranches", branchNames);
+                });
+    }
+
+    // ------------------------------------------------------------------
+    // Speculation
+    // ------------------------------------------------------------------
+
+    /**
+     * A node launched ahead of routing, from the state its host started with
+     */
+    private static final class Speculation {
+        final int node;
+        final AgentState fork;
+        final Sinks.One<AgentState> result = Sinks.one();
+        final long startNanos = System.nanoTime();
+        final AtomicBoolean settled = new AtomicBoolean();
+        volatile long finishNanos;
+        Disposable running;
+
+        Speculation(int node, AgentState fork) {
+            this.node = node;
+            this.fork = fork;
+        }
+
+        /**
+         * Work done before routing decided: latency saved on a hit, load wasted otherwise
+         */
+        Duration headStart() {
+            long end = finishNanos != 0 ? finishNanos : System.nanoTime();
+            return Duration.ofNanos(end - startNanos);
         }
-        
-        if (iterations >= MAX_ITERATIONS) {
-            log.error("Graph execution exceeded max iterations ({}). Possible cycle detected.", 
-                    MAX_ITERATIONS);
-            throw new IllegalStateException("Graph execution exceeded maximum iterations");
-        }
-        
-        log.info("Graph execution completed in {} iterations, {}ms total", 
-                iterations, currentState.getElapsedTime());
-        log.debug("Executed nodes: {}", currentState.getExecutedNodes());
-        
-        return currentState;
-    }
-    
-    private boolean isTerminal(String nodeName) {
-        return "END".equals(nodeName) || "ERROR".equals(nodeName);
+    }
+
+    private List<Speculation> launchSpeculation(int host, AgentState state, ContextView context) {
+        int[] targets = table.speculative(host);
+        if (targets == null) {
+            return List.of();
+        }
+
+        List<Speculation> launched = new ArrayList<>(targets.length);
+        for (int target : targets) {
+            Speculation speculation = new Speculation(target, state);
+            log.debug("Speculatively starting '{}' alongside '{}'", table.name(target), table.name(host));
+            speculation.running = runNode(target, state, List.of()).contextWrite(context).subscribe(
+                    value -> {
+                        speculation.finishNanos = System.nanoTime();
+                        speculation.result.tryEmitValue(value);
+                    },
+                    error -> {
+                        speculation.finishNanos = System.nanoTime();
+                        speculation.result.tryEmitError(error);
+                    });
+            launched.add(speculation);
+        }
+        return launched;
+    }
+
+    /**
+     * Keep the speculative runs the next node will use; cancel the rest.
+     * Each run is settled once, whether by routing, a failure or cancellation
+     */
+    private List<Speculation> settle(List<Speculation> launched, int nextNode) {
+        if (launched.isEmpty()) {
+            return List.of();
+        }
+
+        List<Speculation> adopted = new ArrayList<>(launched.size());
+        for (Speculation speculation : launched) {
+            if (!speculation.settled.compareAndSet(false, true)) {
+                continue;
+            }
+            String nodeName = table.name(speculation.node);
+            boolean hit = table.reaches(nextNode, speculation.node);
+            if (hit) {
+                adopted.add(speculation);
+            } else {
+                speculation.running.dispose();
+            }
+            Duration headStart = speculation.headStart();
+            meterRegistry.timer("agentic.graph.speculation", "node", nodeName, "outcome", hit ? "hit" : "waste")
+                    .record(headStart);
+            log.debug("Speculative '{}' {} after {}ms", nodeName, hit ? "adopted" : "cancelled",
+                    headStart.toMillis());
+        }
+        return adopted;
+    }
+
+    /**
+     * Fold a speculative result into the routed state through the reducers,
+     * as if it were a branch forked from the host's input; if the
+     * speculative run failed, run the node normally instead
+     */
+    private Mono<AgentState> adopt(Speculation speculation, AgentState state) {
+        String nodeName = table.name(speculation.node);
+        return speculation.result.asMono()
+                .map(result -> {
+                    AgentState merged = state;
+                    for (StateReducer reducer : graph.getReducers()) {
+                        merged = reducer.reduce(speculation.fork, merged, result);
+                    }
+                    return merged.addMetadata(nodeName + "Speculated", true);
+                })
+                .doOnCancel(speculation.running::dispose)
+                .onErrorResume(e -> {
+                    log.warn("Speculative '{}' failed ({}); running it normally", nodeName, e.getMessage());
+                    meterRegistry.counter("agentic.graph.speculation.failures", "node", nodeName).increment();
+                    return runNode(speculation.node, state, List.of());
+                });
     }
 }
@@ -0,0 +1,398 @@
+package com.bofa.agentic.graph;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link Checkpointer} backed by an append-only, memory-mapped log file
+ *
+ * The execution path only updates an in-memory index and enqueues the
+ * state; a single writer thread encodes queued states with
+ * {@link AgentStateCodec}, appends them to the mapped file and forces each
+ * batch to disk once. Loads are served from the index, which is rebuilt by
+ * scanning the log on startup.
+ *
+ * Record layout: {@code [int length][int crc32][byte type][body]}, where the
+ * body is an encoded state (SNAPSHOT) or a request id (DONE). A zero length
+ * marks the end of the log. When the mapping is full, the writer compacts
+ * it by rewriting only the unfinished, unexpired snapshots.
+ */
+public class MappedLogCheckpointer implements Checkpointer {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedLogCheckpointer.class);
+
+    private static final byte SNAPSHOT = 1;
+    private static final byte DONE = 2;
+    private static final int HEADER_BYTES = 9;
+    private static final long PURGE_INTERVAL_MS = 60_000;
+
+    private final Path path;
+    private final Duration retention;
+    private final int batchSize;
+    private final BlockingQueue<Pending> queue;
+
+    // Execution-path index: latest state per unfinished request
+    private final Map<String, AgentState> byRequest = new ConcurrentHashMap<>();
+    private final Map<SessionKey, String> bySession = new ConcurrentHashMap<>();
+
+    // Writer-confined: what the log currently holds for each live request
+    private final Map<String, Persisted> persisted = new HashMap<>();
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+
+    private final Thread writer;
+    private volatile boolean closed;
+
+    private record Pending(byte type, AgentState state) {
+    }
+
+    private record Persisted(byte[] body, long startTime) {
+    }
+
+    private record LogRecord(byte type, byte[] body) {
+    }
+
+    // Sessions are per user: one user cannot resume another's request
+    private record SessionKey(String userId, String sessionId) {
+
+        static SessionKey of(AgentState state) {
+            String sessionId = state.getRequest().sessionId();
+            return sessionId != null ? new SessionKey(state.getRequest().userId(), sessionId) : null;
+        }
+    }
+
+    /**
+     * @param path      Log file; created if missing, recovered if present
+     * @param capacity  Initial size of the mapping in bytes
+     * @param retention How long an unfinished execution stays resumable
+     * @param batchSize Maximum records written per forced batch
+     * @param queueCapacity Pending writes beyond this are dropped, never blocking a request
+     */
+    public MappedLogCheckpointer(Path path, int capacity, Duration retention, int batchSize, int queueCapacity)
+            throws IOException {
+        this.path = path;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        open(Math.max(capacity, (int) Math.min(Integer.MAX_VALUE, Files.exists(path) ? Files.size(path) : 0)));
+        recover();
+
+        this.writer = new Thread(this::writeLoop, "graph-checkpoint");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // ------------------------------------------------------------------
+    // Checkpointer (execution path: no I/O)
+    // ------------------------------------------------------------------
+
+    @Override
+    public void save(AgentState state) {
+        String requestId = state.getRequestId();
+        byRequest.put(requestId, state);
+
+        SessionKey session = SessionKey.of(state);
+        if (session != null) {
+            String previous = bySession.put(session, requestId);
+            if (previous != null && !previous.equals(requestId)) {
+                // A newer request in the session supersedes the unfinished one
+                AgentState superseded = byRequest.remove(previous);
+                if (superseded != null) {
+                    enqueue(new Pending(DONE, superseded));
+                }
+            }
+        }
+        enqueue(new Pending(SNAPSHOT, state));
+    }
+
+    @Override
+    public void complete(AgentState state) {
+        String requestId = state.getRequestId();
+        if (byRequest.remove(requestId) == null) {
+            return;
+        }
+        SessionKey session = SessionKey.of(state);
+        if (session != null) {
+            bySession.remove(session, requestId);
+        }
+        enqueue(new Pending(DONE, state));
+    }
+
+    @Override
+    public Optional<AgentState> load(String requestId) {
+        AgentState state = byRequest.get(requestId);
+        if (state == null || isExpired(state.getStartTime())) {
+            return Optional.empty();
+        }
+        return Optional.of(state);
+    }
+
+    @Override
+    public Optional<String> latestForSession(String userId, String sessionId) {
+        return Optional.ofNullable(bySession.get(new SessionKey(userId, sessionId)))
+                .filter(requestId -> load(requestId).isPresent());
+    }
+
+    private void enqueue(Pending pending) {
+        if (closed || !queue.offer(pending)) {
+            log.warn("Checkpoint queue full or closed; dropping {} for request {}",
+                    pending.type() == SNAPSHOT ? "snapshot" : "completion", pending.state().getRequestId());
+        }
+    }
+
+    private boolean isExpired(long startTime) {
+        return System.currentTimeMillis() - startTime > retention.toMillis();
+    }
+
+    // ------------------------------------------------------------------
+    // Writer thread
+    // ------------------------------------------------------------------
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        long lastPurge = System.currentTimeMillis();
+        while (!closed || !queue.isEmpty()) {
+            try {
+                // Polled rather than interrupted: an interrupt would close the FileChannel
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (System.currentTimeMillis() - lastPurge > PURGE_INTERVAL_MS) {
+                        purgeExpired();
+                        lastPurge = System.currentTimeMillis();
+                    }
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Failed to write checkpoint batch of {} records", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Abandoned executions are dropped from memory here and from disk on compaction
+    private void purgeExpired() {
+        byRequest.values().removeIf(state -> {
+            if (!isExpired(state.getStartTime())) {
+                return false;
+            }
+            SessionKey session = SessionKey.of(state);
+            if (session != null) {
+                bySession.remove(session, state.getRequestId());
+            }
+            return true;
+        });
+    }
+
+    private void writeBatch(List<Pending> batch) {
+        for (Pending pending : batch) {
+            AgentState state = pending.state();
+            String requestId = state.getRequestId();
+
+            byte[] body;
+            if (pending.type() == SNAPSHOT) {
+                try {
+                    body = AgentStateCodec.encode(state);
+                } catch (IllegalArgumentException e) {
+                    // The previous snapshot, if any, stays the resume point
+                    log.warn("Not checkpointing request {} after node {}: {}", requestId,
+                            state.getCurrentNode(), e.getMessage());
+                    continue;
+                }
+                persisted.put(requestId, new Persisted(body, state.getStartTime()));
+            } else {
+                if (persisted.remove(requestId) == null) {
+                    continue; // never reached the log
+                }
+                body = requestId.getBytes(StandardCharsets.UTF_8);
+            }
+            append(pending.type(), body);
+        }
+        buffer.force();
+    }
+
+    private void append(byte type, byte[] body) {
+        if (buffer.remaining() < HEADER_BYTES + body.length + Integer.BYTES) {
+            compact(HEADER_BYTES + body.length + Integer.BYTES);
+        }
+        put(buffer, type, body);
+    }
+
+    private static void put(MappedByteBuffer target, byte type, byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(body);
+        target.putInt(body.length + 1);
+        target.putInt((int) crc.getValue());
+        target.put(type);
+        target.put(body);
+    }
+
+    /**
+     * Rewrite the live snapshots into a fresh file and swap it in
+     */
+    private void compact(int reserve) {
+        persisted.values().removeIf(p -> isExpired(p.startTime()));
+
+        long live = 0;
+        for (Persisted p : persisted.values()) {
+            live += HEADER_BYTES + p.body().length;
+        }
+        int newCapacity = capacity;
+        while (live + reserve + Integer.BYTES > newCapacity / 2 && newCapacity < Integer.MAX_VALUE / 2) {
+            newCapacity *= 2;
+        }
+
+        Path tmp = path.resolveSibling(path.getFileName() + ".compact");
+        try {
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer target = out.map(FileChannel.MapMode.READ_WRITE, 0, newCapacity);
+                for (Persisted p : persisted.values()) {
+                    put(target, SNAPSHOT, p.body());
+                }
+                target.force();
+            }
+            channel.close();
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            open(newCapacity);
+            skipToEnd();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compact checkpoint log " + path, e);
+        }
+        log.info("Compacted checkpoint log {}: {} live executions, {} bytes mapped",
+                path, persisted.size(), newCapacity);
+    }
+
+    // ------------------------------------------------------------------
+    // File
+    // ------------------------------------------------------------------
+
+    private void open(int size) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        this.capacity = size;
+    }
+
+    /**
+     * Rebuild the index from the log, stopping at the first torn record
+     */
+    private void recover() {
+        Map<String, byte[]> latest = new HashMap<>();
+        buffer.position(0);
+        for (LogRecord record = readRecord(); record != null; record = readRecord()) {
+            if (record.type() == SNAPSHOT) {
+                try {
+                    latest.put(AgentStateCodec.decode(record.body()).getRequestId(), record.body());
+                } catch (RuntimeException e) {
+                    log.warn("Skipping unreadable checkpoint in {}: {}", path, e.getMessage());
+                }
+            } else {
+                latest.remove(new String(record.body(), StandardCharsets.UTF_8));
+            }
+        }
+
+        for (byte[] body : latest.values()) {
+            AgentState state = AgentStateCodec.decode(body);
+            if (isExpired(state.getStartTime())) {
+                continue;
+            }
+            persisted.put(state.getRequestId(), new Persisted(body, state.getStartTime()));
+            byRequest.put(state.getRequestId(), state);
+            SessionKey session = SessionKey.of(state);
+            if (session != null) {
+                bySession.merge(session, state.getRequestId(), (current, candidate) ->
+                        byRequest.get(current).getStartTime() >= state.getStartTime() ? current : candidate);
+            }
+        }
+        if (!persisted.isEmpty()) {
+            log.info("Recovered {} resumable executions from {}", persisted.size(), path);
+        }
+    }
+
+    private void skipToEnd() {
+        buffer.position(0);
+        while (readRecord() != null) {
+            // advance past every valid record
+        }
+    }
+
+    /**
+     * Read the record at the buffer position, or return null (leaving the
+     * position at the end of the log) if there is none or it is torn
+     */
+    private LogRecord readRecord() {
+        int start = buffer.position();
+        if (buffer.remaining() < HEADER_BYTES) {
+            return null;
+        }
+        int length = buffer.getInt();
+        int checksum = buffer.getInt();
+        if (length <= 0 || length > buffer.remaining()) {
+            buffer.position(start);
+            return null;
+        }
+        byte type = buffer.get();
+        byte[] body = new byte[length - 1];
+        buffer.get(body);
+
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(body);
+        if ((int) crc.getValue() != checksum) {
+            log.warn("Torn checkpoint record at offset {} in {}; truncating", start, path);
+            buffer.putInt(start, 0);
+            buffer.position(start);
+            return null;
+        }
+        return new LogRecord(type, body);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            writer.join(Duration.ofSeconds(10).toMillis());
+            buffer.force();
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.warn("Failed to close checkpoint log {}", path, e);
+        }
+    }
+}
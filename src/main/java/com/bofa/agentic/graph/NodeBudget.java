@@ -0,0 +1,16 @@
+package com.bofa.agentic.graph;
+
+/**
+ * Time budget of one node: the share of the request's remaining deadline
+ * it may spend, and, for optional nodes, the minimum budget worth starting
+ * with. An optional node that cannot get that minimum, or overruns its
+ * share, is skipped instead of failing the request.
+ */
+record NodeBudget(double share, long minMillis) {
+
+    static final NodeBudget DEFAULT = new NodeBudget(1.0, -1);
+
+    boolean isOptional() {
+        return minMillis >= 0;
+    }
+}
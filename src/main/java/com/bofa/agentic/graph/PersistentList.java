@@ -0,0 +1,73 @@
+package com.bofa.agentic.graph;
+
+import java.util.AbstractList;
+
+/**
+ * Immutable append-only list backed by a shared tail-linked chain
+ *
+ * {@link #plus(Object)} is O(1) and shares the whole existing list with the
+ * result. Random access materialises an array once per instance and caches
+ * it, which suits {@link AgentState#getExecutedNodes()}: appended on every
+ * step, read only for logging and reporting at the end.
+ */
+final class PersistentList<E> extends AbstractList<E> {
+
+    private static final PersistentList<?> EMPTY = new PersistentList<>(null, null, 0);
+
+    private final PersistentList<E> prefix;
+    private final E last;
+    private final int size;
+
+    // Volatile so a thread that sees the array also sees its elements;
+    // two threads may still both build it, with the same contents
+    private volatile Object[] snapshot;
+
+    private PersistentList(PersistentList<E> prefix, E last, int size) {
+        this.prefix = prefix;
+        this.last = last;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E> PersistentList<E> empty() {
+        return (PersistentList<E>) EMPTY;
+    }
+
+    /**
+     * Return a list with {@code element} appended
+     */
+    PersistentList<E> plus(E element) {
+        return new PersistentList<>(this, element, size + 1);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        if (index == size - 1) {
+            return last;
+        }
+        return (E) snapshot()[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private Object[] snapshot() {
+        Object[] cached = snapshot;
+        if (cached == null) {
+            cached = new Object[size];
+            PersistentList<E> node = this;
+            for (int i = size - 1; i >= 0; i--) {
+                cached[i] = node.last;
+                node = node.prefix;
+            }
+            snapshot = cached;
+        }
+        return cached;
+    }
+}
@@ -0,0 +1,238 @@
+package com.bofa.agentic.graph;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable hash array mapped trie (HAMT)
+ *
+ * {@link #plus(Object, Object)} returns a new map that shares every untouched
+ * sub-trie with the original, so an update costs O(log32 n) allocations
+ * instead of copying the whole map. Used for {@link AgentState} metadata,
+ * where each graph step adds a key or two to an otherwise unchanged map.
+ *
+ * Exposed as a read-only {@link java.util.Map}; mutators inherited from
+ * {@link AbstractMap} throw {@link UnsupportedOperationException}.
+ */
+final class PersistentMap<K, V> extends AbstractMap<K, V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(null, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Return a map with {@code key} bound to {@code value}
+     * (or this map if the binding is already present)
+     */
+    PersistentMap<K, V> plus(K key, V value) {
+        Leaf leaf = new Leaf(hash(key), key, value);
+        boolean[] added = new boolean[1];
+        Node newRoot = insert(root, 0, leaf, added);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        Leaf leaf = find(key);
+        return leaf != null ? (V) leaf.value : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return find(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                List<Entry<K, V>> entries = new ArrayList<>(size);
+                collect(root, entries);
+                // Read-only, so remove() through the view throws instead of editing a copy
+                return Collections.unmodifiableList(entries).iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    // ------------------------------------------------------------------
+    // Trie internals
+    // ------------------------------------------------------------------
+
+    private sealed interface Node permits Leaf, Branch, Collision {
+    }
+
+    private record Leaf(int hash, Object key, Object value) implements Node {
+    }
+
+    /** Bitmap-indexed node: only occupied slots are stored */
+    private record Branch(int bitmap, Node[] children) implements Node {
+    }
+
+    /** Leaves whose full 32-bit hashes are equal */
+    private record Collision(int hash, Leaf[] leaves) implements Node {
+    }
+
+    private static int hash(Object key) {
+        int h = Objects.hashCode(key);
+        return h ^ (h >>> 16);
+    }
+
+    private Leaf find(Object key) {
+        int hash = hash(key);
+        Node node = root;
+        int shift = 0;
+        while (node != null) {
+            if (node instanceof Leaf leaf) {
+                return leaf.hash == hash && Objects.equals(leaf.key, key) ? leaf : null;
+            }
+            if (node instanceof Collision collision) {
+                if (collision.hash != hash) {
+                    return null;
+                }
+                for (Leaf leaf : collision.leaves) {
+                    if (Objects.equals(leaf.key, key)) {
+                        return leaf;
+                    }
+                }
+                return null;
+            }
+            Branch branch = (Branch) node;
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((branch.bitmap & bit) == 0) {
+                return null;
+            }
+            node = branch.children[Integer.bitCount(branch.bitmap & (bit - 1))];
+            shift += BITS;
+        }
+        return null;
+    }
+
+    private static Node insert(Node node, int shift, Leaf leaf, boolean[] added) {
+        if (node == null) {
+            added[0] = true;
+            return leaf;
+        }
+
+        if (node instanceof Leaf existing) {
+            if (existing.hash == leaf.hash && Objects.equals(existing.key, leaf.key)) {
+                return existing.value == leaf.value ? existing : leaf;
+            }
+            added[0] = true;
+            if (existing.hash == leaf.hash) {
+                return new Collision(leaf.hash, new Leaf[] { existing, leaf });
+            }
+            return merge(shift, existing.hash, existing, leaf.hash, leaf);
+        }
+
+        if (node instanceof Collision collision) {
+            if (collision.hash != leaf.hash) {
+                added[0] = true;
+                return merge(shift, collision.hash, collision, leaf.hash, leaf);
+            }
+            Leaf[] leaves = collision.leaves;
+            for (int i = 0; i < leaves.length; i++) {
+                if (Objects.equals(leaves[i].key, leaf.key)) {
+                    if (leaves[i].value == leaf.value) {
+                        return collision;
+                    }
+                    Leaf[] copy = leaves.clone();
+                    copy[i] = leaf;
+                    return new Collision(leaf.hash, copy);
+                }
+            }
+            Leaf[] copy = Arrays.copyOf(leaves, leaves.length + 1);
+            copy[leaves.length] = leaf;
+            added[0] = true;
+            return new Collision(leaf.hash, copy);
+        }
+
+        Branch branch = (Branch) node;
+        int bit = 1 << ((leaf.hash >>> shift) & MASK);
+        int index = Integer.bitCount(branch.bitmap & (bit - 1));
+
+        if ((branch.bitmap & bit) == 0) {
+            Node[] children = new Node[branch.children.length + 1];
+            System.arraycopy(branch.children, 0, children, 0, index);
+            children[index] = leaf;
+            System.arraycopy(branch.children, index, children, index + 1, branch.children.length - index);
+            added[0] = true;
+            return new Branch(branch.bitmap | bit, children);
+        }
+
+        Node child = branch.children[index];
+        Node newChild = insert(child, shift + BITS, leaf, added);
+        if (newChild == child) {
+            return branch;
+        }
+        Node[] children = branch.children.clone();
+        children[index] = newChild;
+        return new Branch(branch.bitmap, children);
+    }
+
+    /**
+     * Build the smallest sub-trie holding two nodes with different hashes
+     */
+    private static Node merge(int shift, int hashA, Node a, int hashB, Node b) {
+        int indexA = (hashA >>> shift) & MASK;
+        int indexB = (hashB >>> shift) & MASK;
+        if (indexA == indexB) {
+            return new Branch(1 << indexA, new Node[] { merge(shift + BITS, hashA, a, hashB, b) });
+        }
+        Node[] children = indexA < indexB ? new Node[] { a, b } : new Node[] { b, a };
+        return new Branch((1 << indexA) | (1 << indexB), children);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> void collect(Node node, List<Entry<K, V>> out) {
+        if (node == null) {
+            return;
+        }
+        if (node instanceof Leaf leaf) {
+            out.add(new SimpleImmutableEntry<>((K) leaf.key, (V) leaf.value));
+        } else if (node instanceof Collision collision) {
+            for (Leaf leaf : collision.leaves) {
+                collect(leaf, out);
+            }
+        } else {
+            for (Node child : ((Branch) node).children) {
+                collect(child, out);
+            }
+        }
+    }
+}
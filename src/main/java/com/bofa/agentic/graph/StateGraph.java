@@ -1,6 +1,9 @@
 package com.bofa.agentic.graph;
 
-import java.util.HashMap;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -8,6 +11,14 @@ import java.util.Map;
  * 
  * Maps node names to their implementations and defines edges (routing logic)
  * 
+ * Fan-out groups run several nodes concurrently from the same state and
+ * merge their results through per-field {@link StateReducer}s before
+ * following the group's own (fan-in) edge.
+ * 
+ * {@link Builder#build()} validates the definition and compiles it into an
+ * int-indexed {@link CompiledGraph}, so wiring mistakes fail at startup
+ * rather than under traffic.
+ * 
  * Example graph:
  * START → planner → (conditional) → [rag, tools, composer] → composer → guard → (conditional) → [END, reflection]
  * 
@@ -16,32 +27,52 @@ import java.util.Map;
 public class StateGraph {
     
     private final Map<String, GraphNode> nodes;
+    private final Map<String, AsyncGraphNode> asyncNodes;
     private final Map<String, ConditionalEdge> conditionalEdges;
     private final Map<String, String> fixedEdges;
+    private final Map<String, List<String>> fanOuts;
+    private final Map<String, List<String>> conditionalTargets;
+    private final Map<String, Integer> visitLimits;
+    private final Map<String, NodeBudget> budgets;
+    private final Map<String, List<String>> speculations;
+    private final List<StateReducer> reducers;
     private String entryPoint;
+    private CompiledGraph compiled;
     
     private StateGraph() {
-        this.nodes = new HashMap<>();
-        this.conditionalEdges = new HashMap<>();
-        this.fixedEdges = new HashMap<>();
+        this.nodes = new LinkedHashMap<>();
+        this.asyncNodes = new LinkedHashMap<>();
+        this.conditionalEdges = new LinkedHashMap<>();
+        this.fixedEdges = new LinkedHashMap<>();
+        this.fanOuts = new LinkedHashMap<>();
+        this.conditionalTargets = new LinkedHashMap<>();
+        this.visitLimits = new LinkedHashMap<>();
+        this.budgets = new LinkedHashMap<>();
+        this.speculations = new LinkedHashMap<>();
+        this.reducers = new ArrayList<>();
     }
     
     public static Builder builder() {
         return new Builder();
     }
     
+    /**
+     * Synchronous node registered under this name, or null
+     */
     public GraphNode getNode(String nodeName) {
         return nodes.get(nodeName);
     }
     
+    /**
+     * Non-blocking node registered under this name, or null
+     */
+    public AsyncGraphNode getAsyncNode(String nodeName) {
+        return asyncNodes.get(nodeName);
+    }
+    
     public String getNextNode(String currentNode, AgentState state) {
-        // Check conditional edges first
-        if (conditionalEdges.containsKey(currentNode)) {
-            return conditionalEdges.get(currentNode).route(state);
-        }
-        
-        // Fall back to fixed edges
-        return fixedEdges.getOrDefault(currentNode, "END");
+        int from = compiled.indexOf(currentNode);
+        return compiled.name(compiled.route(from, state));
     }
     
     public String getEntryPoint() {
@@ -49,7 +80,38 @@ public class StateGraph {
     }
     
     public boolean hasNode(String nodeName) {
-        return nodes.containsKey(nodeName);
+        return isNode(nodeName) || fanOuts.containsKey(nodeName);
+    }
+    
+    private boolean isNode(String nodeName) {
+        return nodes.containsKey(nodeName) || asyncNodes.containsKey(nodeName);
+    }
+    
+    public boolean isFanOut(String nodeName) {
+        return fanOuts.containsKey(nodeName);
+    }
+    
+    /**
+     * Branch node names of a fan-out group, in merge order
+     */
+    public List<String> getFanOutBranches(String fanOutName) {
+        return fanOuts.getOrDefault(fanOutName, List.of());
+    }
+    
+    public List<StateReducer> getReducers() {
+        return reducers;
+    }
+    
+    /**
+     * Upper bound on steps a single execution can take, derived from the
+     * graph shape and visit limits at build time
+     */
+    public int getMaxSteps() {
+        return compiled.maxSteps();
+    }
+    
+    CompiledGraph compiled() {
+        return compiled;
     }
     
     /**
@@ -70,6 +132,36 @@ public class StateGraph {
             return this;
         }
         
+        /**
+         * Add a non-blocking node to the graph
+         */
+        public Builder addAsyncNode(String name, AsyncGraphNode node) {
+            graph.asyncNodes.put(name, node);
+            return this;
+        }
+        
+        /**
+         * Add a fan-out group: routing to {@code name} runs all branches
+         * concurrently, merges them, then follows the edge from {@code name}
+         * (the fan-in)
+         */
+        public Builder addFanOut(String name, String... branches) {
+            if (branches.length < 2) {
+                throw new IllegalArgumentException("Fan-out '" + name + "' needs at least two branches");
+            }
+            graph.fanOuts.put(name, List.of(branches));
+            return this;
+        }
+        
+        /**
+         * Declare how a field is merged when parallel branches join.
+         * If none are declared, {@link StateReducers#defaults()} is used.
+         */
+        public Builder addReducer(StateReducer reducer) {
+            graph.reducers.add(reducer);
+            return this;
+        }
+        
         /**
          * Add a fixed edge (always routes to same next node)
          */
@@ -80,9 +172,57 @@ public class StateGraph {
         
         /**
          * Add a conditional edge (routes based on state)
+         * 
+         * @param targets Every node name the edge may return (END included);
+         *                required so the graph can be validated at build time
          */
-        public Builder addConditionalEdge(String from, ConditionalEdge edge) {
+        public Builder addConditionalEdge(String from, ConditionalEdge edge, String... targets) {
             graph.conditionalEdges.put(from, edge);
+            graph.conditionalTargets.put(from, List.of(targets));
+            return this;
+        }
+        
+        /**
+         * Cap how many times a node may run in one execution. Every cycle in
+         * the graph must pass through at least one node with a limit.
+         */
+        public Builder limitVisits(String nodeName, int maxVisits) {
+            graph.visitLimits.put(nodeName, maxVisits);
+            return this;
+        }
+        
+        /**
+         * Limit a node (or fan-out group) to a fraction of the request
+         * deadline remaining when it starts; fan-out branches share the
+         * group's budget the same way
+         */
+        public Builder budget(String nodeName, double share) {
+            NodeBudget current = graph.budgets.getOrDefault(nodeName, NodeBudget.DEFAULT);
+            graph.budgets.put(nodeName, new NodeBudget(share, current.minMillis()));
+            return this;
+        }
+        
+        /**
+         * Let a node degrade instead of failing the request: it is skipped
+         * when its budget is below {@code minBudget}, or abandoned with its
+         * input state when it overruns the budget
+         */
+        public Builder optional(String nodeName, Duration minBudget) {
+            NodeBudget current = graph.budgets.getOrDefault(nodeName, NodeBudget.DEFAULT);
+            graph.budgets.put(nodeName, new NodeBudget(current.share(), minBudget.toMillis()));
+            return this;
+        }
+        
+        /**
+         * Start {@code nodes} speculatively, from the same input state, while
+         * {@code whileRunning} executes. If routing then reaches one of them
+         * (directly or as a fan-out branch) its result is merged in through
+         * the reducers instead of running it again; otherwise it is cancelled.
+         * Only suitable for nodes that do not read what {@code whileRunning}
+         * writes.
+         */
+        public Builder speculate(String whileRunning, String... nodes) {
+            graph.speculations.put(whileRunning, List.of(nodes));
             return this;
         }
         
@@ -95,15 +235,29 @@ public class StateGraph {
         }
         
         /**
-         * Build the graph
+         * Validate and compile the graph
+         * 
+         * @throws IllegalStateException on unknown edge targets, undeclared
+         *         conditional targets, unreachable nodes or unbounded cycles
          */
         public StateGraph build() {
             if (graph.entryPoint == null) {
                 throw new IllegalStateException("Entry point must be set");
             }
-            if (!graph.nodes.containsKey(graph.entryPoint)) {
-                throw new IllegalStateException("Entry point node does not exist: " + graph.entryPoint);
+            if (graph.reducers.isEmpty()) {
+                graph.reducers.addAll(StateReducers.defaults());
             }
+            graph.compiled = CompiledGraph.compile(
+                    graph.entryPoint,
+                    graph.nodes,
+                    graph.asyncNodes,
+                    graph.fanOuts,
+                    graph.fixedEdges,
+                    graph.conditionalEdges,
+                    graph.conditionalTargets,
+                    graph.visitLimits,
+                    graph.budgets,
+                    graph.speculations);
             return graph;
         }
     }
@@ -0,0 +1,25 @@
+package com.bofa.agentic.graph;
+
+/**
+ * Merges the result of one parallel branch back into the shared state
+ *
+ * When a fan-out runs several nodes concurrently, every branch starts from
+ * the same forked state. Each reducer owns a single field and decides how
+ * the branch's value for that field is folded into the merged state
+ * (replace, append, last-writer-wins, ...).
+ *
+ * Inspired by LangGraph's annotated state reducers
+ */
+@FunctionalInterface
+public interface StateReducer {
+
+    /**
+     * Fold one branch result into the merged state
+     *
+     * @param fork State every branch started from
+     * @param merged State accumulated from previously merged branches
+     * @param branch State produced by the branch being merged
+     * @return Updated merged state
+     */
+    AgentState reduce(AgentState fork, AgentState merged, AgentState branch);
+}
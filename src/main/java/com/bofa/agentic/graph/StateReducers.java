@@ -0,0 +1,97 @@
+package com.bofa.agentic.graph;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Built-in per-field reducers used when merging parallel branches
+ *
+ * A branch only contributes a field if it changed that field relative
+ * to the fork, so untouched fields never clobber another branch's work.
+ */
+public final class StateReducers {
+
+    private static final String EVIDENCE_SEPARATOR = "\n---\n";
+    private static final String TOOL_RESULT_SEPARATOR = "\n";
+
+    private StateReducers() {
+        // Prevent instantiation
+    }
+
+    /**
+     * RAG evidence from several branches is concatenated
+     */
+    public static StateReducer ragEvidence() {
+        return (fork, merged, branch) -> {
+            if (Objects.equals(fork.getRagEvidence(), branch.getRagEvidence())) {
+                return merged;
+            }
+            return merged.withRagEvidence(
+                    append(fork.getRagEvidence(), merged.getRagEvidence(), branch.getRagEvidence(),
+                            EVIDENCE_SEPARATOR));
+        };
+    }
+
+    /**
+     * Tool results from several branches are concatenated line by line
+     */
+    public static StateReducer toolResults() {
+        return (fork, merged, branch) -> {
+            if (Objects.equals(fork.getToolResults(), branch.getToolResults())) {
+                return merged;
+            }
+            return merged.withToolResults(
+                    append(fork.getToolResults(), merged.getToolResults(), branch.getToolResults(),
+                            TOOL_RESULT_SEPARATOR));
+        };
+    }
+
+    /**
+     * Last branch (in declaration order) that set a response wins
+     */
+    public static StateReducer response() {
+        return (fork, merged, branch) -> {
+            if (Objects.equals(fork.getResponse(), branch.getResponse())) {
+                return merged;
+            }
+            return merged.withResponse(branch.getResponse());
+        };
+    }
+
+    /**
+     * Metadata keys added or changed by a branch are copied over;
+     * on conflicting keys the last branch in declaration order wins
+     */
+    public static StateReducer metadata() {
+        return (fork, merged, branch) -> {
+            AgentState.Transition result = merged.transition();
+            for (Map.Entry<String, Object> entry : branch.getMetadata().entrySet()) {
+                Object before = fork.getMetadata().get(entry.getKey());
+                if (!Objects.equals(before, entry.getValue())) {
+                    result.metadata(entry.getKey(), entry.getValue());
+                }
+            }
+            return result.build();
+        };
+    }
+
+    /**
+     * Reducers applied when a graph does not declare its own
+     */
+    public static List<StateReducer> defaults() {
+        return List.of(ragEvidence(), toolResults(), response(), metadata());
+    }
+
+    private static String append(String forkValue, String mergedValue, String branchValue,
+            String separator) {
+        // First branch to touch the field replaces the forked value
+        if (Objects.equals(forkValue, mergedValue) || mergedValue.isBlank()) {
+            return branchValue;
+        }
+        if (branchValue.isBlank()) {
+            return mergedValue;
+        }
+        return mergedValue + separator + branchValue;
+    }
+}
@@ -1,18 +1,45 @@
 package com.bofa.agentic.graph.nodes;
 
+import java.util.concurrent.TimeUnit;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.bofa.agentic.graph.AgentState;
 import com.bofa.agentic.graph.GraphNode;
+import com.bofa.agentic.guardrails.HallucinationGuard;
+import com.bofa.agentic.model.Deadline;
+import com.bofa.agentic.orchestrator.PromptBudgeter.BudgetedPrompt;
 import com.bofa.agentic.orchestrator.ResponseComposer;
+import com.bofa.agentic.streaming.TokenStreamingService;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 /**
  * Composer Node - Synthesizes final response
  * 
  * Combines user query + RAG evidence + tool results
  * into a coherent, helpful response using LLM
+ * 
+ * Tokens reach the client as they are generated (see TokenStreamingService);
+ * the state gets the complete response for the guard. The prompt is
+ * trimmed to the token budget first; its token counts are recorded as
+ * "promptTokens" metadata.
+ * 
+ * Model cascade (agentic.composer.cascade.enabled): the fast model answers
+ * first and HallucinationGuard's confidence in that answer decides whether
+ * to keep it. Below agentic.composer.cascade.confidence-threshold the
+ * streamed answer is retracted and the strong model recomposes it, unless
+ * no answer could pass: there is no RAG evidence to ground it in, or less
+ * than agentic.composer.cascade.min-escalation-ms is left. Metrics:
+ * agentic.composer.cascade (timer; tier, outcome=accepted|escalated|skipped) and
+ * agentic.composer.cascade.confidence (tier); per-tier model latency,
+ * tokens and cost are the agentic.llm.* meters of client composer-fast
+ * and composer-strong.
  */
 @Component
 public class ComposerNode implements GraphNode {
@@ -20,27 +47,106 @@ public class ComposerNode implements GraphNode {
     private static final Logger log = LoggerFactory.getLogger(ComposerNode.class);
     
     private final ResponseComposer composer;
+    private final TokenStreamingService streaming;
+    private final HallucinationGuard guard;
+    private final MeterRegistry meterRegistry;
+    private final double confidenceThreshold;
+    private final long minEscalationMillis;
     
-    public ComposerNode(ResponseComposer composer) {
+    public ComposerNode(ResponseComposer composer, TokenStreamingService streaming, HallucinationGuard guard,
+            MeterRegistry meterRegistry,
+            @Value("${agentic.composer.cascade.confidence-threshold:0.8}") double confidenceThreshold,
+            @Value("${agentic.composer.cascade.min-escalation-ms:2000}") long minEscalationMillis) {
         this.composer = composer;
+        this.streaming = streaming;
+        this.guard = guard;
+        this.meterRegistry = meterRegistry;
+        this.confidenceThreshold = confidenceThreshold;
+        this.minEscalationMillis = minEscalationMillis;
     }
     
     @Override
     public AgentState execute(AgentState state) throws Exception {
         log.debug("Executing ComposerNode");
         
-        String response = composer.compose(
+        BudgetedPrompt prompt = composer.budget(
                 state.getRequest().message(),
                 state.getRagEvidence(),
-                state.getToolResults()
+                state.getToolResults());
+        
+        if (composer.isCascadeEnabled()) {
+            return cascade(state, prompt);
+        }
+        
+        String response = streaming.collect(
+                state.getRequestId(),
+                composer.compose(prompt),
+                state.getDeadline(),
+                "response composition"
         );
         
         log.info("Response composed. Length: {} chars", 
                 response != null ? response.length() : 0);
         
-        return state
-                .withResponse(response)
-                .addMetadata("responseComposed", true);
+        return state.transition()
+                .response(response)
+                .metadata("responseComposed", true)
+                .metadata("promptTokens", prompt.tokens())
+                .build();
+    }
+    
+    private AgentState cascade(AgentState state, BudgetedPrompt prompt) {
+        Deadline deadline = state.getDeadline();
+        
+        long start = System.nanoTime();
+        String response = streaming.collect(state.getRequestId(),
+                composer.compose(prompt, ResponseComposer.Tier.FAST), deadline, "response composition");
+        double confidence = guard.confidence(response, state.getRagEvidence());
+        
+        boolean accept = confidence >= confidenceThreshold;
+        // The guard blocks any answer without evidence, a strong one too
+        boolean worthEscalating = state.getRagEvidence() != null && !state.getRagEvidence().isBlank()
+                && !(deadline.isBounded() && deadline.remaining().toMillis() < minEscalationMillis);
+        record("fast", accept ? "accepted" : worthEscalating ? "escalated" : "skipped", start, confidence);
+        String tier = "fast";
+        
+        if (!accept && worthEscalating) {
+            log.info("Fast model answer confidence {} below {}; escalating", confidence, confidenceThreshold);
+            streaming.retract(state.getRequestId(), "Escalating to a stronger model");
+            
+            start = System.nanoTime();
+            response = streaming.collect(state.getRequestId(),
+                    composer.compose(prompt, ResponseComposer.Tier.STRONG), deadline, "response composition");
+            confidence = guard.confidence(response, state.getRagEvidence());
+            record("strong", "accepted", start, confidence);
+            tier = "strong";
+        }
+        
+        log.info("Response composed by {} model. Length: {} chars, confidence {}", tier,
+                response != null ? response.length() : 0, confidence);
+        
+        return state.transition()
+                .response(response)
+                .metadata("responseComposed", true)
+                .metadata("promptTokens", prompt.tokens())
+                .metadata("composerTier", tier)
+                .metadata("composerConfidence", confidence)
+                .build();
+    }
+    
+    private void record(String tier, String outcome, long startNanos, double confidence) {
+        Timer.builder("agentic.composer.cascade")
+                .description("Composition latency per cascade tier")
+                .tag("tier", tier)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("agentic.composer.cascade.confidence")
+                .description("Guard confidence in each tier's answer")
+                .tag("tier", tier)
+                .register(meterRegistry)
+                .record(confidence);
     }
     
     @Override
@@ -40,16 +40,18 @@ public class GuardNode implements GraphNode {
             
             log.info("Guardrails passed. Confidence: {}", confidence);
             
-            return state
-                    .withGuardrailResult(true, null)
-                    .addMetadata("guardrailConfidence", confidence);
+            return state.transition()
+                    .guardrailResult(true, null)
+                    .metadata("guardrailConfidence", confidence)
+                    .build();
                     
         } catch (AgentException e) {
             log.warn("Guardrail failed: {} - {}", e.getErrorCode(), e.getMessage());
             
-            return state
-                    .withGuardrailResult(false, e.getMessage())
-                    .addMetadata("guardrailError", e.getErrorCode());
+            return state.transition()
+                    .guardrailResult(false, e.getMessage())
+                    .metadata("guardrailError", e.getErrorCode())
+                    .build();
         }
     }
     
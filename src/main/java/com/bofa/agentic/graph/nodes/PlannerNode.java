@@ -17,6 +17,10 @@ import com.bofa.agentic.orchestrator.Planner;
  * - Should we search knowledge base (RAG)?
  * - Should we execute tools?
  * - Which tools to use?
+ * 
+ * Confident local classifications skip the LLM (see PlanClassifier).
+ * Tools in an LLM plan are already running when this node completes;
+ * ToolsNode picks up their results.
  */
 @Component
 public class PlannerNode implements GraphNode {
@@ -33,7 +37,7 @@ public class PlannerNode implements GraphNode {
     public AgentState execute(AgentState state) throws Exception {
         log.debug("Executing PlannerNode for query: {}", state.getRequest().message());
         
-        ExecutionContext context = new ExecutionContext(state.getRequest());
+        ExecutionContext context = new ExecutionContext(state.getRequest(), state.getRequestId(), state.getDeadline());
         ExecutionPlan plan = planner.plan(context);
         
         boolean useRag = plan.useRag();
@@ -42,13 +46,14 @@ public class PlannerNode implements GraphNode {
         log.info("Plan decided: useRag={}, useTools={}, toolCount={}", 
                 useRag, useTools, plan.toolCalls().size());
         
-        AgentState newState = state
-                .withRagDecision(useRag)
-                .withToolsDecision(useTools, 
+        AgentState newState = state.transition()
+                .ragDecision(useRag)
+                .toolsDecision(useTools, 
                         plan.toolCalls().stream()
                                 .map(tc -> tc.toolName())
                                 .toList())
-                .addMetadata("plan", plan);
+                .metadata("plan", plan)
+                .build();
         
         return newState;
     }
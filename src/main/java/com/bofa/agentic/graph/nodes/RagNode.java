@@ -34,9 +34,10 @@ public class RagNode implements GraphNode {
         log.info("RAG retrieval completed. Evidence length: {} chars", 
                 evidence != null ? evidence.length() : 0);
         
-        return state
-                .withRagEvidence(evidence)
-                .addMetadata("ragExecuted", true);
+        return state.transition()
+                .ragEvidence(evidence)
+                .metadata("ragExecuted", true)
+                .build();
     }
     
     @Override
@@ -0,0 +1,72 @@
+package com.bofa.agentic.graph.nodes;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.bofa.agentic.graph.AgentState;
+import com.bofa.agentic.graph.GraphNode;
+import com.bofa.agentic.orchestrator.PromptBudgeter.BudgetedPrompt;
+import com.bofa.agentic.orchestrator.ResponseComposer;
+import com.bofa.agentic.streaming.TokenStreamingService;
+
+/**
+ * Reflection Node - Rewrites an answer the grounding guardrail rejected
+ * 
+ * Re-invokes only the composer, with the guard's reason and the RAG
+ * evidence and tool results already collected, so recovering costs one
+ * extra completion instead of a new planner/RAG/tools pass
+ * 
+ * The client is told to discard the rejected answer before the revision
+ * streams in
+ */
+@Component
+public class ReflectionNode implements GraphNode {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReflectionNode.class);
+    
+    private final ResponseComposer composer;
+    private final TokenStreamingService streaming;
+    
+    public ReflectionNode(ResponseComposer composer, TokenStreamingService streaming) {
+        this.composer = composer;
+        this.streaming = streaming;
+    }
+    
+    @Override
+    public AgentState execute(AgentState state) throws Exception {
+        log.info("Reflecting on rejected response (attempt {}): {}", 
+                state.getRetryCount() + 1, state.getGuardrailReason());
+        
+        streaming.retract(state.getRequestId(), state.getGuardrailReason());
+        
+        BudgetedPrompt prompt = composer.budget(
+                state.getRequest().message(),
+                state.getRagEvidence(),
+                state.getToolResults(),
+                state.getResponse(),
+                state.getGuardrailReason());
+        
+        String response = streaming.collect(
+                state.getRequestId(),
+                composer.revise(prompt, state.getResponse(), state.getGuardrailReason()),
+                state.getDeadline(),
+                "response revision"
+        );
+        
+        log.info("Response revised. Length: {} chars", 
+                response != null ? response.length() : 0);
+        
+        return state.transition()
+                .response(response)
+                .incrementRetry()
+                .metadata("reflected", true)
+                .metadata("promptTokens", prompt.tokens())
+                .build();
+    }
+    
+    @Override
+    public String getName() {
+        return "reflection";
+    }
+}
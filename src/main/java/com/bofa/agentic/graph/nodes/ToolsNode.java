@@ -6,17 +6,23 @@ import org.springframework.stereotype.Component;
 
 import com.bofa.agentic.executor.ToolExecutor;
 import com.bofa.agentic.graph.AgentState;
-import com.bofa.agentic.graph.GraphNode;
+import com.bofa.agentic.graph.AsyncGraphNode;
 import com.bofa.agentic.orchestrator.ExecutionPlan;
 
+import reactor.core.publisher.Mono;
+
 /**
  * Tools Node - Executes external tool calls
  * 
  * Runs tools (Jira, Confluence, Outlook) in parallel
  * and aggregates results
+ * 
+ * Non-blocking: tool calls run on the agent task executor and the
+ * node completes when their merged future does. Calls the planner
+ * dispatched while streaming the plan are adopted, not repeated.
  */
 @Component
-public class ToolsNode implements GraphNode {
+public class ToolsNode implements AsyncGraphNode {
     
     private static final Logger log = LoggerFactory.getLogger(ToolsNode.class);
     
@@ -27,7 +33,7 @@ public class ToolsNode implements GraphNode {
     }
     
     @Override
-    public AgentState execute(AgentState state) throws Exception {
+    public Mono<AgentState> executeAsync(AgentState state) {
         log.debug("Executing ToolsNode with {} tools", state.getToolNames().size());
         
         // Extract plan from metadata
@@ -35,17 +41,19 @@ public class ToolsNode implements GraphNode {
         
         if (plan == null || plan.toolCalls().isEmpty()) {
             log.warn("ToolsNode called but no tools in plan");
-            return state.withToolResults("");
+            return Mono.just(state.withToolResults(""));
         }
         
-        String results = toolExecutor.execute(plan);
-        
-        log.info("Tools execution completed. Results length: {} chars", 
-                results != null ? results.length() : 0);
-        
-        return state
-                .withToolResults(results)
-                .addMetadata("toolsExecuted", true);
+        return Mono.fromFuture(() -> toolExecutor.executeAsync(state.getRequestId(), plan, state.getDeadline()))
+                .map(results -> {
+                    log.info("Tools execution completed. Results length: {} chars", 
+                            results != null ? results.length() : 0);
+                    
+                    return state.transition()
+                            .toolResults(results)
+                            .metadata("toolsExecuted", true)
+                            .build();
+                });
     }
     
     @Override
@@ -35,6 +35,38 @@ public class HallucinationGuard {
 		return confidenceScorer.score(evidence, safety, grounding);
 	}
 
+	/**
+	 * Confidence in a response from the local checks only (keyword filter,
+	 * grounding), without the moderation call; 0 if either blocks it. For
+	 * deciding whether an answer is worth keeping: the guard node still
+	 * validates whatever answer is kept.
+	 */
+	public double confidence(String response, String evidence) {
+
+		GuardrailResult safety = safetyValidator.screen(response, 0);
+		if (!safety.isAllowed()) {
+			return 0.0;
+		}
+
+		GuardrailResult grounding = groundingValidator.validate(response, evidence);
+		if (!grounding.isAllowed()) {
+			return 0.0;
+		}
+
+		return confidenceScorer.score(evidence, safety, grounding);
+	}
+
+	/**
+	 * Cheap check of a response that is still streaming, so unsafe output can
+	 * be cut off before it reaches the client; the full validation still runs
+	 * on the complete response
+	 *
+	 * @param newFrom Offset of the text added since the last check
+	 */
+	public GuardrailResult screenPartial(CharSequence response, int newFrom) {
+		return safetyValidator.screen(response, newFrom);
+	}
+
 }
 
 /*
@@ -7,6 +7,14 @@ import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 
+import com.bofa.agentic.ratelimit.AdaptiveLimiter;
+import com.bofa.agentic.ratelimit.OpenAiLimiters;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
 import java.util.Map;
 
 /**
@@ -24,27 +32,40 @@ import java.util.Map;
  * - violence, violence/graphic
  * 
  * API Docs: https://platform.openai.com/docs/guides/moderation
+ * 
+ * Each API call is recorded on the agentic.moderation timer
+ * (outcome=passed|flagged|error) and traced as a "moderation" span.
+ * Calls go through the moderation limiter (OpenAiLimiters), which backs off
+ * on 429s; a call it refuses fails open like any other API error.
  */
 @Service
 public class OpenAiModerationService {
     
     private static final Logger log = LoggerFactory.getLogger(OpenAiModerationService.class);
-    private static final String MODERATION_ENDPOINT = "https://api.openai.com/v1/moderations";
-    
     private final RestClient restClient;
     private final boolean enabled;
+    private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
+    private final AdaptiveLimiter limiter;
     
     public OpenAiModerationService(
             @Value("${OPENAI_API_KEY}") String apiKey,
-            @Value("${agentic.guardrails.moderation.enabled:true}") boolean enabled) {
+            @Value("${agentic.guardrails.moderation.enabled:true}") boolean enabled,
+            @Value("${agentic.guardrails.moderation.url:https://api.openai.com/v1/moderations}") String endpoint,
+            MeterRegistry meterRegistry,
+            ObservationRegistry observationRegistry,
+            OpenAiLimiters limiters) {
         this.enabled = enabled;
+        this.meterRegistry = meterRegistry;
+        this.observationRegistry = observationRegistry;
+        this.limiter = limiters.moderation();
         this.restClient = RestClient.builder()
-                .baseUrl(MODERATION_ENDPOINT)
+                .baseUrl(endpoint)
                 .defaultHeader("Authorization", "Bearer " + apiKey)
                 .defaultHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE)
                 .build();
         
-        log.info("OpenAI Moderation API initialized. Enabled: {}", enabled);
+        log.info("OpenAI Moderation API initialized. Enabled: {}, endpoint: {}", enabled, endpoint);
     }
     
     /**
@@ -64,13 +85,17 @@ public class OpenAiModerationService {
             return createPassResult();
         }
         
-        try {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Observation observation = Observation.createNotStarted("agentic.trace.moderation", observationRegistry)
+                .contextualName("moderation")
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
             Map<String, String> requestBody = Map.of("input", text);
             
-            ModerationResult result = restClient.post()
+            ModerationResult result = limiter.call(0, () -> restClient.post()
                     .body(requestBody)
                     .retrieve()
-                    .body(ModerationResult.class);
+                    .body(ModerationResult.class), response -> -1);
             
             if (result != null && result.isFlagged()) {
                 log.warn("Content flagged by OpenAI Moderation API. Categories: {}", 
@@ -79,12 +104,19 @@ public class OpenAiModerationService {
                 log.debug("Content passed OpenAI Moderation check");
             }
             
+            String outcome = result != null && result.isFlagged() ? "flagged" : "passed";
+            sample.stop(moderationTimer(outcome));
+            observation.lowCardinalityKeyValue("outcome", outcome);
             return result;
             
         } catch (Exception e) {
+            sample.stop(moderationTimer("error"));
+            observation.error(e);
             log.error("Failed to call OpenAI Moderation API. Allowing content by default.", e);
             // Fail open - don't block on API errors
             return createPassResult();
+        } finally {
+            observation.stop();
         }
     }
     
@@ -100,6 +132,14 @@ public class OpenAiModerationService {
         return moderate(aiResponse);
     }
     
+    private Timer moderationTimer(String outcome) {
+        return Timer.builder("agentic.moderation")
+                .description("OpenAI Moderation API latency")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+    
     private ModerationResult createPassResult() {
         ModerationResult result = new ModerationResult();
         result.setId("local-pass");
@@ -34,6 +34,11 @@ public class SafetyValidator {
             "delete all"
     );
     
+    private static final int LONGEST_BLOCKED_TERM = BLOCKED_TERMS.stream()
+            .mapToInt(String::length)
+            .max()
+            .orElse(0);
+    
     private final OpenAiModerationService moderationService;
 
     public SafetyValidator(OpenAiModerationService moderationService) {
@@ -67,5 +72,23 @@ public class SafetyValidator {
 
         return GuardrailResult.allow(0.95);
     }
+    
+    /**
+     * Keyword layer only, for screening a response while it is still being
+     * generated: checks the text from {@code newFrom} onwards, plus enough of
+     * what came before to catch a term split across chunks
+     */
+    public GuardrailResult screen(CharSequence response, int newFrom) {
+        int from = Math.max(0, newFrom - LONGEST_BLOCKED_TERM + 1);
+        String lower = response.subSequence(from, response.length()).toString().toLowerCase();
+        
+        if (BLOCKED_TERMS.stream().anyMatch(lower::contains)) {
+            return GuardrailResult.block(
+                    "Response contains unsafe operational guidance."
+            );
+        }
+        
+        return GuardrailResult.allow(0.95);
+    }
 
 }
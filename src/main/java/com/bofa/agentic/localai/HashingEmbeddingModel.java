@@ -0,0 +1,86 @@
+package com.bofa.agentic.localai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import com.bofa.agentic.util.VectorMath;
+
+/**
+ * Deterministic EmbeddingModel for the local-ai profile
+ *
+ * Feature hashing: each lower-cased word and each pair of adjacent words
+ * adds +1 or -1 (by hash) to one of the configured dimensions, and the
+ * result is unit length. Texts sharing words get similar vectors, so the
+ * semantic cache, the planner's nearest centroids and vector search behave
+ * plausibly; the same text always gets the same vector.
+ */
+public class HashingEmbeddingModel implements EmbeddingModel {
+
+	private static final float PAIR_WEIGHT = 0.5f;
+
+	private final int dimensions;
+	private final InjectedFaults faults;
+
+	public HashingEmbeddingModel(int dimensions, InjectedFaults faults) {
+		this.dimensions = dimensions;
+		this.faults = faults;
+	}
+
+	@Override
+	public EmbeddingResponse call(EmbeddingRequest request) {
+		faults.apply();
+		List<Embedding> embeddings = new ArrayList<>(request.getInstructions().size());
+		for (String text : request.getInstructions()) {
+			embeddings.add(new Embedding(vector(text), embeddings.size()));
+		}
+		return new EmbeddingResponse(embeddings);
+	}
+
+	@Override
+	public float[] embed(Document document) {
+		return embed(document.getText());
+	}
+
+	@Override
+	public int dimensions() {
+		return dimensions;
+	}
+
+	float[] vector(String text) {
+		float[] vector = new float[dimensions];
+		String previous = null;
+		for (String word : (text != null ? text : "").toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+			if (word.isEmpty()) {
+				continue;
+			}
+			add(vector, word, 1f);
+			if (previous != null) {
+				add(vector, previous + ' ' + word, PAIR_WEIGHT);
+			}
+			previous = word;
+		}
+		return VectorMath.normalize(vector);
+	}
+
+	private void add(float[] vector, String feature, float weight) {
+		long hash = fnv1a(feature);
+		int index = (int) Long.remainderUnsigned(hash >>> 1, dimensions);
+		vector[index] += (hash & 1) == 0 ? weight : -weight;
+	}
+
+	private static long fnv1a(String feature) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < feature.length(); i++) {
+			hash ^= feature.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+}
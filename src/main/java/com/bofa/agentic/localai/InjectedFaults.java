@@ -0,0 +1,73 @@
+package com.bofa.agentic.localai;
+
+import java.time.Duration;
+import java.util.Random;
+
+import org.springframework.ai.retry.TransientAiException;
+
+/**
+ * Latency and failures injected into a local-ai stand-in
+ *
+ * Latency is log-normal, given by its median and 99th percentile (equal
+ * values mean a constant latency); each call fails with probability
+ * errorRate. Draws come from a seeded generator, so a single-threaded run
+ * sees the same sequence every time.
+ */
+final class InjectedFaults {
+
+	// z-score of the 99th percentile of a standard normal distribution
+	private static final double Z_99 = 2.3263;
+
+	private final String component;
+	private final double medianMillis;
+	private final double sigma;
+	private final double errorRate;
+	private final Random random;
+
+	InjectedFaults(String component, double medianMillis, double p99Millis, double errorRate, long seed) {
+		if (medianMillis < 0 || p99Millis < 0 || errorRate < 0 || errorRate > 1) {
+			throw new IllegalStateException("Invalid local-ai fault settings for " + component);
+		}
+		this.component = component;
+		this.medianMillis = medianMillis;
+		this.sigma = medianMillis > 0 && p99Millis > medianMillis ? Math.log(p99Millis / medianMillis) / Z_99 : 0;
+		this.errorRate = errorRate;
+		this.random = new Random(seed);
+	}
+
+	Duration nextLatency() {
+		if (medianMillis == 0) {
+			return Duration.ZERO;
+		}
+		double millis = medianMillis * Math.exp(sigma * random.nextGaussian());
+		return Duration.ofNanos((long) (millis * 1_000_000));
+	}
+
+	/**
+	 * The failure to inject into this call, or null
+	 */
+	TransientAiException nextFailure() {
+		return errorRate > 0 && random.nextDouble() < errorRate
+				? new TransientAiException("Injected " + component + " failure (local-ai profile)")
+				: null;
+	}
+
+	/**
+	 * Block for one latency draw, then fail if one is drawn; for blocking calls
+	 */
+	void apply() {
+		Duration latency = nextLatency();
+		if (!latency.isZero()) {
+			try {
+				Thread.sleep(latency);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted during injected latency", e);
+			}
+		}
+		TransientAiException failure = nextFailure();
+		if (failure != null) {
+			throw failure;
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package com.bofa.agentic.localai;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Offline stand-ins for OpenAI, for load tests, benchmarks and CI without
+ * network or quota: run with --spring.profiles.active=local-ai
+ *
+ * - ChatModel: {@link ScriptedChatModel}, scripted by agentic.local-ai.chat.script
+ * - EmbeddingModel: {@link HashingEmbeddingModel} with the configured dimensions
+ * - Moderation: {@link LocalModerationController}
+ *
+ * Each has a log-normal latency (agentic.local-ai.*.latency.median-ms and
+ * p99-ms) and an error rate (agentic.local-ai.*.error-rate); draws are
+ * seeded by agentic.local-ai.seed. application-local-ai.properties turns
+ * off the OpenAI model auto-configuration.
+ */
+@Configuration
+@Profile("local-ai")
+public class LocalAiConfig {
+
+	private static final Logger log = LoggerFactory.getLogger(LocalAiConfig.class);
+
+	private record ScriptRule(String system, String user, String response) {
+	}
+
+	@Bean
+	public ScriptedChatModel chatModel(ObjectMapper objectMapper,
+			@Value("${agentic.local-ai.chat.script:classpath:local-ai/chat-script.json}") Resource script,
+			@Value("${spring.ai.openai.chat.options.model:gpt-4o-mini}") String model,
+			@Value("${agentic.local-ai.chat.latency.median-ms:300}") double medianMillis,
+			@Value("${agentic.local-ai.chat.latency.p99-ms:1200}") double p99Millis,
+			@Value("${agentic.local-ai.chat.token-delay-ms:15}") long tokenDelayMillis,
+			@Value("${agentic.local-ai.chat.error-rate:0.0}") double errorRate,
+			@Value("${agentic.local-ai.seed:42}") long seed) {
+		List<ScriptedChatModel.Rule> rules = loadScript(objectMapper, script);
+		log.warn("local-ai profile: OpenAI chat replaced by a scripted model ({} rules from {})",
+				rules.size(), script.getDescription());
+		return new ScriptedChatModel(rules,
+				new InjectedFaults("chat", medianMillis, p99Millis, errorRate, seed),
+				Duration.ofMillis(tokenDelayMillis), model);
+	}
+
+	@Bean
+	public HashingEmbeddingModel embeddingModel(
+			@Value("${spring.ai.openai.embedding.options.dimensions:1536}") int dimensions,
+			@Value("${agentic.local-ai.embedding.latency.median-ms:25}") double medianMillis,
+			@Value("${agentic.local-ai.embedding.latency.p99-ms:100}") double p99Millis,
+			@Value("${agentic.local-ai.embedding.error-rate:0.0}") double errorRate,
+			@Value("${agentic.local-ai.seed:42}") long seed) {
+		log.warn("local-ai profile: OpenAI embeddings replaced by {}-dimension feature hashing", dimensions);
+		return new HashingEmbeddingModel(dimensions,
+				new InjectedFaults("embedding", medianMillis, p99Millis, errorRate, seed + 1));
+	}
+
+	private static List<ScriptedChatModel.Rule> loadScript(ObjectMapper objectMapper, Resource script) {
+		try (InputStream in = script.getInputStream()) {
+			return objectMapper.readValue(in, new TypeReference<List<ScriptRule>>() {}).stream()
+					.map(rule -> new ScriptedChatModel.Rule(
+							rule.system() != null ? Pattern.compile(rule.system()) : null,
+							rule.user() != null ? Pattern.compile(rule.user()) : null,
+							rule.response() != null ? rule.response() : ""))
+					.toList();
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot read local-ai chat script " + script.getDescription(), e);
+		}
+	}
+}
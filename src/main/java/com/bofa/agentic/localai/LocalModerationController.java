@@ -0,0 +1,76 @@
+package com.bofa.agentic.localai;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * In-process stand-in for OpenAI's /v1/moderations, served by this
+ * application under the local-ai profile (agentic.guardrails.moderation.url
+ * points here), so OpenAiModerationService is exercised over real HTTP
+ *
+ * Input matching agentic.local-ai.moderation.flag-pattern is flagged as
+ * violence; everything else passes. Injected failures answer 500.
+ */
+@RestController
+@Profile("local-ai")
+@RequestMapping("/local-ai/v1")
+public class LocalModerationController {
+
+	private static final List<String> CATEGORIES = List.of("hate", "hate/threatening", "harassment",
+			"harassment/threatening", "self-harm", "self-harm/intent", "self-harm/instructions", "sexual",
+			"sexual/minors", "violence", "violence/graphic");
+
+	private final Pattern flagPattern;
+	private final InjectedFaults faults;
+
+	public LocalModerationController(
+			@Value("${agentic.local-ai.moderation.flag-pattern:(?i)\\b(kill|murder|bomb)\\b}") String flagPattern,
+			@Value("${agentic.local-ai.moderation.latency.median-ms:40}") double medianMillis,
+			@Value("${agentic.local-ai.moderation.latency.p99-ms:150}") double p99Millis,
+			@Value("${agentic.local-ai.moderation.error-rate:0.0}") double errorRate,
+			@Value("${agentic.local-ai.seed:42}") long seed) {
+		this.flagPattern = Pattern.compile(flagPattern);
+		this.faults = new InjectedFaults("moderation", medianMillis, p99Millis, errorRate, seed + 2);
+	}
+
+	@PostMapping("/moderations")
+	public Mono<ResponseEntity<Map<String, Object>>> moderate(@RequestBody Map<String, Object> request) {
+		Duration latency = faults.nextLatency();
+		if (faults.nextFailure() != null) {
+			return Mono.delay(latency).thenReturn(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+					.body(Map.of("error", Map.of("message", "Injected moderation failure (local-ai profile)"))));
+		}
+
+		boolean flagged = flagPattern.matcher(String.valueOf(request.get("input"))).find();
+		Map<String, Boolean> categories = new LinkedHashMap<>();
+		Map<String, Double> scores = new LinkedHashMap<>();
+		for (String category : CATEGORIES) {
+			boolean hit = flagged && category.equals("violence");
+			categories.put(category, hit);
+			scores.put(category, hit ? 0.99 : 0.0001);
+		}
+
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("flagged", flagged);
+		result.put("categories", categories);
+		result.put("category_scores", scores);
+		return Mono.delay(latency).thenReturn(ResponseEntity.ok(Map.of(
+				"id", "modr-local",
+				"model", "local-ai",
+				"results", List.of(result))));
+	}
+}
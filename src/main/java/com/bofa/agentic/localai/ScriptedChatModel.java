@@ -0,0 +1,232 @@
+package com.bofa.agentic.localai;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.ai.tokenizer.JTokkitTokenCountEstimator;
+import org.springframework.ai.tokenizer.TokenCountEstimator;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Deterministic ChatModel for the local-ai profile
+ *
+ * Answers from a script (local-ai/chat-script.json): the first rule whose
+ * "system" and "user" patterns are found in the prompt's system and last
+ * user message supplies the response template. Templates may use
+ * {{user}}, {{1}}..{{9}} (groups of the "user" pattern) and two built-ins:
+ * - {{plan}}: a JSON plan in the format of prompts/planner-prompt.txt
+ * - {{answer}}: an answer quoting the prompt's "Evidence:" section
+ *
+ * Streams word by word: the first token after one latency draw, then one
+ * every agentic.local-ai.chat.token-delay-ms; the last chunk carries
+ * token usage, as OpenAI's does with stream-usage.
+ */
+public class ScriptedChatModel implements ChatModel {
+
+	/**
+	 * @param system   Pattern the system prompt must contain, or null for any
+	 * @param user     Pattern the user message must contain, or null for any
+	 * @param response Response template
+	 */
+	public record Rule(Pattern system, Pattern user, String response) {
+	}
+
+	private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{(\\w+)}}");
+	private static final Pattern TICKET = Pattern.compile("\\b[A-Z]{2,10}-\\d{2,}\\b");
+	private static final Pattern DOCUMENTATION = Pattern.compile(
+			"(?i)\\b(runbooks?|sop|guides?|documentation|docs|confluence|how to)\\b");
+	private static final Pattern MAIL = Pattern.compile("(?i)\\b(e-?mails?|escalations?|notifications?|outlook)\\b");
+	private static final Pattern SMALL_TALK = Pattern.compile(
+			"(?i)^\\s*(hi|hello|hey|thanks|thank you|ok(ay)?|bye)\\b[\\s\\p{Punct}]*$");
+	private static final Pattern EVIDENCE = Pattern.compile("(?s)Evidence: (.*?)(?:\\nToolData: |$)");
+	private static final Pattern TOKEN = Pattern.compile("\\S+\\s*|\\s+");
+	private static final int MAX_ANSWER_CHARS = 400;
+
+	private final List<Rule> rules;
+	private final InjectedFaults faults;
+	private final Duration tokenDelay;
+	private final ChatOptions defaultOptions;
+	private final TokenCountEstimator tokenCounter = new JTokkitTokenCountEstimator();
+
+	public ScriptedChatModel(List<Rule> rules, InjectedFaults faults, Duration tokenDelay, String model) {
+		this.rules = List.copyOf(rules);
+		this.faults = faults;
+		this.tokenDelay = tokenDelay;
+		this.defaultOptions = ChatOptions.builder().model(model).temperature(0.0).build();
+	}
+
+	@Override
+	public ChatResponse call(Prompt prompt) {
+		faults.apply();
+		String text = respond(prompt);
+		return response(text, usageMetadata(prompt, text));
+	}
+
+	@Override
+	public Flux<ChatResponse> stream(Prompt prompt) {
+		return Flux.defer(() -> {
+			Duration firstToken = faults.nextLatency();
+			TransientAiException failure = faults.nextFailure();
+			if (failure != null) {
+				return Mono.delay(firstToken).then(Mono.error(failure));
+			}
+
+			String text = respond(prompt);
+			List<String> tokens = new ArrayList<>();
+			Matcher matcher = TOKEN.matcher(text);
+			while (matcher.find()) {
+				tokens.add(matcher.group());
+			}
+			Flux<ChatResponse> chunks = Flux.fromIterable(tokens).map(token -> response(token, null))
+					.concatWith(Mono.fromSupplier(() -> response("", usageMetadata(prompt, text))));
+			if (!tokenDelay.isZero()) {
+				chunks = chunks.delayElements(tokenDelay);
+			}
+			return chunks.delaySubscription(firstToken);
+		});
+	}
+
+	@Override
+	public ChatOptions getDefaultOptions() {
+		return defaultOptions;
+	}
+
+	String respond(Prompt prompt) {
+		String system = text(prompt, MessageType.SYSTEM);
+		List<Message> users = prompt.getInstructions().stream()
+				.filter(message -> message.getMessageType() == MessageType.USER)
+				.toList();
+		String user = users.isEmpty() ? "" : users.get(users.size() - 1).getText();
+
+		for (Rule rule : rules) {
+			if (rule.system() != null && !rule.system().matcher(system).find()) {
+				continue;
+			}
+			Matcher userMatch = rule.user() != null ? rule.user().matcher(user) : null;
+			if (userMatch != null && !userMatch.find()) {
+				continue;
+			}
+			return expand(rule.response(), user, userMatch);
+		}
+		return "";
+	}
+
+	private String expand(String template, String user, Matcher userMatch) {
+		return PLACEHOLDER.matcher(template).replaceAll(placeholder -> {
+			String name = placeholder.group(1);
+			String value = switch (name) {
+				case "user" -> user;
+				case "plan" -> plan(user);
+				case "answer" -> answer(user);
+				default -> {
+					if (userMatch != null && name.chars().allMatch(Character::isDigit)
+							&& Integer.parseInt(name) <= userMatch.groupCount()) {
+						String group = userMatch.group(Integer.parseInt(name));
+						yield group != null ? group : "";
+					}
+					yield placeholder.group();
+				}
+			};
+			return Matcher.quoteReplacement(value);
+		});
+	}
+
+	private static String plan(String query) {
+		if (SMALL_TALK.matcher(query).matches()) {
+			return "{\"steps\":[],\"finalStrategy\":\"direct_answer\"}";
+		}
+		List<String> steps = new ArrayList<>();
+		Matcher ticket = TICKET.matcher(query);
+		if (ticket.find()) {
+			steps.add(step("jira-tool", "The query references a ticket", "issueKey", ticket.group()));
+		}
+		if (DOCUMENTATION.matcher(query).find()) {
+			steps.add(step("confluence-tool", "The query asks for documentation", "query", query));
+		}
+		if (MAIL.matcher(query).find()) {
+			steps.add(step("outlook-tool", "The query concerns email threads", "keyword", query));
+		}
+		steps.add(step("rag-retriever", "Similar incidents may help", "query", query));
+		return "{\"steps\":[" + String.join(",", steps) + "],\"finalStrategy\":\"rag_first\"}";
+	}
+
+	private static String step(String tool, String reason, String field, String value) {
+		return "{\"tool\":\"" + tool + "\",\"reason\":\"" + reason + "\",\"input\":{\"" + field + "\":\""
+				+ json(value) + "\"}}";
+	}
+
+	private static String answer(String user) {
+		Matcher evidence = EVIDENCE.matcher(user);
+		String text = evidence.find() ? evidence.group(1).replaceAll("\\s+", " ").trim() : "";
+		if (text.isEmpty()) {
+			return "I could not find supporting evidence for this question.";
+		}
+		String excerpt = text.length() > MAX_ANSWER_CHARS ? text.substring(0, MAX_ANSWER_CHARS) : text;
+		int sentenceEnd = excerpt.lastIndexOf(". ");
+		if (sentenceEnd > 0) {
+			excerpt = excerpt.substring(0, sentenceEnd + 1);
+		}
+		return "Based on the available evidence: " + excerpt;
+	}
+
+	private static String json(String value) {
+		StringBuilder escaped = new StringBuilder(value.length());
+		for (char c : value.toCharArray()) {
+			switch (c) {
+				case '"' -> escaped.append("\\\"");
+				case '\\' -> escaped.append("\\\\");
+				case '\n' -> escaped.append("\\n");
+				case '\r' -> escaped.append("\\r");
+				case '\t' -> escaped.append("\\t");
+				default -> {
+					if (c < 0x20) {
+						escaped.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+					} else {
+						escaped.append(c);
+					}
+				}
+			}
+		}
+		return escaped.toString();
+	}
+
+	private static String text(Prompt prompt, MessageType type) {
+		return prompt.getInstructions().stream()
+				.filter(message -> message.getMessageType() == type)
+				.map(Message::getText)
+				.collect(Collectors.joining("\n"));
+	}
+
+	private ChatResponseMetadata usageMetadata(Prompt prompt, String completion) {
+		int promptTokens = prompt.getInstructions().stream()
+				.mapToInt(message -> tokenCounter.estimate(message.getText()))
+				.sum();
+		return ChatResponseMetadata.builder()
+				.model(defaultOptions.getModel())
+				.usage(new DefaultUsage(promptTokens, tokenCounter.estimate(completion)))
+				.build();
+	}
+
+	private static ChatResponse response(String text, ChatResponseMetadata metadata) {
+		List<Generation> generations = List.of(new Generation(new AssistantMessage(text)));
+		return metadata != null ? new ChatResponse(generations, metadata) : new ChatResponse(generations);
+	}
+}
@@ -0,0 +1,155 @@
+package com.bofa.agentic.model;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+import com.bofa.agentic.exception.AgentException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Absolute point in time by which a request must be answered
+ *
+ * Created once per request (from the X-Request-Deadline header or the
+ * configured default budget) and carried on the agent state, so every
+ * node, tool call and LLM call spends from the same end-to-end budget
+ * instead of applying its own fixed timeout.
+ */
+public final class Deadline {
+
+	private static final Deadline NONE = new Deadline(Long.MAX_VALUE);
+
+	// 2001-09-09; smaller epoch-millis values are budgets sent by mistake
+	private static final long MIN_EPOCH_MILLIS = 1_000_000_000_000L;
+
+	private final long expiresAtMillis;
+
+	private Deadline(long expiresAtMillis) {
+		this.expiresAtMillis = expiresAtMillis;
+	}
+
+	/**
+	 * No deadline: nothing times out
+	 */
+	public static Deadline none() {
+		return NONE;
+	}
+
+	public static Deadline after(Duration budget) {
+		return new Deadline(System.currentTimeMillis() + budget.toMillis());
+	}
+
+	public static Deadline atEpochMillis(long expiresAtMillis) {
+		return expiresAtMillis == Long.MAX_VALUE ? NONE : new Deadline(expiresAtMillis);
+	}
+
+	/**
+	 * Parse an X-Request-Deadline value: an ISO-8601 instant
+	 * ({@code 2024-05-01T12:00:08Z}), epoch milliseconds, or a budget from
+	 * now as an ISO-8601 duration ({@code PT8S})
+	 *
+	 * @throws IllegalArgumentException if the value is none of these, or is
+	 *                                  an instant that has already passed
+	 */
+	public static Deadline parse(String value) {
+		String trimmed = value.trim();
+		long epochMillis;
+		try {
+			if (trimmed.startsWith("P") || trimmed.startsWith("p")) {
+				Duration budget = Duration.parse(trimmed);
+				if (budget.isNegative() || budget.isZero()) {
+					throw new IllegalArgumentException("Invalid deadline budget: " + value);
+				}
+				return after(budget);
+			}
+			epochMillis = trimmed.chars().allMatch(Character::isDigit)
+					? Long.parseLong(trimmed)
+					: Instant.parse(trimmed).toEpochMilli();
+		} catch (NumberFormatException | DateTimeParseException | ArithmeticException e) {
+			throw new IllegalArgumentException("Invalid deadline: " + value, e);
+		}
+		// e.g. "8000" meant as a budget would otherwise expire in 1970
+		if (epochMillis < MIN_EPOCH_MILLIS) {
+			throw new IllegalArgumentException("Implausible epoch-millis deadline: " + value
+					+ " (send a budget as a duration, e.g. PT8S)");
+		}
+		if (epochMillis <= System.currentTimeMillis()) {
+			throw new IllegalArgumentException("Deadline has already passed: " + value);
+		}
+		return atEpochMillis(epochMillis);
+	}
+
+	public boolean isBounded() {
+		return expiresAtMillis != Long.MAX_VALUE;
+	}
+
+	public boolean isExpired() {
+		return isBounded() && System.currentTimeMillis() >= expiresAtMillis;
+	}
+
+	public long getExpiresAtMillis() {
+		return expiresAtMillis;
+	}
+
+	/**
+	 * Time left, never negative; only meaningful when {@link #isBounded()}
+	 */
+	public Duration remaining() {
+		return Duration.ofMillis(Math.max(0, expiresAtMillis - System.currentTimeMillis()));
+	}
+
+	/**
+	 * The earlier of this deadline and {@code maxDuration} from now
+	 */
+	public Deadline cap(Duration maxDuration) {
+		long capped = System.currentTimeMillis() + maxDuration.toMillis();
+		return capped < expiresAtMillis ? new Deadline(capped) : this;
+	}
+
+	/**
+	 * Sub-deadline for one stage: {@code fraction} of the time left now
+	 */
+	public Deadline share(double fraction) {
+		if (!isBounded() || fraction >= 1.0) {
+			return this;
+		}
+		return new Deadline(System.currentTimeMillis() + (long) (remaining().toMillis() * fraction));
+	}
+
+	/**
+	 * Fail {@code source} with DEADLINE_EXCEEDED if it has not completed in time
+	 */
+	public <T> Mono<T> bound(Mono<T> source, String operation) {
+		if (!isBounded()) {
+			return source;
+		}
+		// A zero timeout races a source that completes at once
+		return Mono.defer(() -> isExpired()
+				? Mono.error(exceeded(operation))
+				: source.timeout(remaining(), Mono.error(() -> exceeded(operation))));
+	}
+
+	/**
+	 * Fail {@code source} with DEADLINE_EXCEEDED if it has not completed in
+	 * time (a bound on the whole stream, not on the gap between elements)
+	 */
+	public <T> Flux<T> bound(Flux<T> source, String operation) {
+		if (!isBounded()) {
+			return source;
+		}
+		return source.takeUntilOther(Mono.delay(remaining()))
+				.concatWith(Mono.defer(() -> isExpired() ? Mono.error(exceeded(operation)) : Mono.empty()));
+	}
+
+	public AgentException exceeded(String operation) {
+		return new AgentException("DEADLINE_EXCEEDED",
+				"Request deadline exceeded during " + operation, true);
+	}
+
+	@Override
+	public String toString() {
+		return isBounded() ? "Deadline[" + Instant.ofEpochMilli(expiresAtMillis) + "]" : "Deadline[none]";
+	}
+}
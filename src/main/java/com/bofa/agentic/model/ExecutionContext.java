@@ -5,16 +5,41 @@ import java.util.Map;
 public class ExecutionContext {
 private final ChatRequest request;
 
+private final String requestId;
+
+private final Deadline deadline;
+
 private Map<String, Object> memory;
 
 public ExecutionContext(ChatRequest request) {
+	this(request, Deadline.none());
+}
+
+public ExecutionContext(ChatRequest request, Deadline deadline) {
+	this(request, null, deadline);
+}
+
+public ExecutionContext(ChatRequest request, String requestId, Deadline deadline) {
 	this.request = request;
+	this.requestId = requestId;
+	this.deadline = deadline;
 }
 
 public ChatRequest getRequest() {
 	return request;
 }
 
+/**
+ * Graph request id, or null outside a graph execution
+ */
+public String getRequestId() {
+	return requestId;
+}
+
+public Deadline getDeadline() {
+	return deadline;
+}
+
 public Map<String, Object> getMemory() {
 	return memory;
 }
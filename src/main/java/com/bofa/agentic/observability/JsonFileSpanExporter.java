@@ -0,0 +1,84 @@
+package com.bofa.agentic.observability;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * Writes finished spans as JSON lines to the SPANS logger, which logback
+ * rolls into logs/spans.*.jsonl; tracing works without a collector
+ *
+ * One object per span: traceId, spanId, parentSpanId, name, start,
+ * durationMs, status and attributes. Group by traceId and follow
+ * parentSpanId to rebuild a request's tree and its critical path.
+ */
+public class JsonFileSpanExporter implements SpanExporter {
+
+	private static final Logger spans = LoggerFactory.getLogger("SPANS");
+	private static final Logger log = LoggerFactory.getLogger(JsonFileSpanExporter.class);
+
+	private final ObjectMapper objectMapper;
+
+	public JsonFileSpanExporter(ObjectMapper objectMapper) {
+		this.objectMapper = objectMapper;
+	}
+
+	@Override
+	public CompletableResultCode export(Collection<SpanData> batch) {
+
+		for (SpanData span : batch) {
+			try {
+				spans.info(objectMapper.writeValueAsString(toJson(span)));
+			} catch (JsonProcessingException e) {
+				log.warn("Could not serialize span {}: {}", span.getName(), e.getMessage());
+			}
+		}
+		return CompletableResultCode.ofSuccess();
+	}
+
+	private Map<String, Object> toJson(SpanData span) {
+
+		Map<String, Object> json = new LinkedHashMap<>();
+		json.put("traceId", span.getTraceId());
+		json.put("spanId", span.getSpanId());
+		json.put("parentSpanId", span.getParentSpanContext().isValid() ? span.getParentSpanId() : null);
+		json.put("name", span.getName());
+		json.put("kind", span.getKind().name());
+		json.put("start", Instant.EPOCH.plusNanos(span.getStartEpochNanos()).toString());
+		json.put("durationMs",
+				TimeUnit.NANOSECONDS.toMicros(span.getEndEpochNanos() - span.getStartEpochNanos()) / 1000.0);
+		json.put("status", span.getStatus().getStatusCode().name());
+		if (!span.getStatus().getDescription().isEmpty()) {
+			json.put("error", span.getStatus().getDescription());
+		}
+
+		Map<String, Object> attributes = new LinkedHashMap<>();
+		span.getAttributes().forEach((key, value) -> attributes.put(key.getKey(), value));
+		json.put("attributes", attributes);
+		return json;
+	}
+
+	// Written synchronously by export(); logback owns the file
+	@Override
+	public CompletableResultCode flush() {
+		return CompletableResultCode.ofSuccess();
+	}
+
+	@Override
+	public CompletableResultCode shutdown() {
+		return CompletableResultCode.ofSuccess();
+	}
+
+}
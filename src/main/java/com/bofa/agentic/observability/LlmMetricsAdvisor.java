@@ -0,0 +1,146 @@
+package com.bofa.agentic.observability;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.core.Ordered;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+
+/**
+ * Records latency and token usage of one ChatClient's model calls
+ *
+ * agentic.llm.request: timer per client and outcome (success|error|cancelled)
+ * agentic.llm.tokens:  counter per client and type (prompt|completion)
+ * agentic.llm.cost:    counter per client, USD, when the model's pricing is given
+ *
+ * Streamed calls only report usage when the model sends it with the last
+ * chunk (spring.ai.openai.chat.options.stream-usage=true).
+ */
+public class LlmMetricsAdvisor implements CallAdvisor, StreamAdvisor {
+
+	private final String client;
+	private final MeterRegistry meterRegistry;
+	private final ModelPricing pricing;
+
+	/**
+	 * @param client Tag identifying the caller, e.g. "planner" or "composer"
+	 */
+	public LlmMetricsAdvisor(String client, MeterRegistry meterRegistry) {
+		this(client, meterRegistry, null);
+	}
+
+	/**
+	 * @param pricing Token prices of the client's model, or null to not record cost
+	 */
+	public LlmMetricsAdvisor(String client, MeterRegistry meterRegistry, ModelPricing pricing) {
+		this.client = client;
+		this.meterRegistry = meterRegistry;
+		this.pricing = pricing;
+	}
+
+	@Override
+	public ChatClientResponse adviseCall(ChatClientRequest request, CallAdvisorChain chain) {
+
+		long start = System.nanoTime();
+		try {
+			ChatClientResponse response = chain.nextCall(request);
+			recordLatency("success", start);
+			recordUsage(usageOf(response));
+			return response;
+		} catch (RuntimeException e) {
+			recordLatency("error", start);
+			throw e;
+		}
+	}
+
+	@Override
+	public Flux<ChatClientResponse> adviseStream(ChatClientRequest request, StreamAdvisorChain chain) {
+
+		return Flux.defer(() -> {
+			long start = System.nanoTime();
+			AtomicReference<Usage> usage = new AtomicReference<>();
+			return chain.nextStream(request)
+					.doOnNext(response -> {
+						Usage chunkUsage = usageOf(response);
+						if (chunkUsage != null) {
+							usage.set(chunkUsage);
+						}
+					})
+					.doOnComplete(() -> {
+						recordLatency("success", start);
+						recordUsage(usage.get());
+					})
+					.doOnError(e -> recordLatency("error", start))
+					.doOnCancel(() -> recordLatency("cancelled", start));
+		});
+	}
+
+	private void recordLatency(String outcome, long startNanos) {
+
+		Timer.builder("agentic.llm.request")
+				.description("LLM call latency")
+				.tag("client", client)
+				.tag("outcome", outcome)
+				.publishPercentileHistogram()
+				.register(meterRegistry)
+				.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+	}
+
+	private void recordUsage(Usage usage) {
+
+		if (usage == null) {
+			return;
+		}
+		if (usage.getPromptTokens() != null) {
+			meterRegistry.counter("agentic.llm.tokens", "client", client, "type", "prompt")
+					.increment(usage.getPromptTokens());
+		}
+		if (usage.getCompletionTokens() != null) {
+			meterRegistry.counter("agentic.llm.tokens", "client", client, "type", "completion")
+					.increment(usage.getCompletionTokens());
+		}
+		if (pricing != null) {
+			meterRegistry.counter("agentic.llm.cost", "client", client)
+					.increment(pricing.cost(
+							usage.getPromptTokens() != null ? usage.getPromptTokens() : 0,
+							usage.getCompletionTokens() != null ? usage.getCompletionTokens() : 0));
+		}
+	}
+
+	// Streaming chunks carry empty usage except (at most) the last one
+	private static Usage usageOf(ChatClientResponse response) {
+
+		ChatResponse chatResponse = response != null ? response.chatResponse() : null;
+		if (chatResponse == null || chatResponse.getMetadata() == null) {
+			return null;
+		}
+		Usage usage = chatResponse.getMetadata().getUsage();
+		if (usage == null || usage.getPromptTokens() == null || usage.getPromptTokens() == 0) {
+			return null;
+		}
+		return usage;
+	}
+
+	@Override
+	public String getName() {
+		return "LlmMetricsAdvisor";
+	}
+
+	// Innermost, so only the model call itself is timed
+	@Override
+	public int getOrder() {
+		return Ordered.LOWEST_PRECEDENCE - 100;
+	}
+
+}
@@ -0,0 +1,11 @@
+package com.bofa.agentic.observability;
+
+/**
+ * Price of a model's tokens in USD per million, for agentic.llm.cost
+ */
+public record ModelPricing(double inputPerMillion, double outputPerMillion) {
+
+	public double cost(long promptTokens, long completionTokens) {
+		return (promptTokens * inputPerMillion + completionTokens * outputPerMillion) / 1_000_000.0;
+	}
+}
@@ -4,12 +4,23 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import com.bofa.agentic.cache.SemanticAnswerCache;
 import com.bofa.agentic.exception.AgentException;
+import com.bofa.agentic.executor.ToolExecutor;
 import com.bofa.agentic.graph.AgentState;
+import com.bofa.agentic.graph.Checkpointer;
 import com.bofa.agentic.graph.GraphExecutor;
 import com.bofa.agentic.model.ChatRequest;
+import com.bofa.agentic.model.Deadline;
+import com.bofa.agentic.orchestrator.PromptBudgeter.PromptTokens;
+import com.bofa.agentic.ratelimit.FairShareAdmission;
+import com.bofa.agentic.streaming.ResponseStream;
+import com.bofa.agentic.streaming.StreamEvent;
+import com.bofa.agentic.streaming.TokenStreamingService;
 
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 /**
  * Agent Orchestrator - Now powered by LangGraph-inspired state machine
@@ -20,6 +31,17 @@ import reactor.core.publisher.Flux;
  * - Better observability (track state transitions)
  * - Future: Reflection and retry cycles
  * 
+ * Near-duplicate questions are answered from SemanticAnswerCache without
+ * running the graph. Only answers grounded in the knowledge base alone are
+ * stored there: tool results (Jira, Outlook, ...) are live and may be
+ * specific to the user.
+ * 
+ * The LLM tokens a request used (composer prompt and answer) are charged to
+ * its user's quota in FairShareAdmission.
+ * 
+ * Responses are event streams: composer tokens are forwarded while the
+ * graph is still running, and retracted if the guard rejects the answer.
+ * 
  * Graph structure defined in GraphConfiguration
  */
 @Service
@@ -28,48 +50,140 @@ public class AgentOrchestrator {
 	private static final Logger log = LoggerFactory.getLogger(AgentOrchestrator.class);
 	
 	private final GraphExecutor graphExecutor;
+	private final Checkpointer checkpointer;
+	private final TokenStreamingService streaming;
+	private final SemanticAnswerCache answerCache;
+	private final Scheduler graphNodeScheduler;
+	private final ToolExecutor toolExecutor;
+	private final FairShareAdmission admission;
+	private final PromptBudgeter budgeter;
 
-    public AgentOrchestrator(GraphExecutor graphExecutor) {
+    public AgentOrchestrator(GraphExecutor graphExecutor, Checkpointer checkpointer,
+            TokenStreamingService streaming, SemanticAnswerCache answerCache, Scheduler graphNodeScheduler,
+            ToolExecutor toolExecutor, FairShareAdmission admission, PromptBudgeter budgeter) {
         this.graphExecutor = graphExecutor;
+        this.checkpointer = checkpointer;
+        this.streaming = streaming;
+        this.answerCache = answerCache;
+        this.graphNodeScheduler = graphNodeScheduler;
+        this.toolExecutor = toolExecutor;
+        this.admission = admission;
+        this.budgeter = budgeter;
     }
     
-    public Flux<String> process(ChatRequest request) {
+    public Flux<StreamEvent> process(ChatRequest request, Deadline deadline) {
         
-        // Wrap graph execution in Flux.defer for reactive error handling
+        // Non-blocking graph execution: nodes never run on the subscriber's thread
         return Flux.defer(() -> {
-            try {
-                log.info("Processing request via graph: sessionId={}", request.sessionId());
-                
-                // Create initial state
-                AgentState initialState = new AgentState(request);
-                
+            log.info("Processing request via graph: sessionId={}, {}", request.sessionId(), deadline);
+            
+            // Create initial state
+            AgentState initialState = new AgentState(request, deadline);
+            
+            if (!answerCache.isEnabled()) {
                 // Execute graph
-                AgentState finalState = graphExecutor.execute(initialState);
-                
-                // Check if guardrail passed
-                if (!finalState.isGuardrailPassed() && finalState.getGuardrailReason() != null) {
-                    // Guardrail failed - throw exception to be caught by error handler
-                    throw new AgentException(
-                            "SAFETY_GUARDRAIL_BLOCKED",
-                            finalState.getGuardrailReason()
-                    );
-                }
-                
-                // Return response
-                String response = finalState.getResponse();
-                
-                log.info("Request processed successfully. Nodes executed: {}, Time: {}ms",
-                        finalState.getExecutedNodes().size(),
-                        finalState.getElapsedTime());
-                
-                return Flux.just(response);
-                
-            } catch (Exception e) {
-                log.error("Graph execution failed", e);
-                // Convert synchronous exceptions to reactive error signal
-                return Flux.error(e);
+                return respond(initialState.getRequestId(), deadline, graphExecutor.executeAsync(initialState));
             }
+            
+            // The lookup embeds the message, a blocking call
+            return deadline.bound(Mono.fromCallable(() -> answerCache.lookup(request.userId(), request.message()))
+                    .subscribeOn(graphNodeScheduler), "answer cache lookup")
+                    .flatMapMany(lookup -> {
+                        if (lookup.isHit()) {
+                            return Flux.just(StreamEvent.token(lookup.answer()));
+                        }
+                        // Execute graph, keeping answers the guard passed
+                        return respond(initialState.getRequestId(), deadline, graphExecutor.executeAsync(initialState)
+                                .doOnNext(finalState -> {
+                                    if (finalState.isGuardrailPassed() && !usedToolResults(finalState)) {
+                                        answerCache.put(lookup, finalState.getResponse(),
+                                                finalState.getElapsedTime());
+                                    }
+                                }));
+                    });
+        });
+    }
+    
+    /**
+     * Continue the most recent failed request of the user's session from its
+     * last checkpoint instead of replaying it from the planner
+     */
+    public Flux<StreamEvent> resume(String userId, String sessionId, Deadline deadline) {
+        return Flux.defer(() -> {
+            String requestId = checkpointer.latestForSession(userId, sessionId)
+                    .orElseThrow(() -> new AgentException(
+                            "CHECKPOINT_NOT_FOUND",
+                            "No interrupted request to resume for this session"));
+            
+            log.info("Resuming request via graph: sessionId={}, requestId={}", sessionId, requestId);
+            
+            return respond(requestId, deadline, graphExecutor.resume(requestId, deadline)
+                    .switchIfEmpty(Mono.error(() -> new AgentException(
+                            "CHECKPOINT_NOT_FOUND",
+                            "No interrupted request to resume for this session"))));
         });
     }
+    
+    /**
+     * Run the execution while relaying its token stream; the final state
+     * then completes the stream, or fails it (retracting any partial answer)
+     */
+    private Flux<StreamEvent> respond(String requestId, Deadline deadline, Mono<AgentState> execution) {
+        ResponseStream stream = streaming.open(requestId);
+        // Tool calls the planner starts early run within the request's deadline
+        toolExecutor.open(requestId, deadline);
+        
+        Mono<Void> run = execution
+                .doOnNext(finalState -> {
+                    admission.charge(finalState.getRequest().userId(), llmTokens(finalState));
+                    
+                    // Check if guardrail passed
+                    if (!finalState.isGuardrailPassed() && finalState.getGuardrailReason() != null) {
+                        // Guardrail failed - signal error to be caught by error handler
+                        stream.fail(new AgentException(
+                                "SAFETY_GUARDRAIL_BLOCKED",
+                                finalState.getGuardrailReason()
+                        ), finalState.getGuardrailReason());
+                        return;
+                    }
+                    
+                    log.info("Request processed successfully. Nodes executed: {}, Time: {}ms",
+                            finalState.getExecutedNodes().size(),
+                            finalState.getElapsedTime());
+                    
+                    // Deliver whatever part of the response was not streamed
+                    stream.complete(finalState.getResponse());
+                })
+                .doOnError(e -> {
+                    log.error("Graph execution failed", e);
+                    stream.fail(e, "Request failed");
+                })
+                .onErrorResume(e -> Mono.empty())
+                .doFinally(signal -> {
+                    streaming.close(requestId);
+                    // Tool calls the planner started that the plan never reached
+                    toolExecutor.release(requestId);
+                })
+                .then();
+        
+        return Flux.merge(stream.events(), run.thenMany(Flux.<StreamEvent>empty()));
+    }
+    
+    /**
+     * Composer prompt (the last one, revisions included) plus the answer;
+     * planner calls are not counted
+     */
+    private long llmTokens(AgentState state) {
+        long tokens = budgeter.count(state.getResponse());
+        if (state.getMetadata().get("promptTokens") instanceof PromptTokens prompt) {
+            tokens += prompt.total();
+        }
+        return tokens;
+    }
+    
+    // Planned counts too: an answer whose tools were skipped is a degraded one
+    private static boolean usedToolResults(AgentState state) {
+        return state.isUseTools() || (state.getToolResults() != null && !state.getToolResults().isBlank());
+    }
 
 }
@@ -0,0 +1,200 @@
+package com.bofa.agentic.orchestrator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import com.bofa.agentic.model.ToolCall;
+import com.bofa.agentic.rag.EmbeddingService;
+import com.bofa.agentic.util.VectorMath;
+
+/**
+ * Local pre-classifier in front of the LLM planner
+ *
+ * Two stages, cheapest first:
+ * 1. Rules: greetings and thanks mean a direct answer; a ticket key means
+ *    RAG plus a jira-tool step per key; other vocabulary the planner prompt
+ *    sends to a tool (incidents, runbooks, emails, ...) is left to the LLM;
+ *    the remaining production-support vocabulary means RAG
+ * 2. Nearest centroid: the query's embedding against the mean embedding of
+ *    each label's examples (prompts/planner-examples.txt), confident when
+ *    the best label wins by at least agentic.planner.fast-path.min-margin.
+ *    Only reached by queries no tool rule matched, so it plans no tools.
+ *
+ * Only confident results skip the LLM; the rest are still returned as a
+ * guess so the planner can measure how often the fast path would have agreed.
+ */
+@Component
+public class PlanClassifier {
+
+	private static final Logger log = LoggerFactory.getLogger(PlanClassifier.class);
+
+	private static final String EXAMPLES = "prompts/planner-examples.txt";
+	private static final String RAG = "rag";
+	private static final String DIRECT = "direct";
+
+	private static final String JIRA_TOOL = "jira-tool";
+
+	/**
+	 * Ticket keys in free text (INC-1234); questions about different keys
+	 * embed almost alike, so SemanticAnswerCache also matches on these
+	 */
+	public static final Pattern ISSUE_KEY = Pattern.compile("\\b[A-Z]{2,10}-\\d{2,}\\b");
+
+	// What planner-prompt.txt sends to jira-tool; a key is needed to call it
+	private static final Pattern JIRA_RULE = Pattern.compile(
+			"(?i)\\b(incidents?|outages?|deploy\\w*|tickets?|bugs?|issues?|status|jira)\\b");
+
+	// What it sends to confluence-tool or outlook-tool
+	private static final Pattern OTHER_TOOL_RULE = Pattern.compile(
+			"(?i)\\b(runbooks?|sops?|playbooks?|guides?|docs?|documentation|knowledge base|wiki|confluence"
+			+ "|outlook|e-?mails?|mail|notifications?|escalat\\w*)\\b");
+
+	private static final Pattern RAG_RULE = Pattern.compile(
+			"(?i)\\b(postmortems?|rca|errors?|exceptions?|timeouts?|latency|crash\\w*|fail\\w*|down(time)?"
+			+ "|rollbacks?|alerts?|on-?call|sev-?[0-4]|p[0-4])\\b");
+
+	private static final Pattern DIRECT_RULE = Pattern.compile(
+			"(?i)^\\s*(hi|hello|hey|thanks|thank you|thx|ok(ay)?|good (morning|afternoon|evening)|bye)"
+			+ "\\b[\\s\\p{Punct}]*$");
+
+	/**
+	 * @param stage      "rule" or "embedding"
+	 * @param confident  Whether the planner may use {@code plan} without the LLM
+	 */
+	public record Classification(ExecutionPlan plan, String stage, boolean confident) {
+	}
+
+	private final EmbeddingService embeddingService;
+	private final double minMargin;
+	private volatile Map<String, float[]> centroids;
+
+	public PlanClassifier(EmbeddingService embeddingService,
+			@Value("${agentic.planner.fast-path.min-margin:0.04}") double minMargin) {
+		this.embeddingService = embeddingService;
+		this.minMargin = minMargin;
+	}
+
+	/**
+	 * @return null if the query could not be classified at all (e.g. the
+	 *         embedding call failed)
+	 */
+	public Classification classify(String query) {
+		if (DIRECT_RULE.matcher(query).matches()) {
+			return new Classification(plan(DIRECT), "rule", true);
+		}
+
+		List<ToolCall> jiraCalls = ISSUE_KEY.matcher(query).results()
+				.map(key -> new ToolCall(JIRA_TOOL, key.group()))
+				.distinct()
+				.toList();
+		boolean otherTools = OTHER_TOOL_RULE.matcher(query).find();
+		if (!jiraCalls.isEmpty()) {
+			// Confident only when jira-tool is the one tool the prompt would pick
+			return new Classification(new ExecutionPlan(true, jiraCalls), "rule", !otherTools);
+		}
+		if (otherTools || JIRA_RULE.matcher(query).find()) {
+			// A tool may be needed, with input only the LLM can write; RAG is the guess
+			return new Classification(plan(RAG), "rule", false);
+		}
+		if (RAG_RULE.matcher(query).find()) {
+			return new Classification(plan(RAG), "rule", true);
+		}
+
+		try {
+			Map<String, float[]> labels = centroids();
+			float[] embedding = VectorMath.normalize(embeddingService.embed(query));
+
+			String best = null;
+			double bestScore = Double.NEGATIVE_INFINITY;
+			double secondScore = Double.NEGATIVE_INFINITY;
+			for (Map.Entry<String, float[]> label : labels.entrySet()) {
+				double score = VectorMath.dot(embedding, label.getValue());
+				if (score > bestScore) {
+					secondScore = bestScore;
+					bestScore = score;
+					best = label.getKey();
+				} else if (score > secondScore) {
+					secondScore = score;
+				}
+			}
+
+			boolean confident = bestScore - secondScore >= minMargin;
+			log.debug("Nearest centroid '{}' (margin {})", best, bestScore - secondScore);
+			return new Classification(plan(best), "embedding", confident);
+		} catch (RuntimeException e) {
+			log.warn("Planner fast path unavailable, using LLM planner: {}", e.getMessage());
+			return null;
+		}
+	}
+
+	private static ExecutionPlan plan(String label) {
+		return new ExecutionPlan(RAG.equals(label), List.of());
+	}
+
+	/**
+	 * Label centroids, embedded on first use in a single request; retried on
+	 * the next call if that fails
+	 */
+	private Map<String, float[]> centroids() {
+		Map<String, float[]> loaded = centroids;
+		if (loaded == null) {
+			synchronized (this) {
+				loaded = centroids;
+				if (loaded == null) {
+					loaded = buildCentroids();
+					centroids = loaded;
+				}
+			}
+		}
+		return loaded;
+	}
+
+	private Map<String, float[]> buildCentroids() {
+		List<String> labels = new ArrayList<>();
+		List<String> queries = new ArrayList<>();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+				new ClassPathResource(EXAMPLES).getInputStream(), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				int colon = line.indexOf(':');
+				if (line.isBlank() || line.startsWith("#") || colon < 0) {
+					continue;
+				}
+				labels.add(line.substring(0, colon).trim());
+				queries.add(line.substring(colon + 1).trim());
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot read " + EXAMPLES, e);
+		}
+
+		List<float[]> embeddings = embeddingService.embedAll(queries);
+		Map<String, float[]> sums = new LinkedHashMap<>();
+		for (int i = 0; i < labels.size(); i++) {
+			float[] embedding = VectorMath.normalize(embeddings.get(i));
+			float[] sum = sums.computeIfAbsent(labels.get(i), label -> new float[embedding.length]);
+			for (int d = 0; d < sum.length; d++) {
+				sum[d] += embedding[d];
+			}
+		}
+		sums.replaceAll((label, sum) -> VectorMath.normalize(sum));
+
+		if (!sums.containsKey(RAG) || !sums.containsKey(DIRECT)) {
+			throw new IllegalStateException(EXAMPLES + " needs examples for both '" + RAG + "' and '" + DIRECT + "'");
+		}
+		log.info("Planner fast path ready: {} examples, labels {}", queries.size(), sums.keySet());
+		return sums;
+	}
+}
@@ -0,0 +1,187 @@
+package com.bofa.agentic.orchestrator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import com.bofa.agentic.model.ToolCall;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * Incremental parser for the planner's JSON plan (prompts/planner-prompt.txt)
+ *
+ * Fed the completion chunk by chunk; each {@code steps[i]} is returned as a
+ * {@link ToolCall} from the {@link #accept} call that completes it, so the
+ * tool can start while the model is still writing the rest of the plan.
+ * rag-retriever steps are not tool calls: they set {@code useRag}.
+ *
+ * Text before the first '{' (e.g. a markdown fence) and after the closing
+ * '}' is ignored. Output that is not a plan falls back to the planner's
+ * original heuristic: RAG if the text mentions "rag".
+ *
+ * One instance per completion; not thread-safe.
+ */
+class PlanStreamParser {
+
+	static final String RAG_RETRIEVER = "rag-retriever";
+
+	private final ObjectMapper objectMapper;
+	private final JsonParser parser;
+	private final ByteArrayFeeder feeder;
+	private final StringBuilder text = new StringBuilder();
+	private final List<ToolCall> toolCalls = new ArrayList<>();
+
+	private boolean started;
+	private boolean done;
+	private boolean malformed;
+	private int depth;
+	private String field;
+	private boolean inSteps;
+	private TokenBuffer step;
+	private boolean ragStep;
+	private String finalStrategy;
+
+	PlanStreamParser(ObjectMapper objectMapper) {
+		this.objectMapper = objectMapper;
+		try {
+			this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot create non-blocking JSON parser", e);
+		}
+		this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+	}
+
+	/**
+	 * Feed the next chunk of the completion
+	 *
+	 * @return Tool calls whose step was completed by this chunk
+	 */
+	List<ToolCall> accept(String chunk) {
+		if (chunk == null || chunk.isEmpty()) {
+			return List.of();
+		}
+		text.append(chunk);
+		if (done || malformed) {
+			return List.of();
+		}
+
+		String json = chunk;
+		if (!started) {
+			int brace = chunk.indexOf('{');
+			if (brace < 0) {
+				return List.of();
+			}
+			started = true;
+			json = chunk.substring(brace);
+		}
+
+		List<ToolCall> completed = new ArrayList<>();
+		try {
+			byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+			feeder.feedInput(bytes, 0, bytes.length);
+			JsonToken token;
+			while (!done && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+				ToolCall call = onToken(token);
+				if (call != null) {
+					completed.add(call);
+				}
+			}
+		} catch (IOException e) {
+			// Not JSON after all; plan() falls back to the raw text
+			malformed = true;
+		}
+		toolCalls.addAll(completed);
+		return completed;
+	}
+
+	/**
+	 * The plan, from what has been parsed so far; call once the completion
+	 * has ended
+	 */
+	ExecutionPlan plan() {
+		if (!done && toolCalls.isEmpty() && finalStrategy == null && !ragStep) {
+			return new ExecutionPlan(text.toString().toLowerCase().contains("rag"), List.of());
+		}
+		boolean useRag = ragStep || "rag_first".equalsIgnoreCase(finalStrategy);
+		return new ExecutionPlan(useRag, List.copyOf(toolCalls));
+	}
+
+	private ToolCall onToken(JsonToken token) throws IOException {
+		if (step != null) {
+			step.copyCurrentEvent(parser);
+		}
+
+		switch (token) {
+			case START_OBJECT, START_ARRAY -> {
+				depth++;
+				if (token == JsonToken.START_ARRAY && depth == 2 && "steps".equals(field)) {
+					inSteps = true;
+				} else if (token == JsonToken.START_OBJECT && inSteps && depth == 3 && step == null) {
+					step = new TokenBuffer(parser, null);
+					step.copyCurrentEvent(parser);
+				}
+			}
+			case END_OBJECT, END_ARRAY -> {
+				depth--;
+				if (step != null && depth == 2) {
+					JsonNode node = objectMapper.readTree(step.asParser(objectMapper));
+					step = null;
+					return toToolCall(node);
+				}
+				if (inSteps && depth == 1) {
+					inSteps = false;
+				}
+				if (depth == 0) {
+					done = true;
+				}
+			}
+			case FIELD_NAME -> {
+				if (depth == 1) {
+					field = parser.currentName();
+				}
+			}
+			case VALUE_STRING -> {
+				if (depth == 1 && "finalStrategy".equals(field)) {
+					finalStrategy = parser.getText().trim();
+				}
+			}
+			default -> {
+			}
+		}
+		return null;
+	}
+
+	private ToolCall toToolCall(JsonNode step) {
+		String tool = step.path("tool").asText("").trim();
+		if (tool.isEmpty()) {
+			return null;
+		}
+		if (RAG_RETRIEVER.equals(tool)) {
+			ragStep = true;
+			return null;
+		}
+		return new ToolCall(tool, inputOf(step.path("input")));
+	}
+
+	// Tools take their single required field (issueKey, query, keyword) as a string
+	private static String inputOf(JsonNode input) {
+		if (input.isValueNode()) {
+			return input.asText();
+		}
+		Iterator<JsonNode> values = input.elements();
+		while (values.hasNext()) {
+			JsonNode value = values.next();
+			if (value.isValueNode()) {
+				return value.asText();
+			}
+		}
+		return "";
+	}
+}
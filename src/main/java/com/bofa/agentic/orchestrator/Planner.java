@@ -1,11 +1,31 @@
 package com.bofa.agentic.orchestrator;
 
-import java.util.List;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
+import com.bofa.agentic.cache.LlmCallCoalescer;
+import com.bofa.agentic.cache.PromptCache;
+import com.bofa.agentic.executor.ToolExecutor;
 import com.bofa.agentic.model.ExecutionContext;
+import com.bofa.agentic.model.ToolCall;
+import com.bofa.agentic.observability.LlmMetricsAdvisor;
+import com.bofa.agentic.ratelimit.OpenAiLimiters;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
 
 
 /*
@@ -13,26 +33,143 @@ import com.bofa.agentic.model.ExecutionContext;
 • RAG?
 • Tools?
 • Direct answer?
- * 
+ *
+ * A local PlanClassifier answers first; the LLM is only asked when it is
+ * not confident. The LLM writes a JSON plan (prompts/planner-prompt.txt),
+ * parsed as it streams: each tool step is dispatched to the ToolExecutor
+ * as soon as it is complete, so tools run while the rest of the plan is
+ * still being generated. Metrics:
+ * - agentic.planner.decisions (path=rule|embedding|llm): fast-path ratio
+ * - agentic.planner.agreement (stage, confident, outcome=agree|disagree):
+ *   the classifier's guess against the LLM's plan, on every fallback and on
+ *   a sample (agentic.planner.fast-path.shadow-rate) of fast-path decisions;
+ *   sampling pauses while calls are queued at the chat limiter
  */
 @Component
 public class Planner {
-	
+
+	private static final Logger log = LoggerFactory.getLogger(Planner.class);
+
 	private final ChatClient chatClient;
-	
-	public Planner(ChatClient.Builder builder) {
-        this.chatClient = builder.build();
+	private final String systemPrompt;
+	private final ObjectMapper objectMapper;
+	private final ToolExecutor toolExecutor;
+	private final PlanClassifier classifier;
+	private final MeterRegistry meterRegistry;
+	private final boolean fastPathEnabled;
+	private final double shadowRate;
+	private final Duration shadowTimeout;
+	private final OpenAiLimiters limiters;
+
+	public Planner(ChatClient.Builder builder, MeterRegistry meterRegistry, PlanClassifier classifier,
+			PromptCache promptCache, LlmCallCoalescer coalescer, OpenAiLimiters limiters, ObjectMapper objectMapper,
+			ToolExecutor toolExecutor,
+			@Value("classpath:prompts/planner-prompt.txt") Resource systemPrompt,
+			@Value("${agentic.planner.fast-path.enabled:true}") boolean fastPathEnabled,
+			@Value("${agentic.planner.fast-path.shadow-rate:0.05}") double shadowRate,
+			@Value("${agentic.planner.fast-path.shadow-timeout-ms:10000}") long shadowTimeoutMs) {
+        this.chatClient = builder
+                // A routing decision: deterministic, so repeats come from the prompt cache
+                .defaultOptions(ChatOptions.builder().temperature(0.0).build())
+                .defaultAdvisors(promptCache.advisor("planner"), coalescer.advisor("planner"), limiters.advisor(),
+                        new LlmMetricsAdvisor("planner", meterRegistry))
+                .build();
+        try {
+            this.systemPrompt = systemPrompt.getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read planner prompt", e);
+        }
+        this.objectMapper = objectMapper;
+        this.toolExecutor = toolExecutor;
+        this.classifier = classifier;
+        this.meterRegistry = meterRegistry;
+        this.fastPathEnabled = fastPathEnabled;
+        this.shadowRate = shadowRate;
+        this.shadowTimeout = Duration.ofMillis(shadowTimeoutMs);
+        this.limiters = limiters;
     }
-	
+
 	 public ExecutionPlan plan(ExecutionContext context) {
-		 String decision = chatClient.prompt()
-	                .user("Decide whether this query needs RAG or Tools: "
-	                        + context.getRequest().message())
-	                .call()
-	                .content();
-		 
-		 boolean useRag = decision.toLowerCase().contains("rag");
-		 
-		 return new ExecutionPlan(useRag, List.of());
+		 String query = context.getRequest().message();
+		 PlanClassifier.Classification local = fastPathEnabled ? classifier.classify(query) : null;
+
+		 if (local != null && local.confident()) {
+			 decision(local.stage()).increment();
+			 log.debug("Planned locally ({}): useRag={}", local.stage(), local.plan().useRag());
+
+			 // Keep checking the fast path against the LLM on a sample of
+			 // traffic, but never ahead of requests waiting for the model
+			 if (ThreadLocalRandom.current().nextDouble() < shadowRate && limiters.chat().queued() == 0) {
+				 llmPlan(query, call -> { }).timeout(shadowTimeout).subscribe(
+						 plan -> recordAgreement(local, plan),
+						 e -> log.debug("Shadow planner call failed: {}", e.getMessage()));
+			 }
+			 return local.plan();
+		 }
+
+		 String requestId = context.getRequestId();
+		 ExecutionPlan plan = context.getDeadline().bound(
+				 llmPlan(query, call -> toolExecutor.dispatch(requestId, call)), "planning").block();
+		 decision("llm").increment();
+		 if (local != null) {
+			 recordAgreement(local, plan);
+		 }
+		 return plan;
+	 }
+
+	 /**
+	  * @param onToolCall Called with each tool step as soon as it has been generated
+	  */
+	 private Mono<ExecutionPlan> llmPlan(String query, Consumer<ToolCall> onToolCall) {
+		 return Mono.defer(() -> {
+			 PlanStreamParser parser = new PlanStreamParser(objectMapper);
+			 // Streamed so steps can start early and the deadline can cancel the HTTP exchange itself
+			 return chatClient.prompt()
+					 .system(systemPrompt)
+					 .user(query)
+					 .stream()
+					 .content()
+					 .doOnNext(chunk -> {
+						 for (ToolCall call : parser.accept(chunk)) {
+							 if (toolExecutor.isRegistered(call.toolName())) {
+								 onToolCall.accept(call);
+							 }
+						 }
+					 })
+					 .then(Mono.fromSupplier(() -> registeredOnly(parser.plan())));
+		 });
+	 }
+
+	 // The prompt forbids inventing tools; drop any the model invents anyway
+	 private ExecutionPlan registeredOnly(ExecutionPlan plan) {
+		 if (plan.toolCalls().stream().allMatch(call -> toolExecutor.isRegistered(call.toolName()))) {
+			 return plan;
+		 }
+		 log.warn("Planner proposed unknown tools: {}", plan.toolCalls().stream()
+				 .map(ToolCall::toolName)
+				 .filter(name -> !toolExecutor.isRegistered(name))
+				 .toList());
+		 return new ExecutionPlan(plan.useRag(), plan.toolCalls().stream()
+				 .filter(call -> toolExecutor.isRegistered(call.toolName()))
+				 .toList());
+	 }
+
+	 private Counter decision(String path) {
+		 return Counter.builder("agentic.planner.decisions")
+				 .description("Plans by the path that produced them")
+				 .tag("path", path)
+				 .register(meterRegistry);
+	 }
+
+	 private void recordAgreement(PlanClassifier.Classification local, ExecutionPlan plan) {
+		 boolean agree = local.plan().useRag() == plan.useRag()
+				 && local.plan().toolCalls().isEmpty() == plan.toolCalls().isEmpty();
+		 Counter.builder("agentic.planner.agreement")
+				 .description("Local classifier plans compared with the LLM planner")
+				 .tag("stage", local.stage())
+				 .tag("confident", String.valueOf(local.confident()))
+				 .tag("outcome", agree ? "agree" : "disagree")
+				 .register(meterRegistry)
+				 .increment();
 	 }
 }
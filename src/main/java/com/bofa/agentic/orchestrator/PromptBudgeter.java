@@ -0,0 +1,207 @@
+package com.bofa.agentic.orchestrator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingRegistry;
+import com.knuddels.jtokkit.api.EncodingType;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Fits the composer's prompt sections into a token budget
+ *
+ * Tokens are counted locally with the chat model's BPE encoding (jtokkit;
+ * cl100k_base for unknown models), so nothing is sent to find out a prompt
+ * was too big. agentic.composer.prompt.max-tokens is split as follows:
+ * - query: up to agentic.composer.prompt.max-query-tokens, tail trimmed
+ * - evidence: at least agentic.composer.prompt.evidence-share of what is
+ *   left; documents are kept in retrieval (relevance) order and the first
+ *   one that does not fit is truncated, the rest dropped
+ * - tool data: the remainder, shared fairly between tool results so one
+ *   large response (e.g. a full Jira issue) cannot crowd out the others
+ * Whatever one section does not need goes to the other.
+ *
+ * Metric: agentic.composer.prompt.tokens (part=kept|trimmed).
+ */
+@Component
+public class PromptBudgeter {
+
+	private static final Logger log = LoggerFactory.getLogger(PromptBudgeter.class);
+
+	private static final String EVIDENCE_SEPARATOR = "\n---\n";
+	private static final Pattern TOOL_RESULT_START = Pattern.compile("(?m)^(?=\\[[\\w.-]+\\] -> )");
+	private static final String TRUNCATED = " ...[truncated]";
+
+	/**
+	 * Sections as they will be sent, with their token counts
+	 */
+	public record BudgetedPrompt(String query, String evidence, String toolData, PromptTokens tokens) {
+	}
+
+	/**
+	 * Token counts recorded on the agent state ("promptTokens" metadata)
+	 *
+	 * @param total   Everything sent: sections, template and reserved text
+	 * @param trimmed Section tokens removed to fit the budget
+	 */
+	public record PromptTokens(int query, int evidence, int toolData, int total, int trimmed) {
+	}
+
+	private final Encoding encoding;
+	private final int maxTokens;
+	private final int maxQueryTokens;
+	private final double evidenceShare;
+	private final int markerTokens;
+	private final DistributionSummary keptTokens;
+	private final DistributionSummary trimmedTokens;
+
+	public PromptBudgeter(MeterRegistry meterRegistry,
+			@Value("${spring.ai.openai.chat.options.model:gpt-4o-mini}") String model,
+			@Value("${agentic.composer.prompt.max-tokens:6000}") int maxTokens,
+			@Value("${agentic.composer.prompt.max-query-tokens:500}") int maxQueryTokens,
+			@Value("${agentic.composer.prompt.evidence-share:0.6}") double evidenceShare) {
+		EncodingRegistry registry = Encodings.newLazyEncodingRegistry();
+		this.encoding = registry.getEncodingForModel(model)
+				.orElseGet(() -> registry.getEncoding(EncodingType.CL100K_BASE));
+		this.maxTokens = maxTokens;
+		this.maxQueryTokens = maxQueryTokens;
+		this.evidenceShare = evidenceShare;
+		this.markerTokens = encoding.countTokens(TRUNCATED);
+		this.keptTokens = DistributionSummary.builder("agentic.composer.prompt.tokens")
+				.description("Composer prompt section tokens")
+				.tag("part", "kept")
+				.register(meterRegistry);
+		this.trimmedTokens = DistributionSummary.builder("agentic.composer.prompt.tokens")
+				.description("Composer prompt section tokens")
+				.tag("part", "trimmed")
+				.register(meterRegistry);
+		log.info("Composer prompt budget: {} tokens ({} encoding)", maxTokens, encoding.getName());
+	}
+
+	public int count(String text) {
+		return text == null || text.isEmpty() ? 0 : encoding.countTokens(text);
+	}
+
+	/**
+	 * @param fixedTokens Tokens of everything sent besides the three
+	 *                    sections (system prompt, template, a previous answer)
+	 */
+	public BudgetedPrompt fit(String query, String evidence, String toolData, int fixedTokens) {
+		String q = truncate(nullToEmpty(query), maxQueryTokens);
+		int queryTokens = count(q);
+		int available = Math.max(0, maxTokens - fixedTokens - queryTokens);
+
+		List<String> documents = split(nullToEmpty(evidence), EVIDENCE_SEPARATOR);
+		List<String> results = Arrays.stream(TOOL_RESULT_START.split(nullToEmpty(toolData)))
+				.map(String::strip)
+				.filter(result -> !result.isEmpty())
+				.toList();
+		int evidenceDemand = count(evidence);
+		int toolDemand = count(toolData);
+
+		// Evidence gets its share, or more if tool data needs less than the rest
+		int evidenceBudget = Math.min(evidenceDemand,
+				Math.max((int) (available * evidenceShare), available - toolDemand));
+		String keptEvidence = fitDocuments(documents, evidenceBudget);
+		int evidenceTokens = count(keptEvidence);
+		String keptToolData = fitToolResults(results, available - evidenceTokens);
+		int toolTokens = count(keptToolData);
+
+		int trimmed = Math.max(0, count(query) - queryTokens)
+				+ Math.max(0, evidenceDemand - evidenceTokens)
+				+ Math.max(0, toolDemand - toolTokens);
+		int kept = queryTokens + evidenceTokens + toolTokens;
+		keptTokens.record(kept);
+		trimmedTokens.record(trimmed);
+		if (trimmed > 0) {
+			log.info("Composer prompt trimmed by {} tokens to fit {} (evidence {}/{}, tool data {}/{})",
+					trimmed, maxTokens, evidenceTokens, evidenceDemand, toolTokens, toolDemand);
+		}
+
+		return new BudgetedPrompt(q, keptEvidence, keptToolData,
+				new PromptTokens(queryTokens, evidenceTokens, toolTokens, kept + fixedTokens, trimmed));
+	}
+
+	/**
+	 * Leading documents that fit; the first that does not is truncated if
+	 * enough room is left for it to be useful
+	 */
+	private String fitDocuments(List<String> documents, int budget) {
+		int separatorTokens = count(EVIDENCE_SEPARATOR);
+		List<String> kept = new ArrayList<>();
+		int used = 0;
+		for (String document : documents) {
+			int cost = count(document) + (kept.isEmpty() ? 0 : separatorTokens);
+			if (used + cost <= budget) {
+				kept.add(document);
+				used += cost;
+				continue;
+			}
+			int room = budget - used - (kept.isEmpty() ? 0 : separatorTokens);
+			if (room > 4 * markerTokens) {
+				kept.add(truncate(document, room));
+			}
+			break;
+		}
+		return String.join(EVIDENCE_SEPARATOR, kept);
+	}
+
+	/**
+	 * Water-filling: smallest results are kept whole, the budget they leave
+	 * is split evenly among the larger ones
+	 */
+	private String fitToolResults(List<String> results, int budget) {
+		int[] demand = results.stream().mapToInt(this::count).toArray();
+		Integer[] bySize = new Integer[results.size()];
+		Arrays.setAll(bySize, i -> i);
+		Arrays.sort(bySize, Comparator.comparingInt(i -> demand[i]));
+
+		int[] allowed = new int[results.size()];
+		int remaining = Math.max(0, budget - results.size());
+		for (int k = 0; k < bySize.length; k++) {
+			int i = bySize[k];
+			allowed[i] = Math.min(demand[i], remaining / (bySize.length - k));
+			remaining -= allowed[i];
+		}
+
+		List<String> kept = new ArrayList<>();
+		for (int i = 0; i < results.size(); i++) {
+			if (allowed[i] > 0) {
+				kept.add(allowed[i] >= demand[i] ? results.get(i) : truncate(results.get(i), allowed[i]));
+			}
+		}
+		return String.join("\n", kept);
+	}
+
+	private String truncate(String text, int maxTokens) {
+		if (count(text) <= maxTokens) {
+			return text;
+		}
+		if (maxTokens <= markerTokens) {
+			return "";
+		}
+		return encoding.decode(encoding.encode(text, maxTokens - markerTokens).getTokens()) + TRUNCATED;
+	}
+
+	private static List<String> split(String text, String separator) {
+		return Arrays.stream(text.split(Pattern.quote(separator)))
+				.filter(part -> !part.isBlank())
+				.toList();
+	}
+
+	private static String nullToEmpty(String text) {
+		return text != null ? text : "";
+	}
+}
@@ -1,26 +1,177 @@
 package com.bofa.agentic.orchestrator;
 
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.bofa.agentic.cache.LlmCallCoalescer;
+import com.bofa.agentic.cache.PromptCache;
+import com.bofa.agentic.observability.LlmMetricsAdvisor;
+import com.bofa.agentic.observability.ModelPricing;
+import com.bofa.agentic.orchestrator.PromptBudgeter.BudgetedPrompt;
+import com.bofa.agentic.ratelimit.OpenAiLimiters;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+
+/**
+ * Answers from the RAG evidence and tool data
+ *
+ * Prompts are first fitted to the token budget ({@link #budget}); the
+ * sections passed to {@link #compose} and {@link #revise} are sent as given.
+ *
+ * With agentic.composer.cascade.enabled, answers can also be composed by
+ * a FAST or STRONG {@link Tier} model (ComposerNode escalates between
+ * them); each tier has its own client tag for latency, tokens and cost.
+ */
 @Component
 public class ResponseComposer {
 
+	private static final String SYSTEM = "Answer ONLY from provided evidence.";
+
+	private static final String ANSWER = """
+			Query: %s
+			Evidence: %s
+			ToolData: %s
+			""";
+
+	private static final String REVISION = """
+			Query: %s
+			Evidence: %s
+			ToolData: %s
+			Previous answer: %s
+			The previous answer was rejected: %s
+			Rewrite it using only statements supported by the Evidence and ToolData.
+			If they do not answer the query, say so.
+			""";
+
+	/**
+	 * Model cascade tiers: cheap first, stronger on low confidence
+	 */
+	public enum Tier {
+		FAST, STRONG
+	}
+
 	private final ChatClient chatClient;
+	private final ChatClient fastClient;
+	private final ChatClient strongClient;
+	private final PromptBudgeter budgeter;
+	private final int templateTokens;
+	private final int revisionTemplateTokens;
+
+	/**
+	 * @param temperature Sampling temperature for answers; above
+	 *                    agentic.llm.cache.max-temperature they bypass the prompt cache
+	 * @param fastPrice   USD per million input and output tokens of the fast model
+	 */
+	public ResponseComposer(ChatClient.Builder builder, MeterRegistry meterRegistry, PromptCache promptCache,
+			LlmCallCoalescer coalescer, OpenAiLimiters limiters, PromptBudgeter budgeter,
+			@Value("${agentic.composer.temperature:0.0}") double temperature,
+			@Value("${agentic.composer.cascade.enabled:false}") boolean cascadeEnabled,
+			@Value("${agentic.composer.cascade.fast.model:gpt-4o-mini}") String fastModel,
+			@Value("${agentic.composer.cascade.fast.price-per-mtok:0.15,0.60}") double[] fastPrice,
+			@Value("${agentic.composer.cascade.strong.model:gpt-4o}") String strongModel,
+			@Value("${agentic.composer.cascade.strong.price-per-mtok:2.50,10.00}") double[] strongPrice) {
+		this.chatClient = client(builder.clone(), "composer", null, temperature,
+				meterRegistry, promptCache, coalescer, limiters, null);
+		this.fastClient = cascadeEnabled
+				? client(builder.clone(), "composer-fast", fastModel, temperature,
+						meterRegistry, promptCache, coalescer, limiters, pricing(fastPrice))
+				: null;
+		this.strongClient = cascadeEnabled
+				? client(builder.clone(), "composer-strong", strongModel, temperature,
+						meterRegistry, promptCache, coalescer, limiters, pricing(strongPrice))
+				: null;
+		this.budgeter = budgeter;
+		this.templateTokens = budgeter.count(SYSTEM) + budgeter.count(ANSWER.formatted("", "", ""));
+		this.revisionTemplateTokens = budgeter.count(SYSTEM)
+				+ budgeter.count(REVISION.formatted("", "", "", "", ""));
+	}
+
+	/**
+	 * Sections for {@link #compose}, trimmed to the token budget
+	 */
+	public BudgetedPrompt budget(String query, String evidence, String toolData) {
+
+		return budgeter.fit(query, evidence, toolData, templateTokens);
+	}
+
+	/**
+	 * Sections for {@link #revise}, leaving room for the rejected answer
+	 */
+	public BudgetedPrompt budget(String query, String evidence, String toolData, String rejectedAnswer,
+			String rejectionReason) {
+
+		return budgeter.fit(query, evidence, toolData,
+				revisionTemplateTokens + budgeter.count(rejectedAnswer) + budgeter.count(rejectionReason));
+	}
+
+	public boolean isCascadeEnabled() {
+
+		return fastClient != null;
+	}
+
+	/**
+	 * Answer tokens as the model produces them; nothing is sent until
+	 * subscribed, and cancelling aborts the HTTP exchange
+	 */
+	public Flux<String> compose(BudgetedPrompt prompt) {
+
+		return stream(chatClient, ANSWER.formatted(prompt.query(), prompt.evidence(), prompt.toolData()));
+	}
+
+	/**
+	 * As {@link #compose(BudgetedPrompt)}, with a cascade tier's model
+	 *
+	 * @throws IllegalStateException if the cascade is not enabled
+	 */
+	public Flux<String> compose(BudgetedPrompt prompt, Tier tier) {
+
+		if (!isCascadeEnabled()) {
+			throw new IllegalStateException("Model cascade is not enabled (agentic.composer.cascade.enabled)");
+		}
+		return stream(tier == Tier.FAST ? fastClient : strongClient,
+				ANSWER.formatted(prompt.query(), prompt.evidence(), prompt.toolData()));
+	}
+
+	/**
+	 * Rewrite an answer the grounding guardrail rejected, from the same
+	 * evidence and tool data, telling the model why it was rejected
+	 */
+	public Flux<String> revise(BudgetedPrompt prompt, String rejectedAnswer, String rejectionReason) {
+
+		return stream(chatClient, REVISION.formatted(prompt.query(), prompt.evidence(), prompt.toolData(),
+				rejectedAnswer, rejectionReason));
+	}
+
+	private static Flux<String> stream(ChatClient client, String user) {
+
+		return client.prompt()
+				.system(SYSTEM)
+				.user(user).stream().content();
+	}
+
+	/**
+	 * @param model Model override, or null for spring.ai.openai.chat.options.model
+	 */
+	private static ChatClient client(ChatClient.Builder builder, String name, String model, double temperature,
+			MeterRegistry meterRegistry, PromptCache promptCache, LlmCallCoalescer coalescer, OpenAiLimiters limiters,
+			ModelPricing pricing) {
 
-	public ResponseComposer(ChatClient.Builder builder) {
-		this.chatClient = builder.build();
+		return builder
+				.defaultOptions(ChatOptions.builder().model(model).temperature(temperature).build())
+				.defaultAdvisors(promptCache.advisor(name), coalescer.advisor(name), limiters.advisor(),
+						new LlmMetricsAdvisor(name, meterRegistry, pricing))
+				.build();
 	}
 
-	public String compose(String query, String evidence, String toolData) {
+	private static ModelPricing pricing(double[] perMillionTokens) {
 
-		return chatClient.prompt()
-				.system("Answer ONLY from provided evidence.")
-				.user("""
-				Query: %s
-				Evidence: %s
-				ToolData: %s
-				""".formatted(query, evidence, toolData)).call().content();
+		if (perMillionTokens == null || perMillionTokens.length != 2) {
+			throw new IllegalStateException("Model price must be '<input>,<output>' USD per million tokens");
+		}
+		return new ModelPricing(perMillionTokens[0], perMillionTokens[1]);
 	}
 
 }
@@ -0,0 +1,157 @@
+package com.bofa.agentic.rag;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads the FAQ, incident and runbook datasets one record at a time
+ *
+ * A dataset file is either a JSON array of records or NDJSON (one record
+ * per line, or any whitespace-separated sequence of objects); the root
+ * token tells which. Records are bound straight from the JsonParser, so a
+ * multi-GB export never sits in memory as a whole. Unknown fields are
+ * ignored.
+ *
+ * The FAQ dataset is small and used for the keyword fallback as well, so
+ * it is parsed once and shared ({@link #faqs()}).
+ */
+@Component
+public class DatasetReader {
+
+    private static final Logger log = LoggerFactory.getLogger(DatasetReader.class);
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Faq(String question, String answer, String category) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Incident(String incidentId, String title, String severity, String service, String environment,
+            String description, String rootCause, String resolution, String status) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Runbook(String runbookId, String title, List<String> steps, Boolean automationPossible) {
+    }
+
+    @FunctionalInterface
+    public interface RecordHandler<T> {
+        void accept(T record) throws Exception;
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Path faqPath;
+    private final Path incidentPath;
+    private final Path runbookPath;
+    private volatile Optional<List<Faq>> faqs;
+
+    public DatasetReader(ObjectMapper objectMapper,
+            @Value("${agentic.datasets.faqs:datasets/prod-faqs.json}") String faqPath,
+            @Value("${agentic.datasets.incidents:datasets/incidents.json}") String incidentPath,
+            @Value("${agentic.datasets.runbooks:datasets/runbooks.json}") String runbookPath) {
+        this.objectMapper = objectMapper;
+        this.faqPath = Path.of(faqPath);
+        this.incidentPath = Path.of(incidentPath);
+        this.runbookPath = Path.of(runbookPath);
+    }
+
+    /**
+     * The FAQ dataset, parsed on first use; empty if it is missing or unreadable
+     */
+    public List<Faq> faqs() {
+        return loadedFaqs().orElse(List.of());
+    }
+
+    /**
+     * The FAQ dataset, or empty if it is missing or unreadable
+     */
+    Optional<List<Faq>> loadedFaqs() {
+        Optional<List<Faq>> loaded = faqs;
+        if (loaded == null) {
+            synchronized (this) {
+                loaded = faqs;
+                if (loaded == null) {
+                    loaded = loadFaqs();
+                    faqs = loaded;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    private Optional<List<Faq>> loadFaqs() {
+        if (!Files.exists(faqPath)) {
+            log.warn("FAQ dataset not found at {}", faqPath.toAbsolutePath());
+            return Optional.empty();
+        }
+        try {
+            List<Faq> records = new ArrayList<>();
+            read(faqPath, Faq.class, records::add);
+            return Optional.of(List.copyOf(records));
+        } catch (Exception e) {
+            log.error("Failed to load FAQ dataset", e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @return Records read
+     */
+    long readIncidents(RecordHandler<Incident> handler) throws Exception {
+        return read(incidentPath, Incident.class, handler);
+    }
+
+    /**
+     * @return Records read
+     */
+    long readRunbooks(RecordHandler<Runbook> handler) throws Exception {
+        return read(runbookPath, Runbook.class, handler);
+    }
+
+    /**
+     * Hand each record of a JSON array or NDJSON file to {@code handler}
+     *
+     * @throws NoSuchFileException If the file does not exist
+     */
+    <T> long read(Path path, Class<T> type, RecordHandler<T> handler) throws Exception {
+        if (!Files.exists(path)) {
+            throw new NoSuchFileException(path.toAbsolutePath().toString());
+        }
+        long count = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(path.toFile())) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+            while (token != null && token != JsonToken.END_ARRAY) {
+                if (token == JsonToken.START_OBJECT) {
+                    handler.accept(objectMapper.readValue(parser, type));
+                    count++;
+                } else {
+                    // null or scalar entries carry no record
+                    parser.skipChildren();
+                }
+                token = parser.nextToken();
+            }
+            if (array && token == null) {
+                throw new IOException("Unterminated JSON array in " + path);
+            }
+        }
+        return count;
+    }
+}
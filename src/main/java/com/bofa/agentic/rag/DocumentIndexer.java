@@ -1,39 +1,150 @@
 package com.bofa.agentic.rag;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.springframework.ai.document.Document;
 import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.stereotype.Component;
-import com.fasterxml.jackson.core.type.TypeReference;
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.ScrollResponse;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.bofa.agentic.cache.EmbeddingCache;
+import com.bofa.agentic.cache.SemanticAnswerCache;
+
+/**
+ * Keeps the vector store in step with the datasets
+ *
+ * Every document has a deterministic id (from its incidentId, runbookId,
+ * FAQ question or sample file name), so re-indexing overwrites instead of
+ * appending a duplicate. Each sync compares the documents against the
+ * {@link IndexManifest} of the previous one and only upserts added or
+ * changed documents and deletes removed ones, through an
+ * {@link IngestionPipeline} (batched, parallel, retried). A dataset that
+ * fails to load, and a document whose write failed, keep what they had in
+ * the index.
+ *
+ * The datasets are read concurrently and streamed record by record from
+ * {@link DatasetReader} into the pipeline; only the manifest entries (id,
+ * dataset, hash) are held for the whole run.
+ *
+ * Without a manifest for the configured index (first run, or
+ * agentic.indexing.full-sync=true) every document is upserted, and anything
+ * else in the index, such as copies with random ids from earlier versions,
+ * is deleted.
+ */
 @Component
 public class DocumentIndexer {
     private static final Logger log = LoggerFactory.getLogger(DocumentIndexer.class);
+
+    private static final String FAQ = "faq";
+    private static final String INCIDENT = "incident";
+    private static final String RUNBOOK = "runbook";
+    private static final String SAMPLE = "sample";
+    private static final List<String> SOURCES = List.of(FAQ, INCIDENT, RUNBOOK, SAMPLE);
+
+    private static final String SCROLL_KEEP_ALIVE = "1m";
+    private static final int SCROLL_PAGE_SIZE = 5000;
 	
 	private final VectorStore vectorStore;
     private final ObjectMapper objectMapper;
+    private final DatasetReader datasetReader;
+    private final SemanticAnswerCache answerCache;
+    private final EmbeddingCache embeddingCache;
+    private final Path manifestPath;
+    private final String indexName;
+    private final boolean fullSync;
+    private final IngestionPipeline.Settings ingestion;
+    private final int dimensions;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Outcome of one sync, in documents
+     */
+    public record SyncReport(int added, int updated, int deleted, int unchanged, int failed) {
+
+        boolean changed() {
+            return added + updated + deleted > 0;
+        }
+    }
+
+    @FunctionalInterface
+    private interface DocumentSink {
+        void accept(Document document) throws InterruptedException;
+    }
+
+    @FunctionalInterface
+    private interface Dataset {
+        /**
+         * Hand every document to {@code sink}
+         *
+         * @return false if the dataset is not there
+         */
+        boolean read(DocumentSink sink) throws Exception;
+    }
 
-    public DocumentIndexer(Optional<VectorStore> vectorStore, ObjectMapper objectMapper) {
+    public DocumentIndexer(Optional<VectorStore> vectorStore, ObjectMapper objectMapper, DatasetReader datasetReader,
+            SemanticAnswerCache answerCache, EmbeddingCache embeddingCache,
+            @Value("${agentic.indexing.manifest-path:./data/index-manifest.json}") String manifestPath,
+            @Value("${spring.ai.vectorstore.elasticsearch.index-name:spring-ai-document-index}") String indexName,
+            @Value("${agentic.indexing.full-sync:false}") boolean fullSync,
+            @Value("${agentic.indexing.batch-size:100}") int batchSize,
+            @Value("${agentic.indexing.max-bulk-mb:10}") int maxBulkMb,
+            @Value("${agentic.indexing.parallelism:4}") int parallelism,
+            @Value("${agentic.indexing.max-attempts:5}") int maxAttempts,
+            @Value("${agentic.indexing.initial-backoff-ms:500}") long initialBackoffMs,
+            @Value("${agentic.indexing.max-backoff-ms:30000}") long maxBackoffMs,
+            @Value("${agentic.indexing.progress-interval-seconds:10}") long progressIntervalSeconds,
+            @Value("${spring.ai.openai.embedding.options.dimensions:1536}") int dimensions,
+            MeterRegistry meterRegistry) {
         this.vectorStore = vectorStore.orElse(null);
         this.objectMapper = objectMapper;
+        this.datasetReader = datasetReader;
+        this.answerCache = answerCache;
+        this.embeddingCache = embeddingCache;
+        this.manifestPath = Path.of(manifestPath);
+        this.indexName = indexName;
+        this.fullSync = fullSync;
+        this.ingestion = new IngestionPipeline.Settings(batchSize, maxBulkMb * 1024L * 1024L, parallelism,
+                maxAttempts, Duration.ofMillis(initialBackoffMs), Duration.ofMillis(maxBackoffMs),
+                Duration.ofSeconds(progressIntervalSeconds));
+        this.dimensions = dimensions;
+        this.meterRegistry = meterRegistry;
     }
 	
 	/**
-     * Auto-index sample documents on startup.
+     * Sync sample documents on startup.
      * Remove in production and replace with ingestion pipeline.
      */
 	
@@ -46,91 +157,286 @@ public class DocumentIndexer {
                 return;
             }
 
-            log.info("Starting document indexing...");
+            log.info("Starting document sync...");
 
-            List<Document> documents = new ArrayList<>();
-
-            indexFaqs(documents);
-            indexIncidents(documents);
-            indexRunbooks(documents);
-            indexSampleIncidentData(documents);
-
-            if (documents.isEmpty()) {
+            SyncReport report = sync();
+            if (report == null) {
                 log.warn("No documents found to index.");
                 return;
             }
 
-            vectorStore.add(documents);
+            if (report.changed()) {
+                // Cached answers may rest on evidence that changed
+                answerCache.invalidateAll();
+            }
 
-            log.info("Indexed {} documents successfully.", documents.size());
+            log.info("Index sync: {} added, {} updated, {} deleted, {} unchanged, {} failed.",
+                    report.added(), report.updated(), report.deleted(), report.unchanged(), report.failed());
 
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Document indexing interrupted");
         } catch (Exception e) {
             log.error("Failed to index documents", e);
         }
     }
 
-    private void indexFaqs(List<Document> documents) {
-        Path path = Path.of("datasets", "prod-faqs.json");
-        if (!Files.exists(path)) {
-            log.warn("FAQ dataset not found at {}", path.toAbsolutePath());
-            return;
+    /**
+     * @return null if no dataset could be read
+     */
+    private SyncReport sync() throws IOException, InterruptedException {
+        IndexManifest previous = fullSync ? null
+                : IndexManifest.load(manifestPath, objectMapper, indexName).orElse(null);
+        Run run = new Run(previous != null ? previous.documents() : Map.of());
+
+        Set<String> failed;
+        Set<String> undeleted;
+        List<String> removed;
+        boolean swept = true;
+        // Unchanged text is embedded from the embedding cache, not by the model
+        long hits = embeddingCache.hits();
+        long misses = embeddingCache.misses();
+        try (IngestionPipeline pipeline = new IngestionPipeline(vectorStore, ingestion, dimensions, meterRegistry)) {
+            run.readAll(pipeline);
+            if (run.loaded.isEmpty()) {
+                return null;
+            }
+            failed = pipeline.finish().failed();
+            embeddingCache.flush();
+            removed = run.removed();
+            undeleted = pipeline.deleteAll(removed);
+
+            if (previous == null && run.loaded.containsAll(SOURCES)) {
+                // Everything in the index that this sync did not write or keep. A failed
+                // upsert may still have its old copy there, so it is not stale either
+                run.revert(failed, Set.of());
+                Set<String> keep = new HashSet<>(run.entries.keySet());
+                keep.addAll(failed);
+                List<String> stale = staleIds(keep);
+                Set<String> kept = pipeline.deleteAll(stale);
+                run.stale = stale.size() - kept.size();
+                swept = kept.isEmpty();
+            }
+        }
+        int upserted = run.added.get() + run.updated.get();
+        if (upserted > 0) {
+            log.info("Upserted {} documents ({} embedded, {} from the embedding cache)",
+                    upserted - failed.size(), embeddingCache.misses() - misses, embeddingCache.hits() - hits);
         }
 
-        try {
-            List<Map<String, Object>> items = objectMapper.readValue(
-                Files.readString(path),
-                new TypeReference<List<Map<String, Object>>>() {}
-            );
-
-            for (Map<String, Object> item : items) {
-                String question = String.valueOf(item.getOrDefault("question", ""));
-                String answer = String.valueOf(item.getOrDefault("answer", ""));
-                String category = String.valueOf(item.getOrDefault("category", ""));
-
-                if (question.isBlank() && answer.isBlank()) {
-                    continue;
+        // Failed writes stay as they were in the manifest, so the next sync tries again
+        run.revert(failed, undeleted);
+        long deleted = removed.size() - undeleted.size() + run.stale;
+
+        if (previous != null || (run.loaded.containsAll(SOURCES) && swept)) {
+            new IndexManifest(indexName, run.entries).save(manifestPath, objectMapper);
+        } else {
+            // Recorded only once every dataset is in: the next start syncs in full again
+            log.warn("Full sync incomplete ({} of {} datasets loaded); manifest not written",
+                    run.loaded.size(), SOURCES.size());
+        }
+        return new SyncReport(run.added.get(), run.updated.get(), (int) deleted, run.unchanged.get(),
+                failed.size() + undeleted.size());
+    }
+
+    /**
+     * State of one sync: the previous manifest, the entries seen so far and
+     * the datasets that were read to the end
+     */
+    private final class Run {
+
+        private final Map<String, IndexManifest.Entry> before;
+        private final Map<String, IndexManifest.Entry> entries = new ConcurrentHashMap<>();
+        private final Set<String> loaded = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger added = new AtomicInteger();
+        private final AtomicInteger updated = new AtomicInteger();
+        private final AtomicInteger unchanged = new AtomicInteger();
+        private long stale;
+
+        private Run(Map<String, IndexManifest.Entry> before) {
+            this.before = before;
+        }
+
+        /**
+         * Read the datasets concurrently, each on its own thread
+         */
+        void readAll(IngestionPipeline pipeline) throws InterruptedException {
+            Map<String, Dataset> datasets = Map.of(
+                    FAQ, DocumentIndexer.this::readFaqs,
+                    INCIDENT, DocumentIndexer.this::readIncidents,
+                    RUNBOOK, DocumentIndexer.this::readRunbooks,
+                    SAMPLE, DocumentIndexer.this::readSampleIncidentData);
+            List<Callable<Void>> readers = new ArrayList<>();
+            datasets.forEach((source, dataset) -> readers.add(() -> {
+                read(source, dataset, pipeline);
+                return null;
+            }));
+
+            ExecutorService executor = Executors.newFixedThreadPool(datasets.size(), Thread.ofPlatform()
+                    .name("dataset-", 0)
+                    .daemon()
+                    .factory());
+            try {
+                for (Future<Void> reader : executor.invokeAll(readers)) {
+                    reader.get();
                 }
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Dataset reader failed", e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
 
-                String content = "FAQ\nQuestion: " + question + "\nAnswer: " + answer;
-                Map<String, Object> metadata = new HashMap<>();
-                metadata.put("type", "faq");
-                if (!category.isBlank()) {
-                    metadata.put("category", category);
+            // Datasets that did not load keep what they had
+            before.forEach((id, entry) -> {
+                if (!loaded.contains(entry.source())) {
+                    entries.putIfAbsent(id, entry);
                 }
+            });
+        }
 
-                documents.add(new Document(content, metadata));
+        private void read(String source, Dataset dataset, IngestionPipeline pipeline) throws InterruptedException {
+            try {
+                if (dataset.read(document -> accept(source, document, pipeline))) {
+                    loaded.add(source);
+                }
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                log.error("Failed to load {} dataset; keeping its indexed documents", source, e);
             }
-        } catch (Exception e) {
-            log.error("Failed to index FAQ dataset", e);
+        }
+
+        private void accept(String source, Document document, IngestionPipeline pipeline)
+                throws InterruptedException {
+            String id = document.getId();
+            IndexManifest.Entry entry = new IndexManifest.Entry(source, IndexManifest.hash(document));
+            IndexManifest.Entry old = before.get(id);
+            if (entries.putIfAbsent(id, entry.equals(old) ? old : entry) != null) {
+                log.warn("Duplicate {} document {}; the first one is indexed", source,
+                        document.getMetadata().getOrDefault(source + "Id", id));
+                return;
+            }
+            if (old == null) {
+                added.incrementAndGet();
+                pipeline.submit(document);
+            } else if (!old.equals(entry)) {
+                updated.incrementAndGet();
+                pipeline.submit(document);
+            } else {
+                unchanged.incrementAndGet();
+            }
+        }
+
+        List<String> removed() {
+            return before.keySet().stream()
+                    .filter(id -> !entries.containsKey(id))
+                    .toList();
+        }
+
+        void revert(Set<String> failed, Set<String> undeleted) {
+            for (String id : failed) {
+                IndexManifest.Entry old = before.get(id);
+                if (old != null) {
+                    entries.put(id, old);
+                } else {
+                    entries.remove(id);
+                }
+            }
+            undeleted.forEach(id -> entries.put(id, before.get(id)));
         }
     }
 
-    private void indexIncidents(List<Document> documents) {
-        Path path = Path.of("datasets", "incidents.json");
-        if (!Files.exists(path)) {
-            log.warn("Incidents dataset not found at {}", path.toAbsolutePath());
-            return;
+    /**
+     * Ids in the index that are not in {@code keep}, scrolled page by page
+     */
+    private List<String> staleIds(Set<String> keep) throws IOException {
+        Optional<ElasticsearchClient> client = vectorStore.getNativeClient();
+        if (client.isEmpty()) {
+            log.info("Vector store has no Elasticsearch client; documents not in the datasets are kept");
+            return List.of();
+        }
+        ElasticsearchClient elasticsearch = client.get();
+        List<String> stale = new ArrayList<>();
+        SearchResponse<Void> page = elasticsearch.search(search -> search
+                .index(indexName)
+                .scroll(time -> time.time(SCROLL_KEEP_ALIVE))
+                .size(SCROLL_PAGE_SIZE)
+                .source(source -> source.fetch(false)), Void.class);
+        String scrollId = page.scrollId();
+        try {
+            List<Hit<Void>> hits = page.hits().hits();
+            while (!hits.isEmpty()) {
+                for (Hit<Void> hit : hits) {
+                    if (!keep.contains(hit.id())) {
+                        stale.add(hit.id());
+                    }
+                }
+                String current = scrollId;
+                ScrollResponse<Void> next = elasticsearch.scroll(scroll -> scroll
+                        .scrollId(current)
+                        .scroll(time -> time.time(SCROLL_KEEP_ALIVE)), Void.class);
+                scrollId = next.scrollId();
+                hits = next.hits().hits();
+            }
+        } finally {
+            if (scrollId != null) {
+                String current = scrollId;
+                elasticsearch.clearScroll(clear -> clear.scrollId(current));
+            }
+        }
+        return stale;
+    }
+
+    /**
+     * Same input, same id, so re-indexing a document overwrites it
+     */
+    private static String documentId(String source, String key) {
+        return UUID.nameUUIDFromBytes((source + ":" + key).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private static String text(String value) {
+        return value != null ? value : "";
+    }
+
+    private boolean readFaqs(DocumentSink sink) throws InterruptedException {
+        Optional<List<DatasetReader.Faq>> faqs = datasetReader.loadedFaqs();
+        if (faqs.isEmpty()) {
+            return false;
+        }
+        for (DatasetReader.Faq faq : faqs.get()) {
+            String question = text(faq.question());
+            String answer = text(faq.answer());
+            String category = text(faq.category());
+
+            if (question.isBlank() && answer.isBlank()) {
+                continue;
+            }
+
+            String content = "FAQ\nQuestion: " + question + "\nAnswer: " + answer;
+            Map<String, Object> metadata = new HashMap<>();
+            metadata.put("type", "faq");
+            if (!category.isBlank()) {
+                metadata.put("category", category);
+            }
+
+            String key = question.isBlank() ? answer : question;
+            sink.accept(new Document(documentId(FAQ, key.strip()), content, metadata));
         }
+        return true;
+    }
 
+    private boolean readIncidents(DocumentSink sink) throws Exception {
+        long count;
         try {
-            List<Map<String, Object>> items = objectMapper.readValue(
-                Files.readString(path),
-                new TypeReference<List<Map<String, Object>>>() {}
-            );
-
-            for (Map<String, Object> item : items) {
-                String incidentId = String.valueOf(item.getOrDefault("incidentId", ""));
-                String title = String.valueOf(item.getOrDefault("title", ""));
-                String severity = String.valueOf(item.getOrDefault("severity", ""));
-                String service = String.valueOf(item.getOrDefault("service", ""));
-                String environment = String.valueOf(item.getOrDefault("environment", ""));
-                String description = String.valueOf(item.getOrDefault("description", ""));
-                String rootCause = String.valueOf(item.getOrDefault("rootCause", ""));
-                String resolution = String.valueOf(item.getOrDefault("resolution", ""));
-                String status = String.valueOf(item.getOrDefault("status", ""));
+            count = datasetReader.readIncidents(item -> {
+                String incidentId = text(item.incidentId());
+                String title = text(item.title());
+                String severity = text(item.severity());
+                String service = text(item.service());
+                String environment = text(item.environment());
 
                 if (incidentId.isBlank() && title.isBlank()) {
-                    continue;
+                    return;
                 }
 
                 // Create searchable content with all fields
@@ -141,10 +447,10 @@ public class DocumentIndexer {
                 contentBuilder.append("Severity: ").append(severity).append("\n");
                 contentBuilder.append("Service: ").append(service).append("\n");
                 contentBuilder.append("Environment: ").append(environment).append("\n");
-                contentBuilder.append("Description: ").append(description).append("\n");
-                contentBuilder.append("Root Cause: ").append(rootCause).append("\n");
-                contentBuilder.append("Resolution: ").append(resolution).append("\n");
-                contentBuilder.append("Status: ").append(status);
+                contentBuilder.append("Description: ").append(text(item.description())).append("\n");
+                contentBuilder.append("Root Cause: ").append(text(item.rootCause())).append("\n");
+                contentBuilder.append("Resolution: ").append(text(item.resolution())).append("\n");
+                contentBuilder.append("Status: ").append(text(item.status()));
 
                 Map<String, Object> metadata = new HashMap<>();
                 metadata.put("type", "incident");
@@ -153,38 +459,29 @@ public class DocumentIndexer {
                 metadata.put("service", service);
                 metadata.put("environment", environment);
 
-                documents.add(new Document(contentBuilder.toString(), metadata));
-            }
-            
-            log.info("Loaded {} incidents for indexing", items.size());
-        } catch (Exception e) {
-            log.error("Failed to index incidents dataset", e);
+                String key = incidentId.isBlank() ? title : incidentId;
+                sink.accept(new Document(documentId(INCIDENT, key), contentBuilder.toString(), metadata));
+            });
+        } catch (NoSuchFileException e) {
+            log.warn("Incidents dataset not found at {}", e.getFile());
+            return false;
         }
-    }
 
-    private void indexRunbooks(List<Document> documents) {
-        Path path = Path.of("datasets", "runbooks.json");
-        if (!Files.exists(path)) {
-            log.warn("Runbooks dataset not found at {}", path.toAbsolutePath());
-            return;
-        }
+        log.info("Loaded {} incidents for indexing", count);
+        return true;
+    }
 
+    private boolean readRunbooks(DocumentSink sink) throws Exception {
+        long count;
         try {
-            List<Map<String, Object>> items = objectMapper.readValue(
-                Files.readString(path),
-                new TypeReference<List<Map<String, Object>>>() {}
-            );
-
-            for (Map<String, Object> item : items) {
-                String runbookId = String.valueOf(item.getOrDefault("runbookId", ""));
-                String title = String.valueOf(item.getOrDefault("title", ""));
-                Boolean automationPossible = (Boolean) item.getOrDefault("automationPossible", false);
-                
-                @SuppressWarnings("unchecked")
-                List<String> steps = (List<String>) item.getOrDefault("steps", new ArrayList<>());
+            count = datasetReader.readRunbooks(item -> {
+                String runbookId = text(item.runbookId());
+                String title = text(item.title());
+                Boolean automationPossible = item.automationPossible() != null ? item.automationPossible() : false;
+                List<String> steps = item.steps() != null ? item.steps() : List.of();
 
                 if (runbookId.isBlank() && title.isBlank()) {
-                    continue;
+                    return;
                 }
 
                 // Create searchable content with all fields
@@ -194,7 +491,7 @@ public class DocumentIndexer {
                 contentBuilder.append("Title: ").append(title).append("\n");
                 contentBuilder.append("Automation Possible: ").append(automationPossible).append("\n");
                 contentBuilder.append("Steps:\n");
-                
+
                 for (int i = 0; i < steps.size(); i++) {
                     contentBuilder.append((i + 1)).append(". ").append(steps.get(i)).append("\n");
                 }
@@ -204,31 +501,31 @@ public class DocumentIndexer {
                 metadata.put("runbookId", runbookId);
                 metadata.put("automationPossible", automationPossible);
 
-                documents.add(new Document(contentBuilder.toString(), metadata));
-            }
-            
-            log.info("Loaded {} runbooks for indexing", items.size());
-        } catch (Exception e) {
-            log.error("Failed to index runbooks dataset", e);
+                String key = runbookId.isBlank() ? title : runbookId;
+                sink.accept(new Document(documentId(RUNBOOK, key), contentBuilder.toString(), metadata));
+            });
+        } catch (NoSuchFileException e) {
+            log.warn("Runbooks dataset not found at {}", e.getFile());
+            return false;
         }
-    }
 
-    private void indexSampleIncidentData(List<Document> documents) {
-        try {
-            var resolver = new PathMatchingResourcePatternResolver();
-            Resource[] resources = resolver.getResources("classpath:sample-incident-data/*.txt");
+        log.info("Loaded {} runbooks for indexing", count);
+        return true;
+    }
 
-            for (Resource resource : resources) {
-                String content = Files.readString(resource.getFile().toPath());
-                if (content == null || content.isBlank()) {
-                    continue;
-                }
+    private boolean readSampleIncidentData(DocumentSink sink) throws IOException, InterruptedException {
+        var resolver = new PathMatchingResourcePatternResolver();
+        Resource[] resources = resolver.getResources("classpath:sample-incident-data/*.txt");
 
-                documents.add(new Document(content));
+        for (Resource resource : resources) {
+            String content = Files.readString(resource.getFile().toPath());
+            if (content == null || content.isBlank()) {
+                continue;
             }
-        } catch (Exception e) {
-            log.error("Failed to index sample incident data", e);
+
+            sink.accept(new Document(documentId(SAMPLE, resource.getFilename()), content, new HashMap<>()));
         }
+        return true;
     }
 
 }
@@ -1,5 +1,7 @@
 package com.bofa.agentic.rag;
 
+import java.util.List;
+
 import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.stereotype.Service;
 /*
@@ -12,6 +14,9 @@ import org.springframework.stereotype.Service;
     Architect rule:
 
         Always abstract model calls.
+
+   Embeddings of text seen before (by content, model and dimensions)
+   come from EmbeddingCache, which sits in front of the EmbeddingModel bean.
  * 
  */
 
@@ -26,5 +31,12 @@ public class EmbeddingService {
         return embeddingModel.embed(text);
     }
 	
+	/**
+	 * One request for several texts; embeddings in input order
+	 */
+	public List<float[]> embedAll(List<String> texts) {
+        return embeddingModel.embed(texts);
+    }
+	
 
 }
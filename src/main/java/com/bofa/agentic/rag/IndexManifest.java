@@ -0,0 +1,86 @@
+package com.bofa.agentic.rag;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * What the last sync wrote to the vector store: for each document id, the
+ * dataset it came from and a hash of its text and metadata
+ *
+ * Tied to one index, so a manifest for another index (or none at all)
+ * makes the next sync a full one.
+ */
+record IndexManifest(String index, Map<String, Entry> documents) {
+
+    private static final Logger log = LoggerFactory.getLogger(IndexManifest.class);
+
+    record Entry(String source, String hash) {
+
+        // One copy of each dataset name, however many entries
+        Entry {
+            source = source != null ? source.intern() : null;
+        }
+    }
+
+    /**
+     * The manifest at {@code path} if it was written for {@code index}
+     */
+    static Optional<IndexManifest> load(Path path, ObjectMapper objectMapper, String index) {
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+        try {
+            IndexManifest manifest = objectMapper.readValue(path.toFile(), IndexManifest.class);
+            if (!index.equals(manifest.index()) || manifest.documents() == null) {
+                log.info("Index manifest {} is for index '{}', not '{}'", path, manifest.index(), index);
+                return Optional.empty();
+            }
+            return Optional.of(manifest);
+        } catch (IOException e) {
+            log.warn("Unreadable index manifest {}: {}", path, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Replace the file atomically, so a crash leaves the previous manifest
+     */
+    void save(Path path, ObjectMapper objectMapper) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        objectMapper.writeValue(tmp.toFile(), this);
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static String hash(Document document) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.valueOf(document.getText()).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            // Sorted, so the hash does not depend on map order
+            digest.update(new TreeMap<>(document.getMetadata()).toString().getBytes(StandardCharsets.UTF_8));
+            // 128 bits are plenty to spot a change and halve the manifest's hashes
+            return HexFormat.of().formatHex(digest.digest(), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.bofa.agentic.rag;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.VectorStore;
+
+import com.bofa.agentic.cache.EmbeddingCache;
+import com.bofa.agentic.exception.AgentException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Upserts documents into the vector store in batches, several at a time
+ *
+ * Submitted documents are grouped into batches of at most batch-size
+ * documents and max-bulk-mb of estimated bulk request (text, metadata and
+ * the embedding as JSON). Each batch is one {@code vectorStore.add}: its
+ * embeddings, which the store splits further to the model's input limit,
+ * and one Elasticsearch bulk request; its embeddings are persisted in the
+ * {@link EmbeddingCache} file. Up to parallelism batches run at once
+ * and {@link #submit} blocks beyond that, so a caller reading documents in
+ * is held to the pipeline's pace.
+ *
+ * A failed batch is retried with jittered exponential backoff, waiting at
+ * least the retryAfterMs of an LLM_OVERLOADED rejection, up to max-attempts.
+ * After that its documents are reported as failed. Progress is logged every
+ * progress-interval.
+ *
+ * Metrics: agentic.indexing.documents (outcome=upserted|failed|deleted),
+ * agentic.indexing.batch and agentic.indexing.retries.
+ */
+final class IngestionPipeline implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestionPipeline.class);
+
+    // A float in JSON: up to ~11 characters and a separator
+    private static final int BYTES_PER_DIMENSION = 12;
+    private static final int BYTES_PER_DOCUMENT = 128;
+
+    record Settings(int batchSize, long maxBulkBytes, int parallelism, int maxAttempts,
+            Duration initialBackoff, Duration maxBackoff, Duration progressInterval) {
+    }
+
+    /**
+     * @param failed Ids of documents not upserted after every attempt
+     */
+    record Result(long upserted, Set<String> failed) {
+    }
+
+    private final VectorStore vectorStore;
+    private final Settings settings;
+    private final long bytesPerEmbedding;
+    private final ExecutorService workers;
+    private final Semaphore slots;
+
+    private final Counter upsertedCounter;
+    private final Counter failedCounter;
+    private final Counter deletedCounter;
+    private final Counter retries;
+    private final Timer batchTimer;
+
+    private final List<Document> batch = new ArrayList<>();
+    private long batchBytes;
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong upserted = new AtomicLong();
+    private final Set<String> failed = ConcurrentHashMap.newKeySet();
+    private final long startedAt = System.nanoTime();
+    private final AtomicLong nextProgress;
+
+    /**
+     * @param dimensions Embedding dimensions, for sizing bulk requests
+     */
+    IngestionPipeline(VectorStore vectorStore, Settings settings, int dimensions, MeterRegistry meterRegistry) {
+        if (settings.batchSize() < 1 || settings.parallelism() < 1 || settings.maxAttempts() < 1) {
+            throw new IllegalStateException("agentic.indexing needs batch-size, parallelism and max-attempts >= 1");
+        }
+        this.vectorStore = vectorStore;
+        this.settings = settings;
+        this.bytesPerEmbedding = (long) dimensions * BYTES_PER_DIMENSION;
+        this.workers = Executors.newFixedThreadPool(settings.parallelism(), Thread.ofPlatform()
+                .name("indexing-", 0)
+                .daemon()
+                .factory());
+        this.slots = new Semaphore(settings.parallelism());
+        this.nextProgress = new AtomicLong(startedAt + settings.progressInterval().toNanos());
+
+        this.upsertedCounter = documents(meterRegistry, "upserted");
+        this.failedCounter = documents(meterRegistry, "failed");
+        this.deletedCounter = documents(meterRegistry, "deleted");
+        this.retries = Counter.builder("agentic.indexing.retries")
+                .description("Indexing batches retried after a failure")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("agentic.indexing.batch")
+                .description("Time to embed and bulk-write one batch, retries included")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Counter documents(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("agentic.indexing.documents")
+                .description("Documents written to or deleted from the vector store")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Add a document to the current batch, dispatching the batch when full;
+     * blocks while parallelism batches are in flight
+     */
+    synchronized void submit(Document document) throws InterruptedException {
+        long bytes = BYTES_PER_DOCUMENT + bytesPerEmbedding
+                + String.valueOf(document.getText()).length() + document.getMetadata().toString().length();
+        if (!batch.isEmpty() && batchBytes + bytes > settings.maxBulkBytes()) {
+            dispatch();
+        }
+        batch.add(document);
+        batchBytes += bytes;
+        submitted.incrementAndGet();
+        if (batch.size() >= settings.batchSize()) {
+            dispatch();
+        }
+    }
+
+    /**
+     * Dispatch the last batch and wait for every batch to finish
+     */
+    synchronized Result finish() throws InterruptedException {
+        if (!batch.isEmpty()) {
+            dispatch();
+        }
+        slots.acquire(settings.parallelism());
+        slots.release(settings.parallelism());
+        if (submitted.get() > 0) {
+            log.info("Indexing finished: {} documents upserted, {} failed in {} s", upserted.get(), failed.size(),
+                    TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startedAt));
+        }
+        return new Result(upserted.get(), Set.copyOf(failed));
+    }
+
+    /**
+     * Delete documents in batch-size requests, each retried like a batch
+     *
+     * @return Ids that could not be deleted
+     */
+    Set<String> deleteAll(Collection<String> ids) throws InterruptedException {
+        Set<String> undeleted = new HashSet<>();
+        List<String> all = List.copyOf(ids);
+        for (int from = 0; from < all.size(); from += settings.batchSize()) {
+            List<String> chunk = all.subList(from, Math.min(all.size(), from + settings.batchSize()));
+            if (withRetry("delete", chunk.size(), () -> vectorStore.delete(chunk))) {
+                deletedCounter.increment(chunk.size());
+            } else {
+                undeleted.addAll(chunk);
+            }
+        }
+        return undeleted;
+    }
+
+    private void dispatch() throws InterruptedException {
+        List<Document> documents = List.copyOf(batch);
+        batch.clear();
+        batchBytes = 0;
+        slots.acquire();
+        try {
+            workers.execute(() -> {
+                try {
+                    write(documents);
+                } finally {
+                    slots.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+    }
+
+    private void write(List<Document> documents) {
+        long start = System.nanoTime();
+        boolean written;
+        try {
+            written = withRetry("upsert", documents.size(),
+                    () -> EmbeddingCache.persisting(() -> vectorStore.add(documents)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            written = false;
+        }
+        batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (written) {
+            upserted.addAndGet(documents.size());
+            upsertedCounter.increment(documents.size());
+        } else {
+            documents.forEach(document -> failed.add(document.getId()));
+            failedCounter.increment(documents.size());
+        }
+        reportProgress();
+    }
+
+    /**
+     * @return Whether {@code action} succeeded within max-attempts
+     */
+    private boolean withRetry(String operation, int size, Runnable action) throws InterruptedException {
+        for (int attempt = 1;; attempt++) {
+            try {
+                action.run();
+                return true;
+            } catch (RuntimeException e) {
+                if (attempt >= settings.maxAttempts() || !isRetryable(e)) {
+                    log.error("Indexing {} of {} documents failed after {} attempts", operation, size, attempt, e);
+                    return false;
+                }
+                long backoff = backoffMillis(attempt, e);
+                log.warn("Indexing {} of {} documents failed (attempt {} of {}), retrying in {} ms: {}",
+                        operation, size, attempt, settings.maxAttempts(), backoff, e.getMessage());
+                retries.increment();
+                Thread.sleep(backoff);
+            }
+        }
+    }
+
+    private static boolean isRetryable(RuntimeException e) {
+        return !(e instanceof AgentException agentException) || agentException.isRetryable();
+    }
+
+    // Jittered so parallel batches failing together do not retry together
+    private long backoffMillis(int attempt, Throwable error) {
+        long ceiling = Math.min(settings.maxBackoff().toMillis(),
+                settings.initialBackoff().toMillis() << Math.min(attempt - 1, 20));
+        long backoff = ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+        return Math.max(backoff, retryAfterMillis(error));
+    }
+
+    private static long retryAfterMillis(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof AgentException agentException && agentException.getMetadata() != null
+                    && agentException.getMetadata().get("retryAfterMs") instanceof Number retryAfter) {
+                return retryAfter.longValue();
+            }
+        }
+        return 0;
+    }
+
+    private void reportProgress() {
+        long now = System.nanoTime();
+        long due = nextProgress.get();
+        if (now < due || !nextProgress.compareAndSet(due, now + settings.progressInterval().toNanos())) {
+            return;
+        }
+        double seconds = Math.max(1e-9, (now - startedAt) / 1e9);
+        log.info("Indexing progress: {} of {} submitted documents upserted, {} failed, {} documents/s",
+                upserted.get(), submitted.get(), failed.size(), Math.round(upserted.get() / seconds));
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+    }
+}
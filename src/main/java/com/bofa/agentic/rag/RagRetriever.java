@@ -1,11 +1,10 @@
 package com.bofa.agentic.rag;
 
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -15,68 +14,84 @@ import org.springframework.ai.document.Document;
 import org.springframework.ai.vectorstore.SearchRequest;
 import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.stereotype.Service;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Vector search with a FAQ keyword fallback
+ *
+ * Metrics: agentic.rag.retrieval (timer, source=vector|faq|none) and
+ * agentic.rag.documents (documents returned by the vector search)
+ */
 @Service
 public class RagRetriever {
 	private static final Logger log = LoggerFactory.getLogger(RagRetriever.class);
 	
 	private final VectorStore vectorStore;
-	private final List<FaqEntry> faqEntries;
+	private final List<DatasetReader.Faq> faqEntries;
 	private final boolean faqFallbackEnabled;
+	private final MeterRegistry meterRegistry;
+	private final DistributionSummary documentCounts;
 	
 	public RagRetriever(Optional<VectorStore> vectorStore,
-			ObjectMapper objectMapper,
-			@Value("${agentic.rag.faq-fallback-enabled:true}") boolean faqFallbackEnabled) {
+			DatasetReader datasetReader,
+			@Value("${agentic.rag.faq-fallback-enabled:true}") boolean faqFallbackEnabled,
+			MeterRegistry meterRegistry) {
 		this.vectorStore = vectorStore.orElse(null);
 		this.faqFallbackEnabled = faqFallbackEnabled;
-		this.faqEntries = faqFallbackEnabled ? loadFaqs(objectMapper) : List.of();
+		this.faqEntries = faqFallbackEnabled ? datasetReader.faqs() : List.of();
+		this.meterRegistry = meterRegistry;
+		this.documentCounts = DistributionSummary.builder("agentic.rag.documents")
+				.description("Documents returned per vector search")
+				.register(meterRegistry);
     }
 	
 	public String retrieve(String query) {
-		String ragResult = "";
-		if (vectorStore != null) {
-			List<Document> documents = vectorStore.similaritySearch(
-				SearchRequest.builder()
-					.query(query)
-					.topK(5)
-					.build()
-			);
-			if (!documents.isEmpty()) {
-				ragResult = documents.stream()
-						.map(Document::getText)
-						.filter(text -> text != null && !text.isBlank())
-						.collect(Collectors.joining("\n---\n"));
+		long start = System.nanoTime();
+		String source = "none";
+		try {
+			String ragResult = vectorSearch(query);
+			if (!ragResult.isBlank()) {
+				source = "vector";
+				return ragResult;
 			}
-		}
 
-		if (!ragResult.isBlank()) {
-			return ragResult;
-		}
+			if (!faqFallbackEnabled) {
+				return "";
+			}
 
-		if (!faqFallbackEnabled) {
-			return "";
+			String faqResult = lookupFaq(query);
+			if (!faqResult.isBlank()) {
+				source = "faq";
+			}
+			return faqResult;
+		} finally {
+			Timer.builder("agentic.rag.retrieval")
+					.description("RAG retrieval latency")
+					.tag("source", source)
+					.publishPercentileHistogram()
+					.register(meterRegistry)
+					.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 		}
-
-		return lookupFaq(query);
-
     }
 
-	private List<FaqEntry> loadFaqs(ObjectMapper objectMapper) {
-		Path path = Path.of("datasets", "prod-faqs.json");
-		if (!Files.exists(path)) {
-			log.warn("FAQ dataset not found at {}", path.toAbsolutePath());
-			return List.of();
-		}
-
-		try {
-			String json = Files.readString(path);
-			return objectMapper.readValue(json, new TypeReference<List<FaqEntry>>() {});
-		} catch (Exception e) {
-			log.error("Failed to load FAQ dataset", e);
-			return List.of();
+	private String vectorSearch(String query) {
+		if (vectorStore == null) {
+			return "";
 		}
+		List<Document> documents = vectorStore.similaritySearch(
+			SearchRequest.builder()
+				.query(query)
+				.topK(5)
+				.build()
+		);
+		documentCounts.record(documents.size());
+		return documents.stream()
+				.map(Document::getText)
+				.filter(text -> text != null && !text.isBlank())
+				.collect(Collectors.joining("\n---\n"));
 	}
 
 	private String lookupFaq(String query) {
@@ -85,13 +100,13 @@ public class RagRetriever {
 		}
 
 		String normalized = query.toLowerCase(Locale.ROOT);
-		List<FaqEntry> candidates = new ArrayList<>();
+		List<DatasetReader.Faq> candidates = new ArrayList<>();
 
-		for (FaqEntry entry : faqEntries) {
-			if (entry == null || entry.question == null) {
+		for (DatasetReader.Faq entry : faqEntries) {
+			if (entry == null || entry.question() == null) {
 				continue;
 			}
-			String question = entry.question.toLowerCase(Locale.ROOT);
+			String question = entry.question().toLowerCase(Locale.ROOT);
 			if (question.equals(normalized) || question.contains(normalized) || normalized.contains(question)) {
 				candidates.add(entry);
 			}
@@ -108,10 +123,10 @@ public class RagRetriever {
 				.collect(Collectors.joining("\n---\n"));
 	}
 
-	private String formatFaq(FaqEntry entry) {
-		String question = entry.question == null ? "" : entry.question;
-		String answer = entry.answer == null ? "" : entry.answer;
-		String category = entry.category == null ? "" : entry.category;
+	private String formatFaq(DatasetReader.Faq entry) {
+		String question = entry.question() == null ? "" : entry.question();
+		String answer = entry.answer() == null ? "" : entry.answer();
+		String category = entry.category() == null ? "" : entry.category();
 
 		if (question.isBlank() && answer.isBlank()) {
 			return "";
@@ -127,10 +142,4 @@ public class RagRetriever {
 		return builder.toString();
 	}
 
-	private static class FaqEntry {
-		public String question;
-		public String answer;
-		public String category;
-	}
-
 }
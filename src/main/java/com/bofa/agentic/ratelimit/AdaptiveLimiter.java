@@ -0,0 +1,405 @@
+package com.bofa.agentic.ratelimit;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bofa.agentic.exception.AgentException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * AIMD concurrency limit for one OpenAI endpoint (chat, embedding or moderation)
+ *
+ * The limit grows by one per limit's worth of successful calls made while it
+ * was the bottleneck, and is multiplied by backoff-ratio on a 429, at most
+ * once per round of calls (calls started before the last cut do not cut it
+ * again). A 429 also pauses the endpoint for its Retry-After. Calls beyond
+ * the limit, during a pause or without tokens left in the shared
+ * {@link TokenBudget} wait in FIFO order, up to max-queue calls for at most
+ * max-wait; beyond that they fail fast with LLM_OVERLOADED instead of adding
+ * to the storm.
+ *
+ * Metrics (limiter=name): agentic.llm.limiter.limit, .in-flight, .queue,
+ * .wait (timer), .rejected (reason=queue-full|timeout) and .throttled (429s).
+ */
+public class AdaptiveLimiter {
+
+	private static final Logger log = LoggerFactory.getLogger(AdaptiveLimiter.class);
+
+	/**
+	 * Settings shared by the endpoints' limiters
+	 */
+	record Settings(boolean enabled, int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+			int maxQueue, Duration maxWait, Duration defaultRetryAfter) {
+	}
+
+	/**
+	 * One call's concurrency slot and token reservation; released once by
+	 * whichever outcome comes first
+	 */
+	public final class Permit {
+
+		private final long tokens;
+		private final long startedAt;
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		private Permit(long tokens, long startedAt) {
+			this.tokens = tokens;
+			this.startedAt = startedAt;
+		}
+
+		/**
+		 * @param usedTokens Tokens the API reported, or a negative value if unknown
+		 */
+		public void success(long usedTokens) {
+			if (released.compareAndSet(false, true)) {
+				if (usedTokens >= 0) {
+					budget.settle(usedTokens - tokens);
+				}
+				release(this, null, true);
+			}
+		}
+
+		/**
+		 * A 429 adapts the limit; other failures only free the slot
+		 */
+		public void failed(Throwable error) {
+			if (released.compareAndSet(false, true)) {
+				release(this, RetryAfter.of(error, settings.defaultRetryAfter()), false);
+			}
+		}
+
+		/**
+		 * Abandoned (cancelled) before an outcome: frees the slot only
+		 */
+		public void abandon() {
+			if (released.compareAndSet(false, true)) {
+				release(this, null, false);
+			}
+		}
+	}
+
+	private final class Waiter {
+
+		final long tokens;
+		final long enqueuedAt = System.nanoTime();
+		final CompletableFuture<Permit> future = new CompletableFuture<>();
+		ScheduledFuture<?> timeout;
+
+		Waiter(long tokens) {
+			this.tokens = tokens;
+		}
+	}
+
+	private final String name;
+	private final Settings settings;
+	private final TokenBudget budget;
+	private final ScheduledExecutorService timer;
+	private final MeterRegistry meterRegistry;
+	private final Timer waitTimer;
+	private final Counter throttled;
+
+	private final Deque<Waiter> queue = new ArrayDeque<>();
+	private double limit;
+	private int inFlight;
+	private long pausedUntil;
+	private long lastDecrease;
+	private long wakeAt;
+
+	AdaptiveLimiter(String name, Settings settings, TokenBudget budget, ScheduledExecutorService timer,
+			MeterRegistry meterRegistry) {
+		this.name = name;
+		this.settings = settings;
+		this.budget = budget;
+		this.timer = timer;
+		this.meterRegistry = meterRegistry;
+		this.limit = Math.max(settings.minLimit(), Math.min(settings.maxLimit(), settings.initialLimit()));
+		long now = System.nanoTime();
+		this.pausedUntil = now;
+		this.lastDecrease = now;
+
+		Gauge.builder("agentic.llm.limiter.limit", this, AdaptiveLimiter::limit)
+				.description("Current adaptive concurrency limit")
+				.tag("limiter", name)
+				.register(meterRegistry);
+		Gauge.builder("agentic.llm.limiter.in-flight", this, AdaptiveLimiter::inFlight)
+				.description("Calls holding a concurrency slot")
+				.tag("limiter", name)
+				.register(meterRegistry);
+		Gauge.builder("agentic.llm.limiter.queue", this, AdaptiveLimiter::queued)
+				.description("Calls waiting for a slot, the end of a 429 pause or tokens")
+				.tag("limiter", name)
+				.register(meterRegistry);
+		this.waitTimer = Timer.builder("agentic.llm.limiter.wait")
+				.description("Time calls waited in the limiter queue")
+				.tag("limiter", name)
+				.publishPercentileHistogram()
+				.register(meterRegistry);
+		this.throttled = Counter.builder("agentic.llm.limiter.throttled")
+				.description("429 responses (rate limited by OpenAI)")
+				.tag("limiter", name)
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Run a blocking call within the limit
+	 *
+	 * @param tokens     Estimated tokens, reserved from the shared budget
+	 * @param usedTokens Tokens the result reports, negative if unknown
+	 */
+	public <T> T call(long tokens, Supplier<T> call, ToLongFunction<T> usedTokens) {
+		if (!settings.enabled()) {
+			return call.get();
+		}
+		Permit permit = acquireBlocking(tokens);
+		Throwable failure = null;
+		long used = -1;
+		try {
+			T result = call.get();
+			if (result != null) {
+				used = usedTokens.applyAsLong(result);
+			}
+			return result;
+		} catch (Throwable e) {
+			failure = e;
+			throw e;
+		} finally {
+			// Whatever was thrown, the slot and the token reservation go back
+			if (failure == null) {
+				permit.success(used);
+			} else {
+				permit.failed(failure);
+			}
+		}
+	}
+
+	/**
+	 * Run a streamed call within the limit; the slot is held until the stream
+	 * completes, fails or is cancelled
+	 *
+	 * @param usedTokens Tokens an element reports, negative if it reports none
+	 *                   (the last reported value is used)
+	 */
+	public <T> Flux<T> stream(long tokens, Supplier<Flux<T>> call, ToLongFunction<T> usedTokens) {
+		if (!settings.enabled()) {
+			return Flux.defer(call);
+		}
+		return Flux.defer(() -> {
+			AtomicLong used = new AtomicLong(-1);
+			return Flux.usingWhen(Mono.fromFuture(() -> acquire(tokens)),
+					permit -> call.get().doOnNext(element -> {
+						long reported = usedTokens.applyAsLong(element);
+						if (reported >= 0) {
+							used.set(reported);
+						}
+					}),
+					permit -> Mono.fromRunnable(() -> permit.success(used.get())),
+					(permit, e) -> Mono.fromRunnable(() -> permit.failed(e)),
+					permit -> Mono.fromRunnable(permit::abandon));
+		});
+	}
+
+	/**
+	 * A permit now, or once one is available; fails with LLM_OVERLOADED when
+	 * the queue is full or the wait exceeds max-wait. Cancelling the future
+	 * leaves the queue.
+	 */
+	public CompletableFuture<Permit> acquire(long tokens) {
+		Waiter waiter = new Waiter(Math.max(0, tokens));
+		List<Runnable> completions;
+		synchronized (this) {
+			if (queue.size() >= settings.maxQueue()) {
+				reject(waiter, "queue-full");
+				return waiter.future;
+			}
+			queue.addLast(waiter);
+			completions = drain();
+			if (queue.contains(waiter)) {
+				waiter.timeout = timer.schedule(() -> expire(waiter),
+						settings.maxWait().toNanos(), TimeUnit.NANOSECONDS);
+			}
+		}
+		waiter.future.whenComplete((permit, e) -> {
+			if (waiter.future.isCancelled()) {
+				leave(waiter);
+			}
+		});
+		completions.forEach(Runnable::run);
+		return waiter.future;
+	}
+
+	private Permit acquireBlocking(long tokens) {
+		CompletableFuture<Permit> future = acquire(tokens);
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			if (!future.cancel(false) && !future.isCompletedExceptionally()) {
+				future.join().abandon();
+			}
+			throw overloaded("interrupted while waiting for a slot");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException runtime) {
+				throw runtime;
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * @param retryAfter Pause after a 429, null otherwise
+	 * @param succeeded  Whether the call succeeded (may grow the limit)
+	 */
+	private void release(Permit permit, Duration retryAfter, boolean succeeded) {
+		List<Runnable> completions;
+		synchronized (this) {
+			inFlight--;
+			long now = System.nanoTime();
+			if (retryAfter != null) {
+				throttled.increment();
+				pausedUntil = Math.max(pausedUntil, now + retryAfter.toNanos());
+				if (permit.startedAt >= lastDecrease) {
+					double previous = limit;
+					limit = Math.max(settings.minLimit(), limit * settings.backoffRatio());
+					lastDecrease = now;
+					log.warn("OpenAI {} rate limited: concurrency limit {} -> {}, pausing {} ms",
+							name, (int) previous, (int) limit, retryAfter.toMillis());
+				}
+			} else if (succeeded && inFlight + 1 >= (int) limit) {
+				// Only grow while the limit is what holds calls back
+				limit = Math.min(settings.maxLimit(), limit + 1 / limit);
+			}
+			completions = drain();
+		}
+		completions.forEach(Runnable::run);
+	}
+
+	/**
+	 * Grant queued calls in order while a slot and their tokens are available.
+	 * Futures are completed by the caller outside the lock, since completing
+	 * one starts its HTTP call.
+	 */
+	private List<Runnable> drain() {
+		List<Runnable> completions = new ArrayList<>();
+		long now = System.nanoTime();
+		while (!queue.isEmpty() && inFlight < Math.max(1, (int) limit)) {
+			if (now < pausedUntil) {
+				wakeIn(pausedUntil - now);
+				break;
+			}
+			Waiter waiter = queue.peekFirst();
+			if (!budget.tryTake(waiter.tokens)) {
+				wakeIn(Math.max(1, budget.nanosUntil(waiter.tokens)));
+				break;
+			}
+			queue.pollFirst();
+			if (waiter.timeout != null) {
+				waiter.timeout.cancel(false);
+			}
+			inFlight++;
+			Permit permit = new Permit(waiter.tokens, now);
+			waitTimer.record(now - waiter.enqueuedAt, TimeUnit.NANOSECONDS);
+			completions.add(() -> {
+				if (!waiter.future.complete(permit)) {
+					permit.abandon();
+				}
+			});
+		}
+		return completions;
+	}
+
+	private void wakeIn(long delayNanos) {
+		long at = System.nanoTime() + delayNanos;
+		if (wakeAt != 0 && wakeAt - at <= 0) {
+			return;
+		}
+		wakeAt = at;
+		timer.schedule(() -> {
+			List<Runnable> completions;
+			synchronized (this) {
+				if (wakeAt == at) {
+					wakeAt = 0;
+				}
+				completions = drain();
+			}
+			completions.forEach(Runnable::run);
+		}, delayNanos, TimeUnit.NANOSECONDS);
+	}
+
+	private void expire(Waiter waiter) {
+		synchronized (this) {
+			if (!queue.remove(waiter)) {
+				return;
+			}
+		}
+		reject(waiter, "timeout");
+	}
+
+	private void leave(Waiter waiter) {
+		List<Runnable> completions;
+		synchronized (this) {
+			if (!queue.remove(waiter)) {
+				return;
+			}
+			if (waiter.timeout != null) {
+				waiter.timeout.cancel(false);
+			}
+			// The head may have been waiting on tokens or order only
+			completions = drain();
+		}
+		completions.forEach(Runnable::run);
+	}
+
+	private void reject(Waiter waiter, String reason) {
+		Counter.builder("agentic.llm.limiter.rejected")
+				.description("Calls refused instead of queued")
+				.tag("limiter", name)
+				.tag("reason", reason)
+				.register(meterRegistry)
+				.increment();
+		waiter.future.completeExceptionally(overloaded(reason.equals("timeout")
+				? "no slot within " + settings.maxWait().toMillis() + " ms"
+				: "queue full (" + settings.maxQueue() + " waiting)"));
+	}
+
+	private AgentException overloaded(String reason) {
+		return new AgentException("LLM_OVERLOADED", "OpenAI " + name + " calls are saturated: " + reason, true,
+				Map.of("limiter", name, "retryAfterMs", settings.defaultRetryAfter().toMillis()), null);
+	}
+
+	synchronized double limit() {
+		return limit;
+	}
+
+	synchronized int inFlight() {
+		return inFlight;
+	}
+
+	/**
+	 * Calls currently waiting; optional work can stand aside while any do
+	 */
+	public synchronized int queued() {
+		return queue.size();
+	}
+}
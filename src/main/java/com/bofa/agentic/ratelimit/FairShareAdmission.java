@@ -0,0 +1,399 @@
+package com.bofa.agentic.ratelimit;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.bofa.agentic.exception.AgentException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
+
+/**
+ * Weighted fair-share admission of chat requests, keyed on ChatRequest.userId
+ *
+ * The id is the authenticated principal when there is one, else whatever
+ * the client declared; until the security chain authenticates requests,
+ * weights and quotas are advisory, not an isolation boundary.
+ *
+ * At most agentic.admission.max-concurrent requests run at once, and at most
+ * per-user.max-concurrent of them for one user. Requests beyond that queue
+ * per user and are admitted by weighted fair queuing: each gets a virtual
+ * finish time 1/weight after the later of its user's previous one and the
+ * current virtual time, and the smallest is admitted first. A user with
+ * weight 2 (agentic.admission.weights) thus gets twice the share of a busy
+ * system as one with weight 1, and a script flooding the queue only delays
+ * its own requests.
+ *
+ * Per-user quotas, checked on arrival:
+ * - requests-per-minute: token bucket of requests
+ * - llm-tokens-per-minute: token bucket charged after each request with
+ *   the LLM tokens it used ({@link #charge}); a user in debt is refused
+ *   until it is repaid
+ * Exceeding a quota, or a full per-user queue, fails with USER_QUOTA_EXCEEDED
+ * (HTTP 429 with Retry-After). A request not admitted within max-wait fails
+ * with ADMISSION_TIMEOUT (503).
+ *
+ * Metrics: agentic.admission.wait (timer, user), agentic.admission.rejected
+ * (user, reason=requests|llm-tokens|queue-full|timeout),
+ * agentic.admission.llm.tokens (user), agentic.admission.active and
+ * agentic.admission.queued. The user tag is the user id for configured users
+ * and the first metrics.max-users others, then "other".
+ */
+@Component
+public class FairShareAdmission {
+
+	private static final Logger log = LoggerFactory.getLogger(FairShareAdmission.class);
+
+	static final String ANONYMOUS = "anonymous";
+	private static final String OTHER = "other";
+
+	/**
+	 * An admitted request's slot; release once it has finished
+	 */
+	public final class Ticket {
+
+		private final User user;
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		private Ticket(User user) {
+			this.user = user;
+		}
+
+		public void release() {
+			if (released.compareAndSet(false, true)) {
+				FairShareAdmission.this.release(user);
+			}
+		}
+	}
+
+	private static final class Waiter {
+
+		final double finish;
+		final long enqueuedAt = System.nanoTime();
+		final CompletableFuture<Ticket> future = new CompletableFuture<>();
+
+		Waiter(double finish) {
+			this.finish = finish;
+		}
+	}
+
+	private static final class User {
+
+		final String id;
+		final String tag;
+		final double weight;
+		final TokenBudget requests;
+		final TokenBudget llmTokens;
+		final Deque<Waiter> queue = new ArrayDeque<>();
+		int active;
+		double lastFinish;
+
+		User(String id, String tag, double weight, TokenBudget requests, TokenBudget llmTokens) {
+			this.id = id;
+			this.tag = tag;
+			this.weight = weight;
+			this.requests = requests;
+			this.llmTokens = llmTokens;
+		}
+
+		boolean isIdle() {
+			return active == 0 && queue.isEmpty();
+		}
+	}
+
+	private final MeterRegistry meterRegistry;
+	private final boolean enabled;
+	private final int maxConcurrent;
+	private final int perUserMaxConcurrent;
+	private final int perUserMaxQueue;
+	private final Duration maxWait;
+	private final long requestsPerMinute;
+	private final long llmTokensPerMinute;
+	private final double defaultWeight;
+	private final Map<String, Double> weights;
+	private final int maxTaggedUsers;
+
+	private final Map<String, User> users = new HashMap<>();
+	private final Set<String> taggedUsers = new HashSet<>();
+	private final Set<User> backlogged = new LinkedHashSet<>();
+	private int active;
+	private int queued;
+	private double virtualTime;
+
+	/**
+	 * @param weights Comma-separated user=weight pairs, e.g. "oncall=4,nightly-report-bot=0.25"
+	 */
+	public FairShareAdmission(MeterRegistry meterRegistry,
+			@Value("${agentic.admission.enabled:true}") boolean enabled,
+			@Value("${agentic.admission.max-concurrent:32}") int maxConcurrent,
+			@Value("${agentic.admission.per-user.max-concurrent:4}") int perUserMaxConcurrent,
+			@Value("${agentic.admission.per-user.max-queue:20}") int perUserMaxQueue,
+			@Value("${agentic.admission.max-wait-ms:5000}") long maxWaitMs,
+			@Value("${agentic.admission.per-user.requests-per-minute:60}") long requestsPerMinute,
+			@Value("${agentic.admission.per-user.llm-tokens-per-minute:60000}") long llmTokensPerMinute,
+			@Value("${agentic.admission.default-weight:1.0}") double defaultWeight,
+			@Value("${agentic.admission.weights:}") String weights,
+			@Value("${agentic.admission.metrics.max-users:100}") int maxTaggedUsers) {
+		if (maxConcurrent < 1 || perUserMaxConcurrent < 1 || defaultWeight <= 0) {
+			throw new IllegalStateException("agentic.admission needs max-concurrent, per-user.max-concurrent"
+					+ " and default-weight above 0");
+		}
+		this.meterRegistry = meterRegistry;
+		this.enabled = enabled;
+		this.maxConcurrent = maxConcurrent;
+		this.perUserMaxConcurrent = perUserMaxConcurrent;
+		this.perUserMaxQueue = perUserMaxQueue;
+		this.maxWait = Duration.ofMillis(maxWaitMs);
+		this.requestsPerMinute = requestsPerMinute;
+		this.llmTokensPerMinute = llmTokensPerMinute;
+		this.defaultWeight = defaultWeight;
+		this.weights = parseWeights(weights);
+		this.maxTaggedUsers = maxTaggedUsers;
+
+		meterRegistry.gauge("agentic.admission.active", this, FairShareAdmission::active);
+		meterRegistry.gauge("agentic.admission.queued", this, FairShareAdmission::queued);
+		log.info("Admission: enabled={}, {} concurrent ({} per user), weights {}",
+				enabled, maxConcurrent, perUserMaxConcurrent, this.weights);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Admit a request for {@code userId} (blank: "anonymous") once it is its
+	 * turn; cancelling the subscription leaves the queue
+	 */
+	public Mono<Ticket> admit(String userId) {
+		if (!enabled) {
+			return Mono.just(new Ticket(null));
+		}
+		return Mono.defer(() -> {
+			Waiter waiter;
+			List<Runnable> admissions;
+			synchronized (this) {
+				User user = user(userId == null || userId.isBlank() ? ANONYMOUS : userId.trim());
+				if (user.llmTokens.available() <= 0) {
+					return Mono.error(refuse(user, "llm-tokens", user.llmTokens.nanosUntil(1)));
+				}
+				if (user.queue.size() >= perUserMaxQueue) {
+					return Mono.error(refuse(user, "queue-full", maxWait.toNanos()));
+				}
+				if (!user.requests.tryTake(1)) {
+					return Mono.error(refuse(user, "requests", user.requests.nanosUntil(1)));
+				}
+				double start = Math.max(virtualTime, user.lastFinish);
+				user.lastFinish = start + 1 / user.weight;
+				waiter = new Waiter(user.lastFinish);
+				user.queue.addLast(waiter);
+				backlogged.add(user);
+				queued++;
+				admissions = drain();
+				waiter.future.whenComplete((ticket, e) -> {
+					if (waiter.future.isCancelled()) {
+						leave(user, waiter);
+					}
+				});
+			}
+			admissions.forEach(Runnable::run);
+			return Mono.fromFuture(waiter.future)
+					.doOnDiscard(Ticket.class, Ticket::release)
+					.timeout(maxWait)
+					.onErrorMap(TimeoutException.class, e -> timedOut(userId));
+		});
+	}
+
+	/**
+	 * Charge LLM tokens a finished request of {@code userId} used to its quota
+	 */
+	public void charge(String userId, long tokens) {
+		if (!enabled || tokens <= 0) {
+			return;
+		}
+		String tag;
+		synchronized (this) {
+			User user = user(userId == null || userId.isBlank() ? ANONYMOUS : userId.trim());
+			user.llmTokens.settle(tokens);
+			tag = user.tag;
+		}
+		Counter.builder("agentic.admission.llm.tokens")
+				.description("LLM tokens charged to users' quotas")
+				.tag("user", tag)
+				.register(meterRegistry)
+				.increment(tokens);
+	}
+
+	private void release(User user) {
+		if (user == null) {
+			return;
+		}
+		List<Runnable> admissions;
+		synchronized (this) {
+			active--;
+			user.active--;
+			admissions = drain();
+		}
+		admissions.forEach(Runnable::run);
+	}
+
+	private void leave(User user, Waiter waiter) {
+		List<Runnable> admissions;
+		synchronized (this) {
+			if (!user.queue.remove(waiter)) {
+				return;
+			}
+			if (user.queue.isEmpty()) {
+				backlogged.remove(user);
+			}
+			queued--;
+			admissions = drain();
+		}
+		admissions.forEach(Runnable::run);
+	}
+
+	/**
+	 * Admit queued requests, smallest virtual finish time first, while there
+	 * is capacity; completed outside the lock, since that starts the request
+	 */
+	private List<Runnable> drain() {
+		List<Runnable> admissions = new ArrayList<>();
+		while (active < maxConcurrent) {
+			User next = null;
+			for (User user : backlogged) {
+				if (!user.queue.isEmpty() && user.active < perUserMaxConcurrent
+						&& (next == null || user.queue.peekFirst().finish < next.queue.peekFirst().finish)) {
+					next = user;
+				}
+			}
+			if (next == null) {
+				break;
+			}
+			Waiter waiter = next.queue.pollFirst();
+			if (next.queue.isEmpty()) {
+				backlogged.remove(next);
+			}
+			queued--;
+			active++;
+			next.active++;
+			virtualTime = Math.max(virtualTime, waiter.finish - 1 / next.weight);
+			Ticket ticket = new Ticket(next);
+			Timer.builder("agentic.admission.wait")
+					.description("Time requests waited for admission")
+					.tag("user", next.tag)
+					.publishPercentileHistogram()
+					.register(meterRegistry)
+					.record(System.nanoTime() - waiter.enqueuedAt, TimeUnit.NANOSECONDS);
+			admissions.add(() -> {
+				if (!waiter.future.complete(ticket)) {
+					ticket.release();
+				}
+			});
+		}
+		return admissions;
+	}
+
+	private User user(String userId) {
+		User user = users.get(userId);
+		if (user == null) {
+			if (users.size() >= 10_000) {
+				evictIdle();
+			}
+			user = new User(userId, tagOf(userId), weights.getOrDefault(userId, defaultWeight),
+					new TokenBudget(requestsPerMinute), new TokenBudget(llmTokensPerMinute));
+			users.put(userId, user);
+		}
+		return user;
+	}
+
+	// An idle user with full buckets is recreated exactly as it was
+	private void evictIdle() {
+		users.values().removeIf(user -> user.isIdle()
+				&& (user.requests.isUnlimited() || user.requests.nanosUntil(requestsPerMinute) == 0)
+				&& (user.llmTokens.isUnlimited() || user.llmTokens.nanosUntil(llmTokensPerMinute) == 0));
+	}
+
+	private String tagOf(String userId) {
+		if (weights.containsKey(userId) || taggedUsers.contains(userId)) {
+			return userId;
+		}
+		if (taggedUsers.size() < maxTaggedUsers) {
+			taggedUsers.add(userId);
+			return userId;
+		}
+		return OTHER;
+	}
+
+	private AgentException refuse(User user, String reason, long retryAfterNanos) {
+		rejected(user.tag, reason);
+		long retryAfterMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(retryAfterNanos));
+		log.info("Refused request of user {}: {} quota, retry after {} ms", user.id, reason, retryAfterMs);
+		return new AgentException("USER_QUOTA_EXCEEDED", "Too many requests for user " + user.id + " (" + reason
+				+ "), retry in " + retryAfterMs + " ms", true,
+				Map.of("reason", reason, "retryAfterMs", retryAfterMs), null);
+	}
+
+	private AgentException timedOut(String userId) {
+		String tag;
+		synchronized (this) {
+			tag = user(userId == null || userId.isBlank() ? ANONYMOUS : userId.trim()).tag;
+		}
+		rejected(tag, "timeout");
+		return new AgentException("ADMISSION_TIMEOUT", "Not admitted within " + maxWait.toMillis()
+				+ " ms, the assistant is busy", true, Map.of("retryAfterMs", maxWait.toMillis()), null);
+	}
+
+	private void rejected(String tag, String reason) {
+		Counter.builder("agentic.admission.rejected")
+				.description("Requests refused by admission control")
+				.tag("user", tag)
+				.tag("reason", reason)
+				.register(meterRegistry)
+				.increment();
+	}
+
+	synchronized int active() {
+		return active;
+	}
+
+	synchronized int queued() {
+		return queued;
+	}
+
+	private static Map<String, Double> parseWeights(String weights) {
+		Map<String, Double> parsed = new HashMap<>();
+		if (weights == null || weights.isBlank()) {
+			return parsed;
+		}
+		for (String pair : weights.split(",")) {
+			String[] parts = pair.split("=");
+			if (parts.length != 2) {
+				throw new IllegalStateException("agentic.admission.weights must be user=weight pairs: " + pair);
+			}
+			double weight = Double.parseDouble(parts[1].trim());
+			if (weight <= 0) {
+				throw new IllegalStateException("agentic.admission.weights must be positive: " + pair);
+			}
+			parsed.put(parts[0].trim(), weight);
+		}
+		return parsed;
+	}
+}
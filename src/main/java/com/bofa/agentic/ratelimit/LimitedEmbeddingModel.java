@@ -0,0 +1,51 @@
+package com.bofa.agentic.ratelimit;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.document.MetadataMode;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * EmbeddingModel whose calls go through {@link OpenAiLimiters#embedding()}
+ *
+ * Every embedding (EmbeddingService, vector store search and indexing) ends
+ * in {@link #call}; single documents are routed there too instead of to the
+ * delegate's own embed(Document), which would bypass the limiter.
+ */
+class LimitedEmbeddingModel implements EmbeddingModel {
+
+	private final EmbeddingModel delegate;
+	private final ObjectProvider<OpenAiLimiters> limiters;
+
+	LimitedEmbeddingModel(EmbeddingModel delegate, ObjectProvider<OpenAiLimiters> limiters) {
+		this.delegate = delegate;
+		this.limiters = limiters;
+	}
+
+	@Override
+	public EmbeddingResponse call(EmbeddingRequest request) {
+		OpenAiLimiters limiter = limiters.getObject();
+		return limiter.embedding().call(limiter.estimate(request.getInstructions()),
+				() -> delegate.call(request), LimitedEmbeddingModel::usedTokens);
+	}
+
+	@Override
+	public float[] embed(Document document) {
+		return embed(document.getFormattedContent(MetadataMode.EMBED));
+	}
+
+	@Override
+	public int dimensions() {
+		return delegate.dimensions();
+	}
+
+	private static long usedTokens(EmbeddingResponse response) {
+		if (response.getMetadata() == null || response.getMetadata().getUsage() == null
+				|| response.getMetadata().getUsage().getTotalTokens() == null) {
+			return -1;
+		}
+		return response.getMetadata().getUsage().getTotalTokens();
+	}
+}
@@ -0,0 +1,69 @@
+package com.bofa.agentic.ratelimit;
+
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.core.Ordered;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Runs a ChatClient's model calls through {@link OpenAiLimiters#chat()}
+ *
+ * A streamed completion holds its slot until the stream ends, so the limit
+ * counts concurrent HTTP exchanges, not requests to start one.
+ */
+public class LimiterAdvisor implements CallAdvisor, StreamAdvisor {
+
+	private final OpenAiLimiters limiters;
+
+	LimiterAdvisor(OpenAiLimiters limiters) {
+		this.limiters = limiters;
+	}
+
+	@Override
+	public ChatClientResponse adviseCall(ChatClientRequest request, CallAdvisorChain chain) {
+
+		return limiters.chat().call(limiters.estimate(request.prompt()),
+				() -> chain.nextCall(request), LimiterAdvisor::usedTokens);
+	}
+
+	@Override
+	public Flux<ChatClientResponse> adviseStream(ChatClientRequest request, StreamAdvisorChain chain) {
+
+		return limiters.chat().stream(limiters.estimate(request.prompt()),
+				() -> chain.nextStream(request), LimiterAdvisor::usedTokens);
+	}
+
+	// Streaming chunks carry empty usage except (at most) the last one
+	private static long usedTokens(ChatClientResponse response) {
+
+		ChatResponse chatResponse = response.chatResponse();
+		if (chatResponse == null || chatResponse.getMetadata() == null) {
+			return -1;
+		}
+		Usage usage = chatResponse.getMetadata().getUsage();
+		if (usage == null || usage.getTotalTokens() == null || usage.getTotalTokens() == 0) {
+			return -1;
+		}
+		return usage.getTotalTokens();
+	}
+
+	@Override
+	public String getName() {
+		return "LimiterAdvisor";
+	}
+
+	// Inside the cache and coalescing advisors, so hits and joined calls take
+	// no slot; outside LlmMetricsAdvisor, so queueing is not timed as model latency
+	@Override
+	public int getOrder() {
+		return Ordered.LOWEST_PRECEDENCE - 125;
+	}
+
+}
@@ -0,0 +1,46 @@
+package com.bofa.agentic.ratelimit;
+
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Puts the EmbeddingModel bean (OpenAI or the local-ai stand-in) behind the
+ * embedding limiter, so the vector store's own calls are limited as well
+ */
+@Configuration
+public class OpenAiLimiterConfig {
+
+	// Static, and the limiters resolved lazily: post-processors are created before other beans.
+	// Declared as the concrete type so Spring sees it is Ordered when sorting post-processors
+	@Bean
+	public static LimitingPostProcessor limitedEmbeddingModel(ObjectProvider<OpenAiLimiters> limiters) {
+		return new LimitingPostProcessor(limiters);
+	}
+
+	// Before the embedding cache's post-processor, which wraps the limited model
+	static final class LimitingPostProcessor implements BeanPostProcessor, Ordered {
+
+		private final ObjectProvider<OpenAiLimiters> limiters;
+
+		private LimitingPostProcessor(ObjectProvider<OpenAiLimiters> limiters) {
+			this.limiters = limiters;
+		}
+
+		@Override
+		public Object postProcessAfterInitialization(Object bean, String beanName) {
+			if (bean instanceof EmbeddingModel model && !(bean instanceof LimitedEmbeddingModel)) {
+				return new LimitedEmbeddingModel(model, limiters);
+			}
+			return bean;
+		}
+
+		@Override
+		public int getOrder() {
+			return Ordered.LOWEST_PRECEDENCE - 10;
+		}
+	}
+}
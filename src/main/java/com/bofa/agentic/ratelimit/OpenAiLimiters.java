@@ -0,0 +1,130 @@
+package com.bofa.agentic.ratelimit;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.tokenizer.JTokkitTokenCountEstimator;
+import org.springframework.ai.tokenizer.TokenCountEstimator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Admission control for every outbound OpenAI call
+ *
+ * One {@link AdaptiveLimiter} per endpoint, since OpenAI limits them
+ * separately: chat (planner and composer ChatClients, via {@link #advisor}),
+ * embedding (the EmbeddingModel bean, see {@link OpenAiLimiterConfig}) and
+ * moderation. Each discovers its own sustainable concurrency; chat and
+ * embedding calls also draw from one process-wide tokens-per-minute budget
+ * (agentic.llm.limiter.tokens-per-minute), reserved from a local estimate
+ * (prompt tokens plus max-tokens for chat) and settled to reported usage.
+ *
+ * Metric: agentic.llm.limiter.tokens (tokens left in the budget), besides
+ * the per-limiter ones.
+ */
+@Component
+public class OpenAiLimiters {
+
+	private static final Logger log = LoggerFactory.getLogger(OpenAiLimiters.class);
+
+	private final ChatOptions modelDefaults;
+	private final TokenCountEstimator estimator = new JTokkitTokenCountEstimator();
+	private final ScheduledExecutorService timer;
+	private final AdaptiveLimiter chat;
+	private final AdaptiveLimiter embedding;
+	private final AdaptiveLimiter moderation;
+
+	public OpenAiLimiters(ChatModel chatModel, MeterRegistry meterRegistry,
+			@Value("${agentic.llm.limiter.enabled:true}") boolean enabled,
+			@Value("${agentic.llm.limiter.initial-limit:8}") int initialLimit,
+			@Value("${agentic.llm.limiter.min-limit:1}") int minLimit,
+			@Value("${agentic.llm.limiter.max-limit:64}") int maxLimit,
+			@Value("${agentic.llm.limiter.backoff-ratio:0.7}") double backoffRatio,
+			@Value("${agentic.llm.limiter.max-queue:200}") int maxQueue,
+			@Value("${agentic.llm.limiter.max-wait-ms:5000}") long maxWaitMs,
+			@Value("${agentic.llm.limiter.default-retry-after-ms:1000}") long defaultRetryAfterMs,
+			@Value("${agentic.llm.limiter.tokens-per-minute:200000}") long tokensPerMinute) {
+		if (minLimit < 1 || maxLimit < minLimit || backoffRatio <= 0 || backoffRatio >= 1) {
+			throw new IllegalStateException("agentic.llm.limiter needs 1 <= min-limit <= max-limit"
+					+ " and 0 < backoff-ratio < 1");
+		}
+		this.modelDefaults = chatModel.getDefaultOptions();
+		this.timer = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+				.name("openai-limiter")
+				.daemon()
+				.factory());
+
+		AdaptiveLimiter.Settings settings = new AdaptiveLimiter.Settings(enabled, initialLimit, minLimit, maxLimit,
+				backoffRatio, maxQueue, Duration.ofMillis(maxWaitMs), Duration.ofMillis(defaultRetryAfterMs));
+		TokenBudget tokens = new TokenBudget(tokensPerMinute);
+		this.chat = new AdaptiveLimiter("chat", settings, tokens, timer, meterRegistry);
+		this.embedding = new AdaptiveLimiter("embedding", settings, tokens, timer, meterRegistry);
+		this.moderation = new AdaptiveLimiter("moderation", settings, new TokenBudget(0), timer, meterRegistry);
+		if (!tokens.isUnlimited()) {
+			Gauge.builder("agentic.llm.limiter.tokens", tokens, TokenBudget::available)
+					.description("Tokens left in the shared tokens-per-minute budget")
+					.register(meterRegistry);
+		}
+		log.info("OpenAI limiter: enabled={}, concurrency {} ({}..{}), queue {} for {} ms, {} tokens/min",
+				enabled, initialLimit, minLimit, maxLimit, maxQueue, maxWaitMs,
+				tokens.isUnlimited() ? "unlimited" : tokensPerMinute);
+	}
+
+	/**
+	 * Advisor that runs a ChatClient's model calls through the chat limiter
+	 */
+	public LimiterAdvisor advisor() {
+		return new LimiterAdvisor(this);
+	}
+
+	public AdaptiveLimiter chat() {
+		return chat;
+	}
+
+	public AdaptiveLimiter embedding() {
+		return embedding;
+	}
+
+	public AdaptiveLimiter moderation() {
+		return moderation;
+	}
+
+	/**
+	 * Tokens OpenAI counts against the limit for a completion: the prompt
+	 * plus the completion's max-tokens
+	 */
+	long estimate(Prompt prompt) {
+		long tokens = estimate(prompt.getInstructions().stream().map(Message::getText).toList());
+		Integer maxTokens = prompt.getOptions() != null && prompt.getOptions().getMaxTokens() != null
+				? prompt.getOptions().getMaxTokens()
+				: modelDefaults != null ? modelDefaults.getMaxTokens() : null;
+		return tokens + (maxTokens != null ? maxTokens : 0);
+	}
+
+	long estimate(List<String> texts) {
+		long tokens = 0;
+		for (String text : texts) {
+			if (text != null && !text.isEmpty()) {
+				tokens += estimator.estimate(text);
+			}
+		}
+		return tokens;
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		timer.shutdownNow();
+	}
+}
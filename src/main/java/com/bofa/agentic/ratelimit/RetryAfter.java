@@ -0,0 +1,76 @@
+package com.bofa.agentic.ratelimit;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Pattern;
+
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+/**
+ * Recognises an OpenAI 429 (rate limited) response and how long to back off
+ *
+ * Streamed completions and the moderation RestClient fail with the HTTP
+ * response, so its retry-after-ms / Retry-After header is honoured. Blocking
+ * Spring AI calls only keep the status in the message ("HTTP 429 - ...");
+ * those back off for the configured default.
+ */
+final class RetryAfter {
+
+	private static final int TOO_MANY_REQUESTS = 429;
+	private static final Pattern AI_EXCEPTION_429 = Pattern.compile("^HTTP 429\\b");
+
+	private RetryAfter() {
+	}
+
+	/**
+	 * @return How long to pause, or null if {@code error} is not a 429
+	 */
+	static Duration of(Throwable error, Duration fallback) {
+		for (Throwable e = error; e != null; e = e.getCause()) {
+			if (e instanceof WebClientResponseException response
+					&& response.getStatusCode().value() == TOO_MANY_REQUESTS) {
+				return fromHeaders(response.getHeaders(), fallback);
+			}
+			if (e instanceof RestClientResponseException response
+					&& response.getStatusCode().value() == TOO_MANY_REQUESTS) {
+				return fromHeaders(response.getResponseHeaders(), fallback);
+			}
+			if ((e instanceof NonTransientAiException || e instanceof TransientAiException)
+					&& e.getMessage() != null && AI_EXCEPTION_429.matcher(e.getMessage()).find()) {
+				return fallback;
+			}
+		}
+		return null;
+	}
+
+	private static Duration fromHeaders(HttpHeaders headers, Duration fallback) {
+		if (headers == null) {
+			return fallback;
+		}
+		try {
+			String millis = headers.getFirst("retry-after-ms");
+			if (millis != null) {
+				return Duration.ofMillis((long) Double.parseDouble(millis.trim()));
+			}
+			String retryAfter = headers.getFirst(HttpHeaders.RETRY_AFTER);
+			if (retryAfter == null) {
+				return fallback;
+			}
+			retryAfter = retryAfter.trim();
+			if (retryAfter.chars().allMatch(Character::isDigit)) {
+				return Duration.ofSeconds(Long.parseLong(retryAfter));
+			}
+			Duration untilDate = Duration.between(ZonedDateTime.now(),
+					ZonedDateTime.parse(retryAfter, DateTimeFormatter.RFC_1123_DATE_TIME));
+			return untilDate.isNegative() ? Duration.ZERO : untilDate;
+		} catch (NumberFormatException | DateTimeParseException e) {
+			return fallback;
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package com.bofa.agentic.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket refilled at a per-minute rate, holding one minute's worth
+ *
+ * Used for the process-wide OpenAI tokens-per-minute budget and for the
+ * per-user quotas of {@link FairShareAdmission}. A call reserves its
+ * estimated tokens before it starts and is settled to actual usage once it
+ * is done, so the balance goes negative (debt, repaid by the refill) when
+ * an estimate was low. A call larger than the bucket waits for it to be full.
+ */
+final class TokenBudget {
+
+	private final double capacity;
+	private final double tokensPerNano;
+	private double available;
+	private long refilledAt;
+
+	/**
+	 * @param tokensPerMinute 0 or less for no budget
+	 */
+	TokenBudget(long tokensPerMinute) {
+		this.capacity = Math.max(0, tokensPerMinute);
+		this.tokensPerNano = capacity / TimeUnit.MINUTES.toNanos(1);
+		this.available = capacity;
+		this.refilledAt = System.nanoTime();
+	}
+
+	boolean isUnlimited() {
+		return capacity == 0;
+	}
+
+	synchronized boolean tryTake(long tokens) {
+		if (isUnlimited()) {
+			return true;
+		}
+		refill();
+		if (available < Math.min(tokens, capacity)) {
+			return false;
+		}
+		available -= tokens;
+		return true;
+	}
+
+	/**
+	 * @param extra Tokens used beyond the reservation; negative to refund
+	 */
+	synchronized void settle(long extra) {
+		if (isUnlimited()) {
+			return;
+		}
+		refill();
+		available = Math.min(capacity, available - extra);
+	}
+
+	/**
+	 * Time until {@link #tryTake} can succeed for {@code tokens}
+	 */
+	synchronized long nanosUntil(long tokens) {
+		if (isUnlimited()) {
+			return 0;
+		}
+		refill();
+		double missing = Math.min(tokens, capacity) - available;
+		return missing <= 0 ? 0 : (long) Math.ceil(missing / tokensPerNano);
+	}
+
+	synchronized double available() {
+		if (isUnlimited()) {
+			return Double.NaN;
+		}
+		refill();
+		return available;
+	}
+
+	private void refill() {
+		long now = System.nanoTime();
+		available = Math.min(capacity, available + (now - refilledAt) * tokensPerNano);
+		refilledAt = now;
+	}
+}
@@ -0,0 +1,70 @@
+package com.bofa.agentic.streaming;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Client-facing event stream of one request
+ *
+ * Nodes publish tokens as the LLM produces them and retract them when the
+ * guard rejects the answer; the orchestrator closes the stream with the
+ * final state. Tracks what the client is currently showing, so the final
+ * response is always delivered exactly, whether or not it was streamed.
+ */
+public final class ResponseStream {
+
+	private final Sinks.Many<StreamEvent> sink = Sinks.many().unicast().onBackpressureBuffer();
+	private final StringBuilder visible = new StringBuilder();
+	private volatile Throwable error;
+
+	/**
+	 * Events until {@link #complete} or {@link #fail}; a failure is signalled
+	 * after the events buffered before it
+	 */
+	public Flux<StreamEvent> events() {
+		return sink.asFlux()
+				.concatWith(Mono.defer(() -> error != null ? Mono.error(error) : Mono.empty()));
+	}
+
+	synchronized void token(String text) {
+		if (text.isEmpty()) {
+			return;
+		}
+		visible.append(text);
+		sink.tryEmitNext(StreamEvent.token(text));
+	}
+
+	/**
+	 * Tell the client to discard what it has shown, if anything
+	 */
+	public synchronized void retract(String reason) {
+		if (visible.length() == 0) {
+			return;
+		}
+		visible.setLength(0);
+		sink.tryEmitNext(StreamEvent.retract(reason));
+	}
+
+	/**
+	 * Finish with {@code response}: sent whole, replacing what is shown, when
+	 * it was not streamed (e.g. a resumed request whose composer ran earlier)
+	 */
+	public synchronized void complete(String response) {
+		String answer = response == null ? "" : response;
+		if (!visible.toString().equals(answer)) {
+			retract("Response replaced");
+			token(answer);
+		}
+		sink.tryEmitComplete();
+	}
+
+	/**
+	 * Finish with an error, retracting any partial answer first
+	 */
+	public synchronized void fail(Throwable e, String reason) {
+		retract(reason);
+		error = e;
+		sink.tryEmitComplete();
+	}
+}
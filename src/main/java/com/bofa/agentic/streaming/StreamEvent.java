@@ -0,0 +1,32 @@
+package com.bofa.agentic.streaming;
+
+/**
+ * One event of a streamed chat response
+ *
+ * - token: the next piece of the answer, to append to what is shown
+ * - retract: discard everything shown so far (the guard rejected it); a
+ *   revised answer may follow as new tokens
+ * - error: the request failed; no answer follows
+ */
+public record StreamEvent(String type, String text) {
+
+	public static final String TOKEN = "token";
+	public static final String RETRACT = "retract";
+	public static final String ERROR = "error";
+
+	public StreamEvent {
+		text = text == null ? "" : text;
+	}
+
+	public static StreamEvent token(String text) {
+		return new StreamEvent(TOKEN, text);
+	}
+
+	public static StreamEvent retract(String reason) {
+		return new StreamEvent(RETRACT, reason);
+	}
+
+	public static StreamEvent error(String message) {
+		return new StreamEvent(ERROR, message);
+	}
+}
@@ -1,69 +1,127 @@
 package com.bofa.agentic.streaming;
 
 import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
 
-import org.springframework.ai.chat.model.ChatResponse;
+import com.bofa.agentic.guardrails.GuardrailResult;
+import com.bofa.agentic.guardrails.HallucinationGuard;
+import com.bofa.agentic.model.Deadline;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import reactor.core.publisher.Flux;
 
+/**
+ * Pipes LLM tokens to the client while a graph node is still running
+ *
+ * The orchestrator opens a {@link ResponseStream} per request; nodes that
+ * generate the answer pass their token Flux through {@link #collect}, which
+ * forwards each token to that stream and returns the full text for the
+ * graph state, so the guard still sees the complete response. Tokens are
+ * screened as they arrive and the stream is cut off on unsafe output.
+ *
+ * With agentic.streaming.enabled=false (or no stream open, as in tests)
+ * nothing is forwarded and the client gets the final response whole.
+ */
+@Service
 public class TokenStreamingService {
     private static final Logger log = LoggerFactory.getLogger(TokenStreamingService.class);
-	
-	private final ChatClient chatClient;
 
-    public TokenStreamingService(ChatClient chatClient) {
-        this.chatClient = chatClient;
-    }
+	private final Map<String, ResponseStream> streams = new ConcurrentHashMap<>();
+	private final HallucinationGuard guard;
+	private final MeterRegistry meterRegistry;
+	private final boolean enabled;
+	private final Duration maxDuration;
 
     /**
-     * Stream tokens from the LLM in real-time.
-     *
-     * This method is intentionally transport-agnostic.
-     * It can power:
-     * - SSE
-     * - WebSockets
-     * - gRPC
+     * @param maxDurationMs Upper bound on a stream when the request deadline is later (or absent)
      */
-    public Flux<String> streamTokens(String prompt) {
-
-        long start = System.currentTimeMillis();
-
-        return chatClient
-                .prompt(prompt)
-                .stream()
-                .chatResponse()
-                .map(this::extractToken)
-                .doOnSubscribe(s -> log.info("Starting token stream..."))
-                .doOnComplete(() ->
-                        log.info("Streaming completed in {} ms",
-                                System.currentTimeMillis() - start))
-                .timeout(Duration.ofSeconds(120))
-                .onErrorResume(ex -> {
+    public TokenStreamingService(HallucinationGuard guard, MeterRegistry meterRegistry,
+            @Value("${agentic.streaming.enabled:true}") boolean enabled,
+            @Value("${agentic.streaming.max-duration-ms:60000}") long maxDurationMs) {
+        this.guard = guard;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.maxDuration = Duration.ofMillis(maxDurationMs);
+    }
 
-                    log.error("Streaming error", ex);
+    /**
+     * Register the client stream for a request; must be {@link #close}d
+     */
+    public ResponseStream open(String requestId) {
+        ResponseStream stream = new ResponseStream();
+        if (enabled) {
+            streams.put(requestId, stream);
+        }
+        return stream;
+    }
 
-                    return Flux.just(
-                            "\n\n⚠️ The response was interrupted. Please retry."
-                    );
-                });
+    public void close(String requestId) {
+        streams.remove(requestId);
     }
 
     /**
-     * Extract token safely from ChatResponse
+     * Tell the request's client to discard the answer shown so far
      */
-    private String extractToken(ChatResponse response) {
-
-        if (response == null || response.getResult() == null || response.getResult().getOutput() == null) {
-            return "";
+    public void retract(String requestId, String reason) {
+        ResponseStream stream = streams.get(requestId);
+        if (stream != null) {
+            stream.retract(reason);
         }
+    }
 
-        String text = response.getResult().getOutput().getText();
-        return text == null ? "" : text;
+    /**
+     * Consume {@code tokens}, forwarding each to the request's client, and
+     * return the full text. Blocks, so call it from a blocking graph node.
+     *
+     * The stream is cut off when the request deadline passes, and vetoed
+     * (cancelled, without forwarding the offending token) when the text so
+     * far fails the guard's screening; the returned text then ends with the
+     * offending token, so the guard node rejects it.
+     */
+    public String collect(String requestId, Flux<String> tokens, Deadline deadline, String operation) {
+
+        ResponseStream stream = streams.get(requestId);
+        StringBuilder text = new StringBuilder();
+        AtomicBoolean first = new AtomicBoolean(true);
+        long start = System.nanoTime();
+
+        deadline.cap(maxDuration).bound(tokens
+                .<String>handle((token, sink) -> {
+                    int from = text.length();
+                    text.append(token);
+                    GuardrailResult screen = guard.screenPartial(text, from);
+                    if (!screen.isAllowed()) {
+                        log.warn("Vetoed {} stream after {} chars: {}", operation, from, screen.getReason());
+                        sink.complete();
+                        return;
+                    }
+                    if (first.compareAndSet(true, false)) {
+                        Timer.builder("agentic.stream.first-token")
+                                .description("Time from starting an LLM stream to its first token")
+                                .tag("operation", operation)
+                                .publishPercentileHistogram()
+                                .register(meterRegistry)
+                                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    }
+                    if (stream != null) {
+                        stream.token(token);
+                    }
+                    sink.next(token);
+                }), operation)
+                .then()
+                .block();
+
+        log.info("Streaming {} completed in {} ms ({} chars, forwarded={})", operation,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), text.length(), stream != null);
+        return text.toString();
     }
 }
-
-
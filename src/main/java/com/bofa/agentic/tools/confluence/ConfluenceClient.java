@@ -1,5 +1,7 @@
 package com.bofa.agentic.tools.confluence;
 
+import java.time.Duration;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -8,6 +10,8 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClient.Builder;
 
+import com.bofa.agentic.model.Deadline;
+
 @Component
 public class ConfluenceClient {
 	
@@ -20,22 +24,24 @@ public class ConfluenceClient {
     @Value("${confluence.token}")
     private String token;
 
+    @Value("${agentic.tools.timeout-ms:10000}")
+    private long timeoutMs;
+
     public ConfluenceClient(Builder builder) {
     super();
     this.builder = builder;
   }
 
-	public String search(String query) {
+	public String search(String query, Deadline deadline) {
 
         log.info("Searching Confluence for query={}", query);
 
-        return builder.build()
+        return deadline.cap(Duration.ofMillis(timeoutMs)).bound(builder.build()
                 .get()
                 .uri(baseUrl + "/rest/api/search?cql=text~\"" + query + "\"")
                 .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
                 .retrieve()
-                .bodyToMono(String.class)
-                .timeout(java.time.Duration.ofSeconds(10))
+                .bodyToMono(String.class), "Confluence search")
                 .doOnError(e -> log.error("Confluence API failed", e))
                 .block();
     }
@@ -4,6 +4,7 @@ import org.springframework.stereotype.Component;
 
 import com.bofa.agentic.executor.AgentTool;
 import com.bofa.agentic.executor.ExecutionResult;
+import com.bofa.agentic.model.Deadline;
 
 @Component
 public class ConfluenceTool implements AgentTool{
@@ -21,7 +22,7 @@ public class ConfluenceTool implements AgentTool{
 	}
 
 	@Override
-    public ExecutionResult execute(String input) {
+    public ExecutionResult execute(String input, Deadline deadline) {
         long startTimeMs = System.currentTimeMillis();
         try {
             String query = input;
@@ -35,7 +36,7 @@ public class ConfluenceTool implements AgentTool{
                 );
             }
 
-            String result = client.search(query);
+            String result = client.search(query, deadline);
             return new ExecutionResult(
                     name(),
                     result,
@@ -1,11 +1,17 @@
 package com.bofa.agentic.tools.jira;
 
+import java.time.Duration;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import com.bofa.agentic.model.Deadline;
+
+@Component
 public class JiraClient {
 	private static final Logger log = LoggerFactory.getLogger(JiraClient.class);
 	
@@ -21,15 +27,22 @@ public class JiraClient {
     @Value("${jira.token}")
     private String token;
 
+    @Value("${agentic.tools.timeout-ms:10000}")
+    private long timeoutMs;
+
     public String getIssue(String issueKey) {
+        return getIssue(issueKey, Deadline.none());
+    }
+
+    public String getIssue(String issueKey, Deadline deadline) {
 
-        return webClientBuilder.build()
+        return deadline.cap(Duration.ofMillis(timeoutMs)).bound(webClientBuilder.build()
                 .get()
-                .uri(baseUrl + "/rest/api/3/issue/" + issueKey)
+                // Expanded, so the key is encoded as a single path segment
+                .uri(baseUrl, uri -> uri.path("/rest/api/3/issue/{key}").build(issueKey))
                 .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
                 .retrieve()
-                .bodyToMono(String.class)
-                .timeout(java.time.Duration.ofSeconds(10))
+                .bodyToMono(String.class), "Jira lookup")
                 .doOnError(e -> log.error("Jira API failed", e))
                 .block();
     }
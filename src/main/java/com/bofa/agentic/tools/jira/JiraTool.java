@@ -1,12 +1,19 @@
 package com.bofa.agentic.tools.jira;
 
-import java.util.Map;
+import java.util.regex.Pattern;
 
+import org.springframework.stereotype.Component;
+
+import com.bofa.agentic.executor.AgentTool;
 import com.bofa.agentic.executor.ExecutionResult;
-import com.bofa.agentic.tools.AgentTool;
+import com.bofa.agentic.model.Deadline;
 
+@Component
 public class JiraTool implements AgentTool {
 
+	    // The key comes from the planner (an LLM); anything else must not reach the Jira API
+	    static final Pattern ISSUE_KEY = Pattern.compile("^[A-Z][A-Z0-9]+-\\d+$");
+
 	    private final JiraClient jiraClient;
 	    
 	    public JiraTool(JiraClient jiraClient) {
@@ -18,13 +25,13 @@ public class JiraTool implements AgentTool {
 	    }
 
 	    @Override
-	    public ExecutionResult execute(Map<String, Object> input) {
+	    public ExecutionResult execute(String input, Deadline deadline) {
 			long startTimeMs = System.currentTimeMillis();
 
 			try {
-				String issueKey = (String) input.get("issueKey");
+				String issueKey = input;
 
-				if (issueKey == null) {
+				if (issueKey == null || issueKey.isBlank()) {
 					return new ExecutionResult(
 							name(),
 							"Missing required field: issueKey",
@@ -34,7 +41,17 @@ public class JiraTool implements AgentTool {
 					);
 				}
 
-				String response = jiraClient.getIssue(issueKey);
+				if (!ISSUE_KEY.matcher(issueKey.trim()).matches()) {
+					return new ExecutionResult(
+							name(),
+							"Invalid issueKey: expected a Jira key such as ABC-123",
+							false,
+							true,
+							System.currentTimeMillis() - startTimeMs
+					);
+				}
+
+				String response = jiraClient.getIssue(issueKey.trim(), deadline);
 
 				return new ExecutionResult(
 						name(),
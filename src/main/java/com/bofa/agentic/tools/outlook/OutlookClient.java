@@ -1,5 +1,7 @@
 package com.bofa.agentic.tools.outlook;
 
+import java.time.Duration;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -8,6 +10,8 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClient.Builder;
 
+import com.bofa.agentic.model.Deadline;
+
 @Component
 public class OutlookClient {
 	
@@ -26,18 +30,20 @@ public class OutlookClient {
     @Value("${outlook.token}")
     private String token;
 
-    public String searchEmails(String keyword) {
+    @Value("${agentic.tools.timeout-ms:10000}")
+    private long timeoutMs;
+
+    public String searchEmails(String keyword, Deadline deadline) {
 
         log.info("Searching Outlook emails for keyword={}", keyword);
 
-        return builder.build()
+        return deadline.cap(Duration.ofMillis(timeoutMs)).bound(builder.build()
                 .get()
                 .uri(baseUrl + "/v1.0/me/messages?$search=\"" + keyword + "\"")
                 .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
                 .header("ConsistencyLevel", "eventual")
                 .retrieve()
-                .bodyToMono(String.class)
-                .timeout(java.time.Duration.ofSeconds(10))
+                .bodyToMono(String.class), "Outlook search")
                 .doOnError(e -> log.error("Outlook API failed", e))
                 .block();
     }
@@ -4,6 +4,7 @@ import org.springframework.stereotype.Component;
 
 import com.bofa.agentic.executor.AgentTool;
 import com.bofa.agentic.executor.ExecutionResult;
+import com.bofa.agentic.model.Deadline;
 
 @Component
 public class OutlookTool implements AgentTool{
@@ -22,7 +23,7 @@ public class OutlookTool implements AgentTool{
 	}
 
 	@Override
-    public ExecutionResult execute(String input) {
+    public ExecutionResult execute(String input, Deadline deadline) {
         long startTimeMs = System.currentTimeMillis();
         try {
             String keyword = input;
@@ -36,7 +37,7 @@ public class OutlookTool implements AgentTool{
                 );
             }
 
-            String result = client.searchEmails(keyword);
+            String result = client.searchEmails(keyword, deadline);
             return new ExecutionResult(
                     name(),
                     result,
@@ -0,0 +1,41 @@
+package com.bofa.agentic.util;
+
+/**
+ * Embedding arithmetic for in-process similarity search
+ */
+public final class VectorMath {
+
+	private VectorMath() {
+	}
+
+	/**
+	 * Unit-length copy of {@code vector} (all zeros stays all zeros), so
+	 * cosine similarity becomes a plain {@link #dot}
+	 */
+	public static float[] normalize(float[] vector) {
+		double norm = Math.sqrt(dot(vector, vector));
+		float[] unit = new float[vector.length];
+		if (norm == 0) {
+			return unit;
+		}
+		for (int i = 0; i < vector.length; i++) {
+			unit[i] = (float) (vector[i] / norm);
+		}
+		return unit;
+	}
+
+	/**
+	 * Dot product; 0 for vectors of different dimensions (e.g. from
+	 * different embedding models)
+	 */
+	public static double dot(float[] a, float[] b) {
+		if (a.length != b.length) {
+			return 0;
+		}
+		double sum = 0;
+		for (int i = 0; i < a.length; i++) {
+			sum += a[i] * b[i];
+		}
+		return sum;
+	}
+}
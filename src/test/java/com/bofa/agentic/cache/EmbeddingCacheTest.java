@@ -0,0 +1,165 @@
+package com.bofa.agentic.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class EmbeddingCacheTest {
+
+	private static final String MODEL = "text-embedding-3-small";
+
+	@TempDir
+	Path dir;
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	@Test
+	void vectorsAreKeyedByModelDimensionsAndText() throws IOException {
+		EmbeddingCache cache = cache(1, 1);
+		EmbeddingCache.persisting(() -> cache.putAll(MODEL, 0, List.of("checkout latency"),
+				List.of(new float[] { 0.1f, 0.2f, 0.3f })));
+
+		assertArrayEquals(new float[] { 0.1f, 0.2f, 0.3f }, cache.get(MODEL, 0, "checkout latency"));
+		assertNull(cache.get(MODEL, 0, "checkout latency!"));
+		assertNull(cache.get("text-embedding-3-large", 0, "checkout latency"));
+		assertNull(cache.get(MODEL, 256, "checkout latency"));
+		assertEquals(1, cache.hits());
+		assertEquals(3, cache.misses());
+		cache.close();
+	}
+
+	@Test
+	void embeddingsSurviveARestart() throws IOException {
+		EmbeddingCache before = cache(1, 1);
+		EmbeddingCache.persisting(() -> before.putAll(MODEL, 0, List.of("a", "b"),
+				List.of(new float[] { 1f }, new float[] { 2f, 3f })));
+		before.close();
+
+		EmbeddingCache after = cache(1, 1);
+
+		assertArrayEquals(new float[] { 1f }, after.get(MODEL, 0, "a"));
+		assertArrayEquals(new float[] { 2f, 3f }, after.get(MODEL, 0, "b"));
+		assertEquals(2.0, registry.get("agentic.embedding.cache.size").gauge().value());
+		after.close();
+	}
+
+	@Test
+	void theFileGrowsUpToItsMaximumSize() throws IOException {
+		EmbeddingCache cache = cache(1, 4);
+		// 300 vectors of 1536 floats: about 1.8 MB
+		EmbeddingCache.persisting(() -> cache.putAll(MODEL, 0, texts(300), vectors(300, 1536)));
+
+		assertArrayEquals(vectors(300, 1536).get(299), cache.get(MODEL, 0, "text 299"));
+		assertEquals(2 * 1024 * 1024, Files.size(dir.resolve("embeddings.bin")));
+		cache.close();
+	}
+
+	@Test
+	void aFullFileStopsCachingWithoutFailing() throws IOException {
+		EmbeddingCache cache = cache(1, 1);
+		EmbeddingCache.persisting(() -> cache.putAll(MODEL, 0, texts(300), vectors(300, 1536)));
+
+		assertNotNull(cache.get(MODEL, 0, "text 0"));
+		assertNull(cache.get(MODEL, 0, "text 299"));
+		cache.close();
+	}
+
+	@Test
+	void recoveryStopsAtATornRecord() throws IOException {
+		EmbeddingCache before = cache(1, 1);
+		EmbeddingCache.persisting(() -> before.putAll(MODEL, 0, texts(3), vectors(3, 4)));
+		before.close();
+		// Records are 40 header bytes plus 16 of floats after the 8-byte file header;
+		// flip a float of the second one
+		try (FileChannel file = FileChannel.open(dir.resolve("embeddings.bin"), StandardOpenOption.WRITE)) {
+			file.write(ByteBuffer.wrap(new byte[] { 0x7f }), 8 + 56 + 40);
+		}
+
+		EmbeddingCache after = cache(1, 1);
+
+		assertNotNull(after.get(MODEL, 0, "text 0"));
+		assertNull(after.get(MODEL, 0, "text 1"));
+		assertNull(after.get(MODEL, 0, "text 2"));
+		// Appends continue after the last good record
+		EmbeddingCache.persisting(() -> after.putAll(MODEL, 0, List.of("text 1"), List.of(new float[] { 9f })));
+		assertArrayEquals(new float[] { 9f }, after.get(MODEL, 0, "text 1"));
+		after.close();
+	}
+
+	@Test
+	void queryEmbeddingsStayInMemory() throws IOException {
+		EmbeddingCache before = cache(1, 1);
+		before.putAll(MODEL, 0, List.of("why did checkout fail?"), List.of(new float[] { 1f }));
+
+		assertArrayEquals(new float[] { 1f }, before.get(MODEL, 0, "why did checkout fail?"));
+		assertEquals(0.0, registry.get("agentic.embedding.cache.size").gauge().value());
+		before.close();
+
+		EmbeddingCache after = cache(1, 1);
+		assertNull(after.get(MODEL, 0, "why did checkout fail?"));
+		after.close();
+	}
+
+	@Test
+	void queryEmbeddingsAreEvictedLeastRecentlyUsedFirst() throws IOException {
+		EmbeddingCache cache = cache(1, 1);
+		cache.putAll(MODEL, 0, List.of("a", "b"), List.of(new float[] { 1f }, new float[] { 2f }));
+		cache.get(MODEL, 0, "a");
+
+		cache.putAll(MODEL, 0, List.of("c"), List.of(new float[] { 3f }));
+
+		assertNotNull(cache.get(MODEL, 0, "a"));
+		assertNull(cache.get(MODEL, 0, "b"));
+		assertNotNull(cache.get(MODEL, 0, "c"));
+		cache.close();
+	}
+
+	@Test
+	void aDisabledCacheNeverCreatesItsFile() throws IOException {
+		EmbeddingCache cache = new EmbeddingCache(registry, false, MODEL, 0,
+				dir.resolve("embeddings.bin").toString(), 1, 1, 10);
+		EmbeddingCache.persisting(() -> cache.putAll(MODEL, 0, List.of("a"), List.of(new float[] { 1f })));
+
+		assertNull(cache.get(MODEL, 0, "a"));
+		assertFalse(Files.exists(dir.resolve("embeddings.bin")));
+	}
+
+	private EmbeddingCache cache(int capacityMb, int maxSizeMb) throws IOException {
+		return new EmbeddingCache(registry, true, MODEL, 0, dir.resolve("embeddings.bin").toString(), capacityMb,
+				maxSizeMb, 2);
+	}
+
+	private static List<String> texts(int count) {
+		List<String> texts = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			texts.add("text " + i);
+		}
+		return texts;
+	}
+
+	private static List<float[]> vectors(int count, int dimensions) {
+		List<float[]> vectors = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			float[] vector = new float[dimensions];
+			vector[i % dimensions] = i;
+			vectors.add(vector);
+		}
+		return vectors;
+	}
+}
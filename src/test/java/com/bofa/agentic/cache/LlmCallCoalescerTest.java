@@ -0,0 +1,206 @@
+package com.bofa.agentic.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import com.bofa.agentic.exception.AgentException;
+import com.bofa.agentic.model.Deadline;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class LlmCallCoalescerTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final CoalescingAdvisor advisor = coalescer(true).advisor("composer");
+
+	@Test
+	void identicalCallsInFlightShareOneModelCall() throws Exception {
+		CountDownLatch called = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ChatClientResponse response = new ChatClientResponse(new ChatResponse(List.of()), Map.of("caller", "leader"));
+		CallAdvisorChain chain = mock(CallAdvisorChain.class);
+		when(chain.nextCall(any())).thenAnswer(call -> {
+			called.countDown();
+			release.await(10, TimeUnit.SECONDS);
+			return response;
+		});
+
+		CompletableFuture<ChatClientResponse> leader = CompletableFuture.supplyAsync(
+				() -> advisor.adviseCall(request("Why did checkout fail?", "leader"), chain));
+		assertTrue(called.await(10, TimeUnit.SECONDS));
+		CompletableFuture<ChatClientResponse> follower = CompletableFuture.supplyAsync(
+				() -> advisor.adviseCall(request("Why did checkout fail?", "follower"), chain));
+		awaitCount("follower", 1);
+		release.countDown();
+
+		assertSame(response, leader.get(10, TimeUnit.SECONDS));
+		ChatClientResponse joined = follower.get(10, TimeUnit.SECONDS);
+		assertSame(response.chatResponse(), joined.chatResponse());
+		assertEquals("follower", joined.context().get("caller"));
+		verify(chain, times(1)).nextCall(any());
+		assertEquals(0.0, registry.get("agentic.llm.in-flight").gauge().value());
+	}
+
+	@Test
+	void aFailedLeaderFailsItsFollowersAndIsForgotten() throws Exception {
+		CountDownLatch called = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CallAdvisorChain chain = mock(CallAdvisorChain.class);
+		when(chain.nextCall(any())).thenAnswer(call -> {
+			called.countDown();
+			release.await(10, TimeUnit.SECONDS);
+			throw new StackOverflowError("model client");
+		}).thenReturn(new ChatClientResponse(new ChatResponse(List.of()), Map.of()));
+
+		CompletableFuture<ChatClientResponse> leader = CompletableFuture.supplyAsync(
+				() -> advisor.adviseCall(request("q", "leader"), chain));
+		assertTrue(called.await(10, TimeUnit.SECONDS));
+		CompletableFuture<ChatClientResponse> follower = CompletableFuture.supplyAsync(
+				() -> advisor.adviseCall(request("q", "follower"), chain));
+		awaitCount("follower", 1);
+		release.countDown();
+
+		Exception leaderFailure = assertThrows(Exception.class, () -> leader.get(10, TimeUnit.SECONDS));
+		Exception followerFailure = assertThrows(Exception.class, () -> follower.get(10, TimeUnit.SECONDS));
+		assertTrue(leaderFailure.getCause() instanceof StackOverflowError);
+		assertTrue(followerFailure.getCause() instanceof StackOverflowError);
+
+		// The failed call is no longer in flight, so the next one goes to the model
+		advisor.adviseCall(request("q", "retry"), chain);
+		verify(chain, times(2)).nextCall(any());
+	}
+
+	@Test
+	void followerGivesUpOnAStuckLeaderAtItsDeadline() throws Exception {
+		CountDownLatch called = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CallAdvisorChain chain = mock(CallAdvisorChain.class);
+		when(chain.nextCall(any())).thenAnswer(call -> {
+			called.countDown();
+			release.await(10, TimeUnit.SECONDS);
+			return new ChatClientResponse(new ChatResponse(List.of()), Map.of());
+		});
+
+		CompletableFuture<ChatClientResponse> leader = CompletableFuture.supplyAsync(
+				() -> advisor.adviseCall(request("q", "leader"), chain));
+		assertTrue(called.await(10, TimeUnit.SECONDS));
+		ChatClientRequest follower = new ChatClientRequest(new Prompt("q"),
+				Map.of("caller", "follower", CoalescingAdvisor.DEADLINE, Deadline.after(Duration.ofMillis(50))));
+
+		AgentException error = assertThrows(AgentException.class, () -> advisor.adviseCall(follower, chain));
+		assertEquals("DEADLINE_EXCEEDED", error.getErrorCode());
+		release.countDown();
+		leader.get(10, TimeUnit.SECONDS);
+		verify(chain, times(1)).nextCall(any());
+	}
+
+	@Test
+	void followerWithTimeLeftMakesItsOwnCallAfterTheMaxWait() throws Exception {
+		CoalescingAdvisor impatient = coalescer(true, 50).advisor("composer");
+		CountDownLatch called = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ChatClientResponse own = new ChatClientResponse(new ChatResponse(List.of()), Map.of("caller", "follower"));
+		CallAdvisorChain chain = mock(CallAdvisorChain.class);
+		when(chain.nextCall(any())).thenAnswer(call -> {
+			called.countDown();
+			release.await(10, TimeUnit.SECONDS);
+			return new ChatClientResponse(new ChatResponse(List.of()), Map.of());
+		}).thenReturn(own);
+
+		CompletableFuture<ChatClientResponse> leader = CompletableFuture.supplyAsync(
+				() -> impatient.adviseCall(request("q", "leader"), chain));
+		assertTrue(called.await(10, TimeUnit.SECONDS));
+
+		assertSame(own, impatient.adviseCall(request("q", "follower"), chain));
+		assertEquals(1.0, registry.get("agentic.llm.coalescing").tag("role", "fallback").counter().count());
+		release.countDown();
+		leader.get(10, TimeUnit.SECONDS);
+	}
+
+	@Test
+	void streamsAreReplayedToCallersThatJoin() {
+		StreamAdvisorChain chain = mock(StreamAdvisorChain.class);
+		when(chain.nextStream(any())).thenReturn(Flux.just(token("Check"), token("out"))
+				.delayElements(Duration.ofMillis(20)));
+
+		List<List<ChatClientResponse>> both = Mono.zip(
+				advisor.adviseStream(request("q", "leader"), chain).collectList(),
+				advisor.adviseStream(request("q", "follower"), chain).collectList())
+				.map(results -> List.of(results.getT1(), results.getT2()))
+				.block(Duration.ofSeconds(10));
+
+		assertEquals(2, both.get(0).size());
+		assertEquals(2, both.get(1).size());
+		assertEquals("follower", both.get(1).get(0).context().get("caller"));
+		verify(chain, times(1)).nextStream(any());
+		assertEquals(0.0, registry.get("agentic.llm.in-flight").gauge().value());
+	}
+
+	@Test
+	void disabledCoalescingCallsTheModelEveryTime() {
+		CoalescingAdvisor disabled = coalescer(false).advisor("planner");
+		CallAdvisorChain chain = mock(CallAdvisorChain.class);
+		when(chain.nextCall(any())).thenReturn(new ChatClientResponse(new ChatResponse(List.of()), Map.of()));
+
+		disabled.adviseCall(request("q", "a"), chain);
+		disabled.adviseCall(request("q", "b"), chain);
+
+		verify(chain, times(2)).nextCall(any());
+	}
+
+	private LlmCallCoalescer coalescer(boolean enabled) {
+		return coalescer(enabled, 30_000);
+	}
+
+	private LlmCallCoalescer coalescer(boolean enabled, long maxWaitMs) {
+		ChatModel chatModel = mock(ChatModel.class);
+		when(chatModel.getDefaultOptions()).thenReturn(ChatOptions.builder().model("gpt-4o-mini").build());
+		return new LlmCallCoalescer(chatModel, registry, enabled, maxWaitMs);
+	}
+
+	private void awaitCount(String role, double count) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (registry.find("agentic.llm.coalescing").tag("role", role).counter() == null
+				|| registry.get("agentic.llm.coalescing").tag("role", role).counter().count() < count) {
+			assertTrue(System.nanoTime() < deadline, "no " + role + " joined");
+			Thread.sleep(5);
+		}
+	}
+
+	private static ChatClientRequest request(String question, String caller) {
+		return new ChatClientRequest(new Prompt(question), Map.of("caller", caller));
+	}
+
+	private static ChatClientResponse token(String text) {
+		return new ChatClientResponse(new ChatResponse(List.of(new Generation(new AssistantMessage(text)))),
+				Map.of("caller", "leader"));
+	}
+}
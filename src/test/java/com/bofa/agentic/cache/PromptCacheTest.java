@@ -0,0 +1,108 @@
+package com.bofa.agentic.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PromptCacheTest {
+
+	private static final ChatOptions DEFAULTS = ChatOptions.builder().model("gpt-4o-mini").temperature(0.0).build();
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	@Test
+	void digestCoversModelOptionsAndEveryMessage() {
+		String digest = PromptDigest.of(prompt("system", "question", null), DEFAULTS);
+
+		assertEquals(digest, PromptDigest.of(prompt("system", "question", null), DEFAULTS));
+		assertNotEquals(digest, PromptDigest.of(prompt("system", "other question", null), DEFAULTS));
+		assertNotEquals(digest, PromptDigest.of(prompt("system!", "question", null), DEFAULTS));
+		assertNotEquals(digest, PromptDigest.of(prompt("system", "question",
+				ChatOptions.builder().model("gpt-4o").build()), DEFAULTS));
+		// Field boundaries are length-prefixed, so moving text between messages changes the digest
+		assertNotEquals(PromptDigest.of(prompt("ab", "c", null), DEFAULTS),
+				PromptDigest.of(prompt("a", "bc", null), DEFAULTS));
+		// A request option equal to the model default is the same prompt
+		assertEquals(digest, PromptDigest.of(prompt("system", "question",
+				ChatOptions.builder().temperature(0.0).build()), DEFAULTS));
+	}
+
+	@Test
+	void onlyDeterministicPromptsAreCached() {
+		PromptCache cache = cache(true, 10, 60, "");
+
+		assertNotNull(cache.keyOf(prompt("system", "question", null)));
+		assertNull(cache.keyOf(prompt("system", "question", ChatOptions.builder().temperature(0.7).build())));
+		assertNull(cache(false, 10, 60, "").keyOf(prompt("system", "question", null)));
+	}
+
+	@Test
+	void leastRecentlyUsedEntryIsEvicted() {
+		PromptCache cache = cache(true, 2, 60, "");
+		cache.put("a", "A");
+		cache.put("b", "B");
+		cache.get("a");
+		cache.put("c", "C");
+
+		assertEquals("A", cache.get("a"));
+		assertNull(cache.get("b"));
+		assertEquals("C", cache.get("c"));
+		assertEquals(2.0, registry.get("agentic.llm.cache.size").gauge().value());
+	}
+
+	@Test
+	void expiredEntriesAreNotServed() throws InterruptedException {
+		PromptCache cache = cache(true, 10, 0, "");
+		cache.put("a", "A");
+		// A zero ttl expires an entry once its creation millisecond has passed
+		Thread.sleep(5);
+
+		assertNull(cache.get("a"));
+	}
+
+	@Test
+	void liveEntriesSurviveARestart(@TempDir Path dir) {
+		String file = dir.resolve("prompt-cache.json").toString();
+		PromptCache before = cache(true, 10, 60, file);
+		before.put("a", "A");
+		before.put("b", "B");
+		before.save();
+
+		PromptCache after = cache(true, 10, 60, file);
+
+		assertEquals("A", after.get("a"));
+		assertEquals("B", after.get("b"));
+		assertEquals(2, after.size());
+	}
+
+	private PromptCache cache(boolean enabled, int maxEntries, long ttlMinutes, String file) {
+		ChatModel chatModel = mock(ChatModel.class);
+		when(chatModel.getDefaultOptions()).thenReturn(DEFAULTS);
+		PromptCache cache = new PromptCache(chatModel, new ObjectMapper(), registry, enabled, 0.0, maxEntries,
+				ttlMinutes, file);
+		cache.start();
+		return cache;
+	}
+
+	private static Prompt prompt(String system, String user, ChatOptions options) {
+		return new Prompt(List.of(new SystemMessage(system), new UserMessage(user)), options);
+	}
+}
@@ -0,0 +1,137 @@
+package com.bofa.agentic.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.bofa.agentic.rag.EmbeddingService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SemanticAnswerCacheTest {
+
+	// "restart" and "reboot" are near-duplicates; "billing" is unrelated
+	private static final Map<String, float[]> EMBEDDINGS = Map.of(
+			"how do I restart the gateway", new float[] { 1f, 0f, 0f },
+			"how do I reboot the gateway", new float[] { 0.99f, 0.14f, 0f },
+			"who owns billing", new float[] { 0f, 0f, 1f },
+			"who runs billing", new float[] { 0f, 0.1f, 1f },
+			"status of INC-1234", new float[] { 0f, 1f, 0f },
+			"status of INC-1235", new float[] { 0f, 1f, 0.01f });
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	@Test
+	void similarQuestionGetsTheStoredAnswer() {
+		SemanticAnswerCache cache = cache(10, 10);
+
+		SemanticAnswerCache.Lookup miss = cache.lookup("u1", "how do I restart the gateway");
+		assertFalse(miss.isHit());
+		cache.put(miss, "Run the restart runbook", 1200);
+
+		SemanticAnswerCache.Lookup hit = cache.lookup("u1", "how do I reboot the gateway");
+		assertTrue(hit.isHit());
+		assertEquals("Run the restart runbook", hit.answer());
+		assertFalse(cache.lookup("u1", "who owns billing").isHit());
+
+		assertEquals(1.0, registry.counter("agentic.answer-cache.lookups", "outcome", "hit").count());
+		assertEquals(2.0, registry.counter("agentic.answer-cache.lookups", "outcome", "miss").count());
+		assertEquals(1200.0, registry.timer("agentic.answer-cache.saved").totalTime(
+				TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	void oldestAnswerIsEvictedWhenFull() {
+		SemanticAnswerCache cache = cache(10, 1);
+
+		cache.put(cache.lookup("u1", "how do I restart the gateway"), "restart", 1);
+		cache.put(cache.lookup("u1", "who owns billing"), "billing team", 1);
+
+		assertFalse(cache.lookup("u1", "how do I reboot the gateway").isHit());
+		assertEquals("billing team", cache.lookup("u1", "who runs billing").answer());
+	}
+
+	@Test
+	void invalidationDropsAnswersAndRejectsOnesComputedBeforeIt() {
+		SemanticAnswerCache cache = cache(10, 10);
+		SemanticAnswerCache.Lookup before = cache.lookup("u1", "who owns billing");
+		cache.put(cache.lookup("u1", "how do I restart the gateway"), "restart", 1);
+
+		cache.invalidateAll();
+		// Computed from the old index, stored after the re-index
+		cache.put(before, "billing team", 1);
+
+		assertFalse(cache.lookup("u1", "how do I reboot the gateway").isHit());
+		assertFalse(cache.lookup("u1", "who runs billing").isHit());
+	}
+
+	@Test
+	void expiredAnswersAreNotServed() {
+		SemanticAnswerCache cache = cache(0, 10);
+
+		cache.put(cache.lookup("u1", "how do I restart the gateway"), "restart", 1);
+
+		assertFalse(cache.lookup("u1", "how do I restart the gateway").isHit());
+	}
+
+	@Test
+	void failedEmbeddingIsAMissThatCannotBeStored() {
+		EmbeddingService failing = mock(EmbeddingService.class);
+		when(failing.embed(anyString())).thenThrow(new IllegalStateException("embedding API down"));
+		SemanticAnswerCache cache = new SemanticAnswerCache(failing, registry, true, 0.95, 10, 10);
+
+		SemanticAnswerCache.Lookup lookup = cache.lookup("u1", "how do I restart the gateway");
+		cache.put(lookup, "restart", 1);
+
+		assertSame(SemanticAnswerCache.Lookup.NONE, lookup);
+		assertNull(lookup.embedding());
+		assertEquals(1.0, registry.counter("agentic.answer-cache.lookups", "outcome", "error").count());
+	}
+
+	@Test
+	void answersAreOnlyServedToTheUserWhoAsked() {
+		SemanticAnswerCache cache = cache(10, 10);
+
+		cache.put(cache.lookup("u1", "how do I restart the gateway"), "Run the restart runbook", 1);
+
+		assertFalse(cache.lookup("u2", "how do I reboot the gateway").isHit());
+		assertTrue(cache.lookup("u1", "how do I reboot the gateway").isHit());
+	}
+
+	@Test
+	void questionsAboutDifferentTicketsDoNotMatch() {
+		SemanticAnswerCache cache = cache(10, 10);
+
+		cache.put(cache.lookup("u1", "status of INC-1234"), "INC-1234 is resolved", 1);
+
+		assertFalse(cache.lookup("u1", "status of INC-1235").isHit());
+		assertEquals("INC-1234 is resolved", cache.lookup("u1", "status of INC-1234").answer());
+	}
+
+	@Test
+	void requestWithoutAUserIsNotCached() {
+		SemanticAnswerCache cache = cache(10, 10);
+
+		SemanticAnswerCache.Lookup lookup = cache.lookup(null, "how do I restart the gateway");
+		cache.put(lookup, "restart", 1);
+
+		assertSame(SemanticAnswerCache.Lookup.NONE, lookup);
+		assertFalse(cache.lookup("u1", "how do I restart the gateway").isHit());
+	}
+
+	private SemanticAnswerCache cache(long ttlMinutes, int maxEntries) {
+		EmbeddingService embeddings = mock(EmbeddingService.class);
+		when(embeddings.embed(anyString())).thenAnswer(call -> EMBEDDINGS.get(call.<String>getArgument(0)).clone());
+		return new SemanticAnswerCache(embeddings, registry, true, 0.95, ttlMinutes, maxEntries);
+	}
+}
@@ -0,0 +1,70 @@
+package com.bofa.agentic.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.security.Principal;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import com.bofa.agentic.exception.AgentException;
+import com.bofa.agentic.guardrails.InputGuardrail;
+import com.bofa.agentic.orchestrator.AgentOrchestrator;
+import com.bofa.agentic.ratelimit.FairShareAdmission;
+import com.bofa.agentic.streaming.StreamEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+class ChatControllerTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final AgentOrchestrator orchestrator = mock(AgentOrchestrator.class);
+	private final FairShareAdmission admission = new FairShareAdmission(registry, true, 10, 1, 20, 5000, 60, 0, 1.0,
+			"", 100);
+	private final ChatController controller = new ChatController(orchestrator, mock(InputGuardrail.class),
+			admission, Schedulers.immediate(), 8000, 30000);
+
+	@Test
+	void resumeLooksUpTheAuthenticatedUsersSession() {
+		when(orchestrator.resume(eq("alice"), eq("s1"), any())).thenReturn(Flux.just(StreamEvent.token("done")));
+		Principal alice = () -> "alice";
+
+		controller.resume("s1", alice, null).blockLast(Duration.ofSeconds(10));
+
+		verify(orchestrator).resume(eq("alice"), eq("s1"), any());
+		// The ticket is released once the resumed request is done
+		assertEquals(0.0, registry.get("agentic.admission.active").gauge().value());
+	}
+
+	@Test
+	void resumeWaitsForAdmissionLikeChat() {
+		when(orchestrator.resume(eq("bob"), eq("s1"), any())).thenReturn(Flux.just(StreamEvent.token("done")));
+		FairShareAdmission.Ticket running = admission.admit("bob").block();
+		Principal bob = () -> "bob";
+
+		controller.resume("s1", bob, null).subscribe();
+		verify(orchestrator, never()).resume(any(), any(), any());
+
+		running.release();
+		verify(orchestrator).resume(eq("bob"), eq("s1"), any());
+	}
+
+	@Test
+	void resumeWithoutAPrincipalIsRefused() {
+		AgentException error = assertThrows(AgentException.class,
+				() -> controller.resume("s1", null, null).blockLast(Duration.ofSeconds(10)));
+
+		assertEquals("UNAUTHENTICATED", error.getErrorCode());
+		verify(orchestrator, never()).resume(any(), any(), any());
+		assertEquals(0.0, registry.get("agentic.admission.active").gauge().value());
+	}
+}
@@ -0,0 +1,148 @@
+package com.bofa.agentic.executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.bofa.agentic.model.Deadline;
+import com.bofa.agentic.model.ToolCall;
+import com.bofa.agentic.orchestrator.ExecutionPlan;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+
+class ToolExecutorTest {
+
+	private final ExecutorService pool = Executors.newCachedThreadPool();
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	@AfterEach
+	void shutdown() {
+		pool.shutdownNow();
+	}
+
+	@Test
+	void releasedEarlyCallIsInterrupted() throws Exception {
+		BlockingTool tool = new BlockingTool();
+		ToolExecutor executor = executor(tool);
+
+		executor.open("r1", Deadline.none());
+		executor.dispatch("r1", new ToolCall("blocking-tool", "ABC-1"));
+		assertTrue(tool.started.await(5, TimeUnit.SECONDS), "early call never started");
+
+		executor.release("r1");
+
+		assertTrue(tool.interrupted.await(5, TimeUnit.SECONDS), "released call kept running");
+		assertEquals(1.0, registry.counter("agentic.tool.early-dispatch", "outcome", "wasted").count());
+	}
+
+	@Test
+	void earlyCallStopsAtTheRequestDeadline() throws Exception {
+		BlockingTool tool = new BlockingTool();
+		ToolExecutor executor = executor(tool);
+
+		executor.open("r1", Deadline.after(Duration.ofMillis(200)));
+		executor.dispatch("r1", new ToolCall("blocking-tool", "ABC-1"));
+
+		assertTrue(tool.interrupted.await(5, TimeUnit.SECONDS), "call outlived the request deadline");
+	}
+
+	@Test
+	void adoptedCallIsNotRunTwice() throws Exception {
+		AtomicInteger runs = new AtomicInteger();
+		AgentTool tool = tool("echo-tool", input -> {
+			runs.incrementAndGet();
+			return "echo " + input;
+		});
+		ToolExecutor executor = executor(tool);
+		ToolCall call = new ToolCall("echo-tool", "x");
+
+		executor.open("r1", Deadline.none());
+		executor.dispatch("r1", call);
+		String result = executor.executeAsync("r1", new ExecutionPlan(false, List.of(call)), Deadline.none())
+				.get(5, TimeUnit.SECONDS);
+
+		assertEquals("[echo-tool] -> echo x", result);
+		assertEquals(1, runs.get());
+		assertEquals(1.0, registry.counter("agentic.tool.early-dispatch", "outcome", "adopted").count());
+	}
+
+	@Test
+	void dispatchIsIgnoredForRequestsThatAreNotOpen() throws Exception {
+		BlockingTool tool = new BlockingTool();
+		ToolExecutor executor = executor(tool);
+
+		executor.dispatch("unknown", new ToolCall("blocking-tool", "ABC-1"));
+
+		assertEquals(false, tool.started.await(200, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	void callStillRunningAtTheDeadlineIsReportedAndStopped() throws Exception {
+		BlockingTool tool = new BlockingTool();
+		ToolExecutor executor = executor(tool);
+
+		String result = executor.executeAsync(new ExecutionPlan(false, List.of(new ToolCall("blocking-tool", "x"))),
+				Deadline.after(Duration.ofMillis(200))).get(5, TimeUnit.SECONDS);
+
+		assertEquals("[blocking-tool] -> Timed out: request deadline exceeded", result);
+		assertTrue(tool.interrupted.await(5, TimeUnit.SECONDS), "timed-out call kept running");
+	}
+
+	private ToolExecutor executor(AgentTool... tools) {
+		ToolExecutor executor = new ToolExecutor(List.of(tools), new ParallelExecutor(pool), registry,
+				ObservationRegistry.NOOP);
+		executor.init();
+		return executor;
+	}
+
+	private static AgentTool tool(String name, Function<String, String> body) {
+		return new AgentTool() {
+			@Override
+			public String name() {
+				return name;
+			}
+
+			@Override
+			public ExecutionResult execute(String input, Deadline deadline) {
+				return new ExecutionResult(name, body.apply(input), true, false, 0);
+			}
+		};
+	}
+
+	/** Blocks like a client call until interrupted */
+	private static final class BlockingTool implements AgentTool {
+
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch interrupted = new CountDownLatch(1);
+
+		@Override
+		public String name() {
+			return "blocking-tool";
+		}
+
+		@Override
+		public ExecutionResult execute(String input, Deadline deadline) {
+			started.countDown();
+			try {
+				new CountDownLatch(1).await();
+				return new ExecutionResult(name(), "done", true, false, 0);
+			} catch (InterruptedException e) {
+				interrupted.countDown();
+				Thread.currentThread().interrupt();
+				return new ExecutionResult(name(), "interrupted", false, true, 0);
+			}
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package com.bofa.agentic.graph;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.bofa.agentic.model.ChatRequest;
+import com.bofa.agentic.model.ToolCall;
+import com.bofa.agentic.orchestrator.ExecutionPlan;
+
+/**
+ * Compares one full request walk (planner → rag → tools → composer → guard)
+ * on the copy-on-write {@link LegacyAgentState} versus the persistent
+ * {@link AgentState}, both chaining with* calls and using batched transitions.
+ *
+ * Run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.bofa.agentic.graph.AgentStateBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AgentStateBenchmark {
+
+	/** Metadata entries already on the state when the walk starts */
+	@Param({ "4", "64" })
+	public int priorMetadata;
+
+	private ChatRequest request;
+	private ExecutionPlan plan;
+	private String evidence;
+	private String toolResults;
+	private String response;
+	private List<String> toolNames;
+
+	private LegacyAgentState legacySeed;
+	private AgentState persistentSeed;
+
+	@Setup
+	public void setUp() {
+		request = new ChatRequest("session", "Why is payment-service timing out?", "user");
+		plan = new ExecutionPlan(true, List.of(new ToolCall("jira-tool", "INC-1001")));
+		evidence = "INCIDENT\n".repeat(2_000);
+		toolResults = "[jira-tool] -> {...}".repeat(500);
+		response = "Answer".repeat(200);
+		toolNames = List.of("jira-tool", "confluence-tool");
+
+		legacySeed = new LegacyAgentState(request);
+		persistentSeed = new AgentState(request);
+		for (int i = 0; i < priorMetadata; i++) {
+			legacySeed = legacySeed.addMetadata("key" + i, i);
+			persistentSeed = persistentSeed.addMetadata("key" + i, i);
+		}
+	}
+
+	@Benchmark
+	public LegacyAgentState legacyChained() {
+		LegacyAgentState s = legacySeed
+				.withRagDecision(true)
+				.withToolsDecision(true, toolNames)
+				.addMetadata("plan", plan)
+				.moveTo("rag");
+		s = s.withRagEvidence(evidence).addMetadata("ragExecuted", true).moveTo("tools");
+		s = s.withToolResults(toolResults).addMetadata("toolsExecuted", true).moveTo("composer");
+		s = s.withResponse(response).addMetadata("responseComposed", true).moveTo("guard");
+		return s.withGuardrailResult(true, null).addMetadata("guardrailConfidence", 0.9).moveTo("END");
+	}
+
+	@Benchmark
+	public AgentState persistentChained() {
+		AgentState s = persistentSeed
+				.withRagDecision(true)
+				.withToolsDecision(true, toolNames)
+				.addMetadata("plan", plan)
+				.moveTo("rag");
+		s = s.withRagEvidence(evidence).addMetadata("ragExecuted", true).moveTo("tools");
+		s = s.withToolResults(toolResults).addMetadata("toolsExecuted", true).moveTo("composer");
+		s = s.withResponse(response).addMetadata("responseComposed", true).moveTo("guard");
+		return s.withGuardrailResult(true, null).addMetadata("guardrailConfidence", 0.9).moveTo("END");
+	}
+
+	@Benchmark
+	public AgentState persistentBatched() {
+		AgentState s = persistentSeed.transition()
+				.ragDecision(true)
+				.toolsDecision(true, toolNames)
+				.metadata("plan", plan)
+				.build()
+				.moveTo("rag");
+		s = s.transition().ragEvidence(evidence).metadata("ragExecuted", true).build().moveTo("tools");
+		s = s.transition().toolResults(toolResults).metadata("toolsExecuted", true).build().moveTo("composer");
+		s = s.transition().response(response).metadata("responseComposed", true).build().moveTo("guard");
+		return s.transition().guardrailResult(true, null).metadata("guardrailConfidence", 0.9).build().moveTo("END");
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder()
+				.include(AgentStateBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+
+}
@@ -0,0 +1,62 @@
+package com.bofa.agentic.graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.bofa.agentic.model.ChatRequest;
+
+class AgentStateCodecTest {
+
+	enum Tier {
+		FAST, STRONG
+	}
+
+	record Escalation(Tier tier, float confidence, List<String> reasons) {
+	}
+
+	record Stamped(String node, Instant at) {
+	}
+
+	@Test
+	void metadataKeepsItsTypesThroughACheckpoint() {
+		AgentState state = new AgentState(new ChatRequest("s1", "Why did checkout fail?", "u1"))
+				.withResponse("Rolled back v2.3")
+				.addMetadata("tier", Tier.STRONG)
+				.addMetadata("escalation", new Escalation(Tier.FAST, 0.42f, List.of("ungrounded")))
+				.addMetadata("attempts", Map.of("composer", 2));
+
+		AgentState restored = AgentStateCodec.decode(AgentStateCodec.encode(state));
+
+		assertEquals("Rolled back v2.3", restored.getResponse());
+		assertEquals(Tier.STRONG, restored.getMetadata().get("tier"));
+		assertEquals(new Escalation(Tier.FAST, 0.42f, List.of("ungrounded")),
+				restored.getMetadata().get("escalation"));
+		assertEquals(Map.of("composer", 2), restored.getMetadata().get("attempts"));
+	}
+
+	@Test
+	void recordThatCannotBeRestoredIsRejectedWhenEncoding() {
+		AgentState state = new AgentState(new ChatRequest("s1", "q", "u1"))
+				.addMetadata("stamp", new Stamped("composer", Instant.EPOCH));
+
+		IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+				() -> AgentStateCodec.encode(state));
+		assertEquals("Cannot checkpoint " + Stamped.class.getName() + ".at of type java.time.Instant",
+				error.getMessage());
+	}
+
+	@Test
+	void otherTopLevelValuesAreKeptAsText() {
+		AgentState state = new AgentState(new ChatRequest("s1", "q", "u1"))
+				.addMetadata("startedAt", Instant.EPOCH);
+
+		assertEquals("1970-01-01T00:00:00Z",
+				AgentStateCodec.decode(AgentStateCodec.encode(state)).getMetadata().get("startedAt"));
+	}
+}
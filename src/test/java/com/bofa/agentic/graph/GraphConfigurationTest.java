@@ -0,0 +1,99 @@
+package com.bofa.agentic.graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.bofa.agentic.graph.nodes.ComposerNode;
+import com.bofa.agentic.graph.nodes.GuardNode;
+import com.bofa.agentic.graph.nodes.PlannerNode;
+import com.bofa.agentic.graph.nodes.RagNode;
+import com.bofa.agentic.graph.nodes.ReflectionNode;
+import com.bofa.agentic.graph.nodes.ToolsNode;
+import com.bofa.agentic.model.ChatRequest;
+
+class GraphConfigurationTest {
+
+	private final PlannerNode planner = mock(PlannerNode.class);
+	private final RagNode rag = mock(RagNode.class);
+	private final ComposerNode composer = mock(ComposerNode.class);
+	private final GuardNode guard = mock(GuardNode.class);
+	private final ReflectionNode reflection = mock(ReflectionNode.class);
+	private final AtomicInteger guardPasses = new AtomicInteger(Integer.MAX_VALUE);
+
+	GraphConfigurationTest() throws Exception {
+		when(rag.execute(any())).thenAnswer(call -> call.<AgentState>getArgument(0).withRagEvidence("INC-1 evidence"));
+		when(composer.execute(any())).thenAnswer(call -> call.<AgentState>getArgument(0).withResponse("answer"));
+		when(reflection.execute(any())).thenAnswer(call -> call.<AgentState>getArgument(0).transition()
+				.response("revised")
+				.incrementRetry()
+				.build());
+		// Ungrounded until the guard has run guardPasses times
+		AtomicInteger guardRuns = new AtomicInteger();
+		when(guard.execute(any())).thenAnswer(call -> {
+			AgentState state = call.getArgument(0);
+			if (guardRuns.incrementAndGet() > guardPasses.get()) {
+				return state.withGuardrailResult(true, null);
+			}
+			return state.transition()
+					.guardrailResult(false, "Answer not grounded in evidence")
+					.metadata("guardrailError", "GROUNDING_GUARDRAIL_BLOCKED")
+					.build();
+		});
+	}
+
+	@Test
+	void ungroundedAnswerIsRevisedUntilTheGuardPasses() throws Exception {
+		planRag(true);
+		guardPasses.set(1);
+
+		AgentState result = execute();
+
+		assertTrue(result.isGuardrailPassed());
+		assertEquals("revised", result.getResponse());
+		assertEquals(List.of("planner", "rag", "composer", "guard", "reflection", "guard"),
+				result.getExecutedNodes());
+	}
+
+	@Test
+	void reflectionStopsAfterMaxRetries() throws Exception {
+		planRag(true);
+
+		AgentState result = execute();
+
+		assertFalse(result.isGuardrailPassed());
+		assertEquals(AgentState.MAX_RETRIES, result.getRetryCount());
+		assertEquals(AgentState.MAX_RETRIES, result.getExecutedNodes().stream()
+				.filter("reflection"::equals)
+				.count());
+		assertEquals("guard", result.getExecutedNodes().get(result.getExecutedNodes().size() - 1));
+	}
+
+	@Test
+	void answerWithoutEvidenceIsNotRevised() throws Exception {
+		planRag(false);
+
+		AgentState result = execute();
+
+		assertFalse(result.isGuardrailPassed());
+		assertEquals(List.of("planner", "composer", "guard"), result.getExecutedNodes());
+	}
+
+	private void planRag(boolean useRag) throws Exception {
+		when(planner.execute(any())).thenAnswer(call -> call.<AgentState>getArgument(0).withRagDecision(useRag));
+	}
+
+	private AgentState execute() throws Exception {
+		StateGraph graph = new GraphConfiguration().agentStateGraph(planner, rag, mock(ToolsNode.class), composer,
+				guard, reflection, 0.3, 0.5, 0.5, 0.85, 1000, false);
+		return new GraphExecutor(graph).execute(new AgentState(new ChatRequest("s", "Why did INC-1 happen?", "u")));
+	}
+}
@@ -0,0 +1,256 @@
+package com.bofa.agentic.graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.bofa.agentic.exception.AgentException;
+import com.bofa.agentic.model.ChatRequest;
+import com.bofa.agentic.model.Deadline;
+import com.bofa.agentic.model.ToolCall;
+import com.bofa.agentic.orchestrator.ExecutionPlan;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Hooks;
+import reactor.core.scheduler.Schedulers;
+
+class GraphExecutorTest {
+
+	@Test
+	void fanOutRunsBranchesConcurrentlyAndMergesResults() throws Exception {
+		// Each branch waits for the other, so this only completes if they overlap
+		CountDownLatch bothStarted = new CountDownLatch(2);
+
+		StateGraph graph = StateGraph.builder()
+				.addNode("start", state -> state)
+				.addNode("rag", state -> {
+					bothStarted.countDown();
+					assertTrue(bothStarted.await(5, TimeUnit.SECONDS), "tools branch never started");
+					return state.withRagEvidence("evidence").addMetadata("ragExecuted", true);
+				})
+				.addNode("tools", state -> {
+					bothStarted.countDown();
+					assertTrue(bothStarted.await(5, TimeUnit.SECONDS), "rag branch never started");
+					return state.withToolResults("[jira-tool] -> ok").addMetadata("toolsExecuted", true);
+				})
+				.addNode("composer", state -> state.withResponse(state.getRagEvidence() + "|" + state.getToolResults()))
+				.addFanOut("research", "rag", "tools")
+				.setEntryPoint("start")
+				.addEdge("start", "research")
+				.addEdge("research", "composer")
+				.addEdge("composer", "END")
+				.build();
+
+		AgentState result = new GraphExecutor(graph).execute(new AgentState(new ChatRequest("s", "q", "u")));
+
+		assertEquals("evidence|[jira-tool] -> ok", result.getResponse());
+		assertEquals(true, result.getMetadata().get("ragExecuted"));
+		assertEquals(true, result.getMetadata().get("toolsExecuted"));
+	}
+
+	@Test
+	void buildRejectsUnboundedCycleAndBoundedCycleTerminates() throws Exception {
+		IllegalStateException error = assertThrows(IllegalStateException.class, () -> retryGraph(false));
+		assertTrue(error.getMessage().startsWith("Unbounded cycle"), error.getMessage());
+
+		AgentState result = new GraphExecutor(retryGraph(true)).execute(new AgentState(new ChatRequest("s", "q", "u")));
+
+		assertEquals(3, result.getRetryCount());
+		assertEquals(7, result.getExecutedNodes().size());
+	}
+
+	@Test
+	void resumeContinuesFromLastCheckpointAfterRestart(@TempDir Path dir) throws Exception {
+		AtomicInteger plannerRuns = new AtomicInteger();
+		AtomicInteger composerRuns = new AtomicInteger();
+		StateGraph graph = StateGraph.builder()
+				.addNode("planner", state -> {
+					plannerRuns.incrementAndGet();
+					return state.withRagDecision(true).addMetadata("plan",
+							new ExecutionPlan(true, List.of(new ToolCall("jira-tool", "INC-1"))));
+				})
+				.addNode("composer", state -> {
+					if (composerRuns.incrementAndGet() == 1) {
+						throw new IllegalStateException("composer unavailable");
+					}
+					return state.withResponse("answer");
+				})
+				.setEntryPoint("planner")
+				.addEdge("planner", "composer")
+				.addEdge("composer", "END")
+				.build();
+
+		Path log = dir.resolve("checkpoints.log");
+		AgentState initial = new AgentState(new ChatRequest("s1", "q", "u"));
+		try (MappedLogCheckpointer checkpointer = new MappedLogCheckpointer(log, 4096, Duration.ofMinutes(5), 16, 100)) {
+			GraphExecutor executor = new GraphExecutor(graph, Schedulers.boundedElastic(), checkpointer);
+			assertThrows(IllegalStateException.class, () -> executor.execute(initial));
+		}
+
+		// Reopen from disk, as after a restart
+		try (MappedLogCheckpointer checkpointer = new MappedLogCheckpointer(log, 4096, Duration.ofMinutes(5), 16, 100)) {
+			assertEquals(initial.getRequestId(), checkpointer.latestForSession("u", "s1").orElseThrow());
+			assertTrue(checkpointer.latestForSession("someone-else", "s1").isEmpty());
+
+			GraphExecutor executor = new GraphExecutor(graph, Schedulers.boundedElastic(), checkpointer);
+			AgentState result = executor.resume(initial.getRequestId(), Deadline.none()).block();
+
+			assertEquals("answer", result.getResponse());
+			assertEquals(new ExecutionPlan(true, List.of(new ToolCall("jira-tool", "INC-1"))),
+					result.getMetadata().get("plan"));
+			assertEquals(1, plannerRuns.get());
+			assertTrue(checkpointer.load(initial.getRequestId()).isEmpty());
+		}
+	}
+
+	@Test
+	void optionalNodeIsSkippedWhenItOverrunsItsBudget() throws Exception {
+		// Tools never finishes on its own; only the deadline gets the graph past it
+		CountDownLatch never = new CountDownLatch(1);
+		CountDownLatch toolsStopped = new CountDownLatch(1);
+		List<Throwable> dropped = new CopyOnWriteArrayList<>();
+		Hooks.onErrorDropped(dropped::add);
+		try {
+			StateGraph graph = StateGraph.builder()
+					.addNode("planner", state -> state)
+					.addNode("rag", state -> state.withRagEvidence("evidence"))
+					.addNode("tools", state -> {
+						try {
+							never.await();
+							return state.withToolResults("too late");
+						} finally {
+							toolsStopped.countDown();
+						}
+					})
+					.addNode("composer", state -> state.withResponse("from " + state.getRagEvidence()))
+					.addFanOut("research", "rag", "tools")
+					// A small share, so composer has most of the deadline once tools is cut off
+					.budget("tools", 0.05)
+					.optional("tools", Duration.ZERO)
+					.setEntryPoint("planner")
+					.addEdge("planner", "research")
+					.addEdge("research", "composer")
+					.build();
+			GraphExecutor executor = new GraphExecutor(graph);
+
+			AgentState result = executor.execute(new AgentState(new ChatRequest("s", "q", "u"),
+					Deadline.after(Duration.ofSeconds(10))));
+
+			assertEquals("from evidence", result.getResponse());
+			assertEquals(true, result.getMetadata().get("toolsSkipped"));
+			assertEquals("", result.getToolResults());
+			// The abandoned node is interrupted, and its interruption is not reported as an error
+			assertTrue(toolsStopped.await(5, TimeUnit.SECONDS), "tools node kept running");
+			assertEquals(List.of(), dropped);
+
+			// Without time left for a required node the request fails fast
+			AgentException error = assertThrows(AgentException.class, () -> executor.execute(
+					new AgentState(new ChatRequest("s", "q", "u"), Deadline.after(Duration.ZERO))));
+			assertEquals("DEADLINE_EXCEEDED", error.getErrorCode());
+		} finally {
+			Hooks.resetOnErrorDropped();
+		}
+	}
+
+	@Test
+	void speculativeNodeIsAdoptedWhenRoutedToAndCancelledOtherwise() throws Exception {
+		AtomicInteger ragRuns = new AtomicInteger();
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+		StateGraph graph = StateGraph.builder()
+				.addNode("planner", state -> {
+					Thread.sleep(200);
+					return state.withRagDecision(state.getRequest().message().startsWith("rag"));
+				})
+				.addNode("rag", state -> {
+					ragRuns.incrementAndGet();
+					Thread.sleep(50);
+					return state.withRagEvidence("evidence");
+				})
+				.addNode("composer", state -> state.withResponse(String.valueOf(state.getRagEvidence())))
+				.setEntryPoint("planner")
+				.addConditionalEdge("planner", state -> state.isUseRag() ? "rag" : "composer", "rag", "composer")
+				.addEdge("rag", "composer")
+				.addEdge("composer", "END")
+				.speculate("planner", "rag")
+				.build();
+		GraphExecutor executor = new GraphExecutor(graph, Schedulers.boundedElastic(), Checkpointer.NONE, registry);
+
+		AgentState hit = executor.execute(new AgentState(new ChatRequest("s", "rag please", "u")));
+		assertEquals("evidence", hit.getResponse());
+		assertEquals(true, hit.getMetadata().get("ragSpeculated"));
+		assertEquals(1, ragRuns.get());
+		assertEquals(1, registry.timer("agentic.graph.speculation", "node", "rag", "outcome", "hit").count());
+
+		AgentState waste = executor.execute(new AgentState(new ChatRequest("s", "no retrieval", "u")));
+		assertEquals("", waste.getResponse());
+		assertEquals(1, registry.timer("agentic.graph.speculation", "node", "rag", "outcome", "waste").count());
+	}
+
+	@Test
+	void speculativeNodeIsStoppedWhenTheRequestIsCancelled() throws Exception {
+		CountDownLatch bothStarted = new CountDownLatch(2);
+		CountDownLatch never = new CountDownLatch(1);
+		CountDownLatch ragStopped = new CountDownLatch(1);
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+		StateGraph graph = StateGraph.builder()
+				.addNode("planner", state -> {
+					bothStarted.countDown();
+					never.await();
+					return state.withRagDecision(true);
+				})
+				.addNode("rag", state -> {
+					try {
+						bothStarted.countDown();
+						never.await();
+						return state.withRagEvidence("evidence");
+					} finally {
+						ragStopped.countDown();
+					}
+				})
+				.addNode("composer", state -> state.withResponse(String.valueOf(state.getRagEvidence())))
+				.setEntryPoint("planner")
+				.addConditionalEdge("planner", state -> state.isUseRag() ? "rag" : "composer", "rag", "composer")
+				.addEdge("rag", "composer")
+				.addEdge("composer", "END")
+				.speculate("planner", "rag")
+				.build();
+		GraphExecutor executor = new GraphExecutor(graph, Schedulers.boundedElastic(), Checkpointer.NONE, registry);
+
+		// As when the client disconnects while the planner is still running
+		Disposable request = executor.executeAsync(new AgentState(new ChatRequest("s", "rag please", "u")))
+				.subscribe();
+		assertTrue(bothStarted.await(5, TimeUnit.SECONDS), "planner and speculative rag never both started");
+		request.dispose();
+
+		assertTrue(ragStopped.await(5, TimeUnit.SECONDS), "speculative rag kept running");
+		assertEquals(1, registry.timer("agentic.graph.speculation", "node", "rag", "outcome", "waste").count());
+	}
+
+	private static StateGraph retryGraph(boolean bounded) {
+		StateGraph.Builder builder = StateGraph.builder()
+				.addNode("compose", state -> state)
+				.addNode("reflect", AgentState::incrementRetry)
+				.setEntryPoint("compose")
+				.addConditionalEdge("compose", state -> state.getRetryCount() < 3 ? "reflect" : "END", "reflect", "END")
+				.addEdge("reflect", "compose");
+		if (bounded) {
+			builder.limitVisits("reflect", 3);
+		}
+		return builder.build();
+	}
+
+}
@@ -0,0 +1,205 @@
+package com.bofa.agentic.graph;
+
+import com.bofa.agentic.model.ChatRequest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Frozen copy of the original copy-on-every-transition AgentState,
+ * kept only as the baseline for {@link AgentStateBenchmark}
+ */
+class LegacyAgentState {
+    
+    private final ChatRequest request;
+    private String currentNode;
+    private String nextNode;
+    
+    // Planning stage
+    private boolean useRag;
+    private boolean useTools;
+    private List<String> toolNames;
+    
+    // Data collection stage
+    private String ragEvidence;
+    private String toolResults;
+    
+    // Response generation stage
+    private String response;
+    
+    // Guardrail stage
+    private boolean guardrailPassed;
+    private String guardrailReason;
+    
+    // Reflection/retry logic
+    private int retryCount;
+    private List<String> executedNodes;
+    
+    // Metadata for observability
+    private Map<String, Object> metadata;
+    private long startTime;
+    
+    public LegacyAgentState(ChatRequest request) {
+        this.request = request;
+        this.currentNode = "START";
+        this.nextNode = "planner";
+        this.toolNames = new ArrayList<>();
+        this.executedNodes = new ArrayList<>();
+        this.metadata = new HashMap<>();
+        this.retryCount = 0;
+        this.startTime = System.currentTimeMillis();
+    }
+    
+    // Copy constructor for immutable state transitions
+    public LegacyAgentState(LegacyAgentState other) {
+        this.request = other.request;
+        this.currentNode = other.currentNode;
+        this.nextNode = other.nextNode;
+        this.useRag = other.useRag;
+        this.useTools = other.useTools;
+        this.toolNames = new ArrayList<>(other.toolNames);
+        this.ragEvidence = other.ragEvidence;
+        this.toolResults = other.toolResults;
+        this.response = other.response;
+        this.guardrailPassed = other.guardrailPassed;
+        this.guardrailReason = other.guardrailReason;
+        this.retryCount = other.retryCount;
+        this.executedNodes = new ArrayList<>(other.executedNodes);
+        this.metadata = new HashMap<>(other.metadata);
+        this.startTime = other.startTime;
+    }
+    
+    // State transition methods
+    public LegacyAgentState moveTo(String nodeName) {
+        LegacyAgentState newState = new LegacyAgentState(this);
+        newState.currentNode = this.nextNode;
+        newState.nextNode = nodeName;
+        newState.executedNodes.add(this.nextNode);
+        return newState;
+    }
+    
+    public LegacyAgentState withRagDecision(boolean useRag) {
+        LegacyAgentState newState = new LegacyAgentState(this);
+        newState.useRag = useRag;
+        return newState;
+    }
+    
+    public LegacyAgentState withToolsDecision(boolean useTools, List<String> toolNames) {
+        LegacyAgentState newState = new LegacyAgentState(this);
+        newState.useTools = useTools;
+        newState.toolNames = toolNames != null ? new ArrayList<>(toolNames) : new ArrayList<>();
+        return newState;
+    }
+    
+    public LegacyAgentState withRagEvidence(String evidence) {
+        LegacyAgentState newState = new LegacyAgentState(this);
+        newState.ragEvidence = evidence;
+        return newState;
+    }
+    
+    public LegacyAgentState withToolResults(String results) {
+        LegacyAgentState newState = new LegacyAgentState(this);
+        newState.toolResults = results;
+        return newState;
+    }
+    
+    public LegacyAgentState withResponse(String response) {
+        LegacyAgentState newState = new LegacyAgentState(this);
+        newState.response = response;
+        return newState;
+    }
+    
+    public LegacyAgentState withGuardrailResult(boolean passed, String reason) {
+        LegacyAgentState newState = new LegacyAgentState(this);
+        newState.guardrailPassed = passed;
+        newState.guardrailReason = reason;
+        return newState;
+    }
+    
+    public LegacyAgentState incrementRetry() {
+        LegacyAgentState newState = new LegacyAgentState(this);
+        newState.retryCount = this.retryCount + 1;
+        return newState;
+    }
+    
+    public LegacyAgentState addMetadata(String key, Object value) {
+        LegacyAgentState newState = new LegacyAgentState(this);
+        newState.metadata.put(key, value);
+        return newState;
+    }
+    
+    // Getters
+    public ChatRequest getRequest() {
+        return request;
+    }
+    
+    public String getCurrentNode() {
+        return currentNode;
+    }
+    
+    public String getNextNode() {
+        return nextNode;
+    }
+    
+    public boolean isUseRag() {
+        return useRag;
+    }
+    
+    public boolean isUseTools() {
+        return useTools;
+    }
+    
+    public List<String> getToolNames() {
+        return toolNames;
+    }
+    
+    public String getRagEvidence() {
+        return ragEvidence != null ? ragEvidence : "";
+    }
+    
+    public String getToolResults() {
+        return toolResults != null ? toolResults : "";
+    }
+    
+    public String getResponse() {
+        return response;
+    }
+    
+    public boolean isGuardrailPassed() {
+        return guardrailPassed;
+    }
+    
+    public String getGuardrailReason() {
+        return guardrailReason;
+    }
+    
+    public int getRetryCount() {
+        return retryCount;
+    }
+    
+    public List<String> getExecutedNodes() {
+        return executedNodes;
+    }
+    
+    public Map<String, Object> getMetadata() {
+        return metadata;
+    }
+    
+    public long getStartTime() {
+        return startTime;
+    }
+    
+    public long getElapsedTime() {
+        return System.currentTimeMillis() - startTime;
+    }
+    
+    public boolean isTerminal() {
+        return "END".equals(nextNode) || "ERROR".equals(nextNode);
+    }
+    
+    public boolean canRetry() {
+        return retryCount < 2; // Max 2 retries
+    }
+}
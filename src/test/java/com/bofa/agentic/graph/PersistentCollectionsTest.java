@@ -0,0 +1,129 @@
+package com.bofa.agentic.graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class PersistentCollectionsTest {
+
+	@Test
+	void listAppendsWithoutChangingEarlierVersions() {
+		PersistentList<String> empty = PersistentList.empty();
+		PersistentList<String> one = empty.plus("a");
+		PersistentList<String> two = one.plus("b");
+		PersistentList<String> branch = one.plus("c");
+
+		assertEquals(List.of(), empty);
+		assertEquals(List.of("a"), one);
+		assertEquals(List.of("a", "b"), two);
+		assertEquals(List.of("a", "c"), branch);
+		assertThrows(IndexOutOfBoundsException.class, () -> two.get(2));
+		assertThrows(IndexOutOfBoundsException.class, () -> two.get(-1));
+	}
+
+	@Test
+	void listSnapshotIsCompleteOnEveryThread() throws Exception {
+		int size = 1_000;
+		List<Integer> expected = new ArrayList<>();
+		PersistentList<Integer> list = PersistentList.empty();
+		for (int i = 0; i < size; i++) {
+			list = list.plus(i);
+			expected.add(i);
+		}
+
+		PersistentList<Integer> shared = list;
+		int threads = 8;
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<List<Integer>>> reads = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				reads.add(pool.submit(() -> {
+					start.await();
+					List<Integer> seen = new ArrayList<>(size);
+					for (int i = 0; i < size; i++) {
+						seen.add(shared.get(i));
+					}
+					return seen;
+				}));
+			}
+			start.countDown();
+			for (Future<List<Integer>> read : reads) {
+				assertEquals(expected, read.get(10, TimeUnit.SECONDS));
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void mapUpdatesShareStructureAndKeepEarlierVersions() {
+		PersistentMap<String, Integer> empty = PersistentMap.empty();
+		PersistentMap<String, Integer> one = empty.plus("a", 1);
+		PersistentMap<String, Integer> two = one.plus("b", 2);
+		PersistentMap<String, Integer> replaced = two.plus("a", 3);
+
+		assertEquals(Map.of(), empty);
+		assertEquals(Map.of("a", 1), one);
+		assertEquals(Map.of("a", 1, "b", 2), two);
+		assertEquals(Map.of("a", 3, "b", 2), replaced);
+		assertEquals(2, replaced.size());
+		assertSame(two, two.plus("b", two.get("b")));
+		assertNull(two.get("missing"));
+		assertFalse(two.containsKey("missing"));
+	}
+
+	@Test
+	void mapMatchesHashMapAcrossManyKeys() {
+		Map<Object, Integer> expected = new HashMap<>();
+		PersistentMap<Object, Integer> map = PersistentMap.empty();
+		for (int i = 0; i < 5_000; i++) {
+			Object key = i % 7 == 0 ? new CollidingKey(i) : "key-" + i;
+			map = map.plus(key, i);
+			expected.put(key, i);
+		}
+		for (int i = 0; i < 5_000; i += 3) {
+			Object key = i % 7 == 0 ? new CollidingKey(i) : "key-" + i;
+			map = map.plus(key, -i);
+			expected.put(key, -i);
+		}
+
+		PersistentMap<Object, Integer> result = map;
+		assertEquals(expected.size(), result.size());
+		assertEquals(expected, result);
+		expected.forEach((key, value) -> assertEquals(value, result.get(key)));
+		assertTrue(result.containsKey(new CollidingKey(14)));
+	}
+
+	@Test
+	void mapIsReadOnly() {
+		PersistentMap<String, Integer> map = PersistentMap.<String, Integer>empty().plus("a", 1);
+
+		assertThrows(UnsupportedOperationException.class, () -> map.put("b", 2));
+		assertThrows(UnsupportedOperationException.class, () -> map.remove("a"));
+	}
+
+	/** Equal hash codes for every instance, so keys land in collision nodes */
+	private record CollidingKey(int id) {
+
+		@Override
+		public int hashCode() {
+			return 42;
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package com.bofa.agentic.graph.nodes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import com.bofa.agentic.graph.AgentState;
+import com.bofa.agentic.guardrails.HallucinationGuard;
+import com.bofa.agentic.model.ChatRequest;
+import com.bofa.agentic.model.Deadline;
+import com.bofa.agentic.orchestrator.PromptBudgeter.BudgetedPrompt;
+import com.bofa.agentic.orchestrator.PromptBudgeter.PromptTokens;
+import com.bofa.agentic.orchestrator.ResponseComposer;
+import com.bofa.agentic.orchestrator.ResponseComposer.Tier;
+import com.bofa.agentic.streaming.TokenStreamingService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+
+class ComposerNodeTest {
+
+	private final ResponseComposer composer = mock(ResponseComposer.class);
+	private final TokenStreamingService streaming = mock(TokenStreamingService.class);
+	private final HallucinationGuard guard = mock(HallucinationGuard.class);
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final ComposerNode node = new ComposerNode(composer, streaming, guard, registry, 0.8, 2000);
+
+	ComposerNodeTest() {
+		BudgetedPrompt prompt = new BudgetedPrompt("q", "evidence", "", new PromptTokens(1, 1, 0, 2, 0));
+		when(composer.budget(any(), any(), any())).thenReturn(prompt);
+		when(composer.isCascadeEnabled()).thenReturn(true);
+		when(composer.compose(prompt, Tier.FAST)).thenReturn(Flux.just("fast answer"));
+		when(composer.compose(prompt, Tier.STRONG)).thenReturn(Flux.just("strong answer"));
+		when(streaming.collect(anyString(), any(), any(), anyString()))
+				.thenAnswer(call -> String.join("", call.<Flux<String>>getArgument(1).collectList().block()));
+		when(guard.confidence(eq("strong answer"), any())).thenReturn(0.9);
+	}
+
+	@Test
+	void confidentFastAnswerIsKept() throws Exception {
+		when(guard.confidence(eq("fast answer"), any())).thenReturn(0.85);
+
+		AgentState result = node.execute(state("Checkout failed after the v2.3 deploy", Deadline.none()));
+
+		assertEquals("fast answer", result.getResponse());
+		assertEquals("fast", result.getMetadata().get("composerTier"));
+		assertEquals(1, count("accepted"));
+		verify(composer, never()).compose(any(), eq(Tier.STRONG));
+	}
+
+	@Test
+	void doubtfulFastAnswerIsRetractedAndRecomposedByTheStrongModel() throws Exception {
+		when(guard.confidence(eq("fast answer"), any())).thenReturn(0.0);
+
+		AgentState result = node.execute(state("Checkout failed after the v2.3 deploy", Deadline.none()));
+
+		assertEquals("strong answer", result.getResponse());
+		assertEquals("strong", result.getMetadata().get("composerTier"));
+		assertEquals(0.9, result.getMetadata().get("composerConfidence"));
+		assertEquals(1, count("escalated"));
+		verify(streaming).retract(anyString(), eq("Escalating to a stronger model"));
+	}
+
+	@Test
+	void noEscalationWithoutTimeForIt() throws Exception {
+		when(guard.confidence(eq("fast answer"), any())).thenReturn(0.0);
+
+		AgentState result = node.execute(state("Checkout failed after the v2.3 deploy",
+				Deadline.after(Duration.ofMillis(500))));
+
+		assertEquals("fast answer", result.getResponse());
+		assertEquals(1, count("skipped"));
+		verify(composer, never()).compose(any(), eq(Tier.STRONG));
+	}
+
+	@Test
+	void noEscalationWithoutEvidenceToGroundAStrongerAnswer() throws Exception {
+		when(guard.confidence(eq("fast answer"), any())).thenReturn(0.0);
+
+		AgentState result = node.execute(state("", Deadline.none()));
+
+		assertEquals("fast answer", result.getResponse());
+		assertEquals(1, count("skipped"));
+		verify(streaming, never()).retract(anyString(), anyString());
+	}
+
+	private static AgentState state(String evidence, Deadline deadline) {
+		return new AgentState(new ChatRequest("s", "Why did checkout fail?", "u"), deadline)
+				.withRagEvidence(evidence);
+	}
+
+	private long count(String outcome) {
+		return registry.get("agentic.composer.cascade").tags("tier", "fast", "outcome", outcome).timer().count();
+	}
+}
@@ -0,0 +1,49 @@
+package com.bofa.agentic.localai;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.embedding.EmbeddingRequest;
+
+import com.bofa.agentic.util.VectorMath;
+
+class HashingEmbeddingModelTest {
+
+	private final HashingEmbeddingModel model = new HashingEmbeddingModel(256,
+			new InjectedFaults("embedding", 0, 0, 0.0, 43));
+
+	@Test
+	void sameTextGetsTheSameUnitVectorFromAnyInstance() {
+		HashingEmbeddingModel other = new HashingEmbeddingModel(256, new InjectedFaults("embedding", 0, 0, 0.0, 43));
+
+		float[] vector = model.embed("Checkout service returns 502 after deploy");
+
+		assertEquals(256, vector.length);
+		assertArrayEquals(vector, other.embed("checkout SERVICE returns 502, after deploy"));
+		assertEquals(1.0, VectorMath.dot(vector, vector), 1e-5);
+	}
+
+	@Test
+	void textsSharingWordsAreCloserThanUnrelatedTexts() {
+		float[] query = model.embed("checkout service returns 502");
+
+		double related = VectorMath.dot(query, model.embed("checkout service returns 502 after deploy"));
+		double unrelated = VectorMath.dot(query, model.embed("rotate the payroll database password"));
+
+		assertTrue(related > 0.8, "related: " + related);
+		assertTrue(related > unrelated + 0.5, "related: " + related + ", unrelated: " + unrelated);
+	}
+
+	@Test
+	void batchKeepsTheOrderOfItsInputs() {
+		List<float[]> vectors = model.call(new EmbeddingRequest(List.of("disk full", "pod evicted"), null))
+				.getResults().stream().map(embedding -> embedding.getOutput()).toList();
+
+		assertArrayEquals(model.embed("disk full"), vectors.get(0));
+		assertArrayEquals(model.embed("pod evicted"), vectors.get(1));
+	}
+}
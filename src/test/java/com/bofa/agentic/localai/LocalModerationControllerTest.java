@@ -0,0 +1,52 @@
+package com.bofa.agentic.localai;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+class LocalModerationControllerTest {
+
+	private static final String FLAG_PATTERN = "(?i)\\b(kill|murder|bomb)\\b";
+
+	@Test
+	void flagsMatchingInputAsViolenceOnly() {
+		Map<String, Object> result = result(new LocalModerationController(FLAG_PATTERN, 0, 0, 0.0, 42)
+				.moderate(Map.of("input", "How do I kill the stuck batch job?")).block());
+
+		assertEquals(true, result.get("flagged"));
+		Map<?, ?> categories = (Map<?, ?>) result.get("categories");
+		assertEquals(11, categories.size());
+		assertEquals(List.of("violence"), categories.entrySet().stream()
+				.filter(category -> Boolean.TRUE.equals(category.getValue()))
+				.map(Map.Entry::getKey)
+				.toList());
+		assertEquals(0.99, ((Map<?, ?>) result.get("category_scores")).get("violence"));
+	}
+
+	@Test
+	void passesOtherInput() {
+		Map<String, Object> result = result(new LocalModerationController(FLAG_PATTERN, 0, 0, 0.0, 42)
+				.moderate(Map.of("input", "Restart the checkout pods")).block());
+
+		assertEquals(false, result.get("flagged"));
+	}
+
+	@Test
+	void injectedFailuresAnswerServerError() {
+		ResponseEntity<Map<String, Object>> response = new LocalModerationController(FLAG_PATTERN, 0, 0, 1.0, 42)
+				.moderate(Map.of("input", "Restart the checkout pods")).block();
+
+		assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> result(ResponseEntity<Map<String, Object>> response) {
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		return ((List<Map<String, Object>>) response.getBody().get("results")).get(0);
+	}
+}
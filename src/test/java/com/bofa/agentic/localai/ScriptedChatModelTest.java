@@ -0,0 +1,96 @@
+package com.bofa.agentic.localai;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.retry.TransientAiException;
+
+class ScriptedChatModelTest {
+
+	private static final List<ScriptedChatModel.Rule> RULES = List.of(
+			new ScriptedChatModel.Rule(Pattern.compile("Planner"), null, "{{plan}}"),
+			new ScriptedChatModel.Rule(Pattern.compile("Answer ONLY from provided evidence"), null, "{{answer}}"),
+			new ScriptedChatModel.Rule(null, Pattern.compile("status of (\\S+)"), "{{1}} is open"));
+
+	@Test
+	void planReferencesTheTicketAndDocumentationInTheQuery() {
+		String plan = model(0.0, 42).call(prompt("Planner", "Runbook for INC-1234 checkout errors"))
+				.getResult().getOutput().getText();
+
+		assertEquals("{\"steps\":["
+				+ "{\"tool\":\"jira-tool\",\"reason\":\"The query references a ticket\",\"input\":{\"issueKey\":\"INC-1234\"}},"
+				+ "{\"tool\":\"confluence-tool\",\"reason\":\"The query asks for documentation\","
+				+ "\"input\":{\"query\":\"Runbook for INC-1234 checkout errors\"}},"
+				+ "{\"tool\":\"rag-retriever\",\"reason\":\"Similar incidents may help\","
+				+ "\"input\":{\"query\":\"Runbook for INC-1234 checkout errors\"}}],"
+				+ "\"finalStrategy\":\"rag_first\"}", plan);
+	}
+
+	@Test
+	void answerQuotesTheEvidenceAndRulesFillInUserGroups() {
+		ScriptedChatModel model = model(0.0, 42);
+
+		assertEquals("Based on the available evidence: Checkout failed after the v2.3 deploy.",
+				model.call(prompt("Answer ONLY from provided evidence",
+						"Why?\nEvidence: Checkout failed after the v2.3 deploy.\nToolData: none"))
+						.getResult().getOutput().getText());
+		assertEquals("INC-9 is open", model.call(prompt("other", "status of INC-9")).getResult().getOutput().getText());
+		assertEquals("", model.call(prompt("other", "unmatched")).getResult().getOutput().getText());
+	}
+
+	@Test
+	void streamSendsTheCallResponseWordByWordWithUsageLast() {
+		ScriptedChatModel model = model(0.0, 42);
+		Prompt prompt = prompt("other", "status of INC-9");
+
+		List<ChatResponse> chunks = model.stream(prompt).collectList().block();
+
+		assertEquals(List.of("INC-9 ", "is ", "open", ""), chunks.stream()
+				.map(chunk -> chunk.getResult().getOutput().getText())
+				.collect(Collectors.toList()));
+		ChatResponse last = chunks.get(chunks.size() - 1);
+		assertEquals(model.call(prompt).getMetadata().getUsage().getTotalTokens(),
+				last.getMetadata().getUsage().getTotalTokens());
+		assertTrue(last.getMetadata().getUsage().getCompletionTokens() > 0);
+	}
+
+	@Test
+	void sameSeedInjectsTheSameFailures() {
+		assertEquals(failures(model(0.5, 7)), failures(model(0.5, 7)));
+		assertTrue(failures(model(0.5, 7)).contains(true));
+		assertTrue(failures(model(0.5, 7)).contains(false));
+	}
+
+	private static List<Boolean> failures(ScriptedChatModel model) {
+		List<Boolean> failures = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			try {
+				model.call(prompt("other", "status of INC-9"));
+				failures.add(false);
+			} catch (TransientAiException e) {
+				failures.add(true);
+			}
+		}
+		return failures;
+	}
+
+	private static ScriptedChatModel model(double errorRate, long seed) {
+		return new ScriptedChatModel(RULES, new InjectedFaults("chat", 0, 0, errorRate, seed), Duration.ZERO,
+				"local-ai");
+	}
+
+	private static Prompt prompt(String system, String user) {
+		return new Prompt(List.of(new SystemMessage(system), new UserMessage(user)));
+	}
+}
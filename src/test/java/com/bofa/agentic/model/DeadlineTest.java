@@ -0,0 +1,47 @@
+package com.bofa.agentic.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import com.bofa.agentic.exception.AgentException;
+
+import reactor.core.publisher.Mono;
+
+class DeadlineTest {
+
+	@Test
+	void parsesAbsoluteAndRelativeForms() {
+		Instant at = Instant.now().plusSeconds(60);
+
+		assertEquals(at.toEpochMilli(), Deadline.parse(at.toString()).getExpiresAtMillis());
+		assertEquals(at.toEpochMilli(), Deadline.parse(" " + at.toEpochMilli() + " ").getExpiresAtMillis());
+		long remaining = Deadline.parse("PT8S").remaining().toMillis();
+		assertTrue(remaining > 7_000 && remaining <= 8_000, "remaining: " + remaining);
+	}
+
+	@Test
+	void rejectsBudgetsSentAsEpochMillisAndDeadlinesAlreadyPassed() {
+		assertThrows(IllegalArgumentException.class, () -> Deadline.parse("8000"));
+		assertThrows(IllegalArgumentException.class,
+				() -> Deadline.parse(String.valueOf(System.currentTimeMillis() - 1_000)));
+		assertThrows(IllegalArgumentException.class, () -> Deadline.parse("2020-01-01T00:00:00Z"));
+		assertThrows(IllegalArgumentException.class, () -> Deadline.parse("PT-5S"));
+		assertThrows(IllegalArgumentException.class, () -> Deadline.parse("soon"));
+		assertThrows(IllegalArgumentException.class, () -> Deadline.parse(""));
+	}
+
+	@Test
+	void expiredDeadlineFailsEvenASourceThatCompletesAtOnce() {
+		AgentException error = assertThrows(AgentException.class,
+				() -> Deadline.after(Duration.ZERO).bound(Mono.just("done"), "planner").block());
+
+		assertEquals("DEADLINE_EXCEEDED", error.getErrorCode());
+		assertEquals("done", Deadline.after(Duration.ofSeconds(5)).bound(Mono.just("done"), "planner").block());
+	}
+}
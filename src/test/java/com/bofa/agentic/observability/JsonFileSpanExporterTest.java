@@ -0,0 +1,92 @@
+package com.bofa.agentic.observability;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+
+class JsonFileSpanExporterTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final Logger spans = (Logger) LoggerFactory.getLogger("SPANS");
+	private final ListAppender<ILoggingEvent> lines = new ListAppender<>();
+
+	@BeforeEach
+	void captureSpans() {
+		lines.start();
+		spans.addAppender(lines);
+	}
+
+	@AfterEach
+	void releaseSpans() {
+		spans.detachAppender(lines);
+	}
+
+	@Test
+	void writesOneJsonObjectPerSpanLinkedToItsParent() throws Exception {
+		SdkTracerProvider provider = SdkTracerProvider.builder()
+				.addSpanProcessor(SimpleSpanProcessor.create(new JsonFileSpanExporter(objectMapper)))
+				.build();
+		Tracer tracer = provider.get("test");
+
+		Span graph = tracer.spanBuilder("graph.execute").startSpan();
+		try (Scope scope = graph.makeCurrent()) {
+			Span node = tracer.spanBuilder("node.rag").startSpan();
+			node.setAttribute("node", "rag");
+			node.setStatus(StatusCode.ERROR, "vector store unavailable");
+			node.end();
+		} finally {
+			graph.end();
+		}
+		provider.close();
+
+		Map<String, Map<String, Object>> byName = lines.list.stream()
+				.map(this::parse)
+				.collect(Collectors.toMap(json -> (String) json.get("name"), json -> json));
+		assertEquals(2, byName.size());
+
+		Map<String, Object> root = byName.get("graph.execute");
+		Map<String, Object> child = byName.get("node.rag");
+		assertEquals(List.of("traceId", "spanId", "parentSpanId", "name", "kind", "start", "durationMs", "status",
+				"attributes"), List.copyOf(root.keySet()));
+		assertNull(root.get("parentSpanId"));
+		assertEquals("UNSET", root.get("status"));
+		assertEquals(root.get("traceId"), child.get("traceId"));
+		assertEquals(root.get("spanId"), child.get("parentSpanId"));
+		assertEquals("INTERNAL", child.get("kind"));
+		assertEquals("ERROR", child.get("status"));
+		assertEquals("vector store unavailable", child.get("error"));
+		assertEquals(Map.of("node", "rag"), child.get("attributes"));
+		assertTrue(((Number) child.get("durationMs")).doubleValue() >= 0);
+	}
+
+	private Map<String, Object> parse(ILoggingEvent line) {
+		try {
+			return objectMapper.readValue(line.getFormattedMessage(), new TypeReference<Map<String, Object>>() {
+			});
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
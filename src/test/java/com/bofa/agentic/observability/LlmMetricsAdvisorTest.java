@@ -0,0 +1,88 @@
+package com.bofa.agentic.observability;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+
+class LlmMetricsAdvisorTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final LlmMetricsAdvisor advisor = new LlmMetricsAdvisor("composer", registry);
+
+	@Test
+	void callRecordsTokensByTypeFromTheResponseUsage() {
+		CallAdvisorChain chain = mock(CallAdvisorChain.class);
+		when(chain.nextCall(any())).thenReturn(response("answer", new DefaultUsage(120, 30)));
+
+		advisor.adviseCall(request(), chain);
+
+		assertEquals(120, tokens("prompt"));
+		assertEquals(30, tokens("completion"));
+		assertEquals(1, registry.get("agentic.llm.request")
+				.tags("client", "composer", "outcome", "success").timer().count());
+	}
+
+	@Test
+	void streamRecordsTheUsageOfTheLastChunkOnce() {
+		StreamAdvisorChain chain = mock(StreamAdvisorChain.class);
+		when(chain.nextStream(any())).thenReturn(Flux.just(
+				response("Checkout ", null),
+				response("failed", new DefaultUsage(0, 0)),
+				response("", new DefaultUsage(200, 12))));
+
+		advisor.adviseStream(request(), chain).collectList().block();
+
+		assertEquals(200, tokens("prompt"));
+		assertEquals(12, tokens("completion"));
+	}
+
+	@Test
+	void failedCallIsTimedAsAnErrorWithoutTokens() {
+		CallAdvisorChain chain = mock(CallAdvisorChain.class);
+		when(chain.nextCall(any())).thenThrow(new IllegalStateException("model unavailable"));
+
+		assertThrows(IllegalStateException.class, () -> advisor.adviseCall(request(), chain));
+
+		assertEquals(1, registry.get("agentic.llm.request")
+				.tags("client", "composer", "outcome", "error").timer().count());
+		assertNull(registry.find("agentic.llm.tokens").counter());
+	}
+
+	private double tokens(String type) {
+		return registry.get("agentic.llm.tokens").tags("client", "composer", "type", type).counter().count();
+	}
+
+	private static ChatClientRequest request() {
+		return new ChatClientRequest(new Prompt("Why did checkout fail?"), Map.of());
+	}
+
+	private static ChatClientResponse response(String text, DefaultUsage usage) {
+		ChatResponseMetadata.Builder metadata = ChatResponseMetadata.builder();
+		if (usage != null) {
+			metadata.usage(usage);
+		}
+		return new ChatClientResponse(new ChatResponse(List.of(new Generation(new AssistantMessage(text))),
+				metadata.build()), Map.of());
+	}
+}
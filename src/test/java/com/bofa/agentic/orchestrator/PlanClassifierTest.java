@@ -0,0 +1,102 @@
+package com.bofa.agentic.orchestrator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+
+import com.bofa.agentic.model.ToolCall;
+import com.bofa.agentic.rag.EmbeddingService;
+
+class PlanClassifierTest {
+
+	private final EmbeddingService embeddingService = bagOfWordsEmbeddings();
+	private final PlanClassifier classifier = new PlanClassifier(embeddingService, 0.04);
+
+	@Test
+	void greetingsAreAnsweredDirectlyWithoutEmbedding() {
+		PlanClassifier.Classification result = classifier.classify("Thanks!");
+
+		assertEquals(new ExecutionPlan(false, List.of()), result.plan());
+		assertEquals("rule", result.stage());
+		assertTrue(result.confident());
+		verify(embeddingService, never()).embed(anyString());
+	}
+
+	@Test
+	void supportVocabularyMeansRag() {
+		PlanClassifier.Classification result = classifier.classify("Why is checkout latency so high?");
+
+		assertEquals(new ExecutionPlan(true, List.of()), result.plan());
+		assertEquals("rule", result.stage());
+		assertTrue(result.confident());
+	}
+
+	@Test
+	void issueKeysBecomeJiraToolSteps() {
+		PlanClassifier.Classification result = classifier.classify("status of ABC-123");
+
+		assertEquals(new ExecutionPlan(true, List.of(new ToolCall("jira-tool", "ABC-123"))), result.plan());
+		assertEquals("rule", result.stage());
+		assertTrue(result.confident());
+	}
+
+	@Test
+	void toolQueriesWithoutAnInputAreLeftToTheLlm() {
+		assertFalse(classifier.classify("Where is the runbook for payment timeouts?").confident());
+		assertFalse(classifier.classify("What is the status of the checkout outage?").confident());
+		assertFalse(classifier.classify("Email the on-call about ABC-123").confident());
+	}
+
+	@Test
+	void otherQueriesGoToTheNearestCentroid() {
+		PlanClassifier.Classification rag = classifier.classify(
+				"The database connection pool is exhausted, how do we fix it?");
+		PlanClassifier.Classification direct = classifier.classify("What is a REST API?");
+
+		assertEquals("embedding", rag.stage());
+		assertTrue(rag.plan().useRag());
+		assertEquals("embedding", direct.stage());
+		assertFalse(direct.plan().useRag());
+	}
+
+	@Test
+	void unreachableEmbeddingsLeaveThePlanToTheLlm() {
+		EmbeddingService failing = mock(EmbeddingService.class);
+		when(failing.embedAll(anyList())).thenThrow(new IllegalStateException("embedding API down"));
+
+		assertNull(new PlanClassifier(failing, 0.04).classify("What is a REST API?"));
+	}
+
+	/** Word counts hashed into a few dimensions: texts sharing words are close */
+	private static EmbeddingService bagOfWordsEmbeddings() {
+		EmbeddingService service = mock(EmbeddingService.class);
+		when(service.embed(anyString())).thenAnswer(call -> vector(call.getArgument(0)));
+		when(service.embedAll(anyList())).thenAnswer(call -> {
+			List<String> texts = call.getArgument(0);
+			return texts.stream().map(PlanClassifierTest::vector).toList();
+		});
+		return service;
+	}
+
+	private static float[] vector(String text) {
+		float[] vector = new float[64];
+		for (String word : text.toLowerCase(Locale.ROOT).split("[^a-z0-9]+")) {
+			if (!word.isEmpty()) {
+				vector[Math.floorMod(word.hashCode(), vector.length)] += 1;
+			}
+		}
+		return vector;
+	}
+}
@@ -0,0 +1,55 @@
+package com.bofa.agentic.orchestrator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.bofa.agentic.model.ToolCall;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class PlanStreamParserTest {
+
+	private final PlanStreamParser parser = new PlanStreamParser(new ObjectMapper());
+
+	@Test
+	void eachStepIsReturnedByTheChunkThatCompletesIt() {
+		assertEquals(List.of(), parser.accept("{\"steps\": [{\"tool\": \"jira-tool\", \"input\": {\"issue"));
+		assertEquals(List.of(new ToolCall("jira-tool", "ABC-123")),
+				parser.accept("Key\": \"ABC-123\"}}, {\"tool\": \"confluence-tool\", "));
+		assertEquals(List.of(new ToolCall("confluence-tool", "payments runbook")),
+				parser.accept("\"input\": {\"query\": \"payments runbook\"}}], \"finalStrategy\": \"tools_only\"}"));
+
+		assertEquals(new ExecutionPlan(false, List.of(new ToolCall("jira-tool", "ABC-123"),
+				new ToolCall("confluence-tool", "payments runbook"))), parser.plan());
+	}
+
+	@Test
+	void ragRetrieverStepsSetUseRag() {
+		List<ToolCall> calls = parser.accept(
+				"{\"steps\": [{\"tool\": \"rag-retriever\", \"input\": {\"query\": \"latency\"}}]}");
+
+		assertEquals(List.of(), calls);
+		assertEquals(new ExecutionPlan(true, List.of()), parser.plan());
+	}
+
+	@Test
+	void textAroundThePlanIsIgnored() {
+		parser.accept("```json\n{\"steps\": [], ");
+		parser.accept("\"finalStrategy\": \"rag_first\"}\n```");
+
+		assertEquals(new ExecutionPlan(true, List.of()), parser.plan());
+	}
+
+	@Test
+	void outputThatIsNotAPlanFallsBackToTheText() {
+		parser.accept("I would use RAG here");
+		assertTrue(parser.plan().useRag());
+
+		PlanStreamParser broken = new PlanStreamParser(new ObjectMapper());
+		broken.accept("{\"steps\": [}");
+		assertEquals(new ExecutionPlan(false, List.of()), broken.plan());
+	}
+}
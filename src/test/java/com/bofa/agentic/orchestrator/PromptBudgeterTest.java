@@ -0,0 +1,66 @@
+package com.bofa.agentic.orchestrator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PromptBudgeterTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final PromptBudgeter budgeter = new PromptBudgeter(registry, "gpt-4o-mini", 400, 50, 0.6);
+
+	@Test
+	void promptsThatFitAreSentUnchanged() {
+		PromptBudgeter.BudgetedPrompt prompt = budgeter.fit("Why did checkout fail?", "doc one\n---\ndoc two",
+				"[jira-tool] -> ABC-123 is open", 100);
+
+		assertEquals("Why did checkout fail?", prompt.query());
+		assertEquals("doc one\n---\ndoc two", prompt.evidence());
+		assertEquals("[jira-tool] -> ABC-123 is open", prompt.toolData());
+		assertEquals(0, prompt.tokens().trimmed());
+		assertEquals(100 + prompt.tokens().query() + prompt.tokens().evidence() + prompt.tokens().toolData(),
+				prompt.tokens().total());
+	}
+
+	@Test
+	void longQueriesAreTrimmedToTheirCap() {
+		PromptBudgeter.BudgetedPrompt prompt = budgeter.fit(words("why", 200), "", "", 0);
+
+		assertTrue(prompt.query().endsWith("...[truncated]"));
+		assertTrue(prompt.tokens().query() <= 50);
+		assertTrue(prompt.tokens().trimmed() > 0);
+	}
+
+	@Test
+	void evidenceIsKeptInRelevanceOrderAndTheOverflowDropped() {
+		String evidence = String.join("\n---\n", words("first", 100), words("second", 300), words("third", 100));
+
+		PromptBudgeter.BudgetedPrompt prompt = budgeter.fit("q", evidence, "", 0);
+
+		assertTrue(prompt.evidence().startsWith(words("first", 100) + "\n---\nsecond"));
+		assertTrue(prompt.evidence().endsWith("...[truncated]"));
+		assertFalse(prompt.evidence().contains("third"));
+		assertTrue(prompt.tokens().total() <= 400);
+	}
+
+	@Test
+	void oneLargeToolResultCannotCrowdOutTheOthers() {
+		String toolData = "[jira-tool] -> " + words("field", 1000) + "\n[outlook-tool] -> two unread escalations";
+
+		PromptBudgeter.BudgetedPrompt prompt = budgeter.fit("q", "", toolData, 0);
+
+		assertTrue(prompt.toolData().contains("[outlook-tool] -> two unread escalations"));
+		assertTrue(prompt.toolData().startsWith("[jira-tool] -> field"));
+		assertTrue(prompt.tokens().total() <= 400);
+		assertEquals(prompt.tokens().trimmed(),
+				registry.get("agentic.composer.prompt.tokens").tag("part", "trimmed").summary().totalAmount());
+	}
+
+	private static String words(String word, int count) {
+		return (word + " ").repeat(count).strip();
+	}
+}
@@ -0,0 +1,96 @@
+package com.bofa.agentic.rag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class DatasetReaderTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void jsonArraysAreReadRecordByRecord() throws Exception {
+		write("incidents.json", """
+				[{"incidentId": "INC-1", "title": "Checkout down", "owner": "payments"},
+				 null,
+				 42,
+				 {"incidentId": "INC-2", "title": "Slow search"}]
+				""");
+		List<DatasetReader.Incident> incidents = new ArrayList<>();
+
+		long count = reader().readIncidents(incidents::add);
+
+		assertEquals(2, count);
+		assertEquals("INC-1", incidents.get(0).incidentId());
+		assertEquals("Slow search", incidents.get(1).title());
+	}
+
+	@Test
+	void ndjsonIsReadRecordByRecord() throws Exception {
+		write("runbooks.json", """
+				{"runbookId": "RB-1", "title": "Restart checkout", "steps": ["drain", "restart"], "automationPossible": true}
+
+				{"runbookId": "RB-2", "title": "Fail over search"} {"runbookId": "RB-3"}
+				""");
+		List<DatasetReader.Runbook> runbooks = new ArrayList<>();
+
+		long count = reader().readRunbooks(runbooks::add);
+
+		assertEquals(3, count);
+		assertEquals(List.of("drain", "restart"), runbooks.get(0).steps());
+		assertTrue(runbooks.get(0).automationPossible());
+		assertEquals("RB-3", runbooks.get(2).runbookId());
+	}
+
+	@Test
+	void anUnterminatedArrayFails() throws IOException {
+		write("incidents.json", "[{\"incidentId\": \"INC-1\"}");
+
+		assertThrows(IOException.class, () -> reader().readIncidents(incident -> {
+		}));
+	}
+
+	@Test
+	void aMissingDatasetIsReportedAsSuch() {
+		assertThrows(NoSuchFileException.class, () -> reader().readIncidents(incident -> {
+		}));
+	}
+
+	@Test
+	void faqsAreParsedOnceAndMissingOnesAreEmpty() throws IOException {
+		DatasetReader missing = reader();
+		assertTrue(missing.loadedFaqs().isEmpty());
+		assertEquals(List.of(), missing.faqs());
+
+		write("faqs.json", "[{\"question\": \"Who is on call?\", \"answer\": \"See PagerDuty\"}]");
+		DatasetReader reader = reader();
+		List<DatasetReader.Faq> faqs = reader.faqs();
+
+		assertEquals(List.of(new DatasetReader.Faq("Who is on call?", "See PagerDuty", null)), faqs);
+		Files.delete(dir.resolve("faqs.json"));
+		assertSame(faqs, reader.faqs());
+	}
+
+	private DatasetReader reader() {
+		return new DatasetReader(new ObjectMapper(), dir.resolve("faqs.json").toString(),
+				dir.resolve("incidents.json").toString(), dir.resolve("runbooks.json").toString());
+	}
+
+	private void write(String file, String content) throws IOException {
+		Files.writeString(dir.resolve(file), content);
+	}
+}
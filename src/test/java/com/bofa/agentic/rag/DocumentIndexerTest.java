@@ -0,0 +1,192 @@
+package com.bofa.agentic.rag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.VectorStore;
+
+import com.bofa.agentic.cache.EmbeddingCache;
+import com.bofa.agentic.cache.SemanticAnswerCache;
+import com.bofa.agentic.exception.AgentException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DocumentIndexerTest {
+
+	private static final String FAQS = """
+			[{"question": "How do I restart checkout?", "answer": "Use the runbook", "category": "ops"},
+			 {"question": "Who is on call?", "answer": "See PagerDuty"}]
+			""";
+	private static final String INCIDENTS = """
+			{"incidentId": "INC-1", "title": "Checkout down", "severity": "P1", "service": "checkout"}
+			{"incidentId": "INC-2", "title": "Slow search", "severity": "P3", "service": "search"}
+			""";
+	private static final String RUNBOOKS = """
+			[{"runbookId": "RB-1", "title": "Restart checkout", "steps": ["drain", "restart"]}]
+			""";
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final InMemoryVectorStore store = new InMemoryVectorStore();
+	private final SemanticAnswerCache answerCache = mock(SemanticAnswerCache.class);
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void firstSyncIndexesEveryDocumentAndWritesTheManifest() throws IOException {
+		writeDatasets(FAQS, INCIDENTS, RUNBOOKS);
+
+		indexer().indexDocuments();
+
+		assertEquals(5, store.documents.size());
+		assertEquals(store.documents.keySet(), manifest().documents().keySet());
+		verify(answerCache).invalidateAll();
+	}
+
+	@Test
+	void laterSyncsOnlyWriteWhatChanged() throws IOException {
+		writeDatasets(FAQS, INCIDENTS, RUNBOOKS);
+		indexer().indexDocuments();
+		String runbook = idOf("runbookId", "RB-1");
+		String search = idOf("incidentId", "INC-2");
+		store.added.clear();
+
+		writeDatasets(FAQS, INCIDENTS.replace("Slow search", "Search timeouts"), "[]");
+		indexer().indexDocuments();
+
+		assertEquals(List.of(search), store.addedIds());
+		assertEquals(List.of(List.of(runbook)), store.deleted);
+		assertEquals(4, store.documents.size());
+		assertEquals(store.documents.keySet(), manifest().documents().keySet());
+		verify(answerCache, times(2)).invalidateAll();
+	}
+
+	@Test
+	void anUnchangedSyncWritesNothingAndKeepsCachedAnswers() throws IOException {
+		writeDatasets(FAQS, INCIDENTS, RUNBOOKS);
+		indexer().indexDocuments();
+		store.added.clear();
+
+		indexer().indexDocuments();
+
+		assertTrue(store.added.isEmpty());
+		assertTrue(store.deleted.isEmpty());
+		verify(answerCache, times(1)).invalidateAll();
+	}
+
+	@Test
+	void aDatasetThatFailsToLoadKeepsItsDocuments() throws IOException {
+		writeDatasets(FAQS, INCIDENTS, RUNBOOKS);
+		indexer().indexDocuments();
+		store.added.clear();
+
+		// Unterminated: the reader fails part way
+		Files.writeString(dir.resolve("runbooks.json"), "[{\"runbookId\": \"RB-1\", \"title\": \"Restart\"}");
+		indexer().indexDocuments();
+
+		assertTrue(store.deleted.isEmpty());
+		assertEquals(5, store.documents.size());
+		assertEquals(5, manifest().documents().size());
+	}
+
+	@Test
+	void withoutEveryDatasetTheFirstSyncWritesNoManifest() throws IOException {
+		writeDatasets(FAQS, INCIDENTS, RUNBOOKS);
+		Files.delete(dir.resolve("incidents.json"));
+
+		indexer().indexDocuments();
+
+		assertEquals(3, store.documents.size());
+		assertTrue(Files.notExists(dir.resolve("index-manifest.json")));
+	}
+
+	@Test
+	void failedWritesAreLeftOutOfTheManifestAndRetriedNextSync() throws IOException {
+		writeDatasets(FAQS, INCIDENTS, RUNBOOKS);
+		store.failNext(1, () -> new AgentException("INVALID", "rejected", false));
+
+		indexer().indexDocuments();
+		assertTrue(store.documents.isEmpty());
+		assertTrue(manifest().documents().isEmpty());
+
+		indexer().indexDocuments();
+		assertEquals(5, store.documents.size());
+		assertEquals(store.documents.keySet(), manifest().documents().keySet());
+	}
+
+	@Test
+	void aFullSyncSweepsStaleDocumentsButNotOnesItFailedToRewrite() throws IOException {
+		writeDatasets(FAQS, INCIDENTS, RUNBOOKS);
+		store.withElasticsearch();
+		indexer().indexDocuments();
+		store.documents.put("orphan", new Document("orphan", "Removed from the datasets", Map.of()));
+		// Without a manifest the next sync is a full one and rewrites everything
+		Files.delete(dir.resolve("index-manifest.json"));
+		store.failNext(1, () -> new AgentException("INVALID", "rejected", false));
+
+		indexer().indexDocuments();
+
+		assertEquals(List.of(List.of("orphan")), store.deleted);
+		assertEquals(5, store.documents.size());
+		assertTrue(manifest().documents().isEmpty());
+	}
+
+	@Test
+	void withoutAVectorStoreNothingIsIndexed() throws IOException {
+		writeDatasets(FAQS, INCIDENTS, RUNBOOKS);
+
+		indexer(Optional.empty()).indexDocuments();
+
+		verify(answerCache, never()).invalidateAll();
+		assertTrue(Files.notExists(dir.resolve("index-manifest.json")));
+	}
+
+	private DocumentIndexer indexer() {
+		return indexer(Optional.of(store));
+	}
+
+	private DocumentIndexer indexer(Optional<VectorStore> vectorStore) {
+		DatasetReader datasetReader = new DatasetReader(objectMapper, dir.resolve("faqs.json").toString(),
+				dir.resolve("incidents.json").toString(), dir.resolve("runbooks.json").toString());
+		// One batch per sync, no retry: a failure fails every document of the sync
+		return new DocumentIndexer(vectorStore, objectMapper, datasetReader, answerCache, mock(EmbeddingCache.class),
+				dir.resolve("index-manifest.json").toString(), "docs", false, 100, 10, 1, 1, 1, 1, 10, 8,
+				new SimpleMeterRegistry());
+	}
+
+	private void writeDatasets(String faqs, String incidents, String runbooks) throws IOException {
+		Files.writeString(dir.resolve("faqs.json"), faqs);
+		Files.writeString(dir.resolve("incidents.json"), incidents);
+		Files.writeString(dir.resolve("runbooks.json"), runbooks);
+	}
+
+	private IndexManifest manifest() {
+		return IndexManifest.load(dir.resolve("index-manifest.json"), objectMapper, "docs").orElseThrow();
+	}
+
+	private String idOf(String field, String value) {
+		Set<String> ids = store.documents.values().stream()
+				.filter(document -> value.equals(document.getMetadata().get(field)))
+				.map(Document::getId)
+				.collect(Collectors.toSet());
+		assertEquals(1, ids.size());
+		return ids.iterator().next();
+	}
+}
@@ -0,0 +1,118 @@
+package com.bofa.agentic.rag;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.ScrollResponse;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+
+/**
+ * Vector store for indexing tests: documents by id, every write recorded,
+ * and the next writes made to fail on demand. With an Elasticsearch client
+ * its scroll returns the stored ids, so a full sync can sweep stale ones.
+ */
+class InMemoryVectorStore implements VectorStore {
+
+	final Map<String, Document> documents = new ConcurrentHashMap<>();
+	final List<List<String>> added = new CopyOnWriteArrayList<>();
+	final List<List<String>> deleted = new CopyOnWriteArrayList<>();
+
+	private final AtomicInteger failures = new AtomicInteger();
+	private volatile Supplier<RuntimeException> failure;
+	private ElasticsearchClient client;
+
+	/**
+	 * Expose a client whose scroll lists the ids stored when it is searched
+	 */
+	@SuppressWarnings("unchecked")
+	InMemoryVectorStore withElasticsearch() throws IOException {
+		client = mock(ElasticsearchClient.class);
+		when(client.search(any(Function.class), eq(Void.class)))
+				.thenAnswer(call -> SearchResponse.<Void>of(response -> response
+					.took(1)
+					.timedOut(false)
+					.shards(shards -> shards.total(1).successful(1).failed(0))
+					.scrollId("scroll")
+					.hits(hits -> hits.hits(documents.keySet().stream()
+							.map(id -> Hit.<Void>of(hit -> hit.index("docs").id(id)))
+							.toList()))));
+		when(client.scroll(any(Function.class), eq(Void.class)))
+				.thenAnswer(call -> ScrollResponse.<Void>of(response -> response
+					.took(1)
+					.timedOut(false)
+					.shards(shards -> shards.total(1).successful(1).failed(0))
+					.scrollId("scroll")
+					.hits(hits -> hits.hits(List.of()))));
+		return this;
+	}
+
+	/**
+	 * Fail the next {@code count} writes (adds and deletes) with {@code failure}
+	 */
+	void failNext(int count, Supplier<RuntimeException> failure) {
+		this.failure = failure;
+		failures.set(count);
+	}
+
+	@Override
+	public void add(List<Document> batch) {
+		maybeFail();
+		added.add(batch.stream().map(Document::getId).toList());
+		batch.forEach(document -> documents.put(document.getId(), document));
+	}
+
+	@Override
+	public void delete(List<String> ids) {
+		maybeFail();
+		deleted.add(List.copyOf(ids));
+		ids.forEach(documents::remove);
+	}
+
+	@Override
+	public void delete(Filter.Expression filterExpression) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public List<Document> similaritySearch(SearchRequest request) {
+		return List.of();
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> Optional<T> getNativeClient() {
+		return Optional.ofNullable((T) client);
+	}
+
+	List<String> addedIds() {
+		List<String> ids = new ArrayList<>();
+		added.forEach(ids::addAll);
+		return ids;
+	}
+
+	private void maybeFail() {
+		if (failures.getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+			throw failure.get();
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package com.bofa.agentic.rag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.document.Document;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class IndexManifestTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void hashCoversTextAndMetadataButNotTheirOrder() {
+		Map<String, Object> metadata = new LinkedHashMap<>();
+		metadata.put("type", "incident");
+		metadata.put("severity", "P1");
+		Map<String, Object> reordered = new LinkedHashMap<>();
+		reordered.put("severity", "P1");
+		reordered.put("type", "incident");
+
+		String hash = IndexManifest.hash(new Document("id", "Checkout is down", metadata));
+
+		assertEquals(hash, IndexManifest.hash(new Document("other-id", "Checkout is down", reordered)));
+		assertNotEquals(hash, IndexManifest.hash(new Document("id", "Checkout is up", metadata)));
+		assertNotEquals(hash, IndexManifest.hash(new Document("id", "Checkout is down", Map.of("type", "incident"))));
+		assertEquals(32, hash.length());
+	}
+
+	@Test
+	void savedManifestLoadsForItsOwnIndexOnly() throws IOException {
+		Path path = dir.resolve("manifest/index-manifest.json");
+		IndexManifest manifest = new IndexManifest("docs", Map.of("a", new IndexManifest.Entry("faq", "h1"),
+				"b", new IndexManifest.Entry("incident", "h2")));
+
+		manifest.save(path, objectMapper);
+
+		assertEquals(manifest, IndexManifest.load(path, objectMapper, "docs").orElseThrow());
+		assertTrue(IndexManifest.load(path, objectMapper, "other-index").isEmpty());
+		assertTrue(Files.notExists(path.resolveSibling("index-manifest.json.tmp")));
+	}
+
+	@Test
+	void missingOrUnreadableManifestsMeanAFullSync() throws IOException {
+		Path path = dir.resolve("index-manifest.json");
+		assertTrue(IndexManifest.load(path, objectMapper, "docs").isEmpty());
+
+		Files.writeString(path, "{\"index\": \"docs\", \"documents\": ");
+		assertTrue(IndexManifest.load(path, objectMapper, "docs").isEmpty());
+	}
+
+	@Test
+	void entriesShareOneCopyOfEachDatasetName() {
+		String source = new String("incident");
+
+		assertSame("incident", new IndexManifest.Entry(source, "h").source());
+	}
+}
@@ -0,0 +1,138 @@
+package com.bofa.agentic.rag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+
+import com.bofa.agentic.exception.AgentException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class IngestionPipelineTest {
+
+	private final InMemoryVectorStore store = new InMemoryVectorStore();
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	@Test
+	void documentsAreWrittenInBatchesOfBatchSize() throws InterruptedException {
+		try (IngestionPipeline pipeline = pipeline(10, 10_000_000, 4, 1)) {
+			submit(pipeline, 25, "text");
+
+			IngestionPipeline.Result result = pipeline.finish();
+
+			assertEquals(25, result.upserted());
+			assertTrue(result.failed().isEmpty());
+		}
+		assertEquals(List.of(5, 10, 10), batchSizes());
+		assertEquals(25.0, registry.get("agentic.indexing.documents").tag("outcome", "upserted").counter().count());
+	}
+
+	@Test
+	void batchesStayWithinTheBulkRequestSize() throws InterruptedException {
+		// 128 bytes per document, 100 of text and 2 of metadata: two fit in 500
+		try (IngestionPipeline pipeline = pipeline(100, 500, 1, 1)) {
+			submit(pipeline, 5, "x".repeat(100));
+			pipeline.finish();
+		}
+		assertEquals(List.of(1, 2, 2), batchSizes());
+	}
+
+	@Test
+	void failedBatchesAreRetried() throws InterruptedException {
+		store.failNext(2, () -> new IllegalStateException("connection reset"));
+		try (IngestionPipeline pipeline = pipeline(10, 10_000_000, 1, 3)) {
+			submit(pipeline, 3, "text");
+
+			IngestionPipeline.Result result = pipeline.finish();
+
+			assertEquals(3, result.upserted());
+			assertTrue(result.failed().isEmpty());
+		}
+		assertEquals(2.0, registry.get("agentic.indexing.retries").counter().count());
+	}
+
+	@Test
+	void batchesFailingEveryAttemptAreReported() throws InterruptedException {
+		store.failNext(10, () -> new IllegalStateException("connection reset"));
+		try (IngestionPipeline pipeline = pipeline(10, 10_000_000, 1, 2)) {
+			submit(pipeline, 3, "text");
+
+			IngestionPipeline.Result result = pipeline.finish();
+
+			assertEquals(0, result.upserted());
+			assertEquals(Set.of("doc-0", "doc-1", "doc-2"), result.failed());
+		}
+		assertEquals(3.0, registry.get("agentic.indexing.documents").tag("outcome", "failed").counter().count());
+	}
+
+	@Test
+	void nonRetryableFailuresAreNotRetried() throws InterruptedException {
+		store.failNext(1, () -> new AgentException("INVALID_DOCUMENT", "mapping conflict", false));
+		try (IngestionPipeline pipeline = pipeline(10, 10_000_000, 1, 5)) {
+			submit(pipeline, 1, "text");
+
+			assertEquals(Set.of("doc-0"), pipeline.finish().failed());
+		}
+		assertEquals(0.0, registry.get("agentic.indexing.retries").counter().count());
+	}
+
+	@Test
+	void overloadedRetriesWaitTheirRetryAfter() throws InterruptedException {
+		store.failNext(1, () -> new AgentException("LLM_OVERLOADED", "saturated", true,
+				Map.of("retryAfterMs", 200L), null));
+		long start = System.nanoTime();
+		try (IngestionPipeline pipeline = pipeline(10, 10_000_000, 1, 2)) {
+			submit(pipeline, 1, "text");
+
+			assertEquals(1, pipeline.finish().upserted());
+		}
+		assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 200);
+	}
+
+	@Test
+	void deletesGoInBatchesAndReportWhatWasLeft() throws InterruptedException {
+		List<String> ids = List.of("a", "b", "c", "d", "e");
+		try (IngestionPipeline pipeline = pipeline(2, 10_000_000, 1, 1)) {
+			store.failNext(1, () -> new IllegalStateException("connection reset"));
+
+			Set<String> undeleted = pipeline.deleteAll(ids);
+
+			assertEquals(Set.of("a", "b"), undeleted);
+		}
+		assertEquals(List.of(List.of("c", "d"), List.of("e")), store.deleted);
+		assertEquals(3.0, registry.get("agentic.indexing.documents").tag("outcome", "deleted").counter().count());
+	}
+
+	@Test
+	void settingsBelowOneAreRejected() {
+		assertThrows(IllegalStateException.class, () -> pipeline(0, 10_000_000, 1, 1));
+	}
+
+	private IngestionPipeline pipeline(int batchSize, long maxBulkBytes, int parallelism, int maxAttempts) {
+		IngestionPipeline.Settings settings = new IngestionPipeline.Settings(batchSize, maxBulkBytes, parallelism,
+				maxAttempts, Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofSeconds(10));
+		return new IngestionPipeline(store, settings, 0, registry);
+	}
+
+	private static void submit(IngestionPipeline pipeline, int count, String text) throws InterruptedException {
+		for (int i = 0; i < count; i++) {
+			pipeline.submit(new Document("doc-" + i, text, Map.of()));
+		}
+	}
+
+	private List<Integer> batchSizes() {
+		List<Integer> sizes = new ArrayList<>();
+		store.added.forEach(batch -> sizes.add(batch.size()));
+		sizes.sort(null);
+		return sizes;
+	}
+}
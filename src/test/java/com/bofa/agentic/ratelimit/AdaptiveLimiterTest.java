@@ -0,0 +1,137 @@
+package com.bofa.agentic.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.bofa.agentic.exception.AgentException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AdaptiveLimiterTest {
+
+	private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	@AfterEach
+	void stopTimer() {
+		timer.shutdownNow();
+	}
+
+	@Test
+	void callsGiveTheirSlotBackWhateverTheyThrow() {
+		AdaptiveLimiter limiter = limiter(1, 1, Duration.ofSeconds(1), new TokenBudget(0));
+
+		assertThrows(StackOverflowError.class, () -> limiter.call(10, () -> {
+			throw new StackOverflowError();
+		}, result -> -1));
+		assertThrows(IllegalStateException.class, () -> limiter.call(10, () -> {
+			throw new IllegalStateException("model down");
+		}, result -> -1));
+
+		assertEquals(0, limiter.inFlight());
+		assertEquals("ok", limiter.call(10, () -> "ok", result -> -1));
+	}
+
+	@Test
+	void tokensAreSettledToWhatTheCallUsed() {
+		TokenBudget budget = new TokenBudget(60_000_000);
+		AdaptiveLimiter limiter = limiter(1, 1, Duration.ofSeconds(1), budget);
+
+		limiter.call(30_000_000, () -> "answer", result -> 10);
+
+		assertTrue(budget.available() > 59_000_000);
+	}
+
+	@Test
+	void waitersAreGrantedInOrder() throws Exception {
+		AdaptiveLimiter limiter = limiter(1, 2, Duration.ofSeconds(10), new TokenBudget(0));
+		AdaptiveLimiter.Permit first = limiter.acquire(0).get();
+		CompletableFuture<AdaptiveLimiter.Permit> second = limiter.acquire(0);
+		CompletableFuture<AdaptiveLimiter.Permit> third = limiter.acquire(0);
+		assertEquals(2, limiter.queued());
+
+		// Abandoning frees the slot without growing the limit
+		first.abandon();
+
+		assertTrue(second.isDone());
+		assertFalse(third.isDone());
+		second.get().abandon();
+		assertTrue(third.isDone());
+	}
+
+	@Test
+	void callsBeyondTheQueueFailFast() throws Exception {
+		AdaptiveLimiter limiter = limiter(1, 1, Duration.ofSeconds(10), new TokenBudget(0));
+		limiter.acquire(0).get();
+		limiter.acquire(0);
+
+		ExecutionException rejected = assertThrows(ExecutionException.class, () -> limiter.acquire(0).get());
+
+		assertEquals("LLM_OVERLOADED", ((AgentException) rejected.getCause()).getErrorCode());
+		assertEquals(1.0, registry.get("agentic.llm.limiter.rejected").tag("reason", "queue-full").counter().count());
+	}
+
+	@Test
+	void waitersGiveUpAfterMaxWait() throws Exception {
+		AdaptiveLimiter limiter = limiter(1, 1, Duration.ofMillis(20), new TokenBudget(0));
+		limiter.acquire(0).get();
+
+		ExecutionException expired = assertThrows(ExecutionException.class,
+				() -> limiter.acquire(0).get(10, TimeUnit.SECONDS));
+
+		assertEquals("LLM_OVERLOADED", ((AgentException) expired.getCause()).getErrorCode());
+		assertEquals(0, limiter.queued());
+	}
+
+	@Test
+	void cancelledWaitersLeaveTheQueue() throws Exception {
+		AdaptiveLimiter limiter = limiter(1, 1, Duration.ofSeconds(10), new TokenBudget(0));
+		AdaptiveLimiter.Permit held = limiter.acquire(0).get();
+
+		limiter.acquire(0).cancel(false);
+		held.success(-1);
+
+		assertEquals(0, limiter.queued());
+		assertEquals(0, limiter.inFlight());
+	}
+
+	@Test
+	void aRateLimitCutsTheLimitOncePerRound() throws Exception {
+		AdaptiveLimiter limiter = limiter(8, 4, Duration.ofSeconds(10), new TokenBudget(0));
+		AdaptiveLimiter.Permit first = limiter.acquire(0).get();
+		AdaptiveLimiter.Permit second = limiter.acquire(0).get();
+
+		first.failed(tooManyRequests());
+		second.failed(tooManyRequests());
+
+		assertEquals(4.0, limiter.limit());
+		assertEquals(2.0, registry.get("agentic.llm.limiter.throttled").counter().count());
+		assertEquals(0, limiter.inFlight());
+	}
+
+	private AdaptiveLimiter limiter(int initialLimit, int maxQueue, Duration maxWait, TokenBudget budget) {
+		AdaptiveLimiter.Settings settings = new AdaptiveLimiter.Settings(true, initialLimit, 1, 64, 0.5, maxQueue,
+				maxWait, Duration.ofMillis(1));
+		return new AdaptiveLimiter("chat", settings, budget, timer, registry);
+	}
+
+	private static WebClientResponseException tooManyRequests() {
+		HttpHeaders headers = new HttpHeaders();
+		headers.add("retry-after-ms", "0");
+		return WebClientResponseException.create(429, "Too Many Requests", headers, new byte[0], null);
+	}
+}
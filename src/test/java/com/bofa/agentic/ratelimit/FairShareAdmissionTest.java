@@ -0,0 +1,109 @@
+package com.bofa.agentic.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import com.bofa.agentic.exception.AgentException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class FairShareAdmissionTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	@Test
+	void aUserBeyondItsConcurrencyWaitsWithoutHoldingOthersBack() {
+		FairShareAdmission admission = admission(10, 1, 60, 0, "", 5000);
+		FairShareAdmission.Ticket first = admission.admit("alice").block();
+
+		AtomicReference<FairShareAdmission.Ticket> second = new AtomicReference<>();
+		admission.admit("alice").subscribe(second::set);
+		assertNull(second.get());
+		assertNotNull(admission.admit("bob").block());
+
+		first.release();
+		assertNotNull(second.get());
+	}
+
+	@Test
+	void queuedRequestsAreAdmittedByWeightedFairShare() {
+		FairShareAdmission admission = admission(1, 10, 60, 0, "oncall=2", 5000);
+		FairShareAdmission.Ticket running = admission.admit("holder").block();
+
+		List<String> order = new ArrayList<>();
+		List<FairShareAdmission.Ticket> tickets = new ArrayList<>();
+		for (String user : List.of("bot", "bot", "bot", "bot", "alice", "oncall")) {
+			admission.admit(user).subscribe(ticket -> {
+				order.add(user);
+				tickets.add(ticket);
+			});
+		}
+		running.release();
+		while (tickets.size() < 6) {
+			tickets.get(tickets.size() - 1).release();
+		}
+
+		// oncall and alice arrived last but are not stuck behind the bot's backlog
+		assertEquals(List.of("oncall", "bot", "alice", "bot", "bot", "bot"), order);
+	}
+
+	@Test
+	void requestQuotaIsRefusedWithRetryAfter() {
+		FairShareAdmission admission = admission(10, 10, 2, 0, "", 5000);
+		admission.admit("alice").block().release();
+		admission.admit("alice").block().release();
+
+		AgentException refused = assertThrows(AgentException.class, () -> admission.admit("alice").block());
+
+		assertEquals("USER_QUOTA_EXCEEDED", refused.getErrorCode());
+		assertEquals("requests", refused.getMetadata().get("reason"));
+		assertEquals(1.0, registry.get("agentic.admission.rejected").tag("reason", "requests").counter().count());
+	}
+
+	@Test
+	void usersInLlmTokenDebtAreRefused() {
+		FairShareAdmission admission = admission(10, 10, 60, 1000, "", 5000);
+		admission.charge("alice", 5000);
+
+		AgentException refused = assertThrows(AgentException.class, () -> admission.admit("alice").block());
+
+		assertEquals("llm-tokens", refused.getMetadata().get("reason"));
+		assertNotNull(admission.admit("bob").block());
+	}
+
+	@Test
+	void requestsNotAdmittedInTimeLeaveTheQueue() {
+		FairShareAdmission admission = admission(1, 1, 60, 0, "", 20);
+		admission.admit("alice").block();
+
+		AgentException timedOut = assertThrows(AgentException.class,
+				() -> admission.admit("bob").block(Duration.ofSeconds(10)));
+
+		assertEquals("ADMISSION_TIMEOUT", timedOut.getErrorCode());
+		assertEquals(0, admission.queued());
+		assertEquals(1, admission.active());
+	}
+
+	@Test
+	void blankUsersShareTheAnonymousQuota() {
+		FairShareAdmission admission = admission(10, 10, 1, 0, "", 5000);
+		admission.admit(null).block().release();
+
+		assertThrows(AgentException.class, () -> admission.admit(" ").block());
+	}
+
+	private FairShareAdmission admission(int maxConcurrent, int perUserMaxConcurrent, long requestsPerMinute,
+			long llmTokensPerMinute, String weights, long maxWaitMs) {
+		return new FairShareAdmission(registry, true, maxConcurrent, perUserMaxConcurrent, 20, maxWaitMs,
+				requestsPerMinute, llmTokensPerMinute, 1.0, weights, 100);
+	}
+}
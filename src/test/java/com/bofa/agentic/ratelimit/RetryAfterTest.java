@@ -0,0 +1,64 @@
+package com.bofa.agentic.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+class RetryAfterTest {
+
+	private static final Duration FALLBACK = Duration.ofSeconds(5);
+
+	@Test
+	void millisecondHeaderWins() {
+		assertEquals(Duration.ofMillis(1500), RetryAfter.of(webClient429("retry-after-ms", "1500"), FALLBACK));
+	}
+
+	@Test
+	void retryAfterIsSecondsOrADate() {
+		assertEquals(Duration.ofSeconds(2), RetryAfter.of(webClient429(HttpHeaders.RETRY_AFTER, "2"), FALLBACK));
+
+		String inTenSeconds = ZonedDateTime.now().plusSeconds(10).format(DateTimeFormatter.RFC_1123_DATE_TIME);
+		Duration untilDate = RetryAfter.of(webClient429(HttpHeaders.RETRY_AFTER, inTenSeconds), FALLBACK);
+		assertTrue(untilDate.compareTo(Duration.ofSeconds(8)) > 0 && untilDate.compareTo(Duration.ofSeconds(10)) <= 0);
+
+		assertEquals(FALLBACK, RetryAfter.of(webClient429(HttpHeaders.RETRY_AFTER, "soon"), FALLBACK));
+	}
+
+	@Test
+	void restClientAndSpringAiRateLimitsAreRecognised() {
+		HttpHeaders headers = new HttpHeaders();
+		headers.add(HttpHeaders.RETRY_AFTER, "3");
+		HttpClientErrorException restClient = HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS,
+				"Too Many Requests", headers, new byte[0], null);
+
+		assertEquals(Duration.ofSeconds(3), RetryAfter.of(restClient, FALLBACK));
+		assertEquals(FALLBACK, RetryAfter.of(new NonTransientAiException("HTTP 429 - Rate limit reached"), FALLBACK));
+		assertEquals(FALLBACK, RetryAfter.of(new IllegalStateException("wrapped",
+				webClient429("x-other", "1")), FALLBACK));
+	}
+
+	@Test
+	void otherFailuresAreNotRateLimits() {
+		assertNull(RetryAfter.of(new NonTransientAiException("HTTP 400 - bad request"), FALLBACK));
+		assertNull(RetryAfter.of(WebClientResponseException.create(500, "Server Error", new HttpHeaders(),
+				new byte[0], null), FALLBACK));
+		assertNull(RetryAfter.of(new IllegalStateException("HTTP 429"), FALLBACK));
+	}
+
+	private static WebClientResponseException webClient429(String header, String value) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.add(header, value);
+		return WebClientResponseException.create(429, "Too Many Requests", headers, new byte[0], null);
+	}
+}
@@ -0,0 +1,61 @@
+package com.bofa.agentic.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBudgetTest {
+
+	// 600 tokens per minute refills one token every 100 ms, too slow to matter here
+	private final TokenBudget budget = new TokenBudget(600);
+
+	@Test
+	void reservationsAreRefusedOnceTheBucketIsEmpty() {
+		assertTrue(budget.tryTake(400));
+		assertFalse(budget.tryTake(300));
+		assertTrue(budget.tryTake(200));
+	}
+
+	@Test
+	void settlingRefundsOrChargesTheDifference() {
+		budget.tryTake(500);
+
+		budget.settle(-400);
+		assertTrue(budget.available() >= 500);
+
+		budget.settle(900);
+		assertTrue(budget.available() < 0);
+		assertFalse(budget.tryTake(1));
+	}
+
+	@Test
+	void callsLargerThanTheBucketWaitForItToBeFull() {
+		assertTrue(budget.tryTake(1000));
+		assertTrue(budget.available() < 0);
+		// Needs the debt repaid and the bucket full again: over a minute
+		assertTrue(budget.nanosUntil(1000) > TimeUnit.MINUTES.toNanos(1));
+	}
+
+	@Test
+	void waitIsTheTimeToRefillTheMissingTokens() {
+		budget.tryTake(600);
+
+		long nanos = budget.nanosUntil(6);
+
+		assertTrue(nanos > TimeUnit.MILLISECONDS.toNanos(500) && nanos <= TimeUnit.MILLISECONDS.toNanos(600));
+		assertEquals(0, budget.nanosUntil(0));
+	}
+
+	@Test
+	void zeroMeansUnlimited() {
+		TokenBudget unlimited = new TokenBudget(0);
+
+		assertTrue(unlimited.isUnlimited());
+		assertTrue(unlimited.tryTake(Long.MAX_VALUE));
+		assertEquals(0, unlimited.nanosUntil(Long.MAX_VALUE));
+	}
+}
@@ -0,0 +1,125 @@
+package com.bofa.agentic.streaming;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.bofa.agentic.exception.AgentException;
+import com.bofa.agentic.guardrails.GuardrailResult;
+import com.bofa.agentic.guardrails.HallucinationGuard;
+import com.bofa.agentic.model.Deadline;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+
+class TokenStreamingServiceTest {
+
+	private final HallucinationGuard guard = mock(HallucinationGuard.class);
+	private final TokenStreamingService service = new TokenStreamingService(guard, new SimpleMeterRegistry(), true,
+			60_000);
+
+	TokenStreamingServiceTest() {
+		when(guard.screenPartial(any(), anyInt())).thenAnswer(call -> call.getArgument(0).toString()
+				.contains("password") ? GuardrailResult.block("credential in output") : GuardrailResult.allow(1.0));
+	}
+
+	@Test
+	void tokensAreForwardedAsTheyArriveAndReturnedWhole() {
+		ResponseStream stream = service.open("r1");
+
+		String text = service.collect("r1", Flux.just("Checkout ", "failed ", "at 10:02"), Deadline.none(),
+				"composer");
+		stream.complete(text);
+		service.close("r1");
+
+		assertEquals("Checkout failed at 10:02", text);
+		assertEquals(List.of(StreamEvent.token("Checkout "), StreamEvent.token("failed "),
+				StreamEvent.token("at 10:02")), stream.events().collectList().block());
+	}
+
+	@Test
+	void unsafeTokenCancelsUpstreamWithoutBeingForwarded() {
+		ResponseStream stream = service.open("r1");
+		AtomicBoolean cancelled = new AtomicBoolean();
+		AtomicInteger emitted = new AtomicInteger();
+		Flux<String> tokens = Flux.just("The ", "password ", "is ", "hunter2")
+				.doOnNext(token -> emitted.incrementAndGet())
+				.doOnCancel(() -> cancelled.set(true));
+
+		String text = service.collect("r1", tokens, Deadline.none(), "composer");
+		stream.fail(new AgentException("GUARDRAIL_BLOCKED", "unsafe", false), "Response withheld");
+
+		// The guard node sees the offending token and rejects the answer
+		assertEquals("The password ", text);
+		assertTrue(cancelled.get());
+		assertEquals(2, emitted.get());
+		List<StreamEvent> events = new ArrayList<>();
+		assertThrows(AgentException.class, () -> stream.events().doOnNext(events::add).blockLast());
+		assertEquals(List.of(StreamEvent.token("The "), StreamEvent.retract("Response withheld")), events);
+	}
+
+	@Test
+	void revisionIsStreamedOnlyAfterTheRejectedAnswerIsRetracted() {
+		ResponseStream stream = service.open("r1");
+
+		service.collect("r1", Flux.just("Restart ", "the pod"), Deadline.none(), "composer");
+		service.retract("r1", "Answer not grounded in evidence");
+		String revised = service.collect("r1", Flux.just("Roll back ", "v2.3"), Deadline.none(), "reflection");
+		stream.complete(revised);
+
+		assertEquals(List.of(StreamEvent.token("Restart "), StreamEvent.token("the pod"),
+				StreamEvent.retract("Answer not grounded in evidence"),
+				StreamEvent.token("Roll back "), StreamEvent.token("v2.3")), stream.events().collectList().block());
+	}
+
+	@Test
+	void completeReplacesAnAnswerThatWasNotStreamedAsIs() {
+		ResponseStream stream = new ResponseStream();
+		stream.retract("nothing shown yet");
+		stream.token("partial");
+
+		stream.complete("Resumed answer");
+
+		assertEquals(List.of(StreamEvent.token("partial"), StreamEvent.retract("Response replaced"),
+				StreamEvent.token("Resumed answer")), stream.events().collectList().block());
+	}
+
+	@Test
+	void failureIsSignalledAfterTheEventsBufferedBeforeIt() {
+		ResponseStream stream = new ResponseStream();
+		stream.token("Partial ");
+		AgentException failure = new AgentException("DEADLINE_EXCEEDED", "too slow", true);
+
+		stream.fail(failure, "Request timed out");
+
+		List<StreamEvent> events = new ArrayList<>();
+		AgentException error = assertThrows(AgentException.class,
+				() -> stream.events().doOnNext(events::add).blockLast());
+		assertSame(failure, error);
+		assertEquals(List.of(StreamEvent.token("Partial "), StreamEvent.retract("Request timed out")), events);
+	}
+
+	@Test
+	void nothingIsForwardedWhenStreamingIsDisabled() {
+		TokenStreamingService disabled = new TokenStreamingService(guard, new SimpleMeterRegistry(), false, 60_000);
+		ResponseStream stream = disabled.open("r1");
+
+		String text = disabled.collect("r1", Flux.just("a", "b"), Deadline.none(), "composer");
+		stream.complete(text);
+
+		// The whole response still reaches the client, in one token
+		assertEquals(List.of(StreamEvent.token("ab")), stream.events().collectList().block());
+	}
+}
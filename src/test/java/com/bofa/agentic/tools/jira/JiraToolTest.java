@@ -0,0 +1,43 @@
+package com.bofa.agentic.tools.jira;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+
+import com.bofa.agentic.executor.ExecutionResult;
+import com.bofa.agentic.model.Deadline;
+
+class JiraToolTest {
+
+	private final JiraClient jiraClient = mock(JiraClient.class);
+	private final JiraTool tool = new JiraTool(jiraClient);
+
+	@Test
+	void validKeysAreLookedUp() {
+		when(jiraClient.getIssue("ABC-123", Deadline.none())).thenReturn("{\"key\":\"ABC-123\"}");
+
+		ExecutionResult result = tool.execute(" ABC-123 ", Deadline.none());
+
+		assertTrue(result.isSuccess());
+		assertEquals("{\"key\":\"ABC-123\"}", result.getResponse());
+	}
+
+	@Test
+	void anythingElseNeverReachesJira() {
+		for (String input : new String[] { "../../myself", "ABC-1?expand=all", "abc-123", "ABC-123/comment", "" }) {
+			ExecutionResult result = tool.execute(input, Deadline.none());
+
+			assertFalse(result.isSuccess(), input);
+			assertTrue(result.isFailure(), input);
+		}
+		verify(jiraClient, never()).getIssue(anyString(), any());
+	}
+}